@@ -43,6 +43,8 @@ public class SecurityConfig {
                                 "/v3/api-docs/**",
                                 "/actuator/health"
                         ).permitAll()
+                        // Service-to-service endpoints; not routed by the API Gateway
+                        .requestMatchers("/internal/**").permitAll()
                         // All other requests require authentication
                         .anyRequest().authenticated()
                 )
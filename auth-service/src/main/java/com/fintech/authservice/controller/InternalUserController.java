@@ -0,0 +1,56 @@
+package com.fintech.authservice.controller;
+
+import com.fintech.authservice.controller.AuthController.UserLookupResponse;
+import com.fintech.authservice.dto.request.UserLookupBatchRequest;
+import com.fintech.authservice.dto.response.ErrorResponse;
+import com.fintech.authservice.service.AuthService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Endpoints for other services only.
+ * Lives under /internal, which the API Gateway does not route, so end users
+ * cannot reach it; services call Auth Service directly on the internal network.
+ */
+@RestController
+@RequestMapping("/internal/v1/users")
+@RequiredArgsConstructor
+@Tag(name = "Internal", description = "Service-to-service user lookups")
+public class InternalUserController {
+
+    private final AuthService authService;
+
+    @Operation(
+            summary = "Look up users by email in bulk",
+            description = "Returns user IDs for the given emails in one call; unknown emails are omitted"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Users found (possibly none)"),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "No emails or too many emails",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @PostMapping("/lookup")
+    public ResponseEntity<List<UserLookupResponse>> lookupUsersByEmail(
+            @Valid @RequestBody UserLookupBatchRequest request
+    ) {
+        return ResponseEntity.ok(authService.findUsersByEmails(request.emails()).stream()
+                .map(user -> new UserLookupResponse(user.getId(), user.getEmail()))
+                .toList());
+    }
+}
@@ -0,0 +1,15 @@
+package com.fintech.authservice.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(description = "Bulk user lookup request")
+public record UserLookupBatchRequest(
+        @Schema(description = "Emails to resolve", example = "[\"john@example.com\", \"jane@example.com\"]")
+        @NotEmpty(message = "At least one email is required")
+        @Size(max = 500, message = "At most 500 emails per lookup")
+        List<String> emails
+) {}
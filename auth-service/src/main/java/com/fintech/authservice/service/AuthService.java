@@ -183,5 +183,13 @@ public class AuthService {
     public java.util.Optional<User> findUserByEmail(String email) {
         return userRepository.findByEmail(email);
     }
+
+    /**
+     * Find users by email in one query (for internal service lookups).
+     * Unknown emails are simply missing from the result.
+     */
+    public java.util.List<User> findUsersByEmails(java.util.Collection<String> emails) {
+        return userRepository.findByEmailIn(emails);
+    }
 }
 
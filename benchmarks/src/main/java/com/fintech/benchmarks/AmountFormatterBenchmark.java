@@ -0,0 +1,34 @@
+package com.fintech.benchmarks;
+
+import com.fintech.walletservice.domain.Wallet;
+import com.fintech.walletservice.service.AmountFormatter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Notification amount formatting, once per amount and balance of every money movement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AmountFormatterBenchmark {
+
+    @Param({"5", "12345", "987654321"})
+    public long minorUnits;
+
+    @Benchmark
+    public String format() {
+        return AmountFormatter.format(minorUnits, Wallet.Currency.USD);
+    }
+
+    // The former WalletService.formatAmount, kept as a baseline
+    @Benchmark
+    public String stringFormatBaseline() {
+        double amount = minorUnits / 100.0;
+        return String.format("%s%.2f", "$", amount);
+    }
+}
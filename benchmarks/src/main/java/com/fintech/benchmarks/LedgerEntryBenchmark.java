@@ -0,0 +1,41 @@
+package com.fintech.benchmarks;
+
+import com.fintech.walletservice.domain.LedgerEntry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ledger entry construction, one or two per money movement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LedgerEntryBenchmark {
+
+    private UUID walletId;
+    private String idempotencyKey;
+
+    @Setup
+    public void setUp() {
+        walletId = UUID.randomUUID();
+        idempotencyKey = "deposit-" + UUID.randomUUID();
+    }
+
+    @Benchmark
+    public LedgerEntry builder() {
+        return LedgerEntry.builder()
+                .walletId(walletId)
+                .entryType(LedgerEntry.EntryType.CREDIT)
+                .amountMinorUnits(12_345L)
+                .balanceAfter(1_012_345L)
+                .transactionId(UUID.randomUUID())
+                .idempotencyKey(idempotencyKey)
+                .description("Deposit")
+                .build();
+    }
+}
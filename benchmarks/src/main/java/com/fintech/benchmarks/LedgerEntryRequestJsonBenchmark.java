@@ -0,0 +1,53 @@
+package com.fintech.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fintech.walletservice.client.dto.CreateLedgerEntryRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON encoding of the request replicated to Ledger Service for every ledger entry.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LedgerEntryRequestJsonBenchmark {
+
+    private ObjectMapper objectMapper;
+    private CreateLedgerEntryRequest request;
+
+    @Setup
+    public void setUp() {
+        // Same settings Spring Boot applies to the application's ObjectMapper
+        objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        request = CreateLedgerEntryRequest.builder()
+                .walletId(UUID.randomUUID())
+                .userId(UUID.randomUUID())
+                .entryType("CREDIT")
+                .transactionType("DEPOSIT")
+                .amountMinorUnits(12_345L)
+                .currency("USD")
+                .balanceAfter(1_012_345L)
+                .transactionId(UUID.randomUUID())
+                .idempotencyKey("deposit-" + UUID.randomUUID())
+                .description("Deposit")
+                .occurredAt(Instant.now())
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(request);
+    }
+}
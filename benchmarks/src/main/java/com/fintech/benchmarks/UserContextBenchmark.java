@@ -0,0 +1,53 @@
+package com.fintech.benchmarks;
+
+import com.fintech.walletservice.security.UserContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request user binding done by GatewayAuthenticationFilter (roles split) and the
+ * user id lookups the controllers and services make (UUID parse on every call).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UserContextBenchmark {
+
+    private String userId;
+
+    @Setup
+    public void setUp() {
+        userId = UUID.randomUUID().toString();
+        UserContext.setCurrentUser(userId, "john@example.com", "USER");
+    }
+
+    @TearDown
+    public void tearDown() {
+        UserContext.clear();
+    }
+
+    @Benchmark
+    public UUID getCurrentUserId() {
+        return UserContext.getCurrentUserId();
+    }
+
+    // What the filter does per request: parse headers, bind, read the id once, unbind
+    @Benchmark
+    public UUID bindAndReadPerRequest() {
+        try (UserContext.Scope ignored = UserContext.open(
+                UserContext.UserInfo.of(userId, "john@example.com", "USER,ADMIN"))) {
+            return UserContext.getCurrentUserId();
+        }
+    }
+
+    @Benchmark
+    public UUID setCurrentUser() {
+        UserContext.setCurrentUser(userId, "john@example.com", "USER,ADMIN");
+        return UserContext.getCurrentUserId();
+    }
+}
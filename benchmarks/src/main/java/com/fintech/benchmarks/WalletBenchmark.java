@@ -0,0 +1,66 @@
+package com.fintech.benchmarks;
+
+import com.fintech.walletservice.domain.Wallet;
+import com.fintech.walletservice.exception.WalletNotActiveException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wallet balance mutation and status checks, run on every deposit/withdrawal/transfer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WalletBenchmark {
+
+    private Wallet active;
+    private Wallet frozen;
+    private Long amount;
+
+    @Setup
+    public void setUp() {
+        active = wallet(Wallet.WalletStatus.ACTIVE);
+        frozen = wallet(Wallet.WalletStatus.FROZEN);
+        // Boxed like the service passes it, outside the Long cache
+        amount = Long.valueOf(12_345L);
+    }
+
+    @Benchmark
+    public long creditThenDebit() {
+        active.credit(amount);
+        active.debit(amount);
+        return active.getBalanceMinorUnits();
+    }
+
+    @Benchmark
+    public Wallet validateActive() {
+        active.validateActive();
+        return active;
+    }
+
+    // Rejected operations: message concatenation plus exception construction
+    @Benchmark
+    public Object validateFrozen() {
+        try {
+            frozen.validateActive();
+            return frozen;
+        } catch (WalletNotActiveException e) {
+            return e;
+        }
+    }
+
+    private static Wallet wallet(Wallet.WalletStatus status) {
+        return Wallet.builder()
+                .id(UUID.randomUUID())
+                .userId(UUID.randomUUID())
+                .currency(Wallet.Currency.USD)
+                .balanceMinorUnits(1_000_000L)
+                .status(status)
+                .build();
+    }
+}
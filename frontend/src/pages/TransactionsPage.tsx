@@ -30,12 +30,15 @@ const { Title, Text } = Typography;
 const { Option } = Select;
 const { RangePicker } = DatePicker;
 
+const PAGE_SIZE = 20;
+
 export default function TransactionsPage() {
   const [wallets, setWallets] = useState<Wallet[]>([]);
   const [selectedWalletId, setSelectedWalletId] = useState<string>('all');
   const [transactions, setTransactions] = useState<TransactionResponse[]>([]);
   const [loading, setLoading] = useState(true);
-  const [pagination, setPagination] = useState({ current: 1, pageSize: 20, total: 0 });
+  const [loadingMore, setLoadingMore] = useState(false);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
   const [filters, setFilters] = useState({
     type: 'all',
     search: '',
@@ -56,7 +59,7 @@ export default function TransactionsPage() {
 
   useEffect(() => {
     loadTransactions();
-  }, [selectedWalletId, pagination.current, filters]);
+  }, [selectedWalletId]);
 
   const loadWallets = async () => {
     try {
@@ -70,42 +73,46 @@ export default function TransactionsPage() {
     }
   };
 
-  const loadTransactions = async () => {
+  // First page on wallet change; "Load more" continues from nextCursor
+  const loadTransactions = async (cursor: string | null = null) => {
     if (selectedWalletId === 'all' && wallets.length === 0) {
       setLoading(false);
       return;
     }
 
-    setLoading(true);
+    const append = cursor !== null;
+    const setBusy = append ? setLoadingMore : setLoading;
+    setBusy(true);
     try {
       // For simplicity, load from first wallet or selected
       const walletId = selectedWalletId === 'all' ? wallets[0]?.id : selectedWalletId;
       if (!walletId) return;
 
-      const data = await walletService.getTransactions(walletId, pagination.current - 1, pagination.pageSize);
-      setTransactions(data.content || []);
-      setPagination((prev) => ({ ...prev, total: data.totalElements }));
+      const data = await walletService.getTransactions(walletId, cursor, PAGE_SIZE);
+      const loaded = append ? [...transactions, ...(data.content || [])] : data.content || [];
+      setTransactions(loaded);
+      setNextCursor(data.hasMore ? data.nextCursor : null);
 
-      // Calculate stats - backend uses entryType (CREDIT/DEBIT) not type
-      const credits = data.content?.filter((t: TransactionResponse) =>
+      // Calculate stats over the loaded entries - backend uses entryType (CREDIT/DEBIT) not type
+      const credits = loaded.filter((t: TransactionResponse) =>
         t.entryType === 'CREDIT' || t.type === 'DEPOSIT' || t.type === 'TRANSFER_IN'
-      ) || [];
-      const debits = data.content?.filter((t: TransactionResponse) =>
+      );
+      const debits = loaded.filter((t: TransactionResponse) =>
         t.entryType === 'DEBIT' || t.type === 'WITHDRAWAL' || t.type === 'TRANSFER_OUT'
-      ) || [];
+      );
 
       setStats({
         totalDeposits: credits.reduce((sum: number, t: TransactionResponse) => sum + (t.amount ?? t.amountMinorUnits ?? 0), 0),
         totalWithdrawals: debits.reduce((sum: number, t: TransactionResponse) => sum + (t.amount ?? t.amountMinorUnits ?? 0), 0),
-        totalTransfers: data.content?.filter((t: TransactionResponse) =>
+        totalTransfers: loaded.filter((t: TransactionResponse) =>
           t.type === 'TRANSFER_IN' || t.type === 'TRANSFER_OUT'
-        ).length || 0,
-        transactionCount: data.totalElements || 0,
+        ).length,
+        transactionCount: loaded.length,
       });
     } catch (error) {
       console.error('Failed to load transactions');
     } finally {
-      setLoading(false);
+      setBusy(false);
     }
   };
 
@@ -255,7 +262,7 @@ export default function TransactionsPage() {
         <Col xs={24} sm={12} md={6}>
           <Card>
             <Statistic
-              title="Total Transactions"
+              title={nextCursor ? 'Transactions Loaded' : 'Total Transactions'}
               value={stats.transactionCount}
               prefix={<HistoryOutlined />}
             />
@@ -365,14 +372,14 @@ export default function TransactionsPage() {
                 loading={loading}
                 scroll={{ x: 800 }}
                 size="small"
-                pagination={{
-                  ...pagination,
-                  showSizeChanger: false,
-                  size: 'small',
-                  showTotal: (total) => `${total} transactions`,
-                  onChange: (page, pageSize) => setPagination({ ...pagination, current: page, pageSize }),
-                  style: { marginRight: 16, marginBottom: 16 }
-                }}
+                pagination={false}
+                footer={nextCursor ? () => (
+                  <div style={{ textAlign: 'center' }}>
+                    <Button loading={loadingMore} onClick={() => loadTransactions(nextCursor)}>
+                      Load more
+                    </Button>
+                  </div>
+                ) : undefined}
               />
             )}
           </Card>
@@ -1,5 +1,5 @@
 import api from './api';
-import { Wallet, CreateWalletRequest, TransactionRequest, TransactionResponse, TransferRequest, SavedRecipient, RecentTransfer } from '../types';
+import { Wallet, CreateWalletRequest, TransactionRequest, TransactionResponse, TransactionHistoryPage, TransferRequest, SavedRecipient, RecentTransfer } from '../types';
 
 // Local storage keys
 const SAVED_RECIPIENTS_KEY = 'dws_saved_recipients';
@@ -57,14 +57,10 @@ export const walletService = {
     return response.data;
   },
 
-  // Get transaction history
-  async getTransactions(walletId: string, page = 0, size = 20): Promise<{
-    content: TransactionResponse[];
-    totalElements: number;
-    totalPages: number;
-  }> {
-    const response = await api.get(`/wallets/${walletId}/transactions`, {
-      params: { page, size },
+  // Get transaction history; pass the previous page's nextCursor to continue
+  async getTransactions(walletId: string, cursor?: string | null, size = 20): Promise<TransactionHistoryPage> {
+    const response = await api.get<TransactionHistoryPage>(`/wallets/${walletId}/transactions`, {
+      params: { cursor: cursor ?? undefined, size },
     });
     return response.data;
   },
@@ -106,6 +106,13 @@ export interface TransactionResponse {
   createdAt: string;
 }
 
+// One page of transaction history (cursor-based, most recent first)
+export interface TransactionHistoryPage {
+  content: TransactionResponse[];
+  nextCursor: string | null;  // Pass back as `cursor` for the next page
+  hasMore: boolean;
+}
+
 // Currency utility
 export const CURRENCIES: Record<string, { symbol: string; name: string; decimals: number }> = {
   USD: { symbol: '$', name: 'US Dollar', decimals: 2 },
@@ -0,0 +1,12 @@
+package com.fintech.ledgerservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (balance checkpoints, ledger partitions).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
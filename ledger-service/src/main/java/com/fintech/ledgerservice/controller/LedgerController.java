@@ -1,10 +1,15 @@
 package com.fintech.ledgerservice.controller;
 
 import com.fintech.ledgerservice.domain.LedgerEntry;
+import com.fintech.ledgerservice.dto.request.CreateLedgerEntriesBatchRequest;
 import com.fintech.ledgerservice.dto.request.CreateLedgerEntryRequest;
 import com.fintech.ledgerservice.dto.response.BalanceResponse;
+import com.fintech.ledgerservice.dto.response.BatchLedgerEntryResponse;
+import com.fintech.ledgerservice.dto.response.DigestNode;
 import com.fintech.ledgerservice.dto.response.ErrorResponse;
 import com.fintech.ledgerservice.dto.response.LedgerEntryResponse;
+import com.fintech.ledgerservice.service.LedgerDigestService;
+import com.fintech.ledgerservice.service.LedgerPartitionManager;
 import com.fintech.ledgerservice.service.LedgerService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -23,6 +28,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Instant;
+import java.time.YearMonth;
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 
@@ -33,6 +40,8 @@ import java.util.UUID;
 public class LedgerController {
 
     private final LedgerService ledgerService;
+    private final LedgerDigestService digestService;
+    private final LedgerPartitionManager partitionManager;
 
     // ==================== Internal API (called by other services) ====================
 
@@ -54,6 +63,79 @@ public class LedgerController {
                 .body(LedgerEntryResponse.from(entry));
     }
 
+    @Operation(
+            summary = "Create ledger entries in batch",
+            description = "Creates up to 1000 entries in one transaction. Entries whose idempotency key " +
+                    "already exists are reported as ALREADY_EXISTS. Used by the Wallet Service outbox relay."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Batch processed"),
+            @ApiResponse(responseCode = "400", description = "Validation error"),
+            @ApiResponse(responseCode = "409", description = "Concurrent insert of the same key, retry")
+    })
+    @PostMapping("/entries/batch")
+    public ResponseEntity<BatchLedgerEntryResponse> createEntries(
+            @Valid @RequestBody CreateLedgerEntriesBatchRequest request
+    ) {
+        return ResponseEntity.ok(ledgerService.createEntries(request.entries()));
+    }
+
+    // ==================== Replication Digests (called by Wallet Service) ====================
+
+    // Default lower bound of the digests: the whole history
+    private static final String EPOCH = "1970-01-01T00:00:00Z";
+
+    @Operation(
+            summary = "Digest of a wallet id range",
+            description = "Root of the replication Merkle tree for wallets in [from, to], over entries " +
+                    "that occurred in [since, upTo), bucketed by bucketSeconds."
+    )
+    @GetMapping("/digests/range")
+    public ResponseEntity<DigestNode> digestRange(
+            @RequestParam UUID from,
+            @RequestParam UUID to,
+            @RequestParam(defaultValue = EPOCH) Instant since,
+            @RequestParam Instant upTo,
+            @RequestParam long bucketSeconds
+    ) {
+        return ResponseEntity.ok(digestService.digestRange(from, to, since, upTo, bucketSeconds));
+    }
+
+    @Operation(summary = "Per-wallet digests of a wallet id range")
+    @GetMapping("/digests/wallets")
+    public ResponseEntity<List<DigestNode>> digestWallets(
+            @RequestParam UUID from,
+            @RequestParam UUID to,
+            @RequestParam(defaultValue = EPOCH) Instant since,
+            @RequestParam Instant upTo,
+            @RequestParam long bucketSeconds
+    ) {
+        return ResponseEntity.ok(digestService.digestWallets(from, to, since, upTo, bucketSeconds));
+    }
+
+    @Operation(summary = "Per-time-bucket digests of a wallet")
+    @GetMapping("/digests/wallets/{walletId}/buckets")
+    public ResponseEntity<List<DigestNode>> digestBuckets(
+            @PathVariable UUID walletId,
+            @RequestParam(defaultValue = EPOCH) Instant since,
+            @RequestParam Instant upTo,
+            @RequestParam long bucketSeconds
+    ) {
+        return ResponseEntity.ok(digestService.digestBuckets(walletId, since, upTo, bucketSeconds));
+    }
+
+    @Operation(summary = "Entry hashes of one time bucket of a wallet")
+    @GetMapping("/digests/wallets/{walletId}/buckets/{bucket}/entries")
+    public ResponseEntity<List<DigestNode>> digestEntries(
+            @PathVariable UUID walletId,
+            @PathVariable long bucket,
+            @RequestParam(defaultValue = EPOCH) Instant since,
+            @RequestParam Instant upTo,
+            @RequestParam long bucketSeconds
+    ) {
+        return ResponseEntity.ok(digestService.digestEntries(walletId, bucket, since, upTo, bucketSeconds));
+    }
+
     // ==================== Query API ====================
 
     @Operation(summary = "Get ledger entry by ID")
@@ -123,5 +205,36 @@ public class LedgerController {
         boolean exists = ledgerService.existsByIdempotencyKey(key);
         return ResponseEntity.ok(exists);
     }
+
+    // ==================== Partitions (admin) ====================
+
+    @Operation(summary = "List monthly ledger partitions")
+    @GetMapping("/partitions")
+    public ResponseEntity<List<LedgerPartitionManager.PartitionInfo>> listPartitions() {
+        return ResponseEntity.ok(partitionManager.listPartitions());
+    }
+
+    @Operation(
+            summary = "Detach a month for archiving",
+            description = "Detaches the partition of one month older than ledger.partitions.retention-months. " +
+                    "Its per-wallet totals stay in wallet balances; its entries leave history queries " +
+                    "and replication digests. Wallet Service's ledger-reconciliation history must not reach back that far."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Partition detached"),
+            @ApiResponse(responseCode = "403", description = "Caller is not an admin"),
+            @ApiResponse(responseCode = "409", description = "Month is retained, or has no partition",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @PostMapping("/partitions/{month}/detach")
+    public ResponseEntity<LedgerPartitionManager.DetachResult> detachPartition(
+            @Parameter(description = "Month to detach, e.g. 2024-01") @PathVariable YearMonth month,
+            @RequestHeader(value = "X-User-Roles", required = false) String roles
+    ) {
+        if (roles == null || !Arrays.asList(roles.split(",")).contains("ADMIN")) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(partitionManager.detach(month));
+    }
 }
 
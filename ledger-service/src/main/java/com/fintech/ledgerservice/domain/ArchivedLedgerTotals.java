@@ -0,0 +1,41 @@
+package com.fintech.ledgerservice.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * What one wallet's entries in detached ledger partitions add up to.
+ *
+ * Written in the transaction that detaches a partition, so full-history sums
+ * (archived totals + live entries) stay the same before and after an archive.
+ */
+@Entity
+@Table(name = "archived_ledger_totals")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedLedgerTotals {
+
+    @Id
+    private UUID walletId;
+
+    /**
+     * Signed sum of the archived entries (CREDIT - DEBIT).
+     */
+    @Column(nullable = false)
+    private Long balanceMinorUnits;
+
+    @Column(nullable = false)
+    private Long entryCount;
+
+    /**
+     * End of the newest partition folded in.
+     */
+    @Column(nullable = false)
+    private Instant archivedUpTo;
+}
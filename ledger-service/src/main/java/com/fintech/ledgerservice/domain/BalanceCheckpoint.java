@@ -0,0 +1,58 @@
+package com.fintech.ledgerservice.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Running ledger total of one wallet up to a watermark.
+ *
+ * Covers every entry ordered at or before (lastEntryCreatedAt, lastEntryId), so a
+ * wallet's balance is balanceMinorUnits + SUM(entries after the watermark) instead
+ * of a scan of its whole history. Advanced and periodically recounted by
+ * BalanceCheckpointJob.
+ */
+@Entity
+@Table(name = "balance_checkpoints")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BalanceCheckpoint {
+
+    @Id
+    private UUID walletId;
+
+    /**
+     * Watermark: the newest entry folded into this checkpoint.
+     */
+    @Column(nullable = false)
+    private Instant lastEntryCreatedAt;
+
+    @Column(nullable = false)
+    private UUID lastEntryId;
+
+    /**
+     * Signed sum of the covered entries (CREDIT - DEBIT).
+     */
+    @Column(nullable = false)
+    private Long balanceMinorUnits;
+
+    /**
+     * Number of covered entries.
+     */
+    @Column(nullable = false)
+    private Long entryCount;
+
+    /**
+     * Last time the checkpoint was recounted from the full history.
+     */
+    @Column(nullable = false)
+    private Instant verifiedAt;
+
+    @Version
+    private Long version;
+}
@@ -15,13 +15,19 @@ import java.util.UUID;
  * Double-entry principle:
  * - Every transfer creates TWO entries (DEBIT from source, CREDIT to destination)
  * - Both entries share the same transactionId
+ *
+ * In production the table is range-partitioned by createdAt, one partition per month
+ * (see scripts/ledger-partitioning.sql and LedgerPartitionManager). Postgres only
+ * enforces uniqueness per partition unless the key includes createdAt, so idempotency
+ * keys are unique in ledger_idempotency_keys instead (see LedgerIdempotencyKey).
  */
 @Entity
 @Table(name = "ledger_entries", indexes = {
         @Index(name = "idx_ledger_wallet", columnList = "walletId"),
         @Index(name = "idx_ledger_transaction", columnList = "transactionId"),
         @Index(name = "idx_ledger_created", columnList = "createdAt"),
-        @Index(name = "idx_ledger_idempotency", columnList = "idempotencyKey", unique = true)
+        @Index(name = "idx_ledger_wallet_created_id", columnList = "walletId, createdAt, id"),
+        @Index(name = "idx_ledger_idempotency", columnList = "idempotencyKey")
 })
 @Getter
 @NoArgsConstructor
@@ -90,8 +96,8 @@ public class LedgerEntry {
 
     /**
      * Ensures idempotency - prevents duplicate processing.
+     * Unique through ledger_idempotency_keys.
      */
-    @Column(unique = true)
     private String idempotencyKey;
 
     /**
@@ -111,6 +117,15 @@ public class LedgerEntry {
     @Builder.Default
     private Instant createdAt = Instant.now();
 
+    /**
+     * When the originating service recorded the entry (Wallet Service's created_at).
+     * Replication digests bucket entries by this time, so both sides agree on the
+     * bucket however late the entry arrived. Null for entries replicated before it existed,
+     * until Wallet Service sends them again (LedgerService backfills it on replay).
+     */
+    @Column(updatable = false)
+    private Instant occurredAt;
+
     // ======= Enums =======
 
     public enum EntryType {
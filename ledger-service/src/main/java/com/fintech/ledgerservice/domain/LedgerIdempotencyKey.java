@@ -0,0 +1,65 @@
+package com.fintech.ledgerservice.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The idempotency key of a ledger entry, unique across all ledger_entries partitions.
+ *
+ * Written in the same transaction as its entry; a concurrent duplicate fails on the
+ * primary key. Keys of entries in detached partitions are kept, so an archived entry
+ * replayed by Wallet Service is still recognised. entryCreatedAt lets a lookup go
+ * straight to the entry's partition. Entries written before this table existed get
+ * their row from scripts/ledger-partitioning.sql or, on an unpartitioned ledger, when
+ * LedgerService first sees their key again.
+ */
+@Entity
+@Table(name = "ledger_idempotency_keys")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerIdempotencyKey implements Persistable<String> {
+
+    @Id
+    private String idempotencyKey;
+
+    @Column(nullable = false)
+    private UUID entryId;
+
+    @Column(nullable = false, updatable = false)
+    private Instant entryCreatedAt;
+
+    // Keys are only ever inserted; this spares save() a SELECT before each INSERT
+    @Transient
+    @Builder.Default
+    private boolean inserted = true;
+
+    public static LedgerIdempotencyKey of(LedgerEntry entry) {
+        return LedgerIdempotencyKey.builder()
+                .idempotencyKey(entry.getIdempotencyKey())
+                .entryId(entry.getId())
+                .entryCreatedAt(entry.getCreatedAt())
+                .build();
+    }
+
+    @Override
+    public String getId() {
+        return idempotencyKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return inserted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        inserted = false;
+    }
+}
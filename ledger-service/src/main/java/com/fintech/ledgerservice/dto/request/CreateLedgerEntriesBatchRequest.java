@@ -0,0 +1,16 @@
+package com.fintech.ledgerservice.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(description = "Request to create many ledger entries in one call")
+public record CreateLedgerEntriesBatchRequest(
+        @Schema(description = "Entries to record (idempotent per idempotency key)")
+        @NotEmpty(message = "At least one entry is required")
+        @Size(max = 1000, message = "A batch may contain at most 1000 entries")
+        List<@Valid CreateLedgerEntryRequest> entries
+) {}
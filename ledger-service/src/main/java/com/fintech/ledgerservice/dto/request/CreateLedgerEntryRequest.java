@@ -6,6 +6,7 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
+import java.time.Instant;
 import java.util.UUID;
 
 @Schema(description = "Request to create a ledger entry")
@@ -54,6 +55,9 @@ public record CreateLedgerEntryRequest(
         String description,
 
         @Schema(description = "External reference (e.g., payment provider ID)")
-        String externalReference
+        String externalReference,
+
+        @Schema(description = "When the originating service recorded the entry")
+        Instant occurredAt
 ) {}
 
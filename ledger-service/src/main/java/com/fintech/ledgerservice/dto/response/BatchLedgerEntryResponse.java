@@ -0,0 +1,35 @@
+package com.fintech.ledgerservice.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.UUID;
+
+@Schema(description = "Per-item results of a batch ingest")
+public record BatchLedgerEntryResponse(
+        @Schema(description = "Number of entries created by this call")
+        int createdCount,
+
+        @Schema(description = "Number of entries that already existed")
+        int existingCount,
+
+        @Schema(description = "Result for each requested entry, in request order")
+        List<ItemResult> results
+) {
+    public enum ItemStatus {
+        CREATED,
+        ALREADY_EXISTS
+    }
+
+    @Schema(description = "Result for a single entry")
+    public record ItemResult(
+            @Schema(description = "Idempotency key of the requested entry")
+            String idempotencyKey,
+
+            @Schema(description = "Ledger entry ID")
+            UUID entryId,
+
+            @Schema(description = "CREATED or ALREADY_EXISTS")
+            ItemStatus status
+    ) {}
+}
@@ -0,0 +1,23 @@
+package com.fintech.ledgerservice.dto.response;
+
+import com.fintech.ledgerservice.repository.DigestRow;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Node of the replication digest tree (range, wallet, time bucket or entry)")
+public record DigestNode(
+        @Schema(description = "Wallet ID, bucket number or idempotency key; null for a range")
+        String key,
+
+        @Schema(description = "MD5 over the node's children, or the entry hash for a leaf")
+        String digest,
+
+        @Schema(description = "Number of children (wallets, buckets or entries)")
+        long children,
+
+        @Schema(description = "Number of ledger entries under the node")
+        long entries
+) {
+    public static DigestNode from(DigestRow row) {
+        return new DigestNode(row.getKey(), row.getDigest(), row.getChildren(), row.getEntries());
+    }
+}
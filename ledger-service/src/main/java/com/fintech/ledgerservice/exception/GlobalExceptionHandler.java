@@ -2,6 +2,7 @@ package com.fintech.ledgerservice.exception;
 
 import com.fintech.ledgerservice.dto.response.ErrorResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -31,6 +32,26 @@ public class GlobalExceptionHandler {
                 .body(ErrorResponse.of("DUPLICATE_ENTRY", ex.getMessage()));
     }
 
+    @ExceptionHandler(PartitionNotDetachableException.class)
+    public ResponseEntity<ErrorResponse> handleNotDetachable(PartitionNotDetachableException ex) {
+        log.warn("Ledger partition not detached: {}", ex.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(ErrorResponse.of("PARTITION_NOT_DETACHABLE", ex.getMessage()));
+    }
+
+    /**
+     * A concurrent request inserted the same idempotency key first.
+     * The caller retries and gets the existing entry back.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponse> handleIntegrityViolation(DataIntegrityViolationException ex) {
+        log.warn("Ledger insert conflicted with a concurrent write: {}", ex.getMostSpecificCause().getMessage());
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(ErrorResponse.of("DUPLICATE_ENTRY", "Entry was created concurrently, retry the request"));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidation(MethodArgumentNotValidException ex) {
         String errors = ex.getBindingResult().getFieldErrors().stream()
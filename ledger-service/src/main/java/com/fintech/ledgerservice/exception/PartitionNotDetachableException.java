@@ -0,0 +1,7 @@
+package com.fintech.ledgerservice.exception;
+
+public class PartitionNotDetachableException extends RuntimeException {
+    public PartitionNotDetachableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,119 @@
+package com.fintech.ledgerservice.job;
+
+import com.fintech.ledgerservice.repository.BalanceCheckpointRepository;
+import com.fintech.ledgerservice.repository.LedgerEntryRepository;
+import com.fintech.ledgerservice.service.BalanceCheckpointService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keeps per-wallet balance checkpoints close to the head of the ledger.
+ *
+ * Each run advances the checkpoints of wallets that got entries since the previous
+ * run, up to "now - safety lag", then recounts a batch of checkpoints that have not
+ * been verified for a while. The first run after startup resumes from the newest
+ * checkpointed entry, so only an empty checkpoint table means a scan of the whole ledger.
+ * (A wallet whose advance failed in the last run before a restart may be skipped until
+ * its next entry; its checkpoint only lags, and balances stay exact.)
+ *
+ * Wallet Service runs a copy of this job over its own ledger_entries: the services share
+ * no code module and each owns its database. The copies differ only in where they read
+ * entries from (this ledger is partitioned and also folds in archived totals) and in
+ * their property prefix; fix bugs in both.
+ */
+@Component
+@Slf4j
+public class BalanceCheckpointJob {
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final BalanceCheckpointRepository checkpointRepository;
+    private final BalanceCheckpointService checkpointService;
+    private final Duration safetyLag;
+    private final Duration verifyInterval;
+    private final int verifyBatchSize;
+
+    // Entries created up to here are already folded into checkpoints (null until the first run)
+    private Instant scannedUpTo;
+
+    public BalanceCheckpointJob(
+            LedgerEntryRepository ledgerEntryRepository,
+            BalanceCheckpointRepository checkpointRepository,
+            BalanceCheckpointService checkpointService,
+            @Value("${ledger.checkpoint.safety-lag-seconds:300}") long safetyLagSeconds,
+            @Value("${ledger.checkpoint.verify-interval-hours:24}") long verifyIntervalHours,
+            @Value("${ledger.checkpoint.verify-batch-size:500}") int verifyBatchSize
+    ) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.checkpointService = checkpointService;
+        this.safetyLag = Duration.ofSeconds(safetyLagSeconds);
+        this.verifyInterval = Duration.ofHours(verifyIntervalHours);
+        this.verifyBatchSize = verifyBatchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.checkpoint.interval-ms:300000}",
+               initialDelayString = "${ledger.checkpoint.initial-delay-ms:60000}")
+    public void refreshCheckpoints() {
+        long startTime = System.currentTimeMillis();
+        Instant now = Instant.now();
+
+        int advanced = advanceCheckpoints(now.minus(safetyLag));
+        int drifted = verifyCheckpoints(now.minus(verifyInterval));
+
+        if (advanced > 0 || drifted > 0) {
+            log.info("Balance checkpoints: {} advanced, {} repaired. Duration: {}ms",
+                    advanced, drifted, System.currentTimeMillis() - startTime);
+        }
+    }
+
+    private int advanceCheckpoints(Instant horizon) {
+        Instant from = scannedUpTo != null
+                ? scannedUpTo
+                : checkpointRepository.findNewestWatermark().orElse(Instant.EPOCH);
+        List<UUID> walletIds = ledgerEntryRepository.findWalletIdsWithEntriesBetween(from, horizon);
+
+        int advanced = 0;
+        boolean complete = true;
+        for (UUID walletId : walletIds) {
+            try {
+                if (checkpointService.advance(walletId, horizon)) {
+                    advanced++;
+                }
+            } catch (Exception e) {
+                // Keep the window open so the wallet is picked up again next run
+                complete = false;
+                log.warn("Could not advance balance checkpoint of wallet {}: {}", walletId, e.getMessage());
+            }
+        }
+
+        if (complete) {
+            scannedUpTo = horizon;
+        }
+        return advanced;
+    }
+
+    private int verifyCheckpoints(Instant verifiedBefore) {
+        List<UUID> walletIds = checkpointRepository.findWalletIdsVerifiedBefore(
+                verifiedBefore, PageRequest.of(0, verifyBatchSize));
+
+        int drifted = 0;
+        for (UUID walletId : walletIds) {
+            try {
+                if (!checkpointService.verify(walletId)) {
+                    drifted++;
+                }
+            } catch (Exception e) {
+                log.warn("Could not verify balance checkpoint of wallet {}: {}", walletId, e.getMessage());
+            }
+        }
+        return drifted;
+    }
+}
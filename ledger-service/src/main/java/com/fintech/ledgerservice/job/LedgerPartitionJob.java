@@ -0,0 +1,34 @@
+package com.fintech.ledgerservice.job;
+
+import com.fintech.ledgerservice.service.LedgerPartitionManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps ledger_entries partitions created ahead of time, so entries never fall into
+ * the default partition. Runs at startup and then hourly; creating a partition that
+ * already exists is skipped.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerPartitionJob {
+
+    private final LedgerPartitionManager partitionManager;
+
+    @Scheduled(fixedDelayString = "${ledger.partitions.check-interval-ms:3600000}",
+               initialDelayString = "${ledger.partitions.initial-delay-ms:0}")
+    public void ensurePartitions() {
+        try {
+            int created = partitionManager.ensureFuturePartitions();
+            if (created > 0) {
+                log.info("Created {} ledger partitions", created);
+            }
+        } catch (Exception e) {
+            // Partitions exist months ahead; the next run tries again
+            log.warn("Ledger partition maintenance failed: {}", e.getMessage());
+        }
+    }
+}
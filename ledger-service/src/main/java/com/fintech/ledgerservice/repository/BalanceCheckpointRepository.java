@@ -0,0 +1,24 @@
+package com.fintech.ledgerservice.repository;
+
+import com.fintech.ledgerservice.domain.BalanceCheckpoint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpoint, UUID> {
+
+    // Oldest verification first
+    @Query("SELECT c.walletId FROM BalanceCheckpoint c WHERE c.verifiedAt < :before ORDER BY c.verifiedAt")
+    List<UUID> findWalletIdsVerifiedBefore(Instant before, Pageable pageable);
+
+    // Newest entry folded into any checkpoint; where BalanceCheckpointJob resumes after a restart
+    @Query("SELECT MAX(c.lastEntryCreatedAt) FROM BalanceCheckpoint c")
+    Optional<Instant> findNewestWatermark();
+}
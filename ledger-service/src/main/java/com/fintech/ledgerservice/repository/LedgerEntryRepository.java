@@ -4,10 +4,12 @@ import com.fintech.ledgerservice.domain.LedgerEntry;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -31,20 +33,124 @@ public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, UUID>
     List<LedgerEntry> findByTransactionId(UUID transactionId);
 
     // ==================== Idempotency ====================
+    // Keys are unique in ledger_idempotency_keys, which also gives the entry's createdAt
 
-    boolean existsByIdempotencyKey(String idempotencyKey);
+    /**
+     * Entry lookup restricted to one partition.
+     */
+    Optional<LedgerEntry> findByIdAndCreatedAt(UUID id, Instant createdAt);
+
+    // Entries written before ledger_idempotency_keys existed, found by their own column
+    Optional<LedgerEntry> findFirstByIdempotencyKey(String idempotencyKey);
+
+    List<LedgerEntry> findByIdempotencyKeyIn(Collection<String> idempotencyKeys);
 
-    Optional<LedgerEntry> findByIdempotencyKey(String idempotencyKey);
+    // ==================== Balance Checkpoints ====================
+    // Entries are ordered by (created_at, id); the range queries below walk
+    // idx_ledger_wallet_created_id from a checkpoint watermark.
 
-    // ==================== Balance Calculation ====================
+    String SUM_ENTRIES =
+            "SELECT CAST(COALESCE(SUM(CASE WHEN entry_type = 'CREDIT' THEN amount_minor_units " +
+            "ELSE -amount_minor_units END), 0) AS BIGINT) AS balance, COUNT(*) AS count " +
+            "FROM {h-schema}ledger_entries WHERE wallet_id = :walletId ";
 
     /**
-     * Calculate balance from ledger entries.
-     * CREDIT adds, DEBIT subtracts.
+     * Newest entry at or before the checkpoint horizon.
      */
-    @Query("SELECT COALESCE(SUM(CASE WHEN e.entryType = 'CREDIT' THEN e.amountMinorUnits " +
-           "ELSE -e.amountMinorUnits END), 0) FROM LedgerEntry e WHERE e.walletId = :walletId")
-    Long calculateBalanceByWalletId(UUID walletId);
+    Optional<LedgerEntry> findFirstByWalletIdAndCreatedAtLessThanEqualOrderByCreatedAtDescIdDesc(
+            UUID walletId, Instant horizon);
+
+    // Full-history sums add what detached partitions held (see ArchivedLedgerTotals). One
+    // statement reads both, so a partition detached meanwhile is counted exactly once.
+    String WITH_ARCHIVED_PREFIX =
+            "SELECT CAST(COALESCE(a.balance_minor_units, 0) + e.balance AS BIGINT) AS balance, " +
+            "COALESCE(a.entry_count, 0) + e.count AS count FROM (";
+
+    String WITH_ARCHIVED_SUFFIX =
+            ") e LEFT JOIN {h-schema}archived_ledger_totals a ON a.wallet_id = :walletId";
+
+    /**
+     * Balance and entry count of a wallet's whole history.
+     */
+    @Query(value = WITH_ARCHIVED_PREFIX + SUM_ENTRIES + WITH_ARCHIVED_SUFFIX, nativeQuery = true)
+    LedgerTotals sumAllEntries(UUID walletId);
+
+    @Query(value = WITH_ARCHIVED_PREFIX + SUM_ENTRIES + "AND (created_at, id) <= (:upToCreatedAt, :upToId)" +
+                   WITH_ARCHIVED_SUFFIX,
+           nativeQuery = true)
+    LedgerTotals sumEntriesUpTo(UUID walletId, Instant upToCreatedAt, UUID upToId);
+
+    @Query(value = SUM_ENTRIES + "AND (created_at, id) > (:afterCreatedAt, :afterId)", nativeQuery = true)
+    LedgerTotals sumEntriesAfter(UUID walletId, Instant afterCreatedAt, UUID afterId);
+
+    @Query(value = SUM_ENTRIES +
+                   "AND (created_at, id) > (:afterCreatedAt, :afterId) " +
+                   "AND (created_at, id) <= (:upToCreatedAt, :upToId)",
+           nativeQuery = true)
+    LedgerTotals sumEntriesBetween(UUID walletId, Instant afterCreatedAt, UUID afterId,
+                                   Instant upToCreatedAt, UUID upToId);
+
+    @Query(value = "SELECT DISTINCT wallet_id FROM {h-schema}ledger_entries " +
+                   "WHERE created_at > :from AND created_at <= :to",
+           nativeQuery = true)
+    List<UUID> findWalletIdsWithEntriesBetween(Instant from, Instant to);
+
+    // ==================== Replication Digests ====================
+    // Merkle tree over the replicated ledger: wallet id range -> wallet -> time bucket -> entry.
+    // Hashes and ordering must stay byte-for-byte identical to wallet-service's
+    // LedgerEntryRepository, otherwise every node differs. Entries before :since are left
+    // out on both sides, so archived partitions are not reported as missing.
+
+    String DIGEST_LEAVES =
+            "leaves AS (SELECT wallet_id, idempotency_key, " +
+            "CAST(FLOOR(EXTRACT(EPOCH FROM COALESCE(occurred_at, created_at)) / :bucketSeconds) AS BIGINT) AS bucket, " +
+            "md5(idempotency_key || ':' || entry_type || ':' || amount_minor_units || ':' || " +
+            "balance_after || ':' || transaction_id) AS hash " +
+            "FROM {h-schema}ledger_entries " +
+            "WHERE COALESCE(occurred_at, created_at) >= :since AND COALESCE(occurred_at, created_at) < :upTo ";
+
+    String DIGEST_BUCKETS =
+            "buckets AS (SELECT wallet_id, bucket, md5(string_agg(hash, '' ORDER BY hash)) AS digest, " +
+            "COUNT(*) AS entries FROM leaves GROUP BY wallet_id, bucket) ";
+
+    String DIGEST_WALLETS =
+            "wallets AS (SELECT wallet_id, md5(string_agg(bucket || '=' || digest, ',' ORDER BY bucket)) AS digest, " +
+            "COUNT(*) AS children, CAST(SUM(entries) AS BIGINT) AS entries FROM buckets GROUP BY wallet_id) ";
+
+    @Query(value = "WITH " + DIGEST_LEAVES + "AND wallet_id BETWEEN :from AND :to), " +
+                   DIGEST_BUCKETS + ", " + DIGEST_WALLETS +
+                   "SELECT md5(COALESCE(string_agg(wallet_id || '=' || digest, ',' ORDER BY wallet_id), '')) AS digest, " +
+                   "COUNT(*) AS children, CAST(COALESCE(SUM(entries), 0) AS BIGINT) AS entries FROM wallets",
+           nativeQuery = true)
+    DigestRow digestRange(UUID from, UUID to, Instant since, Instant upTo, long bucketSeconds);
+
+    @Query(value = "WITH " + DIGEST_LEAVES + "AND wallet_id BETWEEN :from AND :to), " +
+                   DIGEST_BUCKETS + ", " + DIGEST_WALLETS +
+                   "SELECT CAST(wallet_id AS TEXT) AS key, digest, children, entries FROM wallets ORDER BY wallet_id",
+           nativeQuery = true)
+    List<DigestRow> digestWallets(UUID from, UUID to, Instant since, Instant upTo, long bucketSeconds);
+
+    @Query(value = "WITH " + DIGEST_LEAVES + "AND wallet_id = :walletId), " + DIGEST_BUCKETS +
+                   "SELECT CAST(bucket AS TEXT) AS key, digest, entries AS children, entries " +
+                   "FROM buckets ORDER BY bucket",
+           nativeQuery = true)
+    List<DigestRow> digestBuckets(UUID walletId, Instant since, Instant upTo, long bucketSeconds);
+
+    @Query(value = "WITH " + DIGEST_LEAVES + "AND wallet_id = :walletId) " +
+                   "SELECT idempotency_key AS key, hash AS digest, CAST(0 AS BIGINT) AS children, " +
+                   "CAST(1 AS BIGINT) AS entries FROM leaves WHERE bucket = :bucket ORDER BY idempotency_key",
+           nativeQuery = true)
+    List<DigestRow> digestEntries(UUID walletId, long bucket, Instant since, Instant upTo, long bucketSeconds);
+
+    /**
+     * Fill in occurred_at of an entry replicated before the column existed, so the
+     * digests bucket it by Wallet Service's time. Never changes a value that is set.
+     */
+    @Modifying
+    @Query(value = "UPDATE {h-schema}ledger_entries SET occurred_at = :occurredAt " +
+                   "WHERE id = :id AND created_at = :createdAt AND occurred_at IS NULL",
+           nativeQuery = true)
+    int backfillOccurredAt(UUID id, Instant createdAt, Instant occurredAt);
 
     // ==================== Reporting ====================
 
@@ -53,8 +159,5 @@ public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, UUID>
            "AND e.createdAt BETWEEN :startDate AND :endDate " +
            "GROUP BY e.transactionType")
     List<Object[]> getTransactionSummaryByWallet(UUID walletId, Instant startDate, Instant endDate);
-
-    @Query("SELECT COUNT(e) FROM LedgerEntry e WHERE e.walletId = :walletId")
-    long countByWalletId(UUID walletId);
 }
 
@@ -0,0 +1,9 @@
+package com.fintech.ledgerservice.repository;
+
+import com.fintech.ledgerservice.domain.LedgerIdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LedgerIdempotencyKeyRepository extends JpaRepository<LedgerIdempotencyKey, String> {
+}
@@ -0,0 +1,11 @@
+package com.fintech.ledgerservice.repository;
+
+/**
+ * Signed sum (CREDIT - DEBIT) and count of a range of ledger entries.
+ */
+public interface LedgerTotals {
+
+    Long getBalance();
+
+    Long getCount();
+}
@@ -0,0 +1,132 @@
+package com.fintech.ledgerservice.service;
+
+import com.fintech.ledgerservice.domain.BalanceCheckpoint;
+import com.fintech.ledgerservice.domain.LedgerEntry;
+import com.fintech.ledgerservice.repository.BalanceCheckpointRepository;
+import com.fintech.ledgerservice.repository.LedgerEntryRepository;
+import com.fintech.ledgerservice.repository.LedgerTotals;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Wallet balances from per-wallet checkpoints.
+ *
+ * A checkpoint only moves up to a horizon that lags behind "now" (see
+ * BalanceCheckpointJob): an entry's createdAt is taken before its transaction
+ * commits, so entries younger than the lag may still appear behind the watermark.
+ * Anything that slips past anyway is caught by {@link #verify}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BalanceCheckpointService {
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final BalanceCheckpointRepository checkpointRepository;
+
+    /**
+     * Balance and entry count of a wallet: checkpoint + entries after its watermark.
+     * Wallets without a checkpoint yet are summed in full, archived partitions included.
+     */
+    @Transactional(readOnly = true)
+    public Totals totals(UUID walletId) {
+        Optional<BalanceCheckpoint> checkpoint = checkpointRepository.findById(walletId);
+        if (checkpoint.isEmpty()) {
+            LedgerTotals all = ledgerEntryRepository.sumAllEntries(walletId);
+            return new Totals(all.getBalance(), all.getCount());
+        }
+
+        BalanceCheckpoint cp = checkpoint.get();
+        LedgerTotals recent = ledgerEntryRepository.sumEntriesAfter(
+                walletId, cp.getLastEntryCreatedAt(), cp.getLastEntryId());
+        return new Totals(
+                cp.getBalanceMinorUnits() + recent.getBalance(),
+                cp.getEntryCount() + recent.getCount()
+        );
+    }
+
+    /**
+     * Move a wallet's checkpoint up to its newest entry created at or before {@code horizon}.
+     * The first checkpoint of a wallet is built from a full count and counts as verified.
+     *
+     * @return true if the checkpoint was created or moved
+     */
+    @Transactional
+    public boolean advance(UUID walletId, Instant horizon) {
+        Optional<LedgerEntry> newest = ledgerEntryRepository
+                .findFirstByWalletIdAndCreatedAtLessThanEqualOrderByCreatedAtDescIdDesc(walletId, horizon);
+        if (newest.isEmpty()) {
+            return false;
+        }
+        LedgerEntry upTo = newest.get();
+
+        Optional<BalanceCheckpoint> existing = checkpointRepository.findById(walletId);
+        if (existing.isEmpty()) {
+            LedgerTotals totals = ledgerEntryRepository.sumEntriesUpTo(
+                    walletId, upTo.getCreatedAt(), upTo.getId());
+            checkpointRepository.save(BalanceCheckpoint.builder()
+                    .walletId(walletId)
+                    .lastEntryCreatedAt(upTo.getCreatedAt())
+                    .lastEntryId(upTo.getId())
+                    .balanceMinorUnits(totals.getBalance())
+                    .entryCount(totals.getCount())
+                    .verifiedAt(Instant.now())
+                    .build());
+            return true;
+        }
+
+        BalanceCheckpoint checkpoint = existing.get();
+        if (checkpoint.getLastEntryId().equals(upTo.getId())) {
+            return false;
+        }
+
+        LedgerTotals delta = ledgerEntryRepository.sumEntriesBetween(walletId,
+                checkpoint.getLastEntryCreatedAt(), checkpoint.getLastEntryId(),
+                upTo.getCreatedAt(), upTo.getId());
+
+        checkpoint.setBalanceMinorUnits(checkpoint.getBalanceMinorUnits() + delta.getBalance());
+        checkpoint.setEntryCount(checkpoint.getEntryCount() + delta.getCount());
+        checkpoint.setLastEntryCreatedAt(upTo.getCreatedAt());
+        checkpoint.setLastEntryId(upTo.getId());
+        return true;
+    }
+
+    /**
+     * Recount a checkpoint from the full history (archived totals + live entries)
+     * and repair it if it drifted.
+     *
+     * @return true if the checkpoint matched the ledger
+     */
+    @Transactional
+    public boolean verify(UUID walletId) {
+        Optional<BalanceCheckpoint> existing = checkpointRepository.findById(walletId);
+        if (existing.isEmpty()) {
+            return true;
+        }
+
+        BalanceCheckpoint checkpoint = existing.get();
+        LedgerTotals actual = ledgerEntryRepository.sumEntriesUpTo(
+                walletId, checkpoint.getLastEntryCreatedAt(), checkpoint.getLastEntryId());
+
+        boolean matches = actual.getBalance().equals(checkpoint.getBalanceMinorUnits())
+                && actual.getCount().equals(checkpoint.getEntryCount());
+        if (!matches) {
+            log.error("Balance checkpoint of wallet {} drifted: checkpoint={} ({} entries), ledger={} ({} entries). Rebuilt.",
+                    walletId, checkpoint.getBalanceMinorUnits(), checkpoint.getEntryCount(),
+                    actual.getBalance(), actual.getCount());
+            checkpoint.setBalanceMinorUnits(actual.getBalance());
+            checkpoint.setEntryCount(actual.getCount());
+        }
+
+        checkpoint.setVerifiedAt(Instant.now());
+        return matches;
+    }
+
+    public record Totals(long balanceMinorUnits, long entryCount) {}
+}
@@ -0,0 +1,56 @@
+package com.fintech.ledgerservice.service;
+
+import com.fintech.ledgerservice.dto.response.DigestNode;
+import com.fintech.ledgerservice.repository.DigestRow;
+import com.fintech.ledgerservice.repository.LedgerEntryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Merkle digests of the ledger for cross-service reconciliation.
+ *
+ * Wallet Service computes the same tree over its own ledger_entries and walks
+ * down from the range roots, fetching only the nodes whose digests differ.
+ * Entries are bucketed by occurredAt, which is Wallet Service's created_at, and only
+ * those in [since, upTo) are included, so both sides hash the same snapshot. Entries
+ * replicated before occurredAt existed fall back to createdAt and land in other buckets;
+ * the reconciler sends them again, and the replay backfills their occurredAt.
+ */
+@Service
+@RequiredArgsConstructor
+public class LedgerDigestService {
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+
+    @Transactional(readOnly = true)
+    public DigestNode digestRange(UUID from, UUID to, Instant since, Instant upTo, long bucketSeconds) {
+        DigestRow row = ledgerEntryRepository.digestRange(from, to, since, upTo, bucketSeconds);
+        return new DigestNode(null, row.getDigest(), row.getChildren(), row.getEntries());
+    }
+
+    @Transactional(readOnly = true)
+    public List<DigestNode> digestWallets(UUID from, UUID to, Instant since, Instant upTo, long bucketSeconds) {
+        return ledgerEntryRepository.digestWallets(from, to, since, upTo, bucketSeconds).stream()
+                .map(DigestNode::from)
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public List<DigestNode> digestBuckets(UUID walletId, Instant since, Instant upTo, long bucketSeconds) {
+        return ledgerEntryRepository.digestBuckets(walletId, since, upTo, bucketSeconds).stream()
+                .map(DigestNode::from)
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public List<DigestNode> digestEntries(UUID walletId, long bucket, Instant since, Instant upTo, long bucketSeconds) {
+        return ledgerEntryRepository.digestEntries(walletId, bucket, since, upTo, bucketSeconds).stream()
+                .map(DigestNode::from)
+                .toList();
+    }
+}
@@ -0,0 +1,207 @@
+package com.fintech.ledgerservice.service;
+
+import com.fintech.ledgerservice.exception.PartitionNotDetachableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Monthly range partitions of ledger_entries.
+ *
+ * The table is converted once by scripts/ledger-partitioning.sql; until then (and in
+ * tests, where Hibernate creates a plain table) every method here is a no-op.
+ *
+ * - Partitions are named ledger_entries_YYYY_MM and cover one UTC month of createdAt.
+ *   The current month and the next {@code premake-months} always exist; a
+ *   ledger_entries_default partition catches anything else.
+ * - A month older than {@code retention-months} can be detached for archiving. Its
+ *   per-wallet totals are folded into archived_ledger_totals in the same transaction,
+ *   so balances and checkpoint recounts do not change. The detached table stays in the
+ *   schema until it is dumped and dropped by hand.
+ *
+ * DDL cannot take bind parameters, so table names are concatenated into it. They are
+ * built from a YearMonth, and the schema is checked to be a plain identifier.
+ */
+@Service
+@Slf4j
+public class LedgerPartitionManager {
+
+    static final String TABLE = "ledger_entries";
+    static final String DEFAULT_PARTITION = TABLE + "_default";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String schema;
+    private final int premakeMonths;
+    private final int retentionMonths;
+
+    public LedgerPartitionManager(
+            JdbcTemplate jdbcTemplate,
+            @Value("${spring.jpa.properties.hibernate.default_schema:}") String schema,
+            @Value("${ledger.partitions.premake-months:3}") int premakeMonths,
+            @Value("${ledger.partitions.retention-months:24}") int retentionMonths
+    ) {
+        if (premakeMonths < 1 || retentionMonths < 1) {
+            throw new IllegalArgumentException("ledger.partitions months must be positive");
+        }
+        if (schema != null && !schema.isBlank() && !IDENTIFIER.matcher(schema).matches()) {
+            throw new IllegalArgumentException("Schema name is not a plain identifier: " + schema);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.schema = schema == null || schema.isBlank() ? null : schema;
+        this.premakeMonths = premakeMonths;
+        this.retentionMonths = retentionMonths;
+    }
+
+    public boolean isPartitioned() {
+        Boolean partitioned = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt " +
+                "JOIN pg_class c ON c.oid = pt.partrelid JOIN pg_namespace n ON n.oid = c.relnamespace " +
+                "WHERE c.relname = ? AND n.nspname = COALESCE(?, current_schema()))",
+                Boolean.class, TABLE, schema);
+        return Boolean.TRUE.equals(partitioned);
+    }
+
+    /**
+     * Create the missing partitions from this month to {@code premake-months} ahead.
+     *
+     * @return partitions created
+     */
+    public int ensureFuturePartitions() {
+        if (!isPartitioned()) {
+            return 0;
+        }
+
+        List<String> existing = listPartitions().stream().map(PartitionInfo::name).toList();
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        int created = 0;
+        for (int i = 0; i <= premakeMonths; i++) {
+            YearMonth month = current.plusMonths(i);
+            String name = partitionName(month);
+            if (existing.contains(name)) {
+                continue;
+            }
+            try {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + qualified(name) +
+                        " PARTITION OF " + qualified(TABLE) +
+                        " FOR VALUES FROM ('" + start(month) + "') TO ('" + start(month.plusMonths(1)) + "')");
+                log.info("Created ledger partition {}", name);
+                created++;
+            } catch (DataAccessException e) {
+                // Another replica may have created it; otherwise the default partition
+                // holds rows of that month and they must be moved by hand
+                if (!listPartitions().stream().map(PartitionInfo::name).toList().contains(name)) {
+                    log.error("Could not create ledger partition {}: {}", name, e.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Attached partitions, oldest first; the default partition has no month.
+     */
+    public List<PartitionInfo> listPartitions() {
+        return jdbcTemplate.query(
+                "SELECT c.relname AS name, GREATEST(c.reltuples, 0) AS estimated_rows, " +
+                "pg_total_relation_size(c.oid) AS total_bytes " +
+                "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "JOIN pg_class p ON p.oid = i.inhparent JOIN pg_namespace n ON n.oid = p.relnamespace " +
+                "WHERE p.relname = ? AND n.nspname = COALESCE(?, current_schema()) " +
+                "ORDER BY c.relname",
+                (rs, row) -> new PartitionInfo(
+                        rs.getString("name"),
+                        month(rs.getString("name")),
+                        rs.getLong("estimated_rows"),
+                        rs.getLong("total_bytes")),
+                TABLE, schema);
+    }
+
+    /**
+     * Detach one month for archiving.
+     *
+     * @throws PartitionNotDetachableException if the table is not partitioned, the
+     *         month is within the retention window, or it has no partition
+     */
+    @Transactional
+    public DetachResult detach(YearMonth month) {
+        if (!isPartitioned()) {
+            throw new PartitionNotDetachableException(TABLE + " is not partitioned");
+        }
+        YearMonth oldestKept = YearMonth.now(ZoneOffset.UTC).minusMonths(retentionMonths);
+        if (!month.isBefore(oldestKept)) {
+            throw new PartitionNotDetachableException(
+                    "Months from " + oldestKept + " on are kept (ledger.partitions.retention-months=" + retentionMonths + ")");
+        }
+        String name = partitionName(month);
+        if (listPartitions().stream().noneMatch(partition -> partition.name().equals(name))) {
+            throw new PartitionNotDetachableException("No attached partition for " + month);
+        }
+
+        // No entry is created in a month this old, so the totals cannot change before the detach
+        Instant archivedUpTo = month.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        int wallets = jdbcTemplate.update(
+                "INSERT INTO " + qualified("archived_ledger_totals") +
+                " (wallet_id, balance_minor_units, entry_count, archived_up_to) " +
+                "SELECT wallet_id, SUM(CASE WHEN entry_type = 'CREDIT' THEN amount_minor_units " +
+                "ELSE -amount_minor_units END), COUNT(*), ? FROM " + qualified(name) + " GROUP BY wallet_id " +
+                "ON CONFLICT (wallet_id) DO UPDATE SET " +
+                "balance_minor_units = archived_ledger_totals.balance_minor_units + EXCLUDED.balance_minor_units, " +
+                "entry_count = archived_ledger_totals.entry_count + EXCLUDED.entry_count, " +
+                "archived_up_to = GREATEST(archived_ledger_totals.archived_up_to, EXCLUDED.archived_up_to)",
+                Timestamp.from(archivedUpTo));
+        jdbcTemplate.execute("ALTER TABLE " + qualified(TABLE) + " DETACH PARTITION " + qualified(name));
+
+        log.warn("Detached ledger partition {} ({} wallets folded into archived totals)", name, wallets);
+        return new DetachResult(name, month, wallets);
+    }
+
+    /**
+     * @param month          null for the default partition
+     * @param estimatedRows  planner estimate; 0 until the partition is analyzed
+     */
+    public record PartitionInfo(String name, YearMonth month, long estimatedRows, long totalBytes) {}
+
+    /**
+     * @param wallets wallets whose archived totals were updated
+     */
+    public record DetachResult(String partition, YearMonth month, int wallets) {}
+
+    // ==================== Helpers ====================
+
+    static String partitionName(YearMonth month) {
+        return TABLE + "_" + month.format(SUFFIX);
+    }
+
+    static YearMonth month(String partitionName) {
+        if (Objects.equals(partitionName, DEFAULT_PARTITION)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partitionName.substring(TABLE.length() + 1), SUFFIX);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String start(YearMonth month) {
+        return month.atDay(1) + " 00:00:00+00";
+    }
+
+    private String qualified(String name) {
+        return schema == null ? name : schema + "." + name;
+    }
+}
@@ -1,11 +1,16 @@
 package com.fintech.ledgerservice.service;
 
 import com.fintech.ledgerservice.domain.LedgerEntry;
+import com.fintech.ledgerservice.domain.LedgerIdempotencyKey;
 import com.fintech.ledgerservice.dto.request.CreateLedgerEntryRequest;
 import com.fintech.ledgerservice.dto.response.BalanceResponse;
+import com.fintech.ledgerservice.dto.response.BatchLedgerEntryResponse;
+import com.fintech.ledgerservice.dto.response.BatchLedgerEntryResponse.ItemResult;
+import com.fintech.ledgerservice.dto.response.BatchLedgerEntryResponse.ItemStatus;
 import com.fintech.ledgerservice.exception.DuplicateLedgerEntryException;
 import com.fintech.ledgerservice.exception.LedgerEntryNotFoundException;
 import com.fintech.ledgerservice.repository.LedgerEntryRepository;
+import com.fintech.ledgerservice.repository.LedgerIdempotencyKeyRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -14,9 +19,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -24,42 +33,101 @@ import java.util.UUID;
 public class LedgerService {
 
     private final LedgerEntryRepository ledgerEntryRepository;
+    private final LedgerIdempotencyKeyRepository idempotencyKeyRepository;
+    private final BalanceCheckpointService checkpointService;
+    private final LedgerPartitionManager partitionManager;
+
+    // Unknown until first needed; the table is only partitioned while the service is down
+    private volatile Boolean legacyKeysPossible;
 
     /**
      * Create a new ledger entry.
      * IDEMPOTENT: Same idempotencyKey returns existing entry.
+     *
+     * @throws DuplicateLedgerEntryException if the existing entry has been archived
      */
     @Transactional
     public LedgerEntry createEntry(CreateLedgerEntryRequest request) {
         // Check idempotency
-        Optional<LedgerEntry> existing = ledgerEntryRepository
-                .findByIdempotencyKey(request.idempotencyKey());
+        Optional<LedgerIdempotencyKey> existing = idempotencyKeyRepository.findById(request.idempotencyKey())
+                .or(() -> adoptLegacyKeys(List.of(request.idempotencyKey())).stream().findFirst());
 
         if (existing.isPresent()) {
             log.info("Returning existing entry for idempotency key: {}", request.idempotencyKey());
-            return existing.get();
+            backfillOccurredAt(existing.get(), request);
+            return ledgerEntryRepository.findByIdAndCreatedAt(
+                            existing.get().getEntryId(), existing.get().getEntryCreatedAt())
+                    .orElseThrow(() -> new DuplicateLedgerEntryException(
+                            "Entry for idempotency key " + request.idempotencyKey() + " is archived"));
         }
 
-        LedgerEntry entry = LedgerEntry.builder()
-                .walletId(request.walletId())
-                .userId(request.userId())
-                .entryType(request.entryType())
-                .transactionType(request.transactionType())
-                .amountMinorUnits(request.amountMinorUnits())
-                .currency(request.currency())
-                .balanceAfter(request.balanceAfter())
-                .transactionId(request.transactionId())
-                .counterpartyWalletId(request.counterpartyWalletId())
-                .idempotencyKey(request.idempotencyKey())
-                .description(request.description())
-                .externalReference(request.externalReference())
-                .build();
+        LedgerEntry entry = toEntry(request);
 
         LedgerEntry saved = ledgerEntryRepository.save(entry);
+        idempotencyKeyRepository.save(LedgerIdempotencyKey.of(saved));
         log.info("Created ledger entry {} for wallet {}", saved.getId(), saved.getWalletId());
         return saved;
     }
 
+    /**
+     * Create many ledger entries in one transaction.
+     * IDEMPOTENT: existing keys are found with a single IN query and reported as
+     * ALREADY_EXISTS; new entries are inserted with JDBC batching.
+     */
+    @Transactional
+    public BatchLedgerEntryResponse createEntries(List<CreateLedgerEntryRequest> requests) {
+        List<String> keys = requests.stream()
+                .map(CreateLedgerEntryRequest::idempotencyKey)
+                .distinct()
+                .toList();
+
+        // Keys seen before, including keys of archived entries
+        Map<String, LedgerIdempotencyKey> seen = idempotencyKeyRepository.findAllById(keys).stream()
+                .collect(Collectors.toMap(LedgerIdempotencyKey::getIdempotencyKey, key -> key,
+                        (a, b) -> a, LinkedHashMap::new));
+        List<String> unknown = keys.stream().filter(key -> !seen.containsKey(key)).toList();
+        adoptLegacyKeys(unknown).forEach(key -> seen.put(key.getIdempotencyKey(), key));
+
+        Map<String, UUID> existing = new LinkedHashMap<>();
+        for (CreateLedgerEntryRequest request : requests) {
+            LedgerIdempotencyKey key = seen.get(request.idempotencyKey());
+            if (key != null && existing.putIfAbsent(key.getIdempotencyKey(), key.getEntryId()) == null) {
+                backfillOccurredAt(key, request);
+            }
+        }
+
+        // Keys repeated inside the batch are only inserted once
+        Map<String, LedgerEntry> toCreate = new LinkedHashMap<>();
+        for (CreateLedgerEntryRequest request : requests) {
+            if (!existing.containsKey(request.idempotencyKey())) {
+                toCreate.putIfAbsent(request.idempotencyKey(), toEntry(request));
+            }
+        }
+
+        ledgerEntryRepository.saveAll(toCreate.values());
+        idempotencyKeyRepository.saveAll(toCreate.values().stream().map(LedgerIdempotencyKey::of).toList());
+
+        List<ItemResult> results = new ArrayList<>(requests.size());
+        int createdCount = 0;
+        for (CreateLedgerEntryRequest request : requests) {
+            String key = request.idempotencyKey();
+            // remove() so a key repeated later in the batch reports ALREADY_EXISTS
+            LedgerEntry created = toCreate.remove(key);
+            if (created != null) {
+                createdCount++;
+                existing.put(key, created.getId());
+                results.add(new ItemResult(key, created.getId(), ItemStatus.CREATED));
+            } else {
+                results.add(new ItemResult(key, existing.get(key), ItemStatus.ALREADY_EXISTS));
+            }
+        }
+
+        log.info("Batch ingest: {} entries requested, {} created, {} already existed",
+                requests.size(), createdCount, requests.size() - createdCount);
+
+        return new BatchLedgerEntryResponse(createdCount, requests.size() - createdCount, results);
+    }
+
     /**
      * Get entry by ID.
      */
@@ -107,16 +175,16 @@ public class LedgerService {
     /**
      * Calculate balance from ledger entries.
      * This is the "source of truth" - should match wallet balance.
+     * Reads the wallet's checkpoint plus the entries after it, not the whole history.
      */
     @Transactional(readOnly = true)
     public BalanceResponse calculateBalance(UUID walletId) {
-        Long balance = ledgerEntryRepository.calculateBalanceByWalletId(walletId);
-        long txCount = ledgerEntryRepository.countByWalletId(walletId);
+        BalanceCheckpointService.Totals totals = checkpointService.totals(walletId);
 
         return new BalanceResponse(
                 walletId,
-                balance,
-                txCount,
+                totals.balanceMinorUnits(),
+                totals.entryCount(),
                 Instant.now()
         );
     }
@@ -126,7 +194,68 @@ public class LedgerService {
      */
     @Transactional(readOnly = true)
     public boolean existsByIdempotencyKey(String idempotencyKey) {
-        return ledgerEntryRepository.existsByIdempotencyKey(idempotencyKey);
+        return idempotencyKeyRepository.existsById(idempotencyKey)
+                || (legacyKeysPossible() && ledgerEntryRepository.findFirstByIdempotencyKey(idempotencyKey).isPresent());
+    }
+
+    /**
+     * A replay carries Wallet Service's time; entries replicated before occurred_at
+     * existed take it, which is how the replication reconciler repairs their buckets.
+     */
+    private void backfillOccurredAt(LedgerIdempotencyKey key, CreateLedgerEntryRequest request) {
+        if (request.occurredAt() != null
+                && ledgerEntryRepository.backfillOccurredAt(key.getEntryId(), key.getEntryCreatedAt(), request.occurredAt()) > 0) {
+            log.info("Backfilled occurred_at of ledger entry {}", key.getEntryId());
+        }
+    }
+
+    /**
+     * Key rows for entries written before ledger_idempotency_keys existed. Only
+     * scripts/ledger-partitioning.sql backfills that table, so on an unpartitioned
+     * ledger such entries are looked up through ledger_entries' own idempotency_key
+     * index, and their key rows are written in the caller's transaction.
+     *
+     * @return key rows of the given keys that belong to legacy entries
+     */
+    private List<LedgerIdempotencyKey> adoptLegacyKeys(List<String> keys) {
+        if (keys.isEmpty() || !legacyKeysPossible()) {
+            return List.of();
+        }
+        List<LedgerIdempotencyKey> adopted = ledgerEntryRepository.findByIdempotencyKeyIn(keys).stream()
+                .map(LedgerIdempotencyKey::of)
+                .toList();
+        if (!adopted.isEmpty()) {
+            log.info("Adopting {} idempotency keys of entries written before the key table", adopted.size());
+            idempotencyKeyRepository.saveAll(adopted);
+        }
+        return adopted;
+    }
+
+    private boolean legacyKeysPossible() {
+        Boolean possible = legacyKeysPossible;
+        if (possible == null) {
+            possible = !partitionManager.isPartitioned();
+            legacyKeysPossible = possible;
+        }
+        return possible;
+    }
+
+    private LedgerEntry toEntry(CreateLedgerEntryRequest request) {
+        return LedgerEntry.builder()
+                .walletId(request.walletId())
+                .userId(request.userId())
+                .entryType(request.entryType())
+                .transactionType(request.transactionType())
+                .amountMinorUnits(request.amountMinorUnits())
+                .currency(request.currency())
+                .balanceAfter(request.balanceAfter())
+                .transactionId(request.transactionId())
+                .counterpartyWalletId(request.counterpartyWalletId())
+                .idempotencyKey(request.idempotencyKey())
+                .description(request.description())
+                .externalReference(request.externalReference())
+                .occurredAt(request.occurredAt())
+                .build();
     }
 }
 
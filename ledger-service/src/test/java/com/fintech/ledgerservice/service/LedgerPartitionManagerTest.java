@@ -0,0 +1,136 @@
+package com.fintech.ledgerservice.service;
+
+import com.fintech.ledgerservice.exception.PartitionNotDetachableException;
+import com.fintech.ledgerservice.service.LedgerPartitionManager.DetachResult;
+import com.fintech.ledgerservice.service.LedgerPartitionManager.PartitionInfo;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LedgerPartitionManagerTest {
+
+    private static final int RETENTION_MONTHS = 24;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final LedgerPartitionManager manager = new LedgerPartitionManager(jdbcTemplate, "ledger", 3, RETENTION_MONTHS);
+
+    private final YearMonth current = YearMonth.now(ZoneOffset.UTC);
+    private final YearMonth expired = current.minusMonths(RETENTION_MONTHS + 1);
+
+    @Test
+    void shouldParsePartitionNames() {
+        assertThat(LedgerPartitionManager.partitionName(YearMonth.of(2026, 3))).isEqualTo("ledger_entries_2026_03");
+        assertThat(LedgerPartitionManager.month("ledger_entries_2026_03")).isEqualTo(YearMonth.of(2026, 3));
+        assertThat(LedgerPartitionManager.month(LedgerPartitionManager.DEFAULT_PARTITION)).isNull();
+        assertThat(LedgerPartitionManager.month("ledger_entries_old")).isNull();
+        assertThat(LedgerPartitionManager.month("ledger_entries_2026_13")).isNull();
+    }
+
+    @Test
+    void shouldRejectSchemaThatIsNotAnIdentifier() {
+        assertThatThrownBy(() -> new LedgerPartitionManager(jdbcTemplate, "ledger; DROP TABLE x", 3, RETENTION_MONTHS))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatCode(() -> new LedgerPartitionManager(jdbcTemplate, "", 3, RETENTION_MONTHS))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void shouldDoNothingOnUnpartitionedTable() {
+        partitioned(false);
+
+        assertThat(manager.ensureFuturePartitions()).isZero();
+        assertThatThrownBy(() -> manager.detach(expired))
+                .isInstanceOf(PartitionNotDetachableException.class)
+                .hasMessageContaining("not partitioned");
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void shouldCreateOnlyMissingFutureMonths() {
+        partitioned(true);
+        attached(LedgerPartitionManager.DEFAULT_PARTITION, LedgerPartitionManager.partitionName(current));
+
+        assertThat(manager.ensureFuturePartitions()).isEqualTo(3);
+
+        ArgumentCaptor<String> ddl = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(3)).execute(ddl.capture());
+        assertThat(ddl.getAllValues().get(0)).isEqualTo(
+                "CREATE TABLE IF NOT EXISTS ledger." + LedgerPartitionManager.partitionName(current.plusMonths(1)) +
+                " PARTITION OF ledger.ledger_entries FOR VALUES FROM ('" + current.plusMonths(1).atDay(1) +
+                " 00:00:00+00') TO ('" + current.plusMonths(2).atDay(1) + " 00:00:00+00')");
+        assertThat(ddl.getAllValues()).noneMatch(sql -> sql.contains(LedgerPartitionManager.partitionName(current) + " "));
+    }
+
+    @Test
+    void shouldKeepMonthsWithinRetention() {
+        partitioned(true);
+        YearMonth oldestKept = current.minusMonths(RETENTION_MONTHS);
+        attached(LedgerPartitionManager.partitionName(oldestKept));
+
+        assertThatThrownBy(() -> manager.detach(oldestKept))
+                .isInstanceOf(PartitionNotDetachableException.class)
+                .hasMessageContaining("retention-months=24");
+        verifyNoDetach();
+    }
+
+    @Test
+    void shouldRejectMonthWithoutAttachedPartition() {
+        partitioned(true);
+        attached(LedgerPartitionManager.DEFAULT_PARTITION);
+
+        assertThatThrownBy(() -> manager.detach(expired))
+                .isInstanceOf(PartitionNotDetachableException.class)
+                .hasMessageContaining("No attached partition for " + expired);
+        verifyNoDetach();
+    }
+
+    @Test
+    void shouldFoldTotalsBeforeDetaching() {
+        partitioned(true);
+        String name = LedgerPartitionManager.partitionName(expired);
+        attached(name);
+        when(jdbcTemplate.update(anyString(), any(Timestamp.class))).thenReturn(7);
+
+        DetachResult result = manager.detach(expired);
+
+        assertThat(result).isEqualTo(new DetachResult(name, expired, 7));
+        ArgumentCaptor<String> upsert = ArgumentCaptor.forClass(String.class);
+        Instant archivedUpTo = expired.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        var inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).update(upsert.capture(), eq(Timestamp.from(archivedUpTo)));
+        inOrder.verify(jdbcTemplate).execute("ALTER TABLE ledger.ledger_entries DETACH PARTITION ledger." + name);
+        assertThat(upsert.getValue())
+                .startsWith("INSERT INTO ledger.archived_ledger_totals")
+                .contains("FROM ledger." + name + " GROUP BY wallet_id")
+                .contains("ON CONFLICT (wallet_id) DO UPDATE");
+    }
+
+    private void partitioned(boolean partitioned) {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), any(), any())).thenReturn(partitioned);
+    }
+
+    private void attached(String... names) {
+        List<PartitionInfo> partitions = new ArrayList<>();
+        for (String name : names) {
+            partitions.add(new PartitionInfo(name, LedgerPartitionManager.month(name), 0, 0));
+        }
+        doReturn(partitions).when(jdbcTemplate).query(anyString(), any(RowMapper.class), any(), any());
+    }
+
+    private void verifyNoDetach() {
+        verify(jdbcTemplate, never()).update(anyString(), any(Timestamp.class));
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+}
@@ -0,0 +1,173 @@
+package com.fintech.ledgerservice.service;
+
+import com.fintech.ledgerservice.domain.LedgerEntry;
+import com.fintech.ledgerservice.domain.LedgerIdempotencyKey;
+import com.fintech.ledgerservice.dto.request.CreateLedgerEntryRequest;
+import com.fintech.ledgerservice.dto.response.BatchLedgerEntryResponse;
+import com.fintech.ledgerservice.dto.response.BatchLedgerEntryResponse.ItemResult;
+import com.fintech.ledgerservice.dto.response.BatchLedgerEntryResponse.ItemStatus;
+import com.fintech.ledgerservice.exception.DuplicateLedgerEntryException;
+import com.fintech.ledgerservice.repository.LedgerEntryRepository;
+import com.fintech.ledgerservice.repository.LedgerIdempotencyKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LedgerServiceTest {
+
+    private final LedgerEntryRepository entryRepository = mock(LedgerEntryRepository.class);
+    private final LedgerIdempotencyKeyRepository keyRepository = mock(LedgerIdempotencyKeyRepository.class);
+    private final LedgerPartitionManager partitionManager = mock(LedgerPartitionManager.class);
+    private final LedgerService ledgerService = new LedgerService(
+            entryRepository, keyRepository, mock(BalanceCheckpointService.class), partitionManager);
+
+    // saveAll gets a live view of the batch, so record what it held at the time
+    private final List<LedgerEntry> savedEntries = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(partitionManager.isPartitioned()).thenReturn(true);
+        when(keyRepository.findAllById(anyIterable())).thenReturn(List.of());
+        // The database assigns ids on insert
+        when(entryRepository.saveAll(anyIterable())).thenAnswer(inv -> {
+            List<LedgerEntry> saved = new ArrayList<>();
+            for (LedgerEntry entry : inv.<Iterable<LedgerEntry>>getArgument(0)) {
+                ReflectionTestUtils.setField(entry, "id", UUID.randomUUID());
+                saved.add(entry);
+            }
+            savedEntries.addAll(saved);
+            return saved;
+        });
+    }
+
+    @Test
+    void shouldInsertKeyRepeatedInBatchOnce() {
+        BatchLedgerEntryResponse response = ledgerService.createEntries(List.of(
+                request("a", null), request("b", null), request("a", null)));
+
+        assertThat(savedEntries).extracting(LedgerEntry::getIdempotencyKey).containsExactly("a", "b");
+        assertThat(response.createdCount()).isEqualTo(2);
+        assertThat(response.existingCount()).isEqualTo(1);
+
+        List<ItemResult> results = response.results();
+        assertThat(results).extracting(ItemResult::status)
+                .containsExactly(ItemStatus.CREATED, ItemStatus.CREATED, ItemStatus.ALREADY_EXISTS);
+        // The repeat points at the entry its first occurrence created
+        assertThat(results.get(2).entryId()).isNotNull().isEqualTo(results.get(0).entryId());
+    }
+
+    @Test
+    void shouldReportKnownKeysAsAlreadyExisting() {
+        LedgerIdempotencyKey known = key("known", UUID.randomUUID());
+        when(keyRepository.findAllById(anyIterable())).thenReturn(List.of(known));
+
+        BatchLedgerEntryResponse response = ledgerService.createEntries(List.of(
+                request("known", null), request("new", null), request("known", null)));
+
+        assertThat(savedEntries).extracting(LedgerEntry::getIdempotencyKey).containsExactly("new");
+        assertThat(response.results()).extracting(ItemResult::status)
+                .containsExactly(ItemStatus.ALREADY_EXISTS, ItemStatus.CREATED, ItemStatus.ALREADY_EXISTS);
+        assertThat(response.results().get(0).entryId()).isEqualTo(known.getEntryId());
+        assertThat(response.results().get(2).entryId()).isEqualTo(known.getEntryId());
+    }
+
+    @Test
+    void shouldBackfillOccurredAtOnceOnReplay() {
+        Instant occurredAt = Instant.parse("2026-01-15T10:00:00Z");
+        LedgerIdempotencyKey known = key("known", UUID.randomUUID());
+        when(keyRepository.findAllById(anyIterable())).thenReturn(List.of(known));
+
+        ledgerService.createEntries(List.of(request("known", occurredAt), request("known", occurredAt)));
+
+        verify(entryRepository).backfillOccurredAt(known.getEntryId(), known.getEntryCreatedAt(), occurredAt);
+    }
+
+    @Test
+    void shouldNotBackfillWithoutOccurredAt() {
+        when(keyRepository.findAllById(anyIterable())).thenReturn(List.of(key("known", UUID.randomUUID())));
+
+        ledgerService.createEntries(List.of(request("known", null)));
+
+        verify(entryRepository, never()).backfillOccurredAt(any(), any(), any());
+    }
+
+    @Test
+    void shouldReportArchivedEntryOnSingleReplay() {
+        LedgerIdempotencyKey archived = key("archived", UUID.randomUUID());
+        when(keyRepository.findById("archived")).thenReturn(Optional.of(archived));
+        when(entryRepository.findByIdAndCreatedAt(archived.getEntryId(), archived.getEntryCreatedAt()))
+                .thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> ledgerService.createEntry(request("archived", null)))
+                .isInstanceOf(DuplicateLedgerEntryException.class)
+                .hasMessageContaining("archived");
+        verify(entryRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldAdoptKeysOfLegacyEntriesOnUnpartitionedLedger() {
+        when(partitionManager.isPartitioned()).thenReturn(false);
+        LedgerEntry legacy = entry("legacy");
+        when(entryRepository.findByIdempotencyKeyIn(List.of("legacy", "new"))).thenReturn(List.of(legacy));
+
+        BatchLedgerEntryResponse response = ledgerService.createEntries(List.of(request("legacy", null), request("new", null)));
+
+        assertThat(response.results()).extracting(ItemResult::status)
+                .containsExactly(ItemStatus.ALREADY_EXISTS, ItemStatus.CREATED);
+        assertThat(response.results().get(0).entryId()).isEqualTo(legacy.getId());
+        assertThat(savedEntries).extracting(LedgerEntry::getIdempotencyKey).containsExactly("new");
+        assertThat(savedKeys()).extracting(LedgerIdempotencyKey::getIdempotencyKey)
+                .containsExactly("legacy", "new");
+    }
+
+    @Test
+    void shouldNotLookForLegacyEntriesOnPartitionedLedger() {
+        ledgerService.createEntries(List.of(request("a", null)));
+
+        verify(entryRepository, never()).findByIdempotencyKeyIn(any());
+    }
+
+    // Key rows of every saveAll call: adopted legacy keys first, then new entries
+    private List<LedgerIdempotencyKey> savedKeys() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<LedgerIdempotencyKey>> captor = ArgumentCaptor.forClass(List.class);
+        verify(keyRepository, atLeastOnce()).saveAll(captor.capture());
+        return captor.getAllValues().stream().flatMap(List::stream).toList();
+    }
+
+    private static LedgerIdempotencyKey key(String idempotencyKey, UUID entryId) {
+        return LedgerIdempotencyKey.builder()
+                .idempotencyKey(idempotencyKey)
+                .entryId(entryId)
+                .entryCreatedAt(Instant.parse("2026-01-01T00:00:00Z"))
+                .build();
+    }
+
+    private static LedgerEntry entry(String idempotencyKey) {
+        LedgerEntry entry = LedgerEntry.builder()
+                .walletId(UUID.randomUUID())
+                .idempotencyKey(idempotencyKey)
+                .build();
+        ReflectionTestUtils.setField(entry, "id", UUID.randomUUID());
+        return entry;
+    }
+
+    private static CreateLedgerEntryRequest request(String idempotencyKey, Instant occurredAt) {
+        return new CreateLedgerEntryRequest(
+                UUID.randomUUID(), UUID.randomUUID(),
+                LedgerEntry.EntryType.CREDIT, LedgerEntry.TransactionType.DEPOSIT,
+                100L, "USD", 100L, UUID.randomUUID(), null,
+                idempotencyKey, "Deposit", null, occurredAt);
+    }
+}
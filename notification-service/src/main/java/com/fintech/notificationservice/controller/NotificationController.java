@@ -1,6 +1,7 @@
 package com.fintech.notificationservice.controller;
 
 import com.fintech.notificationservice.domain.Notification;
+import com.fintech.notificationservice.dto.request.SendNotificationBatchRequest;
 import com.fintech.notificationservice.dto.request.SendNotificationRequest;
 import com.fintech.notificationservice.dto.response.ErrorResponse;
 import com.fintech.notificationservice.dto.response.NotificationResponse;
@@ -62,6 +63,24 @@ public class NotificationController {
         return ResponseEntity.accepted().build();
     }
 
+    @Operation(
+            summary = "Send notifications async in bulk",
+            description = "Queue several notifications for async delivery in one call (fire-and-forget). " +
+                    "Used by services that batch their notifications."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Notifications queued"),
+            @ApiResponse(responseCode = "400", description = "Validation error",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @PostMapping("/send-batch")
+    public ResponseEntity<Void> sendNotificationBatch(
+            @Valid @RequestBody SendNotificationBatchRequest request
+    ) {
+        notificationService.sendBatchAsync(request.notifications());
+        return ResponseEntity.accepted().build();
+    }
+
     @Operation(summary = "Get user notification history")
     @GetMapping("/users/{userId}")
     public ResponseEntity<Page<NotificationResponse>> getUserNotifications(
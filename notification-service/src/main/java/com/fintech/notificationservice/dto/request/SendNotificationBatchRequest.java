@@ -0,0 +1,16 @@
+package com.fintech.notificationservice.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(description = "Several notifications queued in one call")
+public record SendNotificationBatchRequest(
+        @Schema(description = "Notifications to send, each as in /send")
+        @NotEmpty(message = "At least one notification is required")
+        @Size(max = 500, message = "At most 500 notifications per batch")
+        List<@Valid SendNotificationRequest> notifications
+) {}
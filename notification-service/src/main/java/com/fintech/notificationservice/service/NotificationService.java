@@ -9,7 +9,9 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Map;
@@ -26,14 +28,17 @@ public class NotificationService {
     private final NotificationRepository notificationRepository;
     private final TemplateService templateService;
     private final Map<Notification.Channel, NotificationChannel> channelProviders;
+    private final TransactionTemplate transactionTemplate;
 
     public NotificationService(
             NotificationRepository notificationRepository,
             TemplateService templateService,
-            List<NotificationChannel> channels
+            List<NotificationChannel> channels,
+            PlatformTransactionManager transactionManager
     ) {
         this.notificationRepository = notificationRepository;
         this.templateService = templateService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
         // Index channel providers by their channel type
         this.channelProviders = channels.stream()
                 .collect(Collectors.toMap(NotificationChannel::getChannel, c -> c));
@@ -71,6 +76,26 @@ public class NotificationService {
         }
     }
 
+    /**
+     * Send a batch of notifications asynchronously, each in its own transaction.
+     * A failing notification is logged and rolls back only itself.
+     */
+    @Async
+    public void sendBatchAsync(List<SendNotificationRequest> requests) {
+        int failed = 0;
+        for (SendNotificationRequest request : requests) {
+            try {
+                // send() is a self-call, so its @Transactional does not apply here
+                transactionTemplate.executeWithoutResult(status -> send(request));
+            } catch (Exception e) {
+                failed++;
+                log.error("Batched notification {} for user {} failed: {}",
+                        request.notificationType(), request.userId(), e.getMessage());
+            }
+        }
+        log.debug("Processed notification batch: {} requests, {} failed", requests.size(), failed);
+    }
+
     /**
      * Create notification record and attempt to send.
      */
@@ -0,0 +1,59 @@
+package com.fintech.notificationservice.service;
+
+import com.fintech.notificationservice.domain.Notification;
+import com.fintech.notificationservice.dto.request.SendNotificationRequest;
+import com.fintech.notificationservice.repository.NotificationRepository;
+import com.fintech.notificationservice.service.channel.NotificationChannel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NotificationServiceTest {
+
+    private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+    private final NotificationChannel email = mock(NotificationChannel.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private NotificationService notificationService;
+
+    @BeforeEach
+    void setUp() {
+        when(email.getChannel()).thenReturn(Notification.Channel.EMAIL);
+        when(email.send(any())).thenReturn(true);
+        when(transactionManager.getTransaction(any())).thenAnswer(inv -> mock(TransactionStatus.class));
+        when(notificationRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        notificationService = new NotificationService(
+                notificationRepository, mock(TemplateService.class), List.of(email), transactionManager);
+    }
+
+    @Test
+    void shouldCommitOtherNotificationsWhenOneFails() {
+        UUID failingUser = UUID.randomUUID();
+        when(notificationRepository.save(argThat(n -> n != null && failingUser.equals(n.getUserId()))))
+                .thenThrow(new DataIntegrityViolationException("recipient too long"));
+
+        assertThatCode(() -> notificationService.sendBatchAsync(List.of(
+                request(UUID.randomUUID()), request(failingUser), request(UUID.randomUUID()))))
+                .doesNotThrowAnyException();
+
+        // One transaction per notification: the failure rolls back only its own
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(2)).commit(any());
+        verify(transactionManager, times(1)).rollback(any());
+        verify(email, times(2)).send(any());
+    }
+
+    private static SendNotificationRequest request(UUID userId) {
+        return new SendNotificationRequest(userId, Notification.NotificationType.DEPOSIT_RECEIVED,
+                List.of(Notification.Channel.EMAIL), "user@example.com", "Deposit", "Funds arrived",
+                null, null, null, null);
+    }
+}
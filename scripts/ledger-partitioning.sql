@@ -0,0 +1,87 @@
+-- Monthly range partitioning of Ledger Service's ledger_entries
+-- Run once with Ledger Service stopped, against the ledger database:
+--   psql "$DATABASE_URL" -v schema=ledger -f scripts/ledger-partitioning.sql
+-- (use -v schema=public for a database without per-service schemas)
+--
+-- - ledger_entries becomes range-partitioned by created_at, one partition per UTC month,
+--   named ledger_entries_YYYY_MM, plus ledger_entries_default for anything else.
+--   Ledger Service's LedgerPartitionJob creates the coming months from then on.
+-- - The primary key becomes (id, created_at): Postgres requires the partition key in
+--   every unique index of a partitioned table.
+-- - Idempotency keys move to ledger_idempotency_keys, whose primary key keeps them
+--   unique across partitions, detached ones included.
+--
+-- Hibernate's schema update does not see indexes of partitioned tables: at startup it
+-- tries to create the five idx_ledger_* indexes again and logs "already exists" for each.
+
+\set ON_ERROR_STOP on
+
+BEGIN;
+SET LOCAL search_path TO :"schema";
+
+ALTER TABLE ledger_entries RENAME TO ledger_entries_unpartitioned;
+ALTER TABLE ledger_entries_unpartitioned RENAME CONSTRAINT ledger_entries_pkey TO ledger_entries_unpartitioned_pkey;
+
+CREATE TABLE ledger_entries (LIKE ledger_entries_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+    PARTITION BY RANGE (created_at);
+ALTER TABLE ledger_entries ADD PRIMARY KEY (id, created_at);
+
+-- One partition per month from the oldest entry to three months ahead
+DO $$
+DECLARE
+    month date := date_trunc('month',
+            COALESCE((SELECT min(created_at) FROM ledger_entries_unpartitioned), now()) AT TIME ZONE 'UTC');
+    last  date := date_trunc('month', now() AT TIME ZONE 'UTC') + interval '3 months';
+BEGIN
+    WHILE month <= last LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF ledger_entries FOR VALUES FROM (%L) TO (%L)',
+                       'ledger_entries_' || to_char(month, 'YYYY_MM'),
+                       month || ' 00:00:00+00',
+                       (month + interval '1 month')::date || ' 00:00:00+00');
+        month := month + interval '1 month';
+    END LOOP;
+END $$;
+
+CREATE TABLE ledger_entries_default PARTITION OF ledger_entries DEFAULT;
+
+INSERT INTO ledger_entries SELECT * FROM ledger_entries_unpartitioned;
+
+CREATE TABLE IF NOT EXISTS ledger_idempotency_keys (
+    idempotency_key  VARCHAR(255) PRIMARY KEY,
+    entry_id         UUID NOT NULL,
+    entry_created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+INSERT INTO ledger_idempotency_keys (idempotency_key, entry_id, entry_created_at)
+SELECT idempotency_key, id, created_at FROM ledger_entries_unpartitioned
+WHERE idempotency_key IS NOT NULL
+ON CONFLICT (idempotency_key) DO NOTHING;
+
+CREATE TABLE IF NOT EXISTS archived_ledger_totals (
+    wallet_id           UUID PRIMARY KEY,
+    balance_minor_units BIGINT NOT NULL,
+    entry_count         BIGINT NOT NULL,
+    archived_up_to      TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+DROP TABLE ledger_entries_unpartitioned;
+
+-- Created on the parent, so every partition (including future ones) gets them
+CREATE INDEX idx_ledger_wallet ON ledger_entries (wallet_id);
+CREATE INDEX idx_ledger_transaction ON ledger_entries (transaction_id);
+CREATE INDEX idx_ledger_created ON ledger_entries (created_at);
+CREATE INDEX idx_ledger_wallet_created_id ON ledger_entries (wallet_id, created_at, id);
+CREATE INDEX idx_ledger_idempotency ON ledger_entries (idempotency_key);
+
+COMMIT;
+
+ANALYZE :"schema".ledger_entries;
+
+-- Verify partitions
+SELECT c.relname AS partition, pg_get_expr(c.relpartbound, c.oid) AS bounds
+FROM pg_inherits i
+JOIN pg_class c ON c.oid = i.inhrelid
+JOIN pg_class p ON p.oid = i.inhparent
+JOIN pg_namespace n ON n.oid = p.relnamespace
+WHERE p.relname = 'ledger_entries' AND n.nspname = :'schema'
+ORDER BY c.relname;
@@ -23,6 +23,18 @@ public interface PaymentProviderAdapter {
      */
     PaymentResult processDeposit(DepositRequest request);
 
+    /**
+     * Cancel or refund a deposit the provider accepted but the wallet will not be
+     * credited for, e.g. the slower leg of a hedged deposit.
+     * Idempotent: the provider finds the deposit by the request's idempotency key.
+     *
+     * @param request The original deposit request
+     * @param transactionId Provider transaction ID from the deposit's PaymentResult,
+     *                      or null if it never reached us (look the deposit up by key)
+     * @return true if the deposit is voided, refunded, or was never captured
+     */
+    boolean cancelDeposit(DepositRequest request, String transactionId);
+
     /**
      * Process a withdrawal/payout request through the payment provider.
      *
@@ -31,6 +43,16 @@ public interface PaymentProviderAdapter {
      */
     PayoutResult processWithdrawal(WithdrawalRequest request);
 
+    /**
+     * Look up the current status of payouts this provider accepted earlier.
+     * Used for payouts whose webhook is overdue; one call covers the whole batch.
+     *
+     * @param payoutIds Provider payout IDs from PayoutResult
+     * @return One result per payout found, with payoutId and status
+     *         (PENDING, PROCESSING, COMPLETED or FAILED); unknown IDs are left out
+     */
+    List<PayoutResult> getPayoutStatuses(List<String> payoutIds);
+
     /**
      * Get list of currencies supported by this payment provider.
      *
@@ -54,6 +76,23 @@ public interface PaymentProviderAdapter {
      */
     boolean verifyWebhook(String signature, String payload);
 
+    /**
+     * Name of the request header that carries the webhook signature.
+     *
+     * @return Header name passed to {@link #verifyWebhook}
+     */
+    default String getWebhookSignatureHeader() {
+        return "X-Signature";
+    }
+
+    /**
+     * Parse a raw, already verified webhook payload into the unified event format.
+     *
+     * @param payload The raw request body
+     * @return Parsed webhook event
+     */
+    WebhookEvent parseWebhook(String payload);
+
     /**
      * Handle incoming webhook event from the payment provider.
      * Updates transaction status based on provider callbacks.
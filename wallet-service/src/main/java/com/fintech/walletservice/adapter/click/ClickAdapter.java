@@ -101,6 +101,29 @@ public class ClickAdapter implements PaymentProviderAdapter {
         return PaymentResult.success(transactionId, request.getAmount(), PROVIDER_NAME);
     }
 
+    @Override
+    public boolean cancelDeposit(DepositRequest request, String transactionId) {
+        log.info("Cancelling Click deposit: transactionId={}, idempotencyKey={}",
+                transactionId, request.getIdempotencyKey());
+
+        // ===== PRODUCTION: Replace with actual Click API call =====
+        // Click reverses a payment by its merchant_trans_id (our idempotency key)
+        // String signTime = String.valueOf(System.currentTimeMillis());
+        // HttpHeaders headers = new HttpHeaders();
+        // headers.set("Auth", config.getMerchantUserId() + ":" + computeClickSignature(signTime) + ":" + signTime);
+        //
+        // ResponseEntity<ClickReversalResponse> response = restTemplate.exchange(
+        //     config.getApiUrl() + "/merchant/payment/reversal/" + config.getServiceId() + "/" + transactionId,
+        //     HttpMethod.DELETE,
+        //     new HttpEntity<>(headers),
+        //     ClickReversalResponse.class
+        // );
+        // ============================================================
+
+        // Mock implementation - always cancelled
+        return true;
+    }
+
     @Override
     public PayoutResult processWithdrawal(WithdrawalRequest request) {
         log.info("Processing Click withdrawal: walletId={}, amount={} UZS",
@@ -155,6 +178,32 @@ public class ClickAdapter implements PaymentProviderAdapter {
         return PayoutResult.success(payoutId, "1-3 business days", PROVIDER_NAME);
     }
 
+    @Override
+    public List<PayoutResult> getPayoutStatuses(List<String> payoutIds) {
+        log.info("Checking {} Click payout statuses", payoutIds.size());
+
+        // ===== PRODUCTION: Replace with actual Click API call =====
+        // Click has no batch lookup; payment status is checked per payout id
+        // return payoutIds.stream()
+        //     .map(id -> restTemplate.getForObject(
+        //         config.getApiUrl() + "/payment/status/{serviceId}/{paymentId}",
+        //         ClickStatusResponse.class,
+        //         config.getServiceId(), id))
+        //     .map(this::toPayoutResult)
+        //     .toList();
+        // ============================================================
+
+        // Mock implementation - every payout has arrived
+        return payoutIds.stream()
+                .map(payoutId -> PayoutResult.builder()
+                        .success(true)
+                        .payoutId(payoutId)
+                        .providerName(PROVIDER_NAME)
+                        .status("COMPLETED")
+                        .build())
+                .toList();
+    }
+
     @Override
     public List<Currency> getSupportedCurrencies() {
         return SUPPORTED_CURRENCIES;
@@ -226,6 +275,7 @@ public class ClickAdapter implements PaymentProviderAdapter {
     /**
      * Parse raw Click webhook payload into WebhookEvent.
      */
+    @Override
     public WebhookEvent parseWebhook(String payload) {
         // ===== PRODUCTION: Parse actual Click webhook format =====
         // ClickWebhookPayload click = objectMapper.readValue(payload, ClickWebhookPayload.class);
@@ -99,6 +99,30 @@ public class PaymeAdapter implements PaymentProviderAdapter {
         return PaymentResult.success(transactionId, request.getAmount(), PROVIDER_NAME);
     }
 
+    @Override
+    public boolean cancelDeposit(DepositRequest request, String transactionId) {
+        log.info("Cancelling Payme deposit: transactionId={}, idempotencyKey={}",
+                transactionId, request.getIdempotencyKey());
+
+        // ===== PRODUCTION: Replace with actual Payme API call =====
+        // Unpaid receipts are cancelled, paid ones are refunded by the same call
+        // PaymeCancelRequest paymeRequest = PaymeCancelRequest.builder()
+        //     .id(request.getIdempotencyKey())
+        //     .method("receipts.cancel")
+        //     .params(Map.of("id", transactionId))
+        //     .build();
+        //
+        // PaymeResponse response = restTemplate.postForObject(
+        //     config.getApiUrl(),
+        //     paymeRequest,
+        //     PaymeResponse.class
+        // );
+        // ============================================================
+
+        // Mock implementation - always cancelled
+        return true;
+    }
+
     @Override
     public PayoutResult processWithdrawal(WithdrawalRequest request) {
         log.info("Processing Payme withdrawal: walletId={}, amount={} UZS",
@@ -155,6 +179,41 @@ public class PaymeAdapter implements PaymentProviderAdapter {
         return PayoutResult.success(payoutId, "1-2 business days", PROVIDER_NAME);
     }
 
+    @Override
+    public List<PayoutResult> getPayoutStatuses(List<String> payoutIds) {
+        log.info("Checking {} Payme payout statuses", payoutIds.size());
+
+        // ===== PRODUCTION: Replace with actual Payme API call =====
+        // One receipts.get per payout, sent as a single JSON-RPC batch
+        // List<PaymeRequest> batch = payoutIds.stream()
+        //     .map(id -> PaymeRequest.builder()
+        //         .id(id)
+        //         .method("receipts.get")
+        //         .params(Map.of("id", id))
+        //         .build())
+        //     .toList();
+        //
+        // PaymeResponse[] responses = restTemplate.postForObject(
+        //     config.getApiUrl(),
+        //     batch,
+        //     PaymeResponse[].class
+        // );
+        // return Arrays.stream(responses)
+        //     .map(r -> toPayoutResult(r.getResult().getReceipt()))
+        //     .toList();
+        // ============================================================
+
+        // Mock implementation - every payout has arrived
+        return payoutIds.stream()
+                .map(payoutId -> PayoutResult.builder()
+                        .success(true)
+                        .payoutId(payoutId)
+                        .providerName(PROVIDER_NAME)
+                        .status("COMPLETED")
+                        .build())
+                .toList();
+    }
+
     @Override
     public List<Currency> getSupportedCurrencies() {
         return SUPPORTED_CURRENCIES;
@@ -225,8 +284,9 @@ public class PaymeAdapter implements PaymentProviderAdapter {
 
     /**
      * Parse raw Payme webhook payload into WebhookEvent.
-     * This would be called by the webhook controller.
+     * Called by WebhookInboxWorker for rows the webhook endpoint stored.
      */
+    @Override
     public WebhookEvent parseWebhook(String payload) {
         // ===== PRODUCTION: Parse actual Payme webhook format =====
         // PaymeWebhookPayload payme = objectMapper.readValue(payload, PaymeWebhookPayload.class);
@@ -112,6 +112,30 @@ public class StripeAdapter implements PaymentProviderAdapter {
         return PaymentResult.success(transactionId, request.getAmount(), PROVIDER_NAME);
     }
 
+    @Override
+    public boolean cancelDeposit(DepositRequest request, String transactionId) {
+        log.info("Cancelling Stripe deposit: transactionId={}, idempotencyKey={}",
+                transactionId, request.getIdempotencyKey());
+
+        // ===== PRODUCTION: Replace with actual Stripe API call =====
+        // Stripe.apiKey = config.getSecretKey();
+        //
+        // RequestOptions requestOptions = RequestOptions.builder()
+        //     .setIdempotencyKey(request.getIdempotencyKey() + "-cancel")
+        //     .build();
+        //
+        // PaymentIntent paymentIntent = PaymentIntent.retrieve(transactionId);
+        // if ("succeeded".equals(paymentIntent.getStatus())) {
+        //     Refund.create(RefundCreateParams.builder().setPaymentIntent(transactionId).build(), requestOptions);
+        // } else {
+        //     paymentIntent.cancel(PaymentIntentCancelParams.builder().build(), requestOptions);
+        // }
+        // ============================================================
+
+        // Mock implementation - always cancelled
+        return true;
+    }
+
     @Override
     public PayoutResult processWithdrawal(WithdrawalRequest request) {
         log.info("Processing Stripe withdrawal: walletId={}, amount={} {}",
@@ -180,6 +204,38 @@ public class StripeAdapter implements PaymentProviderAdapter {
         return PayoutResult.success(payoutId, "1-2 business days", PROVIDER_NAME);
     }
 
+    @Override
+    public List<PayoutResult> getPayoutStatuses(List<String> payoutIds) {
+        log.info("Checking {} Stripe payout statuses", payoutIds.size());
+
+        // ===== PRODUCTION: Replace with actual Stripe API call =====
+        // Stripe.apiKey = config.getSecretKey();
+        //
+        // Set<String> wanted = new HashSet<>(payoutIds);
+        // PayoutListParams params = PayoutListParams.builder()
+        //     .setLimit(100L)
+        //     .build();
+        //
+        // List<PayoutResult> results = new ArrayList<>();
+        // for (Payout payout : Payout.list(params).autoPagingIterable()) {
+        //     if (wanted.contains(payout.getId())) {
+        //         results.add(toPayoutResult(payout));
+        //     }
+        // }
+        // return results;
+        // ============================================================
+
+        // Mock implementation - every payout has arrived
+        return payoutIds.stream()
+                .map(payoutId -> PayoutResult.builder()
+                        .success(true)
+                        .payoutId(payoutId)
+                        .providerName(PROVIDER_NAME)
+                        .status("COMPLETED")
+                        .build())
+                .toList();
+    }
+
     @Override
     public List<Currency> getSupportedCurrencies() {
         return SUPPORTED_CURRENCIES;
@@ -234,6 +290,11 @@ public class StripeAdapter implements PaymentProviderAdapter {
         }
     }
 
+    @Override
+    public String getWebhookSignatureHeader() {
+        return "Stripe-Signature";
+    }
+
     @Override
     public void handleWebhook(WebhookEvent event) {
         log.info("Handling Stripe webhook: type={}, externalId={}",
@@ -276,6 +337,7 @@ public class StripeAdapter implements PaymentProviderAdapter {
     /**
      * Parse raw Stripe webhook payload into WebhookEvent.
      */
+    @Override
     public WebhookEvent parseWebhook(String payload) {
         // ===== PRODUCTION: Parse actual Stripe webhook format =====
         // Event stripeEvent = Event.GSON.fromJson(payload, Event.class);
@@ -2,12 +2,15 @@ package com.fintech.walletservice.client;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
 
 import java.time.Duration;
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -18,6 +21,9 @@ import java.util.UUID;
 @Slf4j
 public class AuthClient {
 
+    private static final ParameterizedTypeReference<List<UserLookupResponse>> USER_LIST =
+            new ParameterizedTypeReference<>() {};
+
     private final WebClient webClient;
     private final boolean enabled;
 
@@ -28,6 +34,7 @@ public class AuthClient {
     ) {
         this.webClient = webClientBuilder
                 .baseUrl(authServiceUrl)
+                .observationConvention(new ServiceClientObservationConvention("auth-service"))
                 .build();
         this.enabled = enabled;
         log.info("AuthClient initialized: url={}, enabled={}", authServiceUrl, enabled);
@@ -35,39 +42,50 @@ public class AuthClient {
 
     /**
      * Look up user ID by email.
-     * Returns Optional.empty() if user not found or service unavailable.
+     * Completes empty if the user does not exist or the integration is disabled,
+     * and with an error if Auth Service could not answer.
      */
-    public Optional<UUID> findUserIdByEmail(String email) {
+    public Mono<UUID> lookupUserId(String email) {
         if (!enabled) {
             log.debug("Auth integration disabled");
-            return Optional.empty();
+            return Mono.empty();
         }
 
-        try {
-            UserLookupResponse response = webClient.get()
-                    .uri(uriBuilder -> uriBuilder
-                            .path("/api/v1/auth/users/lookup")
-                            .queryParam("email", email)
-                            .build())
-                    .retrieve()
-                    .bodyToMono(UserLookupResponse.class)
-                    .timeout(Duration.ofSeconds(5))
-                    .block();
-
-            if (response != null && response.userId != null) {
-                log.debug("Found user ID {} for email {}", response.userId, email);
-                return Optional.of(response.userId);
-            }
-            return Optional.empty();
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/api/v1/auth/users/lookup")
+                        .queryParam("email", email)
+                        .build())
+                .retrieve()
+                .bodyToMono(UserLookupResponse.class)
+                .timeout(Duration.ofSeconds(5))
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> {
+                    log.debug("User not found for email: {}", email);
+                    return Mono.empty();
+                })
+                .mapNotNull(UserLookupResponse::userId);
+    }
 
-        } catch (WebClientResponseException.NotFound e) {
-            log.debug("User not found for email: {}", email);
-            return Optional.empty();
-        } catch (Exception e) {
-            log.error("Failed to lookup user by email: {}", e.getMessage());
-            return Optional.empty();
+    /**
+     * Look up many users in one call. Unknown emails are missing from the result.
+     * Throws if Auth Service could not answer.
+     */
+    public List<UserLookupResponse> lookupUsers(Collection<String> emails) {
+        if (!enabled || emails.isEmpty()) {
+            return List.of();
         }
+
+        List<UserLookupResponse> users = webClient.post()
+                .uri("/internal/v1/users/lookup")
+                .bodyValue(new UserLookupBatchRequest(List.copyOf(emails)))
+                .retrieve()
+                .bodyToMono(USER_LIST)
+                .timeout(Duration.ofSeconds(5))
+                .block();
+        return users != null ? users : List.of();
     }
 
+    private record UserLookupBatchRequest(List<String> emails) {}
+
     public record UserLookupResponse(UUID userId, String email) {}
 }
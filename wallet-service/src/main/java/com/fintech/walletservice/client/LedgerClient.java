@@ -1,15 +1,22 @@
 package com.fintech.walletservice.client;
 
+import com.fintech.walletservice.client.dto.BatchLedgerEntryResponse;
+import com.fintech.walletservice.client.dto.CreateLedgerEntriesBatchRequest;
 import com.fintech.walletservice.client.dto.CreateLedgerEntryRequest;
+import com.fintech.walletservice.client.dto.DigestNode;
 import com.fintech.walletservice.client.dto.LedgerEntryResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
 
 /**
  * Client for communicating with Ledger Service.
@@ -19,6 +26,9 @@ import java.time.Duration;
 @Slf4j
 public class LedgerClient {
 
+    private static final ParameterizedTypeReference<List<DigestNode>> DIGEST_LIST =
+            new ParameterizedTypeReference<>() {};
+
     private final WebClient webClient;
     private final boolean enabled;
 
@@ -29,6 +39,7 @@ public class LedgerClient {
     ) {
         this.webClient = webClientBuilder
                 .baseUrl(ledgerServiceUrl)
+                .observationConvention(new ServiceClientObservationConvention("ledger-service"))
                 .build();
         this.enabled = enabled;
         log.info("LedgerClient initialized: url={}, enabled={}", ledgerServiceUrl, enabled);
@@ -36,7 +47,7 @@ public class LedgerClient {
 
     /**
      * Record a transaction in the ledger.
-     * This is fire-and-forget with retry logic.
+     * Failures propagate so the outbox relay can schedule a retry.
      */
     public LedgerEntryResponse recordTransaction(CreateLedgerEntryRequest request) {
         if (!enabled) {
@@ -54,18 +65,109 @@ public class LedgerClient {
                     .timeout(Duration.ofSeconds(5))
                     .block();
 
-            log.info("Recorded ledger entry: {}", response != null ? response.id() : "null");
+            log.debug("Recorded ledger entry: {}", response != null ? response.id() : "null");
             return response;
 
         } catch (WebClientResponseException e) {
             log.error("Ledger service error: {} - {}", e.getStatusCode(), e.getResponseBodyAsString());
-            // Don't fail the transaction if ledger is down
-            // In production, you'd use a message queue for reliability
-            return null;
-        } catch (Exception e) {
-            log.error("Failed to record ledger entry: {}", e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Record many transactions in one round trip.
+     * The batch is applied atomically by Ledger Service; failures propagate
+     * so the outbox relay can fall back to sending the entries one by one.
+     */
+    public BatchLedgerEntryResponse recordTransactions(List<CreateLedgerEntryRequest> requests) {
+        if (!enabled) {
+            log.debug("Ledger integration disabled, skipping batch of {}", requests.size());
             return null;
         }
+
+        try {
+            BatchLedgerEntryResponse response = webClient.post()
+                    .uri("/api/v1/ledger/entries/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(new CreateLedgerEntriesBatchRequest(requests))
+                    .retrieve()
+                    .bodyToMono(BatchLedgerEntryResponse.class)
+                    .timeout(Duration.ofSeconds(10))
+                    .block();
+
+            if (response != null) {
+                log.debug("Recorded ledger batch: created={}, existing={}",
+                        response.createdCount(), response.existingCount());
+            }
+            return response;
+
+        } catch (WebClientResponseException e) {
+            log.error("Ledger service error: {} - {}", e.getStatusCode(), e.getResponseBodyAsString());
+            throw e;
+        }
+    }
+
+    // ==================== Replication Digests ====================
+    // Failures propagate; the reconciler counts the range as not compared.
+
+    public DigestNode digestRange(UUID from, UUID to, Instant since, Instant upTo, long bucketSeconds) {
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/v1/ledger/digests/range")
+                        .queryParam("from", from)
+                        .queryParam("to", to)
+                        .queryParam("since", since)
+                        .queryParam("upTo", upTo)
+                        .queryParam("bucketSeconds", bucketSeconds)
+                        .build())
+                .retrieve()
+                .bodyToMono(DigestNode.class)
+                .timeout(Duration.ofSeconds(30))
+                .block();
+    }
+
+    public List<DigestNode> digestWallets(UUID from, UUID to, Instant since, Instant upTo, long bucketSeconds) {
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/v1/ledger/digests/wallets")
+                        .queryParam("from", from)
+                        .queryParam("to", to)
+                        .queryParam("since", since)
+                        .queryParam("upTo", upTo)
+                        .queryParam("bucketSeconds", bucketSeconds)
+                        .build())
+                .retrieve()
+                .bodyToMono(DIGEST_LIST)
+                .timeout(Duration.ofSeconds(30))
+                .block();
+    }
+
+    public List<DigestNode> digestBuckets(UUID walletId, Instant since, Instant upTo, long bucketSeconds) {
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/v1/ledger/digests/wallets/{walletId}/buckets")
+                        .queryParam("since", since)
+                        .queryParam("upTo", upTo)
+                        .queryParam("bucketSeconds", bucketSeconds)
+                        .build(walletId))
+                .retrieve()
+                .bodyToMono(DIGEST_LIST)
+                .timeout(Duration.ofSeconds(10))
+                .block();
+    }
+
+    public List<DigestNode> digestEntries(UUID walletId, long bucket, Instant since, Instant upTo, long bucketSeconds) {
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/v1/ledger/digests/wallets/{walletId}/buckets/{bucket}/entries")
+                        .queryParam("since", since)
+                        .queryParam("upTo", upTo)
+                        .queryParam("bucketSeconds", bucketSeconds)
+                        .build(walletId, bucket))
+                .retrieve()
+                .bodyToMono(DIGEST_LIST)
+                .timeout(Duration.ofSeconds(10))
+                .block();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
     }
 
     /**
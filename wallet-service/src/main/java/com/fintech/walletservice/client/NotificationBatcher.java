@@ -0,0 +1,150 @@
+package com.fintech.walletservice.client;
+
+import com.fintech.walletservice.client.dto.SendNotificationRequest;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces notifications into batch calls.
+ *
+ * One worker thread takes the first queued notification, keeps collecting for up to
+ * {@code linger} or until {@code maxBatchSize} are collected, and hands the batch to
+ * the sender. At most {@code maxInFlight} batches are outstanding; when Notification
+ * Service falls behind, the worker waits for a slot, the queue fills up and new
+ * notifications are dropped instead of blocking the money path.
+ */
+@Slf4j
+class NotificationBatcher {
+
+    /**
+     * Sends one batch; the returned Mono completes when the call is done.
+     */
+    @FunctionalInterface
+    interface BatchSender {
+        Mono<?> send(List<SendNotificationRequest> batch);
+    }
+
+    private final BlockingQueue<SendNotificationRequest> queue;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final Semaphore inFlight;
+    private final BatchSender sender;
+    private final Thread worker;
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    NotificationBatcher(int queueCapacity, int maxBatchSize, long lingerMillis, int maxInFlight,
+                        BatchSender sender) {
+        if (queueCapacity <= 0 || maxBatchSize <= 0 || maxInFlight <= 0 || lingerMillis < 0) {
+            throw new IllegalArgumentException("Notification batch settings must be positive");
+        }
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.inFlight = new Semaphore(maxInFlight);
+        this.sender = sender;
+        this.worker = new Thread(this::run, "notification-batcher");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Queue a notification without blocking.
+     *
+     * @return false if it was dropped because the queue is full or the batcher stopped
+     */
+    boolean offer(SendNotificationRequest request) {
+        if (running && queue.offer(request)) {
+            return true;
+        }
+        long total = dropped.incrementAndGet();
+        if (total == 1 || total % 1000 == 0) {
+            log.warn("Notification queue full, dropped {} notifications so far", total);
+        }
+        return false;
+    }
+
+    long droppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Stop accepting notifications and send what is queued.
+     */
+    void shutdown() {
+        running = false;
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+            if (worker.isAlive()) {
+                log.warn("Notification batcher did not drain within 5s, {} notifications lost", queue.size());
+                worker.interrupt();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            worker.interrupt();
+        }
+    }
+
+    private void run() {
+        List<SendNotificationRequest> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                SendNotificationRequest first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                dispatch(List.copyOf(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("Failed to send {} notifications: {}", batch.size(), e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Fill the batch until it is full or the linger time since its first item is over
+    private void collect(List<SendNotificationRequest> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                return;
+            }
+            SendNotificationRequest next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void dispatch(List<SendNotificationRequest> batch) throws InterruptedException {
+        inFlight.acquire();
+        try {
+            sender.send(batch)
+                    .doFinally(signal -> inFlight.release())
+                    .subscribe(
+                            response -> log.debug("Notification batch sent: {} notifications", batch.size()),
+                            error -> log.warn("Failed to send {} notifications: {}", batch.size(), error.getMessage())
+                    );
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+}
@@ -1,13 +1,17 @@
 package com.fintech.walletservice.client;
 
+import com.fintech.walletservice.client.dto.SendNotificationBatchRequest;
 import com.fintech.walletservice.client.dto.SendNotificationRequest;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -15,26 +19,47 @@ import java.util.UUID;
 /**
  * Client for communicating with Notification Service.
  * Uses async fire-and-forget pattern - notification failures don't block transactions.
+ * Notifications are micro-batched (see NotificationBatcher) and sent to /send-batch,
+ * so a burst of transfers costs a few HTTP calls instead of two or three each.
  */
 @Component
 @Slf4j
 public class NotificationClient {
 
+    private static final List<String> EMAIL = List.of("EMAIL");
+    private static final List<String> EMAIL_AND_SMS = List.of("EMAIL", "SMS");
+
     private final WebClient webClient;
     private final boolean enabled;
+    private final NotificationBatcher batcher;
 
     public NotificationClient(
             WebClient.Builder webClientBuilder,
             @Value("${services.notification.url:http://localhost:8085}") String notificationServiceUrl,
-            @Value("${services.notification.enabled:true}") boolean enabled
+            @Value("${services.notification.enabled:true}") boolean enabled,
+            @Value("${services.notification.batch.max-size:100}") int maxBatchSize,
+            @Value("${services.notification.batch.linger-ms:5}") long lingerMillis,
+            @Value("${services.notification.batch.queue-capacity:10000}") int queueCapacity,
+            @Value("${services.notification.batch.max-in-flight:4}") int maxInFlight
     ) {
         this.webClient = webClientBuilder
                 .baseUrl(notificationServiceUrl)
+                .observationConvention(new ServiceClientObservationConvention("notification-service"))
                 .build();
         this.enabled = enabled;
+        this.batcher = enabled
+                ? new NotificationBatcher(queueCapacity, maxBatchSize, lingerMillis, maxInFlight, this::sendBatch)
+                : null;
         log.info("NotificationClient initialized: url={}, enabled={}", notificationServiceUrl, enabled);
     }
 
+    @PreDestroy
+    void shutdownBatcher() {
+        if (batcher != null) {
+            batcher.shutdown();
+        }
+    }
+
     /**
      * Send deposit notification.
      */
@@ -42,27 +67,15 @@ public class NotificationClient {
                                UUID walletId, UUID transactionId, String newBalance) {
         if (!enabled) return;
 
-        SendNotificationRequest request = new SendNotificationRequest(
-                userId,
-                "DEPOSIT_RECEIVED",
-                List.of("EMAIL"),
-                email,
-                "Deposit Received - Digital Wallet",
-                null,
-                "deposit-received",
-                Map.of(
+        enqueue(templated(userId, "DEPOSIT_RECEIVED", EMAIL, email,
+                "Deposit Received - Digital Wallet", "deposit-received", Map.of(
                         "amount", amount,
                         "currency", currency,
                         "walletId", walletId.toString(),
                         "transactionId", transactionId.toString(),
                         "newBalance", newBalance,
-                        "date", java.time.LocalDate.now().toString()
-                ),
-                transactionId,
-                "TRANSACTION"
-        );
-
-        sendAsync(request);
+                        "date", LocalDate.now().toString()
+                ), transactionId));
     }
 
     /**
@@ -72,23 +85,15 @@ public class NotificationClient {
                                   UUID walletId, UUID transactionId, String newBalance) {
         if (!enabled) return;
 
-        SendNotificationRequest request = new SendNotificationRequest(
-                userId,
-                "WITHDRAWAL_COMPLETED",
-                List.of("EMAIL"),
-                email,
-                "Withdrawal Completed - Digital Wallet",
-                "<h2>Withdrawal Completed</h2>" +
-                        "<p>Amount: <strong>" + amount + " " + currency + "</strong></p>" +
-                        "<p>New Balance: " + newBalance + "</p>" +
-                        "<p>Transaction ID: " + transactionId + "</p>",
-                null,
-                null,
-                transactionId,
-                "TRANSACTION"
-        );
-
-        sendAsync(request);
+        enqueue(templated(userId, "WITHDRAWAL_COMPLETED", EMAIL, email,
+                "Withdrawal Completed - Digital Wallet", "withdrawal-completed", Map.of(
+                        "amount", amount,
+                        "currency", currency,
+                        "walletId", walletId.toString(),
+                        "transactionId", transactionId.toString(),
+                        "newBalance", newBalance,
+                        "date", LocalDate.now().toString()
+                ), transactionId));
     }
 
     /**
@@ -98,28 +103,16 @@ public class NotificationClient {
                                     UUID toWalletId, UUID transactionId, String newBalance) {
         if (!enabled) return;
 
-        SendNotificationRequest request = new SendNotificationRequest(
-                userId,
-                "TRANSFER_SENT",
-                List.of("EMAIL"),
-                email,
-                "Transfer Sent - Digital Wallet",
-                null,
-                "transfer",
-                Map.of(
+        enqueue(templated(userId, "TRANSFER_SENT", EMAIL, email,
+                "Transfer Sent - Digital Wallet", "transfer", Map.of(
                         "direction", "sent",
                         "amount", amount,
                         "currency", currency,
                         "counterpartyWalletId", toWalletId.toString(),
                         "transactionId", transactionId.toString(),
                         "newBalance", newBalance,
-                        "date", java.time.LocalDate.now().toString()
-                ),
-                transactionId,
-                "TRANSACTION"
-        );
-
-        sendAsync(request);
+                        "date", LocalDate.now().toString()
+                ), transactionId));
     }
 
     /**
@@ -129,28 +122,16 @@ public class NotificationClient {
                                         UUID fromWalletId, UUID transactionId, String newBalance) {
         if (!enabled) return;
 
-        SendNotificationRequest request = new SendNotificationRequest(
-                userId,
-                "TRANSFER_RECEIVED",
-                List.of("EMAIL"),
-                email,
-                "Transfer Received - Digital Wallet",
-                null,
-                "transfer",
-                Map.of(
+        enqueue(templated(userId, "TRANSFER_RECEIVED", EMAIL, email,
+                "Transfer Received - Digital Wallet", "transfer", Map.of(
                         "direction", "received",
                         "amount", amount,
                         "currency", currency,
                         "counterpartyWalletId", fromWalletId.toString(),
                         "transactionId", transactionId.toString(),
                         "newBalance", newBalance,
-                        "date", java.time.LocalDate.now().toString()
-                ),
-                transactionId,
-                "TRANSACTION"
-        );
-
-        sendAsync(request);
+                        "date", LocalDate.now().toString()
+                ), transactionId));
     }
 
     /**
@@ -160,44 +141,39 @@ public class NotificationClient {
                                         String transactionType, UUID transactionId) {
         if (!enabled) return;
 
-        SendNotificationRequest request = new SendNotificationRequest(
-                userId,
-                "LARGE_TRANSACTION",
-                List.of("EMAIL", "SMS"),
-                email,
-                "⚠️ Large Transaction Alert - Digital Wallet",
-                "<h2>Large Transaction Detected</h2>" +
-                        "<p>A large " + transactionType.toLowerCase() + " of <strong>" +
-                        amount + " " + currency + "</strong> was processed on your account.</p>" +
-                        "<p>If you did not authorize this transaction, please contact support immediately.</p>",
-                null,
-                null,
-                transactionId,
-                "TRANSACTION"
-        );
-
-        sendAsync(request);
+        enqueue(templated(userId, "LARGE_TRANSACTION", EMAIL_AND_SMS, email,
+                "⚠️ Large Transaction Alert - Digital Wallet", "large-transaction", Map.of(
+                        "transactionType", transactionType.toLowerCase(),
+                        "amount", amount,
+                        "currency", currency,
+                        "transactionId", transactionId.toString(),
+                        "date", LocalDate.now().toString()
+                ), transactionId));
+    }
+
+    private static SendNotificationRequest templated(UUID userId, String type, List<String> channels,
+                                                     String email, String subject, String templateName,
+                                                     Map<String, Object> templateData, UUID transactionId) {
+        return new SendNotificationRequest(userId, type, channels, email, subject,
+                null, templateName, templateData, transactionId, "TRANSACTION");
     }
 
     /**
-     * Send notification asynchronously.
+     * Queue a notification for the next batch; never blocks.
      */
-    private void sendAsync(SendNotificationRequest request) {
-        try {
-            webClient.post()
-                    .uri("/api/v1/notifications/send-async")
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .bodyValue(request)
-                    .retrieve()
-                    .toBodilessEntity()
-                    .timeout(Duration.ofSeconds(3))
-                    .subscribe(
-                            response -> log.debug("Notification sent: {}", request.notificationType()),
-                            error -> log.warn("Failed to send notification: {}", error.getMessage())
-                    );
-        } catch (Exception e) {
-            log.warn("Error sending notification: {}", e.getMessage());
+    private void enqueue(SendNotificationRequest request) {
+        if (!batcher.offer(request)) {
+            log.debug("Notification dropped: {}", request.notificationType());
         }
     }
-}
 
+    private Mono<?> sendBatch(List<SendNotificationRequest> batch) {
+        return webClient.post()
+                .uri("/api/v1/notifications/send-batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new SendNotificationBatchRequest(batch))
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(Duration.ofSeconds(3));
+    }
+}
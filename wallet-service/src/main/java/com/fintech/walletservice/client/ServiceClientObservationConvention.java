@@ -0,0 +1,24 @@
+package com.fintech.walletservice.client;
+
+import io.micrometer.common.KeyValue;
+import org.springframework.web.reactive.function.client.ClientRequestObservationContext;
+import org.springframework.web.reactive.function.client.DefaultClientRequestObservationConvention;
+
+/**
+ * Tags http.client.requests with the downstream service instead of the request host,
+ * which is "localhost" for every service in local setups. Latency and error rate per
+ * service then come straight from {@code http_client_requests_seconds{client_name=...}}.
+ */
+class ServiceClientObservationConvention extends DefaultClientRequestObservationConvention {
+
+    private final KeyValue clientName;
+
+    ServiceClientObservationConvention(String service) {
+        this.clientName = KeyValue.of("client.name", service);
+    }
+
+    @Override
+    protected KeyValue clientName(ClientRequestObservationContext context) {
+        return clientName;
+    }
+}
@@ -0,0 +1,19 @@
+package com.fintech.walletservice.client.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Response DTO from Ledger Service batch ingest.
+ */
+public record BatchLedgerEntryResponse(
+        int createdCount,
+        int existingCount,
+        List<ItemResult> results
+) {
+    public record ItemResult(
+            String idempotencyKey,
+            UUID entryId,
+            String status  // CREATED or ALREADY_EXISTS
+    ) {}
+}
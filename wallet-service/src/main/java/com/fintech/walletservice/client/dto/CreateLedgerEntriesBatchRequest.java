@@ -0,0 +1,11 @@
+package com.fintech.walletservice.client.dto;
+
+import java.util.List;
+
+/**
+ * Request DTO for creating many ledger entries in one call.
+ * Mirrors the Ledger Service's CreateLedgerEntriesBatchRequest.
+ */
+public record CreateLedgerEntriesBatchRequest(
+        List<CreateLedgerEntryRequest> entries
+) {}
@@ -1,5 +1,6 @@
 package com.fintech.walletservice.client.dto;
 
+import java.time.Instant;
 import java.util.UUID;
 
 /**
@@ -18,7 +19,8 @@ public record CreateLedgerEntryRequest(
         UUID counterpartyWalletId,
         String idempotencyKey,
         String description,
-        String externalReference
+        String externalReference,
+        Instant occurredAt      // When Wallet Service recorded the entry
 ) {
     public static Builder builder() {
         return new Builder();
@@ -37,6 +39,7 @@ public record CreateLedgerEntryRequest(
         private String idempotencyKey;
         private String description;
         private String externalReference;
+        private Instant occurredAt;
 
         public Builder walletId(UUID walletId) { this.walletId = walletId; return this; }
         public Builder userId(UUID userId) { this.userId = userId; return this; }
@@ -50,12 +53,13 @@ public record CreateLedgerEntryRequest(
         public Builder idempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; return this; }
         public Builder description(String description) { this.description = description; return this; }
         public Builder externalReference(String externalReference) { this.externalReference = externalReference; return this; }
+        public Builder occurredAt(Instant occurredAt) { this.occurredAt = occurredAt; return this; }
 
         public CreateLedgerEntryRequest build() {
             return new CreateLedgerEntryRequest(
                     walletId, userId, entryType, transactionType, amountMinorUnits,
                     currency, balanceAfter, transactionId, counterpartyWalletId,
-                    idempotencyKey, description, externalReference
+                    idempotencyKey, description, externalReference, occurredAt
             );
         }
     }
@@ -0,0 +1,12 @@
+package com.fintech.walletservice.client.dto;
+
+/**
+ * Node of the replication digest tree.
+ * Mirrors the Ledger Service's DigestNode.
+ */
+public record DigestNode(
+        String key,      // Wallet ID, bucket number or idempotency key; null for a range
+        String digest,   // MD5 over the children, or the entry hash for a leaf
+        long children,
+        long entries
+) {}
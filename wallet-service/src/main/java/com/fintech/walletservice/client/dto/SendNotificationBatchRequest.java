@@ -0,0 +1,11 @@
+package com.fintech.walletservice.client.dto;
+
+import java.util.List;
+
+/**
+ * Request DTO for sending several notifications in one call.
+ * Mirrors the Notification Service's SendNotificationBatchRequest.
+ */
+public record SendNotificationBatchRequest(
+        List<SendNotificationRequest> notifications
+) {}
@@ -0,0 +1,42 @@
+package com.fintech.walletservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Async execution for after-commit domain event handlers.
+ */
+@Configuration
+@EnableAsync
+@Slf4j
+public class AsyncConfig {
+
+    public static final String WALLET_EVENT_EXECUTOR = "walletEventExecutor";
+
+    /**
+     * Runs after-commit handlers (notifications) off the request thread.
+     * When the queue is full, events are dropped: they are best-effort side effects
+     * and must not push work back onto the money path.
+     */
+    @Bean(name = WALLET_EVENT_EXECUTOR)
+    public ThreadPoolTaskExecutor walletEventExecutor(
+            @Value("${wallet.events.core-threads:2}") int coreThreads,
+            @Value("${wallet.events.max-threads:4}") int maxThreads,
+            @Value("${wallet.events.queue-capacity:10000}") int queueCapacity
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreThreads);
+        executor.setMaxPoolSize(maxThreads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("wallet-event-");
+        executor.setRejectedExecutionHandler((task, pool) ->
+                log.warn("Wallet event queue full ({} queued), event dropped", pool.getQueue().size()));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+}
@@ -4,7 +4,16 @@ import com.fintech.walletservice.domain.Wallet;
 import com.fintech.walletservice.dto.response.ErrorResponse;
 import com.fintech.walletservice.dto.response.WalletResponse;
 import com.fintech.walletservice.job.BalanceReconciliationJob;
+import com.fintech.walletservice.job.LedgerReplicationReconciler;
+import com.fintech.walletservice.domain.LedgerOutboxEntry;
+import com.fintech.walletservice.domain.Payout;
+import com.fintech.walletservice.service.LedgerOutboxService;
+import com.fintech.walletservice.service.PaymentRoutingService;
+import com.fintech.walletservice.service.PayoutService;
+import com.fintech.walletservice.service.UserDirectory;
+import com.fintech.walletservice.service.WalletCache;
 import com.fintech.walletservice.service.WalletService;
+import com.fintech.walletservice.service.WebhookIdempotencyStore;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -16,6 +25,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -25,7 +35,14 @@ import java.util.UUID;
 public class AdminController {
 
     private final BalanceReconciliationJob reconciliationJob;
+    private final LedgerReplicationReconciler ledgerReplicationReconciler;
     private final WalletService walletService;
+    private final WalletCache walletCache;
+    private final UserDirectory userDirectory;
+    private final PaymentRoutingService paymentRoutingService;
+    private final WebhookIdempotencyStore webhookIdempotencyStore;
+    private final PayoutService payoutService;
+    private final LedgerOutboxService ledgerOutboxService;
 
     @Operation(
             summary = "Trigger balance reconciliation",
@@ -38,12 +55,41 @@ public class AdminController {
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Reconciliation completed"),
+            @ApiResponse(responseCode = "409", description = "A reconciliation run is already in progress"),
             @ApiResponse(responseCode = "500", description = "Reconciliation failed")
     })
     @PostMapping("/reconcile")
-    public ResponseEntity<BalanceReconciliationJob.ReconciliationReport> triggerReconciliation() {
-        BalanceReconciliationJob.ReconciliationReport report =
-                reconciliationJob.reconcileAllWalletsManually();
+    public ResponseEntity<BalanceReconciliationJob.ReconciliationReport> triggerReconciliation(
+            @Parameter(description = "SET_BASED (one aggregate query per id range) or PER_WALLET; defaults to wallet.reconciliation.mode")
+            @RequestParam(required = false) BalanceReconciliationJob.Mode mode
+    ) {
+        BalanceReconciliationJob.ReconciliationReport report = mode != null
+                ? reconciliationJob.reconcileAllWalletsManually(mode)
+                : reconciliationJob.reconcileAllWalletsManually();
+        return ResponseEntity.ok(report);
+    }
+
+    @Operation(
+            summary = "Check the Ledger Service replica",
+            description = """
+                    Compares this service's ledger with Ledger Service using Merkle digests and
+                    descends only into wallets and time buckets whose digests differ.
+                    Entries missing from Ledger Service are re-sent through the outbox unless repair=false.
+                    """
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Check completed"),
+            @ApiResponse(responseCode = "400", description = "Ledger Service integration is disabled"),
+            @ApiResponse(responseCode = "409", description = "A check is already in progress")
+    })
+    @PostMapping("/reconcile/ledger-service")
+    public ResponseEntity<LedgerReplicationReconciler.LedgerReplicationReport> triggerLedgerReplicationCheck(
+            @Parameter(description = "Re-send missing entries; defaults to wallet.ledger-reconciliation.repair")
+            @RequestParam(required = false) Boolean repair
+    ) {
+        LedgerReplicationReconciler.LedgerReplicationReport report = repair != null
+                ? ledgerReplicationReconciler.reconcileManually(repair)
+                : ledgerReplicationReconciler.reconcileManually();
         return ResponseEntity.ok(report);
     }
 
@@ -96,4 +142,102 @@ public class AdminController {
         Wallet wallet = walletService.unfreezeWallet(walletId);
         return ResponseEntity.ok(WalletResponse.from(wallet));
     }
+
+    @Operation(
+            summary = "Set wallet balance shards",
+            description = """
+                    Spreads credits to a hot wallet (merchant, payroll) over N balance shard rows
+                    so concurrent deposits don't serialize on one row lock. 0 turns sharding off.
+                    Existing shard balances are consolidated first; the total balance is unchanged.
+                    """
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Wallet resharded",
+                    content = @Content(schema = @Schema(implementation = WalletResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Shard count out of range",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Wallet not found",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @PostMapping("/wallets/{walletId}/shards")
+    public ResponseEntity<WalletResponse> reshardWallet(
+            @Parameter(description = "Wallet UUID")
+            @PathVariable UUID walletId,
+            @Parameter(description = "Number of balance shards (0 disables sharding)")
+            @RequestParam int count
+    ) {
+        Wallet wallet = walletService.reshardWallet(walletId, count);
+        return ResponseEntity.ok(WalletResponse.from(wallet));
+    }
+
+    @Operation(
+            summary = "Wallet cache statistics",
+            description = """
+                    Counters of this node's read-through wallet cache since startup: hits, misses,
+                    size/TTL evictions, evictions after committed writes, and fills dropped because
+                    the wallet changed while they were loading.
+                    """
+    )
+    @GetMapping("/cache/wallets")
+    public ResponseEntity<WalletCache.WalletCacheStats> walletCacheStats() {
+        return ResponseEntity.ok(walletCache.stats());
+    }
+
+    @Operation(
+            summary = "User directory statistics",
+            description = "Counters of this node's email -> user id directory since startup (transfer recipient lookups)."
+    )
+    @GetMapping("/cache/user-directory")
+    public ResponseEntity<UserDirectory.DirectoryStats> userDirectoryStats() {
+        return ResponseEntity.ok(userDirectory.stats());
+    }
+
+    @Operation(
+            summary = "Webhook idempotency statistics",
+            description = "Counters of this node's webhook dedupe since startup: duplicates answered from memory or by the processed_webhooks key, and webhooks claimed."
+    )
+    @GetMapping("/cache/webhooks")
+    public ResponseEntity<WebhookIdempotencyStore.WebhookIdempotencyStats> webhookIdempotencyStats() {
+        return ResponseEntity.ok(webhookIdempotencyStore.stats());
+    }
+
+    @Operation(
+            summary = "Payouts by state",
+            description = "Number of payouts in each state; SUBMITTED and PROCESSING are still waiting on the provider."
+    )
+    @GetMapping("/payouts/summary")
+    public ResponseEntity<Map<Payout.Status, Long>> payoutSummary() {
+        return ResponseEntity.ok(payoutService.countByStatus());
+    }
+
+    @Operation(
+            summary = "Ledger outbox by state",
+            description = "Number of ledger outbox rows in each state; FAILED rows were rejected by Ledger Service or ran out of attempts and are not retried."
+    )
+    @GetMapping("/ledger-outbox/summary")
+    public ResponseEntity<Map<LedgerOutboxEntry.Status, Long>> ledgerOutboxSummary() {
+        return ResponseEntity.ok(ledgerOutboxService.countByStatus());
+    }
+
+    @Operation(
+            summary = "Payment provider routing",
+            description = """
+                    Routing weights per currency (share of requests that try each provider first)
+                    and this node's provider health: circuit state, error rate and latency
+                    percentiles over the rolling window, plus routed, fallback and rejected call counts.
+                    """
+    )
+    @GetMapping("/payments/routing")
+    public ResponseEntity<PaymentRoutingService.RoutingReport> paymentRouting() {
+        return ResponseEntity.ok(paymentRoutingService.routingReport());
+    }
 }
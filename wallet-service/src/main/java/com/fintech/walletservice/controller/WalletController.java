@@ -1,6 +1,5 @@
 package com.fintech.walletservice.controller;
 
-import com.fintech.walletservice.client.AuthClient;
 import com.fintech.walletservice.domain.LedgerEntry;
 import com.fintech.walletservice.domain.Wallet;
 import com.fintech.walletservice.dto.request.CreateWalletForMeRequest;
@@ -8,11 +7,13 @@ import com.fintech.walletservice.dto.request.CreateWalletRequest;
 import com.fintech.walletservice.dto.request.TransactionRequest;
 import com.fintech.walletservice.dto.request.TransferRequest;
 import com.fintech.walletservice.dto.response.ErrorResponse;
-import com.fintech.walletservice.dto.response.LedgerEntryResponse;
+import com.fintech.walletservice.dto.response.TransactionHistoryResponse;
 import com.fintech.walletservice.dto.response.TransactionResponse;
 import com.fintech.walletservice.dto.response.TransferResponse;
 import com.fintech.walletservice.dto.response.WalletResponse;
 import com.fintech.walletservice.security.UserContext;
+import com.fintech.walletservice.service.HistoryCursor;
+import com.fintech.walletservice.service.UserDirectory;
 import com.fintech.walletservice.service.WalletService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -38,7 +39,7 @@ import java.util.UUID;
 public class WalletController {
 
     private final WalletService walletService;
-    private final AuthClient authClient;
+    private final UserDirectory userDirectory;
 
     @Operation(
             summary = "Create a new wallet",
@@ -296,10 +297,18 @@ public class WalletController {
 
     @Operation(
             summary = "Get transaction history",
-            description = "Returns paginated transaction history for a wallet, ordered by most recent first"
+            description = """
+                    Returns one page of transaction history for a wallet, most recent first.
+                    Pass the returned nextCursor as 'cursor' to get the next page; nextCursor is null on the last page.
+                    """
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Transaction history"),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid cursor or page size",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
             @ApiResponse(
                     responseCode = "404",
                     description = "Wallet not found",
@@ -307,20 +316,17 @@ public class WalletController {
             )
     })
     @GetMapping("/{walletId}/transactions")
-    public ResponseEntity<org.springframework.data.domain.Page<LedgerEntryResponse>> getTransactionHistory(
+    public ResponseEntity<TransactionHistoryResponse> getTransactionHistory(
             @Parameter(description = "Wallet UUID")
             @PathVariable UUID walletId,
-            @Parameter(description = "Page number (0-based)", example = "0")
-            @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Page size", example = "20")
+            @Parameter(description = "nextCursor of the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (1-100)", example = "20")
             @RequestParam(defaultValue = "20") int size
     ) {
-        org.springframework.data.domain.Pageable pageable =
-                org.springframework.data.domain.PageRequest.of(page, size);
-        org.springframework.data.domain.Page<LedgerEntryResponse> history = walletService
-                .getTransactionHistory(walletId, pageable)
-                .map(LedgerEntryResponse::from);
-        return ResponseEntity.ok(history);
+        HistoryCursor position = cursor != null ? HistoryCursor.decode(cursor) : null;
+        return ResponseEntity.ok(TransactionHistoryResponse.from(
+                walletService.getTransactionHistory(walletId, position, size)));
     }
 
     @Operation(
@@ -346,8 +352,8 @@ public class WalletController {
             @Parameter(description = "Currency code", example = "USD")
             @RequestParam String currency
     ) {
-        // First, look up the user ID by email
-        Optional<UUID> userIdOpt = authClient.findUserIdByEmail(email);
+        // First, look up the user ID by email (usually a local directory hit)
+        Optional<UUID> userIdOpt = userDirectory.findUserId(email);
         if (userIdOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
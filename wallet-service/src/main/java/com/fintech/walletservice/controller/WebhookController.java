@@ -0,0 +1,65 @@
+package com.fintech.walletservice.controller;
+
+import com.fintech.walletservice.adapter.PaymentProviderAdapter;
+import com.fintech.walletservice.service.PaymentRoutingService;
+import com.fintech.walletservice.service.WebhookInboxService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Locale;
+
+/**
+ * Webhook ingress for payment providers.
+ *
+ * A request only verifies the signature, stores the raw payload in the webhook inbox
+ * and returns 200; WebhookInboxWorker applies it afterwards. No wallet lock is taken
+ * here, so acknowledgement latency does not depend on payout volume.
+ */
+@RestController
+@RequestMapping("/api/v1/webhooks")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Webhooks", description = "Payment provider callbacks")
+public class WebhookController {
+
+    private final PaymentRoutingService paymentRoutingService;
+    private final WebhookInboxService webhookInbox;
+
+    @Operation(summary = "Receive a payment provider webhook",
+               description = "Verifies the provider signature and queues the payload for processing")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Webhook stored"),
+            @ApiResponse(responseCode = "401", description = "Invalid signature"),
+            @ApiResponse(responseCode = "404", description = "Unknown provider")
+    })
+    @PostMapping("/{provider}")
+    public ResponseEntity<Void> receive(
+            @PathVariable String provider,
+            @RequestBody String payload,
+            HttpServletRequest request
+    ) {
+        PaymentProviderAdapter adapter = paymentRoutingService.getAllProviders()
+                .get(provider.toUpperCase(Locale.ROOT));
+        if (adapter == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        String signature = request.getHeader(adapter.getWebhookSignatureHeader());
+        if (!adapter.verifyWebhook(signature, payload)) {
+            log.warn("Rejected {} webhook with invalid signature", adapter.getProviderName());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        Long inboxId = webhookInbox.append(adapter.getProviderName(), payload);
+        log.debug("Stored {} webhook as inbox entry {}", adapter.getProviderName(), inboxId);
+        return ResponseEntity.ok().build();
+    }
+}
@@ -0,0 +1,53 @@
+package com.fintech.walletservice.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Running ledger total of one wallet up to a watermark.
+ *
+ * Covers every ledger entry ordered at or before (lastEntryCreatedAt, lastEntryId),
+ * so the ledger balance is balanceMinorUnits + SUM(entries after the watermark)
+ * instead of a scan of the wallet's whole history.
+ * Advanced and periodically recounted by BalanceCheckpointJob.
+ */
+@Entity
+@Table(name = "balance_checkpoints")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BalanceCheckpoint {
+
+    @Id
+    private UUID walletId;
+
+    @Column(nullable = false)
+    private Instant lastEntryCreatedAt;
+
+    @Column(nullable = false)
+    private UUID lastEntryId;
+
+    // Signed sum of the covered entries (CREDIT - DEBIT)
+    @Column(nullable = false)
+    private Long balanceMinorUnits;
+
+    @Column(nullable = false)
+    private Long entryCount;
+
+    // Last time the checkpoint was recounted from the full history
+    @Column(nullable = false)
+    private Instant verifiedAt;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    @Version
+    private Long version;
+}
@@ -0,0 +1,87 @@
+package com.fintech.walletservice.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Saga record of a deposit through a payment provider.
+ *
+ * PENDING is committed before any provider is called. The wallet is credited in the
+ * same transaction that moves the record to COMPLETED, and only from PENDING; a
+ * PENDING record older than its deadline (the node died mid-call) is moved to
+ * CANCELLING and every provider of its currency is asked to cancel the charge
+ * before it becomes CANCELLED.
+ */
+@Entity
+@Table(
+        name = "deposits",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"idempotency_key"}),
+        indexes = @Index(name = "idx_deposit_status_next_check", columnList = "status, next_check_at")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Deposit {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    // Also sent to providers, which dedupe and cancel charges by it
+    @Column(nullable = false)
+    private String idempotencyKey;
+
+    @Column(nullable = false)
+    private UUID walletId;
+
+    @Column(nullable = false)
+    private Long amountMinorUnits;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 3)
+    private Wallet.Currency currency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private Status status = Status.PENDING;
+
+    // Provider that accepted the charge
+    @Column(length = 20)
+    private String provider;
+
+    @Column(length = 100)
+    private String providerTransactionId;
+
+    @Column(columnDefinition = "TEXT")
+    private String failureReason;
+
+    // Deadline of a PENDING or CANCELLING record
+    private Instant nextCheckAt;
+
+    @Version
+    private Long version;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    public enum Status {
+        PENDING,     // Providers may be charging
+        COMPLETED,   // Charged and credited; final
+        FAILED,      // Every provider declined; final
+        CANCELLING,  // Abandoned; charges are being cancelled with the providers
+        CANCELLED    // Abandoned and cancelled; final
+    }
+}
@@ -2,7 +2,6 @@ package com.fintech.walletservice.domain;
 
 import jakarta.persistence.*;
 import lombok.*;
-import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.Immutable;
 
 import java.time.Instant;
@@ -15,7 +14,8 @@ import java.util.UUID;
         indexes = {
                 @Index(name = "idx_ledger_wallet_id", columnList = "wallet_id"),
                 @Index(name = "idx_ledger_transaction_id", columnList = "transaction_id"),
-                @Index(name = "idx_ledger_created_at", columnList = "created_at")
+                @Index(name = "idx_ledger_created_at", columnList = "created_at"),
+                @Index(name = "idx_ledger_wallet_created_id", columnList = "wallet_id, created_at, id")
         }
 )
 @Immutable // Hibernate optimization: never update
@@ -50,12 +50,17 @@ public class LedgerEntry {
 
     private String description;
 
+    // DEPOSIT, WITHDRAWAL, TRANSFER_IN, TRANSFER_OUT or REFUND, as sent to Ledger Service;
+    // null for entries written before it was stored
+    private String transactionType;
+
     @Column(columnDefinition = "TEXT")
     private String metadata;
 
-    @CreationTimestamp
+    // Set when the entry is built (not at flush) so the outbox row can carry it to Ledger Service
     @Column(nullable = false, updatable = false)
-    private Instant createdAt;
+    @Builder.Default
+    private Instant createdAt = Instant.now();
 
     public enum EntryType {
         DEBIT,  // Money out
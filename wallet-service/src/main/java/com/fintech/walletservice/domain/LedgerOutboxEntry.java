@@ -0,0 +1,97 @@
+package com.fintech.walletservice.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Transactional outbox row for replicating a ledger entry to Ledger Service.
+ *
+ * Written in the same transaction as the wallet balance change, so an entry
+ * is never lost when Ledger Service is down. LedgerOutboxRelay drains pending
+ * rows in the background (at-least-once; Ledger Service dedupes by idempotency key).
+ * Rows Ledger Service rejects, or that run out of attempts, are parked as FAILED.
+ */
+@Entity
+@Table(
+        name = "ledger_outbox",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"idempotency_key"}),
+        indexes = {
+                @Index(name = "idx_outbox_status_next_attempt", columnList = "status, next_attempt_at")
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerOutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID walletId;
+
+    @Column(nullable = false)
+    private UUID userId;
+
+    @Column(nullable = false)
+    private String entryType;
+
+    @Column(nullable = false)
+    private String transactionType;
+
+    @Column(nullable = false)
+    private Long amountMinorUnits;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(nullable = false)
+    private Long balanceAfter;
+
+    @Column(nullable = false)
+    private UUID transactionId;
+
+    private UUID counterpartyWalletId;
+
+    @Column(nullable = false)
+    private String idempotencyKey;
+
+    private String description;
+
+    // created_at of the ledger entry; Ledger Service buckets replication digests by it
+    private Instant occurredAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    private Instant publishedAt;
+
+    public enum Status {
+        PENDING,   // Waiting to be sent (or retried)
+        PUBLISHED, // Acknowledged by Ledger Service
+        FAILED     // Rejected by Ledger Service or out of attempts; needs a look
+    }
+}
@@ -0,0 +1,142 @@
+package com.fintech.walletservice.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A withdrawal to a payment provider, from the reservation of funds to its outcome.
+ *
+ * RESERVED -> SUBMITTED -> PROCESSING -> SETTLED
+ *                 |             |
+ *                 +-> FAILED <--+ -> REFUNDED
+ *
+ * A RESERVED payout the provider rejected goes straight to FAILED, and one whose webhook
+ * arrives before the submission is recorded moves straight to PROCESSING or SETTLED.
+ * Payouts waiting on
+ * the provider (SUBMITTED, PROCESSING) carry nextCheckAt; PayoutStatusPoller asks the
+ * provider about the ones whose webhook is overdue.
+ *
+ * RESERVED is committed before any provider is called, with nextCheckAt as the
+ * deadline for the provider answer. Each provider is written to {@code provider}
+ * before it is called, so a payout whose node died mid-call can be resubmitted to the
+ * same provider under the same idempotency key, or refunded if no provider was called.
+ */
+@Entity
+@Table(
+        name = "payouts",
+        indexes = {
+                @Index(name = "idx_payout_status_next_check", columnList = "status, next_check_at"),
+                @Index(name = "idx_payout_wallet_id", columnList = "wallet_id")
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Payout {
+
+    // The withdrawal id sent to the provider and echoed in its webhooks
+    @Id
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID walletId;
+
+    @Column(nullable = false)
+    private Long amountMinorUnits;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 3)
+    private Wallet.Currency currency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private Status status = Status.RESERVED;
+
+    // Provider last called; the one that accepted the payout once SUBMITTED
+    @Column(length = 20)
+    private String provider;
+
+    @Column(length = 100)
+    private String providerPayoutId;
+
+    // Needed to resubmit an interrupted payout
+    @Column(nullable = false)
+    private String destinationToken;
+
+    // Sent to providers, which dedupe payouts by it
+    @Column(nullable = false)
+    private String idempotencyKey;
+
+    @Column(columnDefinition = "TEXT")
+    private String failureReason;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer statusChecks = 0;
+
+    private Instant nextCheckAt;
+
+    @Version
+    private Long version;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    public enum Status {
+        RESERVED,    // Funds debited, provider not called yet
+        SUBMITTED,   // Provider accepted the payout
+        PROCESSING,  // Provider reported it in progress
+        SETTLED,     // Funds left; final
+        FAILED,      // Provider rejected or failed it; funds still reserved
+        REFUNDED;    // Funds credited back; final
+
+        private static final Map<Status, Set<Status>> NEXT = Map.of(
+                RESERVED, EnumSet.of(SUBMITTED, PROCESSING, SETTLED, FAILED),
+                SUBMITTED, EnumSet.of(PROCESSING, SETTLED, FAILED),
+                PROCESSING, EnumSet.of(SETTLED, FAILED),
+                SETTLED, EnumSet.noneOf(Status.class),
+                FAILED, EnumSet.of(REFUNDED),
+                REFUNDED, EnumSet.noneOf(Status.class)
+        );
+
+        public boolean canMoveTo(Status target) {
+            return NEXT.get(this).contains(target);
+        }
+
+        public boolean isFinal() {
+            return NEXT.get(this).isEmpty();
+        }
+
+        // Waiting on the provider
+        public boolean isInFlight() {
+            return this == SUBMITTED || this == PROCESSING;
+        }
+    }
+
+    // Business logic: Move along the state machine
+    public void transitionTo(Status target) {
+        if (!status.canMoveTo(target)) {
+            throw new IllegalStateException("Payout " + id + " cannot move from " + status + " to " + target);
+        }
+        status = target;
+        if (!target.isInFlight()) {
+            nextCheckAt = null;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.fintech.walletservice.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Durable record that a provider webhook has been applied.
+ *
+ * The key is the primary key, so a webhook retried on any replica is claimed at most
+ * once (see WebhookIdempotencyStore). Rows older than the retention window are purged
+ * by ProcessedWebhookPurgeJob.
+ */
+@Entity
+@Table(
+        name = "processed_webhooks",
+        indexes = @Index(name = "idx_processed_webhooks_processed_at", columnList = "processed_at")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProcessedWebhook {
+
+    // e.g. payout_failure_<withdrawalId>
+    @Id
+    @Column(length = 200)
+    private String webhookKey;
+
+    @Column(nullable = false)
+    private Instant processedAt;
+}
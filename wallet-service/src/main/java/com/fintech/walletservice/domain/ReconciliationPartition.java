@@ -0,0 +1,64 @@
+package com.fintech.walletservice.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A contiguous wallet id range of a reconciliation run.
+ * lastWalletId is the keyset cursor; it commits with each chunk, so a resumed
+ * run continues right after the last reconciled wallet.
+ */
+@Entity
+@Table(
+        name = "reconciliation_partitions",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"run_id", "partition_index"})
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReconciliationPartition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID runId;
+
+    @Column(nullable = false)
+    private Integer partitionIndex;
+
+    // Inclusive bounds, uuid byte order
+    @Column(nullable = false)
+    private UUID rangeFrom;
+
+    @Column(nullable = false)
+    private UUID rangeTo;
+
+    private UUID lastWalletId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private PartitionStatus status = PartitionStatus.PENDING;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long walletsChecked = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long mismatches = 0L;
+
+    private Instant completedAt;
+
+    public enum PartitionStatus {
+        PENDING,
+        COMPLETED
+    }
+}
@@ -0,0 +1,62 @@
+package com.fintech.walletservice.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One pass of the balance reconciliation job over all wallets.
+ * The wallet id space is split into {@link ReconciliationPartition}s; a run that
+ * did not finish (crash, failed chunk) is resumed from its partitions' cursors.
+ */
+@Entity
+@Table(
+        name = "reconciliation_runs",
+        indexes = @Index(name = "idx_recon_run_started_at", columnList = "started_at")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReconciliationRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RunStatus status;
+
+    @Column(nullable = false)
+    private Integer partitionCount;
+
+    // BalanceReconciliationJob.Mode of the latest session
+    @Column(length = 20)
+    private String mode;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long walletsChecked = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long mismatches = 0L;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    public enum RunStatus {
+        RUNNING,    // In progress, or interrupted by a crash
+        COMPLETED,  // Every partition done
+        FAILED,     // Stopped on an error; resumable
+        ABANDONED   // Too old to resume, superseded by a new run
+    }
+}
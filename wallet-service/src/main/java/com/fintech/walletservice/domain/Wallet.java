@@ -4,6 +4,7 @@ import com.fintech.walletservice.exception.InsufficientFundsException;
 import com.fintech.walletservice.exception.WalletNotActiveException;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -47,6 +48,17 @@ public class Wallet {
     @Builder.Default
     private WalletStatus status = WalletStatus.ACTIVE;
 
+    // Hot-wallet mode: > 0 means credits land in wallet_balance_shards slots
+    // and balanceMinorUnits is only the main part of the balance
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Integer shardCount = 0;
+
+    // Sum of shard balances, filled in by the service layer for sharded wallets
+    @Transient
+    private long shardBalanceMinorUnits;
+
     @Version // Optimistic locking
     private Long version;
 
@@ -66,6 +78,15 @@ public class Wallet {
         ACTIVE, FROZEN, CLOSED
     }
 
+    public boolean isSharded() {
+        return shardCount != null && shardCount > 0;
+    }
+
+    // Total spendable balance: main balance plus any not-yet-consolidated shard credits
+    public long getTotalBalanceMinorUnits() {
+        return balanceMinorUnits + shardBalanceMinorUnits;
+    }
+
     // Business logic: Check if wallet can perform operations
     public void validateActive() {
         if (status != WalletStatus.ACTIVE) {
@@ -0,0 +1,16 @@
+package com.fintech.walletservice.domain;
+
+import java.util.UUID;
+
+/**
+ * Wallet state returned by an atomic balance update.
+ * Read straight from the UPDATE ... RETURNING row, so it is the committed-to-be
+ * balance right after this transaction's change.
+ */
+public record WalletBalance(
+        UUID walletId,
+        UUID userId,
+        Wallet.Currency currency,
+        Long balanceMinorUnits,
+        Long version
+) {}
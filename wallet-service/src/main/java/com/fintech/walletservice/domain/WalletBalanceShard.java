@@ -0,0 +1,47 @@
+package com.fintech.walletservice.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One sub-balance slot of a sharded (hot) wallet.
+ *
+ * Concurrent credits pick a random slot, so they contend on N rows instead of
+ * the single wallets row. Debits drain every slot back into the wallet's main
+ * balance while holding the wallet row lock. The wallet's total balance is
+ * main balance + sum of its slots.
+ */
+@Entity
+@Table(
+        name = "wallet_balance_shards",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"wallet_id", "slot"})
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WalletBalanceShard {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID walletId;
+
+    @Column(nullable = false)
+    private Integer slot;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long balanceMinorUnits = 0L;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private Instant updatedAt;
+}
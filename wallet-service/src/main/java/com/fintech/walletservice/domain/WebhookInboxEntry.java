@@ -0,0 +1,68 @@
+package com.fintech.walletservice.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/**
+ * A provider webhook as it arrived, signature already verified.
+ *
+ * The webhook endpoint only appends rows; WebhookInboxWorker parses and applies them
+ * in id order, so the acknowledgement never waits on wallet locks.
+ */
+@Entity
+@Table(
+        name = "webhook_inbox",
+        indexes = @Index(name = "idx_webhook_inbox_status_id", columnList = "status, id")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WebhookInboxEntry {
+
+    // Arrival order
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 20)
+    private String provider;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(nullable = false)
+    private Instant nextAttemptAt;
+
+    // Withdrawal id of a parsed event still waiting here; later events for it wait behind this row
+    @Column(length = 100)
+    private String orderingKey;
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private Instant receivedAt;
+
+    private Instant processedAt;
+
+    public enum Status {
+        PENDING,    // Waiting to be applied (or retried)
+        PROCESSED,  // Applied
+        FAILED      // Gave up after max attempts; needs a look
+    }
+}
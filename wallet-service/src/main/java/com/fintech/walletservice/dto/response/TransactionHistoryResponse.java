@@ -0,0 +1,26 @@
+package com.fintech.walletservice.dto.response;
+
+import com.fintech.walletservice.service.TransactionHistoryPage;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "One page of transaction history, most recent first")
+public record TransactionHistoryResponse(
+        @Schema(description = "Entries on this page")
+        List<LedgerEntryResponse> content,
+
+        @Schema(description = "Pass as 'cursor' to get the next page; null on the last page")
+        String nextCursor,
+
+        @Schema(description = "Whether there are older entries")
+        boolean hasMore
+) {
+    public static TransactionHistoryResponse from(TransactionHistoryPage page) {
+        return new TransactionHistoryResponse(
+                page.entries().stream().map(LedgerEntryResponse::from).toList(),
+                page.hasMore() ? page.nextCursor().encode() : null,
+                page.hasMore()
+        );
+    }
+}
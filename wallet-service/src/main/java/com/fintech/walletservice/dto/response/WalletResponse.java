@@ -24,6 +24,6 @@ public record WalletResponse(
 ) {
     public static WalletResponse from(Wallet w) {
         return new WalletResponse(w.getId(), w.getUserId(), w.getCurrency().name(),
-                w.getBalanceMinorUnits(), w.getStatus().name());
+                w.getTotalBalanceMinorUnits(), w.getStatus().name());
     }
 }
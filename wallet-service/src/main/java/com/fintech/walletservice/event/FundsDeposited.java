@@ -0,0 +1,21 @@
+package com.fintech.walletservice.event;
+
+import com.fintech.walletservice.domain.Wallet;
+
+import java.util.UUID;
+
+/**
+ * A deposit was applied to a wallet. Published inside the money-path transaction,
+ * handled only after it commits.
+ *
+ * @param userEmail captured on the request thread; UserContext is not visible to listeners
+ */
+public record FundsDeposited(
+        UUID walletId,
+        UUID userId,
+        Wallet.Currency currency,
+        long amountMinorUnits,
+        long balanceAfterMinorUnits,
+        UUID transactionId,
+        String userEmail
+) {}
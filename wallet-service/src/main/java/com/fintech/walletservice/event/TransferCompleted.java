@@ -0,0 +1,24 @@
+package com.fintech.walletservice.event;
+
+import com.fintech.walletservice.domain.Wallet;
+
+import java.util.UUID;
+
+/**
+ * Both legs of a transfer were applied. Published inside the transfer transaction,
+ * handled only after it commits.
+ *
+ * @param senderEmail captured on the request thread; UserContext is not visible to listeners
+ */
+public record TransferCompleted(
+        UUID transactionId,
+        UUID fromWalletId,
+        UUID fromUserId,
+        long fromBalanceAfterMinorUnits,
+        UUID toWalletId,
+        UUID toUserId,
+        long toBalanceAfterMinorUnits,
+        Wallet.Currency currency,
+        long amountMinorUnits,
+        String senderEmail
+) {}
@@ -0,0 +1,7 @@
+package com.fintech.walletservice.exception;
+
+public class ReconciliationInProgressException extends WalletException {
+    public ReconciliationInProgressException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,60 @@
+package com.fintech.walletservice.job;
+
+import com.fintech.walletservice.domain.Deposit;
+import com.fintech.walletservice.service.DepositService;
+import com.fintech.walletservice.service.PaymentRoutingService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Cancels deposits that were never settled, typically because their node died while
+ * a provider was charging or the provider's answer was a timeout or fault. The wallet was not credited, so whatever a provider
+ * charged is cancelled; a deposit whose cancellation fails is retried every
+ * {@code wallet.deposits.cancel-retry-minutes}.
+ */
+@Component
+@Slf4j
+public class DepositRecoveryJob {
+
+    private final DepositService depositService;
+    private final PaymentRoutingService paymentRoutingService;
+    private final int batchSize;
+
+    public DepositRecoveryJob(
+            DepositService depositService,
+            PaymentRoutingService paymentRoutingService,
+            @Value("${wallet.deposits.batch-size:100}") int batchSize
+    ) {
+        this.depositService = depositService;
+        this.paymentRoutingService = paymentRoutingService;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.deposits.recovery-interval-ms:60000}")
+    public void cancelAbandonedDeposits() {
+        List<Deposit> overdue = depositService.claimOverdue(batchSize);
+        int cancelled = 0;
+        for (Deposit deposit : overdue) {
+            try {
+                if (paymentRoutingService.cancelAbandonedDeposit(deposit)) {
+                    depositService.markCancelled(deposit.getId());
+                    cancelled++;
+                } else {
+                    log.warn("Abandoned deposit not cancelled yet, retrying later: idempotencyKey={}, walletId={}, amount={}",
+                            deposit.getIdempotencyKey(), deposit.getWalletId(), deposit.getAmountMinorUnits());
+                }
+            } catch (RuntimeException e) {
+                log.warn("Cancelling abandoned deposit failed: idempotencyKey={}: {}",
+                        deposit.getIdempotencyKey(), e.getMessage());
+            }
+        }
+
+        if (!overdue.isEmpty()) {
+            log.info("Cancelled {} of {} abandoned deposits", cancelled, overdue.size());
+        }
+    }
+}
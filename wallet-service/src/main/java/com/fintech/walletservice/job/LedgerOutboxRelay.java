@@ -0,0 +1,187 @@
+package com.fintech.walletservice.job;
+
+import com.fintech.walletservice.client.LedgerClient;
+import com.fintech.walletservice.client.dto.CreateLedgerEntryRequest;
+import com.fintech.walletservice.domain.LedgerOutboxEntry;
+import com.fintech.walletservice.service.LedgerOutboxService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the ledger outbox to Ledger Service.
+ *
+ * Delivery is at-least-once: a row is only marked published after Ledger Service
+ * acknowledged it, and Ledger Service dedupes replays by idempotency key.
+ * No database connection is held while talking to Ledger Service.
+ *
+ * A 409 means Ledger Service already holds the entry (it was created concurrently or
+ * has since been archived), so the row counts as published. Entries rejected with
+ * another 4xx are parked as FAILED right away; others are retried until {@code max-attempts}. The pending and failed counts are exported
+ * as gauges and checked every {@code backlog-check-interval-ms}, which also warns
+ * while rows pile up with the ledger integration disabled.
+ */
+@Component
+@Slf4j
+public class LedgerOutboxRelay {
+
+    private final LedgerOutboxService outboxService;
+    private final LedgerClient ledgerClient;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration retention;
+    private final long backlogAlertThreshold;
+    private final AtomicLong pendingEntries = new AtomicLong();
+    private final AtomicLong failedEntries = new AtomicLong();
+
+    public LedgerOutboxRelay(
+            LedgerOutboxService outboxService,
+            LedgerClient ledgerClient,
+            MeterRegistry meterRegistry,
+            @Value("${wallet.outbox.batch-size:100}") int batchSize,
+            @Value("${wallet.outbox.max-batches-per-run:50}") int maxBatchesPerRun,
+            @Value("${wallet.outbox.retention-days:7}") long retentionDays,
+            @Value("${wallet.outbox.backlog-alert-threshold:10000}") long backlogAlertThreshold
+    ) {
+        this.outboxService = outboxService;
+        this.ledgerClient = ledgerClient;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.retention = Duration.ofDays(retentionDays);
+        this.backlogAlertThreshold = backlogAlertThreshold;
+
+        Gauge.builder("wallet.ledger.outbox.pending", pendingEntries, AtomicLong::get)
+                .description("Ledger outbox rows waiting to be sent, as of the last backlog check")
+                .register(meterRegistry);
+        Gauge.builder("wallet.ledger.outbox.failed", failedEntries, AtomicLong::get)
+                .description("Ledger outbox rows parked as FAILED, as of the last backlog check")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.outbox.poll-interval-ms:1000}")
+    public void relayPendingEntries() {
+        if (!ledgerClient.isEnabled()) {
+            return;
+        }
+
+        int published = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            List<LedgerOutboxEntry> batch = outboxService.claimBatch(batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            published += publish(batch);
+
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+
+        if (published > 0) {
+            log.info("Relayed {} ledger entries to Ledger Service", published);
+        }
+    }
+
+    /**
+     * Refresh the backlog gauges and log when the outbox needs attention.
+     */
+    @Scheduled(fixedDelayString = "${wallet.outbox.backlog-check-interval-ms:60000}",
+               initialDelayString = "${wallet.outbox.backlog-check-interval-ms:60000}")
+    public void checkBacklog() {
+        Map<LedgerOutboxEntry.Status, Long> counts = outboxService.countByStatus();
+        long pending = counts.getOrDefault(LedgerOutboxEntry.Status.PENDING, 0L);
+        long failed = counts.getOrDefault(LedgerOutboxEntry.Status.FAILED, 0L);
+        pendingEntries.set(pending);
+        failedEntries.set(failed);
+
+        if (!ledgerClient.isEnabled() && pending > 0) {
+            log.warn("Ledger integration is disabled; {} ledger outbox entries are waiting", pending);
+        } else if (pending >= backlogAlertThreshold) {
+            log.warn("Ledger outbox backlog: {} entries waiting to be sent", pending);
+        }
+        if (failed > 0) {
+            log.error("{} ledger outbox entries are parked as FAILED and need a look", failed);
+        }
+    }
+
+    /**
+     * Remove acknowledged rows once they are past the retention window.
+     */
+    @Scheduled(cron = "${wallet.outbox.purge-cron:0 30 3 * * *}")
+    public void purgePublishedEntries() {
+        int deleted = outboxService.purgePublishedBefore(Instant.now().minus(retention));
+        log.info("Purged {} published ledger outbox entries", deleted);
+    }
+
+    /**
+     * Send a claimed batch in a single call. Ledger Service applies it in one
+     * transaction, so either every entry is acknowledged or none is; if the batch
+     * fails, the entries are sent one by one so a single bad row cannot hold back the rest.
+     */
+    private int publish(List<LedgerOutboxEntry> batch) {
+        if (batch.size() > 1) {
+            List<CreateLedgerEntryRequest> requests = batch.stream()
+                    .map(LedgerOutboxService::toLedgerRequest)
+                    .toList();
+            try {
+                ledgerClient.recordTransactions(requests);
+                outboxService.markPublished(batch.stream().map(LedgerOutboxEntry::getId).toList());
+                return batch.size();
+            } catch (Exception e) {
+                log.warn("Ledger batch of {} entries failed, sending them one by one: {}",
+                        batch.size(), e.getMessage());
+            }
+        }
+
+        List<UUID> published = new ArrayList<>(batch.size());
+        for (LedgerOutboxEntry entry : batch) {
+            try {
+                ledgerClient.recordTransaction(LedgerOutboxService.toLedgerRequest(entry));
+                published.add(entry.getId());
+            } catch (Exception e) {
+                if (isAlreadyRecorded(e)) {
+                    log.info("Ledger entry {} already recorded: {}", entry.getIdempotencyKey(), e.getMessage());
+                    published.add(entry.getId());
+                    continue;
+                }
+                outboxService.markFailed(entry.getId(), e.getMessage(), isRetryable(e));
+            }
+        }
+        outboxService.markPublished(published);
+        return published.size();
+    }
+
+    /**
+     * Ledger Service answers a create with 409 DUPLICATE_ENTRY when the idempotency key
+     * is already taken, either by a concurrent insert that committed first or by an
+     * entry whose partition has been archived. Either way the entry is recorded.
+     */
+    static boolean isAlreadyRecorded(Exception e) {
+        return e instanceof WebClientResponseException response && response.getStatusCode().value() == 409;
+    }
+
+    /**
+     * A 4xx means Ledger Service will reject the entry again, except for
+     * timeouts, conflicts and rate limiting.
+     */
+    static boolean isRetryable(Exception e) {
+        if (e instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError()) {
+            int status = response.getStatusCode().value();
+            return status == 408 || status == 409 || status == 429;
+        }
+        return true;
+    }
+}
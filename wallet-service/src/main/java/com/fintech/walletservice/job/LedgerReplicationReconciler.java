@@ -0,0 +1,351 @@
+package com.fintech.walletservice.job;
+
+import com.fintech.walletservice.client.LedgerClient;
+import com.fintech.walletservice.client.dto.DigestNode;
+import com.fintech.walletservice.domain.LedgerEntry;
+import com.fintech.walletservice.domain.Wallet;
+import com.fintech.walletservice.exception.ReconciliationInProgressException;
+import com.fintech.walletservice.repository.LedgerEntryRepository;
+import com.fintech.walletservice.repository.WalletRepository;
+import com.fintech.walletservice.service.LedgerDigestService;
+import com.fintech.walletservice.service.LedgerOutboxService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cross-checks this service's ledger against its replica in Ledger Service.
+ *
+ * Both services hash their entries into the same Merkle tree:
+ * wallet id range -> wallet -> time bucket -> entry. The job compares range roots
+ * and descends only into nodes whose digests differ, so checking a ledger that is
+ * in sync transfers one digest per range instead of the entries themselves.
+ *
+ * Entries missing from Ledger Service are put back into the outbox. Entries that
+ * differ, or exist only in Ledger Service, are reported for investigation.
+ * Entries younger than the lag are left out, so rows still in flight through the
+ * outbox are not reported as missing. So are entries older than {@code history-days}:
+ * Ledger Service detaches months older than its retention, and an archived entry would
+ * look missing and be requeued for good. The history must therefore end inside
+ * {@code ledger-retention-months}, which mirrors ledger.partitions.retention-months;
+ * a longer one fails at startup.
+ */
+@Component
+@Slf4j
+public class LedgerReplicationReconciler {
+
+    private final LedgerDigestService localDigests;
+    private final LedgerClient ledgerClient;
+    private final LedgerEntryRepository ledgerRepository;
+    private final WalletRepository walletRepository;
+    private final LedgerOutboxService outboxService;
+    private final int partitions;
+    private final int fanout;
+    private final int walletPageSize;
+    private final long bucketSeconds;
+    private final Duration lag;
+    private final Duration history;
+    private final boolean repair;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public LedgerReplicationReconciler(
+            LedgerDigestService localDigests,
+            LedgerClient ledgerClient,
+            LedgerEntryRepository ledgerRepository,
+            WalletRepository walletRepository,
+            LedgerOutboxService outboxService,
+            @Value("${wallet.ledger-reconciliation.partitions:16}") int partitions,
+            @Value("${wallet.ledger-reconciliation.fanout:16}") int fanout,
+            @Value("${wallet.ledger-reconciliation.wallet-page-size:256}") int walletPageSize,
+            @Value("${wallet.ledger-reconciliation.bucket-seconds:86400}") long bucketSeconds,
+            @Value("${wallet.ledger-reconciliation.lag-seconds:900}") long lagSeconds,
+            @Value("${wallet.ledger-reconciliation.history-days:600}") long historyDays,
+            @Value("${wallet.ledger-reconciliation.ledger-retention-months:24}") int ledgerRetentionMonths,
+            @Value("${wallet.ledger-reconciliation.repair:true}") boolean repair
+    ) {
+        // Every month is at least 28 days; the history start is rounded down by up to one bucket
+        Duration retention = Duration.ofDays(28L * ledgerRetentionMonths);
+        if (historyDays < 1 || Duration.ofDays(historyDays).plusSeconds(bucketSeconds).compareTo(retention) > 0) {
+            throw new IllegalArgumentException("wallet.ledger-reconciliation.history-days must be positive and end within "
+                    + ledgerRetentionMonths + " months of retention (at most "
+                    + (retention.toDays() - Duration.ofSeconds(bucketSeconds).toDays()) + " days)");
+        }
+        this.localDigests = localDigests;
+        this.ledgerClient = ledgerClient;
+        this.ledgerRepository = ledgerRepository;
+        this.walletRepository = walletRepository;
+        this.outboxService = outboxService;
+        this.partitions = partitions;
+        this.fanout = fanout;
+        this.walletPageSize = walletPageSize;
+        this.bucketSeconds = bucketSeconds;
+        this.lag = Duration.ofSeconds(lagSeconds);
+        this.history = Duration.ofDays(historyDays);
+        this.repair = repair;
+    }
+
+    @Scheduled(cron = "${wallet.ledger-reconciliation.cron:0 0 4 * * *}")
+    public void reconcileScheduled() {
+        if (!ledgerClient.isEnabled()) {
+            return;
+        }
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Skipping ledger replication check: a run is already in progress");
+            return;
+        }
+        try {
+            execute(repair);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Manual trigger; {@code repair} = false only reports.
+     */
+    public LedgerReplicationReport reconcileManually(boolean repair) {
+        if (!ledgerClient.isEnabled()) {
+            throw new IllegalArgumentException("Ledger Service integration is disabled");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new ReconciliationInProgressException("A ledger replication check is already in progress");
+        }
+        try {
+            return execute(repair);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public LedgerReplicationReport reconcileManually() {
+        return reconcileManually(repair);
+    }
+
+    private LedgerReplicationReport execute(boolean repair) {
+        long startTime = System.currentTimeMillis();
+        Instant upTo = Instant.now().minus(lag);
+        Comparison comparison = new Comparison(since(upTo), upTo, repair);
+
+        List<WalletIdRange> ranges = WalletIdRange.split(partitions);
+        for (WalletIdRange range : ranges) {
+            try {
+                compareRange(range, comparison);
+            } catch (Exception e) {
+                comparison.failedRanges++;
+                log.warn("Ledger replication check of range {}..{} failed: {}",
+                        range.from(), range.to(), e.getMessage());
+            }
+        }
+
+        LedgerReplicationReport report = comparison.report(ranges.size(), System.currentTimeMillis() - startTime);
+        if (report.inSync()) {
+            log.info("✅ Ledger Service replica in sync. {} ranges, {} remote digests. Duration: {}ms",
+                    report.rangesCompared(), report.nodesFetched(), report.durationMs());
+        } else {
+            log.error("❌ Ledger Service replica out of sync: {}", report);
+        }
+        return report;
+    }
+
+    // ==================== Tree Descent ====================
+
+    private void compareRange(WalletIdRange range, Comparison comparison) {
+        DigestNode local = localDigests.digestRange(range.from(), range.to(), comparison.since, comparison.upTo, bucketSeconds);
+        DigestNode remote = ledgerClient.digestRange(range.from(), range.to(), comparison.since, comparison.upTo, bucketSeconds);
+        comparison.nodesFetched++;
+
+        if (local.digest().equals(remote.digest())) {
+            return;
+        }
+        comparison.rangesDiffering++;
+
+        // Too many wallets to list in one page: narrow the range first
+        if (Math.max(local.children(), remote.children()) > walletPageSize) {
+            List<WalletIdRange> subranges = range.subdivide(fanout);
+            if (subranges.size() > 1) {
+                for (WalletIdRange subrange : subranges) {
+                    compareRange(subrange, comparison);
+                }
+                return;
+            }
+        }
+
+        List<DigestNode> remoteWallets = ledgerClient.digestWallets(
+                range.from(), range.to(), comparison.since, comparison.upTo, bucketSeconds);
+        comparison.nodesFetched += remoteWallets.size();
+
+        for (String walletId : differingKeys(
+                localDigests.digestWallets(range.from(), range.to(), comparison.since, comparison.upTo, bucketSeconds),
+                remoteWallets)) {
+            comparison.walletsDiffering++;
+            compareBuckets(UUID.fromString(walletId), comparison);
+        }
+    }
+
+    private void compareBuckets(UUID walletId, Comparison comparison) {
+        List<DigestNode> remoteBuckets = ledgerClient.digestBuckets(walletId, comparison.since, comparison.upTo, bucketSeconds);
+        comparison.nodesFetched += remoteBuckets.size();
+
+        for (String bucket : differingKeys(
+                localDigests.digestBuckets(walletId, comparison.since, comparison.upTo, bucketSeconds), remoteBuckets)) {
+            comparison.bucketsDiffering++;
+            compareEntries(walletId, Long.parseLong(bucket), comparison);
+        }
+    }
+
+    private void compareEntries(UUID walletId, long bucket, Comparison comparison) {
+        List<DigestNode> remoteEntries = ledgerClient.digestEntries(walletId, bucket, comparison.since, comparison.upTo, bucketSeconds);
+        comparison.nodesFetched += remoteEntries.size();
+
+        Map<String, DigestNode> local = byKey(localDigests.digestEntries(walletId, bucket, comparison.since, comparison.upTo, bucketSeconds));
+        Map<String, DigestNode> remote = byKey(remoteEntries);
+
+        List<String> missing = new ArrayList<>();
+        for (String key : differingKeys(local, remote)) {
+            if (!remote.containsKey(key)) {
+                missing.add(key);
+            } else if (!local.containsKey(key)) {
+                comparison.unexpectedEntries++;
+                log.error("Ledger Service has entry {} for wallet {} that Wallet Service does not", key, walletId);
+            } else {
+                comparison.divergentEntries++;
+                log.error("Ledger Service copy of entry {} for wallet {} differs from the original", key, walletId);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            comparison.missingEntries += missing.size();
+            log.warn("Ledger Service is missing {} entries of wallet {}: {}", missing.size(), walletId, missing);
+            if (comparison.repair) {
+                comparison.requeuedEntries += requeue(walletId, missing);
+            }
+        }
+    }
+
+    // ==================== Repair ====================
+
+    private int requeue(UUID walletId, List<String> idempotencyKeys) {
+        Optional<Wallet> wallet = walletRepository.findById(walletId);
+        if (wallet.isEmpty()) {
+            log.error("Cannot requeue entries of unknown wallet {}", walletId);
+            return 0;
+        }
+
+        int requeued = 0;
+        for (LedgerEntry entry : ledgerRepository.findByIdempotencyKeyIn(idempotencyKeys)) {
+            // A transfer is the only kind of transaction with an entry on another wallet
+            Optional<UUID> counterparty = ledgerRepository.findByTransactionId(entry.getTransactionId()).stream()
+                    .map(LedgerEntry::getWalletId)
+                    .filter(id -> !id.equals(walletId))
+                    .findFirst();
+            String transactionType = entry.getTransactionType() != null
+                    ? entry.getTransactionType()
+                    : inferTransactionType(entry, counterparty.isPresent());
+
+            if (outboxService.requeue(entry, wallet.get().getUserId(), wallet.get().getCurrency(),
+                    transactionType, counterparty.orElse(null))) {
+                requeued++;
+            }
+        }
+        return requeued;
+    }
+
+    // ==================== Helpers ====================
+
+    // Entries written before transaction_type was stored; a refund reads as a deposit here
+    private static String inferTransactionType(LedgerEntry entry, boolean transfer) {
+        boolean credit = entry.getEntryType() == LedgerEntry.EntryType.CREDIT;
+        return transfer
+                ? (credit ? "TRANSFER_IN" : "TRANSFER_OUT")
+                : (credit ? "DEPOSIT" : "WITHDRAWAL");
+    }
+
+    private static Set<String> differingKeys(List<DigestNode> local, List<DigestNode> remote) {
+        return differingKeys(byKey(local), byKey(remote));
+    }
+
+    private static Set<String> differingKeys(Map<String, DigestNode> local, Map<String, DigestNode> remote) {
+        Set<String> keys = new LinkedHashSet<>(local.keySet());
+        keys.addAll(remote.keySet());
+        keys.removeIf(key -> local.containsKey(key) && remote.containsKey(key)
+                && local.get(key).digest().equals(remote.get(key).digest()));
+        return keys;
+    }
+
+    private static Map<String, DigestNode> byKey(List<DigestNode> nodes) {
+        Map<String, DigestNode> map = new LinkedHashMap<>();
+        for (DigestNode node : nodes) {
+            map.put(node.key(), node);
+        }
+        return map;
+    }
+
+    // Start of the compared history, on a bucket boundary so no bucket is cut in half
+    private Instant since(Instant upTo) {
+        long start = upTo.minus(history).getEpochSecond();
+        return Instant.ofEpochSecond(Math.max(0, start - Math.floorMod(start, bucketSeconds)));
+    }
+
+    /**
+     * Counters of one run; the descent is single-threaded.
+     */
+    private static class Comparison {
+        private final Instant since;
+        private final Instant upTo;
+        private final boolean repair;
+        private int rangesDiffering;
+        private int walletsDiffering;
+        private int bucketsDiffering;
+        private int missingEntries;
+        private int requeuedEntries;
+        private int divergentEntries;
+        private int unexpectedEntries;
+        private int failedRanges;
+        private long nodesFetched;
+
+        Comparison(Instant since, Instant upTo, boolean repair) {
+            this.since = since;
+            this.upTo = upTo;
+            this.repair = repair;
+        }
+
+        LedgerReplicationReport report(int rangesCompared, long durationMs) {
+            return new LedgerReplicationReport(rangesCompared, rangesDiffering, walletsDiffering,
+                    bucketsDiffering, missingEntries, requeuedEntries, divergentEntries,
+                    unexpectedEntries, failedRanges, nodesFetched, upTo, durationMs);
+        }
+    }
+
+    public record LedgerReplicationReport(
+            int rangesCompared,
+            int rangesDiffering,
+            int walletsDiffering,
+            int bucketsDiffering,
+            int missingEntries,
+            int requeuedEntries,
+            int divergentEntries,
+            int unexpectedEntries,
+            int failedRanges,
+            long nodesFetched,
+            Instant comparedUpTo,
+            long durationMs
+    ) {
+        public boolean inSync() {
+            return failedRanges == 0 && missingEntries == 0 && divergentEntries == 0 && unexpectedEntries == 0;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.fintech.walletservice.job;
+
+import com.fintech.walletservice.adapter.PaymentProviderAdapter;
+import com.fintech.walletservice.adapter.dto.PayoutResult;
+import com.fintech.walletservice.domain.Payout;
+import com.fintech.walletservice.service.PaymentRoutingService;
+import com.fintech.walletservice.service.PayoutService;
+import com.fintech.walletservice.service.WithdrawalWebhookHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Asks providers about payouts whose webhook is overdue.
+ *
+ * Due payouts come from the payouts (status, next_check_at) index and are looked up
+ * with one status query per provider and batch. Answers go through
+ * WithdrawalWebhookHandler with the same idempotency keys as webhooks, so a webhook
+ * arriving after a status check (or the other way round) is a duplicate.
+ *
+ * Claiming a payout already schedules its next check, so a payout still in progress,
+ * or one whose provider could not be reached, is simply checked again later.
+ *
+ * Payouts still RESERVED past their deadline were never confirmed sent; they go back
+ * to PaymentRoutingService to be resubmitted or refunded.
+ */
+@Component
+@Slf4j
+public class PayoutStatusPoller {
+
+    private final PayoutService payoutService;
+    private final PaymentRoutingService paymentRoutingService;
+    private final WithdrawalWebhookHandler webhookHandler;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final int alertAfterChecks;
+
+    public PayoutStatusPoller(
+            PayoutService payoutService,
+            PaymentRoutingService paymentRoutingService,
+            WithdrawalWebhookHandler webhookHandler,
+            @Value("${wallet.payouts.batch-size:100}") int batchSize,
+            @Value("${wallet.payouts.max-batches-per-run:20}") int maxBatchesPerRun,
+            @Value("${wallet.payouts.alert-after-checks:6}") int alertAfterChecks
+    ) {
+        this.payoutService = payoutService;
+        this.paymentRoutingService = paymentRoutingService;
+        this.webhookHandler = webhookHandler;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.alertAfterChecks = alertAfterChecks;
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.payouts.poll-interval-ms:60000}")
+    public void checkOverduePayouts() {
+        int resolved = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            List<Payout> batch = payoutService.claimDueForCheck(batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            for (Payout payout : batch) {
+                if (payout.getStatus() == Payout.Status.RESERVED) {
+                    resolved += resume(payout) ? 1 : 0;
+                }
+            }
+
+            Map<String, List<Payout>> byProvider = batch.stream()
+                    .filter(payout -> payout.getStatus() != Payout.Status.RESERVED)
+                    .collect(Collectors.groupingBy(Payout::getProvider, LinkedHashMap::new, Collectors.toList()));
+            for (Map.Entry<String, List<Payout>> provider : byProvider.entrySet()) {
+                resolved += check(provider.getKey(), provider.getValue());
+            }
+
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+
+        if (resolved > 0) {
+            log.info("Resolved {} overdue payouts by status check", resolved);
+        }
+    }
+
+    /**
+     * @return true if the payout left RESERVED
+     */
+    private boolean resume(Payout payout) {
+        try {
+            paymentRoutingService.resumeWithdrawal(payout);
+        } catch (RuntimeException e) {
+            log.warn("Resuming payout failed: withdrawalId={}: {}", payout.getId(), e.getMessage());
+            return false;
+        }
+        alertStuck(List.of(payout));
+        return payoutService.findPayout(payout.getId())
+                .map(current -> current.getStatus() != Payout.Status.RESERVED)
+                .orElse(false);
+    }
+
+    /**
+     * @return payouts that reached a final answer
+     */
+    private int check(String provider, List<Payout> payouts) {
+        PaymentProviderAdapter adapter = paymentRoutingService.getAllProviders().get(provider);
+        if (adapter == null) {
+            log.error("Cannot check {} payouts: unknown provider {}", payouts.size(), provider);
+            return 0;
+        }
+
+        Map<String, PayoutResult> statuses;
+        try {
+            statuses = adapter.getPayoutStatuses(payouts.stream().map(Payout::getProviderPayoutId).toList())
+                    .stream()
+                    .collect(Collectors.toMap(PayoutResult::getPayoutId, Function.identity(), (a, b) -> b));
+        } catch (RuntimeException e) {
+            log.warn("Payout status check with {} failed for {} payouts: {}", provider, payouts.size(), e.getMessage());
+            return 0;
+        }
+
+        int resolved = 0;
+        for (Payout payout : payouts) {
+            try {
+                resolved += apply(payout, statuses.get(payout.getProviderPayoutId())) ? 1 : 0;
+            } catch (RuntimeException e) {
+                log.warn("Applying payout status failed: withdrawalId={}: {}", payout.getId(), e.getMessage());
+            }
+        }
+        alertStuck(payouts);
+        return resolved;
+    }
+
+    private boolean apply(Payout payout, PayoutResult status) {
+        if (status == null) {
+            log.warn("Provider {} does not know payout {} (withdrawalId={})",
+                    payout.getProvider(), payout.getProviderPayoutId(), payout.getId());
+            return false;
+        }
+
+        switch (status.getStatus()) {
+            case "COMPLETED" -> {
+                webhookHandler.handlePayoutSuccess(payout.getId(), status.getPayoutId());
+                return true;
+            }
+            case "FAILED" -> {
+                webhookHandler.handlePayoutFailure(payout.getId(),
+                        status.getErrorMessage() != null ? status.getErrorMessage() : "Reported failed by status check");
+                return true;
+            }
+            default -> {
+                webhookHandler.handlePayoutProcessing(payout.getId(), status.getPayoutId());
+                return false;
+            }
+        }
+    }
+
+    private void alertStuck(Collection<Payout> payouts) {
+        for (Payout payout : payouts) {
+            if (payout.getStatusChecks() >= alertAfterChecks) {
+                log.error("Payout unresolved after {} status checks, needs manual review: withdrawalId={}, provider={}, payoutId={}, since={}",
+                        payout.getStatusChecks(), payout.getId(), payout.getProvider(),
+                        payout.getProviderPayoutId(), payout.getCreatedAt());
+            }
+        }
+    }
+}
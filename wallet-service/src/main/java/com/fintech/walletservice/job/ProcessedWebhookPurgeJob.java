@@ -0,0 +1,32 @@
+package com.fintech.walletservice.job;
+
+import com.fintech.walletservice.service.WebhookIdempotencyStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deletes webhook idempotency rows past their retention, in batches,
+ * so processed_webhooks stays bounded by webhook volume per retention window.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProcessedWebhookPurgeJob {
+
+    private final WebhookIdempotencyStore idempotencyStore;
+
+    @Scheduled(cron = "${wallet.webhooks.idempotency.purge-cron:0 45 3 * * *}")
+    public void purgeExpired() {
+        long startTime = System.currentTimeMillis();
+        try {
+            int deleted = idempotencyStore.purgeExpired();
+            log.info("Purged {} processed webhook keys. Duration: {}ms",
+                    deleted, System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            // Whatever was deleted stays deleted; the next run continues
+            log.warn("Processed webhook purge failed: {}", e.getMessage());
+        }
+    }
+}
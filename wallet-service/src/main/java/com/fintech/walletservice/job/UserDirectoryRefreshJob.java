@@ -0,0 +1,35 @@
+package com.fintech.walletservice.job;
+
+import com.fintech.walletservice.service.UserDirectory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Re-resolves cached email -> user id mappings in bulk before they expire,
+ * so recipient lookups of active users stay local hits.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserDirectoryRefreshJob {
+
+    private final UserDirectory userDirectory;
+
+    @Scheduled(fixedDelayString = "${wallet.user-directory.refresh-interval-ms:60000}",
+               initialDelayString = "${wallet.user-directory.refresh-interval-ms:60000}")
+    public void refreshDirectory() {
+        long startTime = System.currentTimeMillis();
+        try {
+            int refreshed = userDirectory.refreshStale();
+            if (refreshed > 0) {
+                log.debug("User directory: {} emails refreshed. Duration: {}ms",
+                        refreshed, System.currentTimeMillis() - startTime);
+            }
+        } catch (Exception e) {
+            // Entries keep serving until their TTL; the next run tries again
+            log.warn("User directory refresh failed: {}", e.getMessage());
+        }
+    }
+}
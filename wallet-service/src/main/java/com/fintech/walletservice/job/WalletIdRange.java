@@ -0,0 +1,88 @@
+package com.fintech.walletservice.job;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Inclusive range of wallet ids in Postgres uuid order (unsigned, byte by byte).
+ */
+public record WalletIdRange(UUID from, UUID to) {
+
+    public static final UUID MIN = new UUID(0L, 0L);
+    public static final UUID MAX = new UUID(-1L, -1L);
+
+    private static final BigInteger HIGH_BITS_SPAN = BigInteger.ONE.shiftLeft(64);
+
+    /**
+     * Split the whole id space into {@code count} contiguous ranges of equal width.
+     * Random (v4) ids spread evenly, so the ranges hold similar numbers of wallets.
+     */
+    public static List<WalletIdRange> split(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Partition count must be positive");
+        }
+
+        List<WalletIdRange> ranges = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UUID from = i == 0 ? MIN : new UUID(highBitsAt(i, count), 0L);
+            UUID to = i == count - 1 ? MAX : new UUID(highBitsAt(i + 1, count) - 1, -1L);
+            ranges.add(new WalletIdRange(from, to));
+        }
+        return ranges;
+    }
+
+    /**
+     * The next id in uuid order; used to continue a keyset scan after {@code id}.
+     */
+    public static UUID successor(UUID id) {
+        if (id.equals(MAX)) {
+            throw new IllegalArgumentException("No uuid after " + id);
+        }
+        long lsb = id.getLeastSignificantBits() + 1;
+        long msb = id.getMostSignificantBits() + (lsb == 0 ? 1 : 0);
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * Split this range into up to {@code count} contiguous sub-ranges of (nearly) equal width,
+     * fewer if the range holds fewer ids than that.
+     */
+    public List<WalletIdRange> subdivide(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Partition count must be positive");
+        }
+
+        BigInteger low = toUnsigned(from);
+        BigInteger span = toUnsigned(to).subtract(low).add(BigInteger.ONE);
+        BigInteger parts = span.min(BigInteger.valueOf(count));
+
+        List<WalletIdRange> ranges = new ArrayList<>(parts.intValue());
+        for (int i = 0; i < parts.intValue(); i++) {
+            BigInteger start = low.add(span.multiply(BigInteger.valueOf(i)).divide(parts));
+            BigInteger end = low.add(span.multiply(BigInteger.valueOf(i + 1)).divide(parts)).subtract(BigInteger.ONE);
+            ranges.add(new WalletIdRange(fromUnsigned(start), fromUnsigned(end)));
+        }
+        return ranges;
+    }
+
+    private static BigInteger toUnsigned(UUID id) {
+        return new BigInteger(1, ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array());
+    }
+
+    private static UUID fromUnsigned(BigInteger value) {
+        return new UUID(value.shiftRight(64).longValue(), value.longValue());
+    }
+
+    // floor(i * 2^64 / count) as an unsigned long
+    private static long highBitsAt(int i, int count) {
+        return HIGH_BITS_SPAN.multiply(BigInteger.valueOf(i))
+                .divide(BigInteger.valueOf(count))
+                .longValue();
+    }
+}
@@ -0,0 +1,289 @@
+package com.fintech.walletservice.job;
+
+import com.fintech.walletservice.adapter.PaymentProviderAdapter;
+import com.fintech.walletservice.adapter.dto.WebhookEvent;
+import com.fintech.walletservice.domain.WebhookInboxEntry;
+import com.fintech.walletservice.service.PaymentRoutingService;
+import com.fintech.walletservice.service.WebhookInboxService;
+import com.fintech.walletservice.service.WithdrawalWebhookHandler;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Applies the provider webhooks stored by WebhookController.
+ *
+ * One replica drains at a time (session advisory lock), claiming rows in id order.
+ * A claimed batch is split into lanes by the wallet the withdrawal debited; lanes run
+ * in parallel, and each lane applies its events in id order in one transaction. If that
+ * transaction fails the lane falls back to one transaction per event, so one bad event
+ * only delays itself and the later events of the same withdrawal.
+ *
+ * Events of a withdrawal never overtake each other: while an earlier row of the same
+ * withdrawal is still pending, later rows are held back without spending an attempt.
+ */
+@Component
+@Slf4j
+public class WebhookInboxWorker {
+
+    // Session-level advisory lock key shared by every wallet-service replica
+    static final long DRAIN_LOCK_KEY = 7_265_820_221L;
+
+    private final WebhookInboxService inbox;
+    private final PaymentRoutingService paymentRoutingService;
+    private final WithdrawalWebhookHandler webhookHandler;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService lanes;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration retention;
+
+    public WebhookInboxWorker(
+            WebhookInboxService inbox,
+            PaymentRoutingService paymentRoutingService,
+            WithdrawalWebhookHandler webhookHandler,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${wallet.webhooks.inbox.enabled:true}") boolean enabled,
+            @Value("${wallet.webhooks.inbox.threads:4}") int threads,
+            @Value("${wallet.webhooks.inbox.batch-size:200}") int batchSize,
+            @Value("${wallet.webhooks.inbox.max-batches-per-run:20}") int maxBatchesPerRun,
+            @Value("${wallet.webhooks.inbox.retention-days:7}") long retentionDays
+    ) {
+        this.inbox = inbox;
+        this.paymentRoutingService = paymentRoutingService;
+        this.webhookHandler = webhookHandler;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lanes = Executors.newFixedThreadPool(threads, namedThreads());
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.retention = Duration.ofDays(retentionDays);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        lanes.shutdown();
+        try {
+            if (!lanes.awaitTermination(30, TimeUnit.SECONDS)) {
+                lanes.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lanes.shutdownNow();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.webhooks.inbox.poll-interval-ms:500}")
+    public void drain() {
+        if (!enabled) {
+            return;
+        }
+        drainOnce();
+    }
+
+    /**
+     * Drain due rows unless another replica is already draining.
+     */
+    void drainOnce() {
+        // The lock lives on this connection; it is held only while draining
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (!advisoryLock(connection, "pg_try_advisory_lock")) {
+                return null;
+            }
+            try {
+                drainBatches();
+            } finally {
+                advisoryLock(connection, "pg_advisory_unlock");
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Remove applied rows once they are past the retention window.
+     */
+    @Scheduled(cron = "${wallet.webhooks.inbox.purge-cron:0 15 4 * * *}")
+    public void purgeProcessedEntries() {
+        int deleted = inbox.purgeProcessedBefore(Instant.now().minus(retention));
+        log.info("Purged {} processed webhook inbox entries", deleted);
+    }
+
+    private void drainBatches() {
+        int applied = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            List<WebhookInboxEntry> batch = inbox.claimBatch(batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            applied += process(batch);
+
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+
+        if (applied > 0) {
+            log.info("Applied {} provider webhooks from the inbox", applied);
+        }
+    }
+
+    private int process(List<WebhookInboxEntry> batch) {
+        List<InboxEvent> events = parse(batch);
+        List<Long> batchIds = batch.stream().map(WebhookInboxEntry::getId).toList();
+        Set<String> keys = new HashSet<>();
+        events.forEach(event -> {
+            if (event.orderingKey() != null) {
+                keys.add(event.orderingKey());
+            }
+        });
+        Map<String, Long> earliestPending = inbox.findEarliestPending(keys, batchIds);
+
+        // Lanes keep id order; events of unknown wallets share the null lane
+        Map<UUID, List<InboxEvent>> byWallet = new LinkedHashMap<>();
+        for (InboxEvent event : events) {
+            Long waitingFor = event.orderingKey() == null ? null : earliestPending.get(event.orderingKey());
+            if (waitingFor != null && waitingFor < event.id()) {
+                inbox.holdBack(event.id(), event.orderingKey(), waitingFor);
+                continue;
+            }
+            byWallet.computeIfAbsent(walletOf(event), wallet -> new ArrayList<>()).add(event);
+        }
+
+        List<CompletableFuture<Integer>> results = byWallet.values().stream()
+                .map(lane -> CompletableFuture.supplyAsync(() -> applyLane(lane), lanes))
+                .toList();
+        return results.stream().mapToInt(CompletableFuture::join).sum();
+    }
+
+    private List<InboxEvent> parse(List<WebhookInboxEntry> batch) {
+        Map<String, PaymentProviderAdapter> adapters = paymentRoutingService.getAllProviders();
+        List<InboxEvent> events = new ArrayList<>(batch.size());
+        for (WebhookInboxEntry entry : batch) {
+            PaymentProviderAdapter adapter = adapters.get(entry.getProvider());
+            try {
+                if (adapter == null) {
+                    throw new IllegalStateException("Unknown provider " + entry.getProvider());
+                }
+                events.add(new InboxEvent(entry.getId(), adapter, adapter.parseWebhook(entry.getPayload())));
+            } catch (RuntimeException e) {
+                inbox.markFailed(entry.getId(), null, "Unparseable webhook: " + e.getMessage());
+            }
+        }
+        return events;
+    }
+
+    private UUID walletOf(InboxEvent event) {
+        UUID withdrawalId = event.event().getInternalId();
+        if (withdrawalId == null) {
+            return null;
+        }
+        Optional<UUID> walletId = webhookHandler.findWalletId(withdrawalId);
+        return walletId.orElse(null);
+    }
+
+    /**
+     * Apply one wallet's events in a single transaction, or one by one if that fails.
+     *
+     * @return events applied
+     */
+    private int applyLane(List<InboxEvent> lane) {
+        if (lane.size() > 1) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    lane.forEach(this::apply);
+                    inbox.markProcessed(lane.stream().map(InboxEvent::id).toList());
+                });
+                return lane.size();
+            } catch (RuntimeException e) {
+                log.warn("Webhook batch of {} events failed, applying them one by one: {}",
+                        lane.size(), e.getMessage());
+            }
+        }
+
+        int applied = 0;
+        Set<String> failedKeys = new HashSet<>();
+        for (InboxEvent event : lane) {
+            if (event.orderingKey() != null && failedKeys.contains(event.orderingKey())) {
+                inbox.markFailed(event.id(), event.orderingKey(), "Earlier event of the same withdrawal failed");
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    apply(event);
+                    inbox.markProcessed(List.of(event.id()));
+                });
+                applied++;
+            } catch (RuntimeException e) {
+                if (event.orderingKey() != null) {
+                    failedKeys.add(event.orderingKey());
+                }
+                inbox.markFailed(event.id(), event.orderingKey(), e.getMessage());
+            }
+        }
+        return applied;
+    }
+
+    private void apply(InboxEvent event) {
+        event.adapter().handleWebhook(event.event());
+    }
+
+    private static boolean advisoryLock(Connection connection, String function) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT " + function + "(?)")) {
+            statement.setLong(1, DRAIN_LOCK_KEY);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private static ThreadFactory namedThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "webhook-inbox-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * A parsed inbox row; events of one withdrawal share an ordering key.
+     */
+    private record InboxEvent(Long id, PaymentProviderAdapter adapter, WebhookEvent event) {
+
+        String orderingKey() {
+            return event.getInternalId() == null ? null : event.getInternalId().toString();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.fintech.walletservice.repository;
+
+import com.fintech.walletservice.domain.Deposit;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface DepositRepository extends JpaRepository<Deposit, UUID> {
+
+    Optional<Deposit> findByIdempotencyKey(String idempotencyKey);
+
+    /**
+     * @return 1 if the deposit was started, 0 if its idempotency key already exists.
+     *         Waits for a concurrent uncommitted start with the same key to finish.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO {h-schema}deposits (id, idempotency_key, wallet_id, amount_minor_units, currency, " +
+                   "status, next_check_at, version, created_at, updated_at) " +
+                   "VALUES (:id, :idempotencyKey, :walletId, :amount, :currency, 'PENDING', :deadline, 0, :now, :now) " +
+                   "ON CONFLICT (idempotency_key) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(UUID id, String idempotencyKey, UUID walletId, Long amount, String currency,
+                       Instant deadline, Instant now);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Deposit d WHERE d.id = :id")
+    Optional<Deposit> findByIdForUpdate(UUID id);
+
+    /**
+     * Lock unfinished deposits past their deadline, oldest first.
+     */
+    @Query(value = "SELECT * FROM {h-schema}deposits " +
+                   "WHERE status IN ('PENDING', 'CANCELLING') AND next_check_at <= :now " +
+                   "ORDER BY next_check_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<Deposit> findOverdueForUpdate(Instant now, int limit);
+}
@@ -0,0 +1,16 @@
+package com.fintech.walletservice.repository;
+
+/**
+ * One node of the replication digest tree: a wallet id range, a wallet,
+ * a time bucket or a single entry.
+ */
+public interface DigestRow {
+
+    String getKey();
+
+    String getDigest();
+
+    Long getChildren();
+
+    Long getEntries();
+}
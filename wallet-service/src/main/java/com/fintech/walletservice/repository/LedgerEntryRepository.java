@@ -7,6 +7,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -18,13 +20,104 @@ public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, UUID>
 
     List<LedgerEntry> findByTransactionId(UUID transactionId);
 
+    // Transaction history, newest first; keyset pages over idx_ledger_wallet_created_id
+    @Query(value = "SELECT * FROM {h-schema}ledger_entries WHERE wallet_id = :walletId " +
+                   "ORDER BY created_at DESC, id DESC LIMIT :limit",
+           nativeQuery = true)
+    List<LedgerEntry> findHistoryPage(UUID walletId, int limit);
+
+    @Query(value = "SELECT * FROM {h-schema}ledger_entries WHERE wallet_id = :walletId " +
+                   "AND (created_at, id) < (:createdAt, :id) " +
+                   "ORDER BY created_at DESC, id DESC LIMIT :limit",
+           nativeQuery = true)
+    List<LedgerEntry> findHistoryPageAfter(UUID walletId, Instant createdAt, UUID id, int limit);
+
     // Idempotency check
     boolean existsByIdempotencyKey(String idempotencyKey);
 
     Optional<LedgerEntry> findByIdempotencyKey(String idempotencyKey);
 
+    List<LedgerEntry> findByIdempotencyKeyIn(Collection<String> idempotencyKeys);
+
     // Balance reconciliation query
     @Query("SELECT COALESCE(SUM(CASE WHEN e.entryType = 'CREDIT' THEN e.amountMinorUnits " +
            "ELSE -e.amountMinorUnits END), 0) FROM LedgerEntry e WHERE e.walletId = :walletId")
     Long calculateBalanceFromLedger(UUID walletId);
+
+    // ==================== Balance Checkpoints ====================
+    // Entries are ordered by (created_at, id); the range queries below walk
+    // idx_ledger_wallet_created_id from a checkpoint watermark.
+
+    String SUM_ENTRIES =
+            "SELECT CAST(COALESCE(SUM(CASE WHEN entry_type = 'CREDIT' THEN amount_minor_units " +
+            "ELSE -amount_minor_units END), 0) AS BIGINT) AS balance, COUNT(*) AS count " +
+            "FROM {h-schema}ledger_entries WHERE wallet_id = :walletId ";
+
+    // Newest entry at or before the checkpoint horizon
+    Optional<LedgerEntry> findFirstByWalletIdAndCreatedAtLessThanEqualOrderByCreatedAtDescIdDesc(
+            UUID walletId, Instant horizon);
+
+    @Query(value = SUM_ENTRIES + "AND (created_at, id) <= (:upToCreatedAt, :upToId)", nativeQuery = true)
+    LedgerTotals sumEntriesUpTo(UUID walletId, Instant upToCreatedAt, UUID upToId);
+
+    @Query(value = SUM_ENTRIES + "AND (created_at, id) > (:afterCreatedAt, :afterId)", nativeQuery = true)
+    LedgerTotals sumEntriesAfter(UUID walletId, Instant afterCreatedAt, UUID afterId);
+
+    @Query(value = SUM_ENTRIES +
+                   "AND (created_at, id) > (:afterCreatedAt, :afterId) " +
+                   "AND (created_at, id) <= (:upToCreatedAt, :upToId)",
+           nativeQuery = true)
+    LedgerTotals sumEntriesBetween(UUID walletId, Instant afterCreatedAt, UUID afterId,
+                                   Instant upToCreatedAt, UUID upToId);
+
+    @Query(value = "SELECT DISTINCT wallet_id FROM {h-schema}ledger_entries " +
+                   "WHERE created_at > :from AND created_at <= :to",
+           nativeQuery = true)
+    List<UUID> findWalletIdsWithEntriesBetween(Instant from, Instant to);
+
+    // ==================== Replication Digests ====================
+    // Merkle tree over the replicated ledger: wallet id range -> wallet -> time bucket -> entry.
+    // Hashes and ordering must stay byte-for-byte identical to ledger-service's
+    // LedgerEntryRepository, otherwise every node differs. Entries before :since are left
+    // out on both sides, so partitions archived by Ledger Service are not reported as missing.
+
+    String DIGEST_LEAVES =
+            "leaves AS (SELECT wallet_id, idempotency_key, " +
+            "CAST(FLOOR(EXTRACT(EPOCH FROM created_at) / :bucketSeconds) AS BIGINT) AS bucket, " +
+            "md5(idempotency_key || ':' || entry_type || ':' || amount_minor_units || ':' || " +
+            "balance_after || ':' || transaction_id) AS hash " +
+            "FROM {h-schema}ledger_entries WHERE created_at >= :since AND created_at < :upTo ";
+
+    String DIGEST_BUCKETS =
+            "buckets AS (SELECT wallet_id, bucket, md5(string_agg(hash, '' ORDER BY hash)) AS digest, " +
+            "COUNT(*) AS entries FROM leaves GROUP BY wallet_id, bucket) ";
+
+    String DIGEST_WALLETS =
+            "wallets AS (SELECT wallet_id, md5(string_agg(bucket || '=' || digest, ',' ORDER BY bucket)) AS digest, " +
+            "COUNT(*) AS children, CAST(SUM(entries) AS BIGINT) AS entries FROM buckets GROUP BY wallet_id) ";
+
+    @Query(value = "WITH " + DIGEST_LEAVES + "AND wallet_id BETWEEN :from AND :to), " +
+                   DIGEST_BUCKETS + ", " + DIGEST_WALLETS +
+                   "SELECT md5(COALESCE(string_agg(wallet_id || '=' || digest, ',' ORDER BY wallet_id), '')) AS digest, " +
+                   "COUNT(*) AS children, CAST(COALESCE(SUM(entries), 0) AS BIGINT) AS entries FROM wallets",
+           nativeQuery = true)
+    DigestRow digestRange(UUID from, UUID to, Instant since, Instant upTo, long bucketSeconds);
+
+    @Query(value = "WITH " + DIGEST_LEAVES + "AND wallet_id BETWEEN :from AND :to), " +
+                   DIGEST_BUCKETS + ", " + DIGEST_WALLETS +
+                   "SELECT CAST(wallet_id AS TEXT) AS key, digest, children, entries FROM wallets ORDER BY wallet_id",
+           nativeQuery = true)
+    List<DigestRow> digestWallets(UUID from, UUID to, Instant since, Instant upTo, long bucketSeconds);
+
+    @Query(value = "WITH " + DIGEST_LEAVES + "AND wallet_id = :walletId), " + DIGEST_BUCKETS +
+                   "SELECT CAST(bucket AS TEXT) AS key, digest, entries AS children, entries " +
+                   "FROM buckets ORDER BY bucket",
+           nativeQuery = true)
+    List<DigestRow> digestBuckets(UUID walletId, Instant since, Instant upTo, long bucketSeconds);
+
+    @Query(value = "WITH " + DIGEST_LEAVES + "AND wallet_id = :walletId) " +
+                   "SELECT idempotency_key AS key, hash AS digest, CAST(0 AS BIGINT) AS children, " +
+                   "CAST(1 AS BIGINT) AS entries FROM leaves WHERE bucket = :bucket ORDER BY idempotency_key",
+           nativeQuery = true)
+    List<DigestRow> digestEntries(UUID walletId, long bucket, Instant since, Instant upTo, long bucketSeconds);
 }
@@ -0,0 +1,40 @@
+package com.fintech.walletservice.repository;
+
+import com.fintech.walletservice.domain.LedgerOutboxEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface LedgerOutboxRepository extends JpaRepository<LedgerOutboxEntry, UUID> {
+
+    /**
+     * Lock a batch of due rows. SKIP LOCKED lets several relay instances
+     * drain the outbox concurrently without picking the same rows.
+     */
+    @Query(value = "SELECT * FROM {h-schema}ledger_outbox " +
+                   "WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+                   "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<LedgerOutboxEntry> findDueForUpdate(Instant now, int limit);
+
+    @Modifying
+    @Query("UPDATE LedgerOutboxEntry e SET e.status = :status, e.publishedAt = :publishedAt, " +
+           "e.lastError = null WHERE e.id IN :ids")
+    int markPublished(Collection<UUID> ids, LedgerOutboxEntry.Status status, Instant publishedAt);
+
+    @Modifying
+    @Query("DELETE FROM LedgerOutboxEntry e WHERE e.status = :status AND e.publishedAt < :before")
+    int deletePublishedBefore(LedgerOutboxEntry.Status status, Instant before);
+
+    Optional<LedgerOutboxEntry> findByIdempotencyKey(String idempotencyKey);
+
+    long countByStatus(LedgerOutboxEntry.Status status);
+}
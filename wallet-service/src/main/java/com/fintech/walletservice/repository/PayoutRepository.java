@@ -0,0 +1,45 @@
+package com.fintech.walletservice.repository;
+
+import com.fintech.walletservice.domain.Payout;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface PayoutRepository extends JpaRepository<Payout, UUID> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payout p WHERE p.id = :id")
+    Optional<Payout> findByIdForUpdate(UUID id);
+
+    /**
+     * Note the provider about to be called for a payout that is still RESERVED. Only the
+     * first provider is recorded: once called, it may have paid, so the payout stays
+     * pinned to it.
+     */
+    @Modifying
+    @Query("UPDATE Payout p SET p.provider = :provider, p.version = p.version + 1 " +
+           "WHERE p.id = :id AND p.provider IS NULL " +
+           "AND p.status = com.fintech.walletservice.domain.Payout.Status.RESERVED")
+    int recordAttempt(UUID id, String provider);
+
+    /**
+     * Lock payouts whose status check (or, for RESERVED, provider answer) is due,
+     * oldest first. Served by idx_payout_status_next_check.
+     */
+    @Query(value = "SELECT * FROM {h-schema}payouts " +
+                   "WHERE status IN ('RESERVED', 'SUBMITTED', 'PROCESSING') AND next_check_at <= :now " +
+                   "ORDER BY next_check_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<Payout> findDueForCheck(Instant now, int limit);
+
+    long countByStatus(Payout.Status status);
+}
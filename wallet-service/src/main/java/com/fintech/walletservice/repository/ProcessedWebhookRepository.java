@@ -0,0 +1,33 @@
+package com.fintech.walletservice.repository;
+
+import com.fintech.walletservice.domain.ProcessedWebhook;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface ProcessedWebhookRepository extends JpaRepository<ProcessedWebhook, String> {
+
+    /**
+     * @return 1 if the key was claimed, 0 if another transaction has committed it.
+     *         Waits for a concurrent uncommitted claim of the same key to finish.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO {h-schema}processed_webhooks (webhook_key, processed_at) " +
+                   "VALUES (:webhookKey, :processedAt) ON CONFLICT (webhook_key) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(String webhookKey, Instant processedAt);
+
+    // One bounded batch per transaction, walked over idx_processed_webhooks_processed_at
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM {h-schema}processed_webhooks WHERE webhook_key IN (" +
+                   "SELECT webhook_key FROM {h-schema}processed_webhooks " +
+                   "WHERE processed_at < :before LIMIT :batchSize)",
+           nativeQuery = true)
+    int deleteProcessedBefore(Instant before, int batchSize);
+}
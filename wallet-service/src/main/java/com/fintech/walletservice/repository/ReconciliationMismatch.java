@@ -0,0 +1,16 @@
+package com.fintech.walletservice.repository;
+
+import java.util.UUID;
+
+/**
+ * A wallet whose total balance (main + shards) differs from its ledger balance
+ * (checkpoint + entries after it).
+ */
+public interface ReconciliationMismatch {
+
+    UUID getId();
+
+    Long getWalletBalance();
+
+    Long getLedgerBalance();
+}
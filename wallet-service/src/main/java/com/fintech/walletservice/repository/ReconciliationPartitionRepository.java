@@ -0,0 +1,14 @@
+package com.fintech.walletservice.repository;
+
+import com.fintech.walletservice.domain.ReconciliationPartition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ReconciliationPartitionRepository extends JpaRepository<ReconciliationPartition, UUID> {
+
+    List<ReconciliationPartition> findByRunIdOrderByPartitionIndex(UUID runId);
+}
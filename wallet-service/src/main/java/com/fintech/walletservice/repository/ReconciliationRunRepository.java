@@ -0,0 +1,15 @@
+package com.fintech.walletservice.repository;
+
+import com.fintech.walletservice.domain.ReconciliationRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ReconciliationRunRepository extends JpaRepository<ReconciliationRun, UUID> {
+
+    Optional<ReconciliationRun> findFirstByStatusInOrderByStartedAtDesc(Collection<ReconciliationRun.RunStatus> statuses);
+}
@@ -0,0 +1,62 @@
+package com.fintech.walletservice.repository;
+
+import com.fintech.walletservice.domain.Wallet;
+import com.fintech.walletservice.domain.WalletBalance;
+import jakarta.persistence.LockModeType;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Single-statement balance updates.
+ * The row lock is held only for the UPDATE itself instead of SELECT FOR UPDATE + save.
+ */
+public interface WalletBalanceOperations {
+
+    /**
+     * Add {@code delta} (negative for debits) to an ACTIVE, non-sharded wallet's balance.
+     *
+     * @return the new state, or empty if the wallet does not exist, is not ACTIVE,
+     *         is sharded, or the balance would go negative
+     */
+    Optional<WalletBalance> applyBalanceDelta(UUID walletId, long delta);
+
+    /**
+     * Add {@code delta} to the main balance of an ACTIVE wallet in any shard mode.
+     * For sharded wallets the caller must hold the wallet row lock (FOR UPDATE)
+     * and drain the shards first, otherwise the balance check ignores shard credits.
+     */
+    Optional<WalletBalance> applyMainBalanceDelta(UUID walletId, long delta);
+
+    /**
+     * Add {@code amount} to one shard slot of a sharded wallet.
+     * The caller must hold the wallet row lock at least FOR KEY SHARE.
+     *
+     * @return the sum of all the wallet's shard balances after the credit,
+     *         or empty if the slot does not exist
+     */
+    Optional<Long> creditShard(UUID walletId, int slot, long amount);
+
+    /**
+     * Move every shard balance into the wallet's main balance.
+     * The caller must hold the wallet row lock FOR UPDATE so no credit is in flight.
+     *
+     * @return the amount moved
+     */
+    long drainShards(UUID walletId);
+
+    /**
+     * Lock a wallet row and return its current state. Unlike a locking query, a Wallet
+     * already loaded in this transaction is refreshed under the lock instead of being
+     * returned as-is.
+     */
+    Optional<Wallet> lockWallet(UUID walletId, LockModeType lockMode);
+
+    /**
+     * Lock a wallet row FOR KEY SHARE and return its current state, refreshed like
+     * {@link #lockWallet}. The lock waits for FOR UPDATE holders (debits, reshards) but
+     * neither blocks nor is blocked by other credits, including the holder's own
+     * balance UPDATE, so credits that race a reshard can update the row without deadlocking.
+     */
+    Optional<Wallet> lockWalletForCredit(UUID walletId);
+}
@@ -0,0 +1,191 @@
+package com.fintech.walletservice.repository;
+
+import com.fintech.walletservice.domain.Wallet;
+import com.fintech.walletservice.domain.WalletBalance;
+import com.fintech.walletservice.domain.WalletBalanceShard;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.query.NativeQuery;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+class WalletBalanceOperationsImpl implements WalletBalanceOperations {
+
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE {h-schema}wallets " +
+            "SET balance_minor_units = balance_minor_units + :delta, " +
+            "    version = version + 1, " +
+            "    updated_at = :now " +
+            "WHERE id = :walletId AND status = 'ACTIVE' " +
+            "  AND balance_minor_units + :delta >= 0 ";
+
+    private static final String UNSHARDED_ONLY = "  AND shard_count = 0 ";
+
+    private static final String RETURNING_BALANCE =
+            "RETURNING id, user_id, currency, balance_minor_units, version";
+
+    // Other slots are read from the statement snapshot, the credited slot from RETURNING
+    private static final String CREDIT_SHARD_SQL =
+            "WITH credited AS ( " +
+            "    UPDATE {h-schema}wallet_balance_shards " +
+            "    SET balance_minor_units = balance_minor_units + :amount, updated_at = :now " +
+            "    WHERE wallet_id = :walletId AND slot = :slot " +
+            "    RETURNING slot, balance_minor_units " +
+            ") " +
+            "SELECT c.balance_minor_units + COALESCE(( " +
+            "    SELECT SUM(s.balance_minor_units) FROM {h-schema}wallet_balance_shards s " +
+            "    WHERE s.wallet_id = :walletId AND s.slot <> c.slot), 0) " +
+            "FROM credited c";
+
+    // Both CTEs see the same snapshot, so the SUM is taken before the slots are zeroed
+    private static final String DRAIN_SHARDS_SQL =
+            "WITH shard_total AS ( " +
+            "    SELECT COALESCE(SUM(balance_minor_units), 0) AS total " +
+            "    FROM {h-schema}wallet_balance_shards WHERE wallet_id = :walletId " +
+            "), drained AS ( " +
+            "    UPDATE {h-schema}wallet_balance_shards " +
+            "    SET balance_minor_units = 0, updated_at = :now " +
+            "    WHERE wallet_id = :walletId AND balance_minor_units <> 0 " +
+            ") " +
+            "UPDATE {h-schema}wallets w " +
+            "SET balance_minor_units = w.balance_minor_units + t.total, " +
+            "    version = w.version + 1, " +
+            "    updated_at = :now " +
+            "FROM shard_total t " +
+            "WHERE w.id = :walletId AND t.total <> 0 " +
+            "RETURNING t.total";
+
+    private static final String KEY_SHARE_LOCK_SQL =
+            "SELECT id FROM {h-schema}wallets WHERE id = :walletId FOR KEY SHARE";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<WalletBalance> applyBalanceDelta(UUID walletId, long delta) {
+        return applyDelta(APPLY_DELTA_SQL + UNSHARDED_ONLY + RETURNING_BALANCE, walletId, delta);
+    }
+
+    @Override
+    public Optional<WalletBalance> applyMainBalanceDelta(UUID walletId, long delta) {
+        return applyDelta(APPLY_DELTA_SQL + RETURNING_BALANCE, walletId, delta);
+    }
+
+    @Override
+    public Optional<Long> creditShard(UUID walletId, int slot, long amount) {
+        List<?> rows = nativeQuery(CREDIT_SHARD_SQL, WalletBalanceShard.class)
+                .setParameter("amount", amount)
+                .setParameter("now", Instant.now())
+                .setParameter("walletId", walletId)
+                .setParameter("slot", slot)
+                .getResultList();
+
+        return rows.stream()
+                .findFirst()
+                .map(total -> ((Number) total).longValue());
+    }
+
+    @Override
+    public long drainShards(UUID walletId) {
+        List<?> rows = nativeQuery(DRAIN_SHARDS_SQL, Wallet.class)
+                .addSynchronizedEntityClass(WalletBalanceShard.class)
+                .setParameter("now", Instant.now())
+                .setParameter("walletId", walletId)
+                .getResultList();
+
+        if (rows.isEmpty()) {
+            return 0L;
+        }
+
+        evictStaleWallet(walletId);
+        return ((Number) rows.get(0)).longValue();
+    }
+
+    @Override
+    public Optional<Wallet> lockWallet(UUID walletId, LockModeType lockMode) {
+        Wallet cached = cachedWallet(walletId);
+        if (cached != null) {
+            entityManager.flush();
+            entityManager.refresh(cached, lockMode);
+            return Optional.of(cached);
+        }
+        return Optional.ofNullable(entityManager.find(Wallet.class, walletId, lockMode));
+    }
+
+    @Override
+    public Optional<Wallet> lockWalletForCredit(UUID walletId) {
+        List<?> locked = nativeQuery(KEY_SHARE_LOCK_SQL, Wallet.class)
+                .setParameter("walletId", walletId)
+                .getResultList();
+        if (locked.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // Read after the lock was granted, so a reshard that held the row is visible
+        Wallet cached = cachedWallet(walletId);
+        if (cached != null) {
+            entityManager.refresh(cached);
+            return Optional.of(cached);
+        }
+        return Optional.ofNullable(entityManager.find(Wallet.class, walletId));
+    }
+
+    private Optional<WalletBalance> applyDelta(String sql, UUID walletId, long delta) {
+        // Synchronizing on Wallet flushes pending wallet changes (e.g. a wallet
+        // created earlier in this transaction) before the UPDATE runs
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = nativeQuery(sql, Wallet.class)
+                .setParameter("delta", delta)
+                .setParameter("now", Instant.now())
+                .setParameter("walletId", walletId)
+                .getResultList();
+
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+
+        evictStaleWallet(walletId);
+
+        Object[] row = rows.get(0);
+        return Optional.of(new WalletBalance(
+                (UUID) row[0],
+                (UUID) row[1],
+                Wallet.Currency.valueOf((String) row[2]),
+                ((Number) row[3]).longValue(),
+                ((Number) row[4]).longValue()
+        ));
+    }
+
+    @SuppressWarnings("rawtypes")
+    private NativeQuery nativeQuery(String sql, Class<?> synchronizedEntity) {
+        return entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(synchronizedEntity);
+    }
+
+    /**
+     * A Wallet already loaded in this persistence context no longer matches the row
+     * (balance and version changed behind Hibernate's back). Detach it so the next
+     * read reloads it and a later save cannot fail the version check.
+     */
+    private void evictStaleWallet(UUID walletId) {
+        Wallet cached = cachedWallet(walletId);
+        if (cached != null) {
+            entityManager.detach(cached);
+        }
+    }
+
+    // Looks into the persistence context only; never hits the database or creates a proxy
+    private Wallet cachedWallet(UUID walletId) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityKey key = session.generateEntityKey(
+                walletId, session.getEntityPersister(Wallet.class.getName(), null));
+        return (Wallet) session.getPersistenceContextInternal().getEntity(key);
+    }
+}
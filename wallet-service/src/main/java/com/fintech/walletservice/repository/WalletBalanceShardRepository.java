@@ -0,0 +1,20 @@
+package com.fintech.walletservice.repository;
+
+import com.fintech.walletservice.domain.WalletBalanceShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface WalletBalanceShardRepository extends JpaRepository<WalletBalanceShard, UUID> {
+
+    List<WalletBalanceShard> findByWalletIdOrderBySlot(UUID walletId);
+
+    @Modifying
+    @Query("DELETE FROM WalletBalanceShard s WHERE s.walletId = :walletId")
+    int deleteByWalletId(UUID walletId);
+}
@@ -7,18 +7,93 @@ import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface WalletRepository extends JpaRepository<Wallet, UUID> {
+public interface WalletRepository extends JpaRepository<Wallet, UUID>, WalletBalanceOperations {
 
     // CRITICAL: Pessimistic lock prevents concurrent balance updates
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT w FROM Wallet w WHERE w.id = :walletId")
     Optional<Wallet> findByIdForUpdate(UUID walletId);
 
+    // Locks several wallets in one statement; ORDER BY gives every caller the same lock order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Wallet w WHERE w.id IN :walletIds ORDER BY w.id")
+    List<Wallet> findAllByIdForUpdate(Collection<UUID> walletIds);
+
+    // Main balance plus shard slots, read in one statement so the two parts are consistent
+    @Query("SELECT w.balanceMinorUnits + COALESCE((SELECT SUM(s.balanceMinorUnits) " +
+           "FROM WalletBalanceShard s WHERE s.walletId = w.id), 0) " +
+           "FROM Wallet w WHERE w.id = :walletId")
+    Optional<Long> findTotalBalance(UUID walletId);
+
+    @Query("SELECT COALESCE(SUM(s.balanceMinorUnits), 0) FROM WalletBalanceShard s WHERE s.walletId = :walletId")
+    long sumShardBalances(UUID walletId);
+
+    // Main balance for regular wallets; main + shard slots for sharded ones
+    default long totalBalanceOf(Wallet wallet) {
+        if (!wallet.isSharded()) {
+            return wallet.getBalanceMinorUnits();
+        }
+        return findTotalBalance(wallet.getId()).orElse(wallet.getBalanceMinorUnits());
+    }
+
+    /**
+     * Keyset page of wallets in uuid order within [from, to], with total balances.
+     * Walks the primary key; no entities enter the persistence context.
+     */
+    @Query(value = "SELECT w.id AS id, CAST(w.balance_minor_units + COALESCE(( " +
+                   "    SELECT SUM(s.balance_minor_units) FROM {h-schema}wallet_balance_shards s " +
+                   "    WHERE s.wallet_id = w.id), 0) AS BIGINT) AS balance " +
+                   "FROM {h-schema}wallets w " +
+                   "WHERE w.id BETWEEN :from AND :to ORDER BY w.id LIMIT :limit",
+           nativeQuery = true)
+    List<WalletTotalBalance> findTotalBalancesInRange(UUID from, UUID to, int limit);
+
+    // Keyset page of wallet ids in uuid order within [from, to] (index-only scan)
+    @Query(value = "SELECT w.id FROM {h-schema}wallets w " +
+                   "WHERE w.id BETWEEN :from AND :to ORDER BY w.id LIMIT :limit",
+           nativeQuery = true)
+    List<UUID> findIdsInRange(UUID from, UUID to, int limit);
+
+    /**
+     * Set-based reconciliation of every wallet in [from, to] in one statement:
+     * wallet totals (main + shards) against ledger totals (checkpoint + entries
+     * after its watermark), aggregated per wallet in the database.
+     * Only mismatching wallets are returned.
+     */
+    @Query(value = "WITH shard_totals AS ( " +
+                   "    SELECT wallet_id, SUM(balance_minor_units) AS total " +
+                   "    FROM {h-schema}wallet_balance_shards " +
+                   "    WHERE wallet_id BETWEEN :from AND :to " +
+                   "    GROUP BY wallet_id " +
+                   "), ledger_totals AS ( " +
+                   "    SELECT e.wallet_id, SUM(CASE WHEN e.entry_type = 'CREDIT' THEN e.amount_minor_units " +
+                   "                                 ELSE -e.amount_minor_units END) AS total " +
+                   "    FROM {h-schema}ledger_entries e " +
+                   "    LEFT JOIN {h-schema}balance_checkpoints c ON c.wallet_id = e.wallet_id " +
+                   "    WHERE e.wallet_id BETWEEN :from AND :to " +
+                   "      AND (c.wallet_id IS NULL " +
+                   "           OR (e.created_at, e.id) > (c.last_entry_created_at, c.last_entry_id)) " +
+                   "    GROUP BY e.wallet_id " +
+                   ") " +
+                   "SELECT w.id AS id, " +
+                   "       CAST(w.balance_minor_units + COALESCE(s.total, 0) AS BIGINT) AS \"walletBalance\", " +
+                   "       CAST(COALESCE(c.balance_minor_units, 0) + COALESCE(l.total, 0) AS BIGINT) AS \"ledgerBalance\" " +
+                   "FROM {h-schema}wallets w " +
+                   "LEFT JOIN shard_totals s ON s.wallet_id = w.id " +
+                   "LEFT JOIN {h-schema}balance_checkpoints c ON c.wallet_id = w.id " +
+                   "LEFT JOIN ledger_totals l ON l.wallet_id = w.id " +
+                   "WHERE w.id BETWEEN :from AND :to " +
+                   "  AND w.balance_minor_units + COALESCE(s.total, 0) " +
+                   "      <> COALESCE(c.balance_minor_units, 0) + COALESCE(l.total, 0)",
+           nativeQuery = true)
+    List<ReconciliationMismatch> findMismatchesInRange(UUID from, UUID to);
+
     List<Wallet> findByUserId(UUID userId);
 
     Optional<Wallet> findByUserIdAndCurrency(UUID userId, Wallet.Currency currency);
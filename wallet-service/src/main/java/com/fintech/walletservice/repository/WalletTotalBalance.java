@@ -0,0 +1,13 @@
+package com.fintech.walletservice.repository;
+
+import java.util.UUID;
+
+/**
+ * Wallet id with its total balance (main + shard slots), read without loading the entity.
+ */
+public interface WalletTotalBalance {
+
+    UUID getId();
+
+    Long getBalance();
+}
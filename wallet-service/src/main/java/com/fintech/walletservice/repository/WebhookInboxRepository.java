@@ -0,0 +1,44 @@
+package com.fintech.walletservice.repository;
+
+import com.fintech.walletservice.domain.WebhookInboxEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface WebhookInboxRepository extends JpaRepository<WebhookInboxEntry, Long> {
+
+    /**
+     * Lock a batch of due rows in arrival order.
+     */
+    @Query(value = "SELECT * FROM {h-schema}webhook_inbox " +
+                   "WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<WebhookInboxEntry> findDueForUpdate(Instant now, int limit);
+
+    /**
+     * Pending rows outside {@code excludeIds} that hold back later events of their
+     * ordering key, as [orderingKey, earliest id] pairs.
+     */
+    @Query("SELECT e.orderingKey, MIN(e.id) FROM WebhookInboxEntry e " +
+           "WHERE e.status = com.fintech.walletservice.domain.WebhookInboxEntry.Status.PENDING " +
+           "AND e.orderingKey IN :keys AND e.id NOT IN :excludeIds GROUP BY e.orderingKey")
+    List<Object[]> findEarliestPendingByOrderingKey(Collection<String> keys, Collection<Long> excludeIds);
+
+    @Modifying
+    @Query("UPDATE WebhookInboxEntry e SET e.status = :status, e.processedAt = :processedAt, " +
+           "e.lastError = null WHERE e.id IN :ids")
+    int markProcessed(Collection<Long> ids, WebhookInboxEntry.Status status, Instant processedAt);
+
+    @Modifying
+    @Query("DELETE FROM WebhookInboxEntry e WHERE e.status = :status AND e.processedAt < :before")
+    int deleteProcessedBefore(WebhookInboxEntry.Status status, Instant before);
+
+    long countByStatus(WebhookInboxEntry.Status status);
+}
@@ -33,22 +33,25 @@ public class GatewayAuthenticationFilter extends OncePerRequestFilter {
         String userEmail = request.getHeader(USER_EMAIL_HEADER);
         String userRoles = request.getHeader(USER_ROLES_HEADER);
 
+        UserContext.UserInfo user = null;
         if (userId != null && userEmail != null) {
             // Store in request attributes for use in controllers/services
             request.setAttribute("userId", userId);
             request.setAttribute("userEmail", userEmail);
             request.setAttribute("userRoles", userRoles);
 
-            // Set in security context holder
-            UserContext.setCurrentUser(userId, userEmail, userRoles);
+            user = UserContext.UserInfo.of(userId, userEmail, userRoles);
 
             log.debug("Request authenticated via Gateway: user={}, email={}", userId, userEmail);
         }
 
+        // Anonymous requests are bound too, so nothing left on a pooled thread leaks in.
+        // This is the outermost binding of the thread, so it is cleared afterwards rather
+        // than restored: restoring would put back whatever a previous request left behind.
+        UserContext.set(user);
         try {
             filterChain.doFilter(request, response);
         } finally {
-            // Clean up thread-local after request
             UserContext.clear();
         }
     }
@@ -11,17 +11,43 @@ import java.util.UUID;
 /**
  * Thread-local context for storing current user information.
  * Set by GatewayAuthenticationFilter, available throughout the request lifecycle.
+ *
+ * Safe on both platform and virtual request threads: the filter binds every request,
+ * anonymous ones included, and clears the thread-local when the request ends, so a pooled
+ * thread never carries a user into the next request. Nested {@link #open(UserInfo)} scopes
+ * restore the outer user when they close. It is deliberately not inheritable;
+ * work handed to other threads (command lanes, event listeners) must capture what it
+ * needs, as WalletCommand and the domain events do.
  */
 @Slf4j
 public class UserContext {
 
     private static final ThreadLocal<UserInfo> currentUser = new ThreadLocal<>();
 
+    /**
+     * Bind {@code user} (null for anonymous) to the current thread until the returned
+     * scope is closed, then restore whatever was bound before.
+     */
+    public static Scope open(UserInfo user) {
+        UserInfo previous = currentUser.get();
+        set(user);
+        return () -> set(previous);
+    }
+
     public static void setCurrentUser(String userId, String email, String roles) {
-        List<String> roleList = roles != null
-                ? Arrays.asList(roles.split(","))
-                : Collections.emptyList();
-        currentUser.set(new UserInfo(userId, email, roleList));
+        set(UserInfo.of(userId, email, roles));
+    }
+
+    /**
+     * Bind {@code user} (null for anonymous) with no scope to restore; for the outermost
+     * binding of a thread, whose owner calls {@link #clear()} when it is done.
+     */
+    public static void set(UserInfo user) {
+        if (user != null) {
+            currentUser.set(user);
+        } else {
+            currentUser.remove();
+        }
     }
 
     public static UserInfo getCurrentUser() {
@@ -59,6 +85,15 @@ public class UserContext {
         currentUser.remove();
     }
 
+    /**
+     * Binding returned by {@link #open(UserInfo)}; closing it never throws.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
     @Getter
     public static class UserInfo {
         private final String userId;
@@ -68,7 +103,17 @@ public class UserContext {
         public UserInfo(String userId, String email, List<String> roles) {
             this.userId = userId;
             this.email = email;
-            this.roles = roles != null ? roles : Collections.emptyList();
+            this.roles = roles != null ? List.copyOf(roles) : Collections.emptyList();
+        }
+
+        /**
+         * @param roles comma-separated, as forwarded by the Gateway; may be null
+         */
+        public static UserInfo of(String userId, String email, String roles) {
+            List<String> roleList = roles != null
+                    ? Arrays.asList(roles.split(","))
+                    : Collections.emptyList();
+            return new UserInfo(userId, email, roleList);
         }
     }
 }
@@ -0,0 +1,24 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.domain.Wallet;
+
+import java.math.BigDecimal;
+
+/**
+ * Display strings for amounts in minor units, e.g. 12345 USD -> "$123.45".
+ */
+public final class AmountFormatter {
+
+    private AmountFormatter() {
+    }
+
+    public static String format(long minorUnits, Wallet.Currency currency) {
+        String symbol = switch (currency) {
+            case USD -> "$";
+            case EUR -> "€";
+            case UZS -> "UZS ";
+        };
+        // Exact decimal shift; no rounding through double
+        return symbol + BigDecimal.valueOf(minorUnits).movePointLeft(2).toPlainString();
+    }
+}
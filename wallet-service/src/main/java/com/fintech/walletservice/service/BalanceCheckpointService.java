@@ -0,0 +1,126 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.domain.BalanceCheckpoint;
+import com.fintech.walletservice.domain.LedgerEntry;
+import com.fintech.walletservice.repository.BalanceCheckpointRepository;
+import com.fintech.walletservice.repository.LedgerEntryRepository;
+import com.fintech.walletservice.repository.LedgerTotals;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Ledger balances from per-wallet checkpoints.
+ *
+ * A checkpoint only moves up to a horizon that lags behind "now" (see
+ * BalanceCheckpointJob): an entry's created_at is taken before its transaction
+ * commits, so entries younger than the lag may still appear behind the watermark.
+ * Anything that slips past anyway is caught by {@link #verify}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BalanceCheckpointService {
+
+    private final LedgerEntryRepository ledgerRepository;
+    private final BalanceCheckpointRepository checkpointRepository;
+
+    /**
+     * Balance according to the ledger: checkpoint + entries after its watermark.
+     * Wallets without a checkpoint yet are summed in full.
+     */
+    @Transactional(readOnly = true)
+    public long ledgerBalance(UUID walletId) {
+        Optional<BalanceCheckpoint> checkpoint = checkpointRepository.findById(walletId);
+        if (checkpoint.isEmpty()) {
+            return ledgerRepository.calculateBalanceFromLedger(walletId);
+        }
+
+        BalanceCheckpoint cp = checkpoint.get();
+        LedgerTotals recent = ledgerRepository.sumEntriesAfter(
+                walletId, cp.getLastEntryCreatedAt(), cp.getLastEntryId());
+        return cp.getBalanceMinorUnits() + recent.getBalance();
+    }
+
+    /**
+     * Move a wallet's checkpoint up to its newest entry created at or before {@code horizon}.
+     * The first checkpoint of a wallet is built from a full count and counts as verified.
+     *
+     * @return true if the checkpoint was created or moved
+     */
+    @Transactional
+    public boolean advance(UUID walletId, Instant horizon) {
+        Optional<LedgerEntry> newest = ledgerRepository
+                .findFirstByWalletIdAndCreatedAtLessThanEqualOrderByCreatedAtDescIdDesc(walletId, horizon);
+        if (newest.isEmpty()) {
+            return false;
+        }
+        LedgerEntry upTo = newest.get();
+
+        Optional<BalanceCheckpoint> existing = checkpointRepository.findById(walletId);
+        if (existing.isEmpty()) {
+            LedgerTotals totals = ledgerRepository.sumEntriesUpTo(walletId, upTo.getCreatedAt(), upTo.getId());
+            checkpointRepository.save(BalanceCheckpoint.builder()
+                    .walletId(walletId)
+                    .lastEntryCreatedAt(upTo.getCreatedAt())
+                    .lastEntryId(upTo.getId())
+                    .balanceMinorUnits(totals.getBalance())
+                    .entryCount(totals.getCount())
+                    .verifiedAt(Instant.now())
+                    .build());
+            return true;
+        }
+
+        BalanceCheckpoint checkpoint = existing.get();
+        if (checkpoint.getLastEntryId().equals(upTo.getId())) {
+            return false;
+        }
+
+        LedgerTotals delta = ledgerRepository.sumEntriesBetween(walletId,
+                checkpoint.getLastEntryCreatedAt(), checkpoint.getLastEntryId(),
+                upTo.getCreatedAt(), upTo.getId());
+
+        checkpoint.setBalanceMinorUnits(checkpoint.getBalanceMinorUnits() + delta.getBalance());
+        checkpoint.setEntryCount(checkpoint.getEntryCount() + delta.getCount());
+        checkpoint.setLastEntryCreatedAt(upTo.getCreatedAt());
+        checkpoint.setLastEntryId(upTo.getId());
+        return true;
+    }
+
+    /**
+     * Recount a checkpoint from the full history and repair it if it drifted,
+     * e.g. a transaction committed later than the safety lag with an entry
+     * behind the watermark.
+     *
+     * @return true if the checkpoint matched the ledger
+     */
+    @Transactional
+    public boolean verify(UUID walletId) {
+        Optional<BalanceCheckpoint> existing = checkpointRepository.findById(walletId);
+        if (existing.isEmpty()) {
+            return true;
+        }
+
+        BalanceCheckpoint checkpoint = existing.get();
+        LedgerTotals actual = ledgerRepository.sumEntriesUpTo(
+                walletId, checkpoint.getLastEntryCreatedAt(), checkpoint.getLastEntryId());
+
+        boolean matches = actual.getBalance().equals(checkpoint.getBalanceMinorUnits())
+                && actual.getCount().equals(checkpoint.getEntryCount());
+        if (!matches) {
+            log.error("Balance checkpoint of wallet {} drifted: checkpoint={} ({} entries), ledger={} ({} entries). Rebuilt.",
+                    walletId, checkpoint.getBalanceMinorUnits(), checkpoint.getEntryCount(),
+                    actual.getBalance(), actual.getCount());
+            checkpoint.setBalanceMinorUnits(actual.getBalance());
+            checkpoint.setEntryCount(actual.getCount());
+        }
+
+        checkpoint.setVerifiedAt(Instant.now());
+        return matches;
+    }
+}
@@ -0,0 +1,164 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.adapter.dto.DepositRequest;
+import com.fintech.walletservice.adapter.dto.PaymentResult;
+import com.fintech.walletservice.domain.Deposit;
+import com.fintech.walletservice.repository.DepositRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Saga records of provider deposits (see {@link Deposit}).
+ *
+ * PaymentRoutingService starts a record in its own short transaction, calls providers
+ * with no transaction open, and then credits the wallet together with
+ * {@link #markCompleted} under the record's row lock. A record still PENDING
+ * {@code timeout-minutes} after it started is handed to DepositRecoveryJob.
+ */
+@Service
+@Slf4j
+public class DepositService {
+
+    private final DepositRepository depositRepository;
+    private final Duration timeout;
+    private final Duration cancelRetryInterval;
+
+    public DepositService(
+            DepositRepository depositRepository,
+            @Value("${wallet.deposits.timeout-minutes:10}") long timeoutMinutes,
+            @Value("${wallet.deposits.cancel-retry-minutes:5}") long cancelRetryMinutes
+    ) {
+        this.depositRepository = depositRepository;
+        this.timeout = Duration.ofMinutes(timeoutMinutes);
+        this.cancelRetryInterval = Duration.ofMinutes(cancelRetryMinutes);
+    }
+
+    /**
+     * Start the saga for a deposit.
+     *
+     * @return the new PENDING record, or empty if the idempotency key was used before
+     */
+    @Transactional
+    public Optional<Deposit> begin(DepositRequest request) {
+        Instant now = Instant.now();
+        UUID id = UUID.randomUUID();
+        int inserted = depositRepository.insertIfAbsent(id, request.getIdempotencyKey(), request.getWalletId(),
+                request.getAmount(), request.getCurrency().name(), now.plus(timeout), now);
+        return inserted == 0 ? Optional.empty() : depositRepository.findById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Deposit> findByIdempotencyKey(String idempotencyKey) {
+        return depositRepository.findByIdempotencyKey(idempotencyKey);
+    }
+
+    /**
+     * Lock the record for settlement. Must run in the transaction that credits the wallet.
+     *
+     * @return false if recovery already abandoned the deposit
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean lockPending(UUID depositId) {
+        return depositRepository.findByIdForUpdate(depositId)
+                .map(deposit -> deposit.getStatus() == Deposit.Status.PENDING)
+                .orElse(false);
+    }
+
+    /**
+     * Record the charge that credited the wallet, in the same transaction as the credit.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void markCompleted(UUID depositId, PaymentResult result) {
+        depositRepository.findById(depositId).ifPresent(deposit -> {
+            deposit.setStatus(Deposit.Status.COMPLETED);
+            deposit.setProvider(result.getProviderName());
+            deposit.setProviderTransactionId(result.getTransactionId());
+            deposit.setNextCheckAt(null);
+        });
+    }
+
+    /**
+     * A provider accepted the charge but has not confirmed it (e.g. 3-D Secure).
+     * Unless it is confirmed before the deadline, recovery cancels it.
+     */
+    @Transactional
+    public void recordUnconfirmedCharge(UUID depositId, PaymentResult result) {
+        depositRepository.findById(depositId)
+                .filter(deposit -> deposit.getStatus() == Deposit.Status.PENDING)
+                .ifPresent(deposit -> {
+                    deposit.setProvider(result.getProviderName());
+                    deposit.setProviderTransactionId(result.getTransactionId());
+                });
+    }
+
+    /**
+     * Every provider that was called declined; nothing was charged.
+     */
+    @Transactional
+    public void markFailed(UUID depositId, String reason) {
+        depositRepository.findByIdForUpdate(depositId)
+                .filter(deposit -> deposit.getStatus() == Deposit.Status.PENDING)
+                .ifPresent(deposit -> {
+                    deposit.setStatus(Deposit.Status.FAILED);
+                    deposit.setFailureReason(reason);
+                    deposit.setNextCheckAt(null);
+                });
+    }
+
+    /**
+     * No provider confirmed or declined the charge (a timeout, exception or provider
+     * error), so it may have gone through. The deposit moves straight to CANCELLING and
+     * recovery cancels it with the providers by idempotency key on its next run.
+     */
+    @Transactional
+    public void markCancelling(UUID depositId, String reason) {
+        depositRepository.findByIdForUpdate(depositId)
+                .filter(deposit -> deposit.getStatus() == Deposit.Status.PENDING)
+                .ifPresent(deposit -> {
+                    deposit.setStatus(Deposit.Status.CANCELLING);
+                    deposit.setFailureReason(reason);
+                    deposit.setNextCheckAt(Instant.now());
+                });
+    }
+
+    /**
+     * Claim deposits past their deadline. PENDING ones become CANCELLING, so a late
+     * provider answer can no longer credit the wallet; the next attempt is scheduled
+     * right away in case cancelling fails.
+     */
+    @Transactional
+    public List<Deposit> claimOverdue(int batchSize) {
+        Instant now = Instant.now();
+        List<Deposit> overdue = depositRepository.findOverdueForUpdate(now, batchSize);
+
+        for (Deposit deposit : overdue) {
+            if (deposit.getStatus() == Deposit.Status.PENDING) {
+                log.warn("Deposit {} not settled within {} minutes, cancelling it with the providers",
+                        deposit.getIdempotencyKey(), timeout.toMinutes());
+                deposit.setStatus(Deposit.Status.CANCELLING);
+                deposit.setFailureReason("Not settled before its deadline");
+            }
+            deposit.setNextCheckAt(now.plus(cancelRetryInterval));
+        }
+        return overdue;
+    }
+
+    @Transactional
+    public void markCancelled(UUID depositId) {
+        depositRepository.findById(depositId)
+                .filter(deposit -> deposit.getStatus() == Deposit.Status.CANCELLING)
+                .ifPresent(deposit -> {
+                    deposit.setStatus(Deposit.Status.CANCELLED);
+                    deposit.setNextCheckAt(null);
+                });
+    }
+}
@@ -0,0 +1,50 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.client.dto.DigestNode;
+import com.fintech.walletservice.repository.DigestRow;
+import com.fintech.walletservice.repository.LedgerEntryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Merkle digests of this service's ledger, the local side of
+ * LedgerReplicationReconciler. Ledger Service serves the same tree over its replica.
+ */
+@Service
+@RequiredArgsConstructor
+public class LedgerDigestService {
+
+    private final LedgerEntryRepository ledgerRepository;
+
+    @Transactional(readOnly = true)
+    public DigestNode digestRange(UUID from, UUID to, Instant since, Instant upTo, long bucketSeconds) {
+        DigestRow row = ledgerRepository.digestRange(from, to, since, upTo, bucketSeconds);
+        return new DigestNode(null, row.getDigest(), row.getChildren(), row.getEntries());
+    }
+
+    @Transactional(readOnly = true)
+    public List<DigestNode> digestWallets(UUID from, UUID to, Instant since, Instant upTo, long bucketSeconds) {
+        return toNodes(ledgerRepository.digestWallets(from, to, since, upTo, bucketSeconds));
+    }
+
+    @Transactional(readOnly = true)
+    public List<DigestNode> digestBuckets(UUID walletId, Instant since, Instant upTo, long bucketSeconds) {
+        return toNodes(ledgerRepository.digestBuckets(walletId, since, upTo, bucketSeconds));
+    }
+
+    @Transactional(readOnly = true)
+    public List<DigestNode> digestEntries(UUID walletId, long bucket, Instant since, Instant upTo, long bucketSeconds) {
+        return toNodes(ledgerRepository.digestEntries(walletId, bucket, since, upTo, bucketSeconds));
+    }
+
+    private static List<DigestNode> toNodes(List<DigestRow> rows) {
+        return rows.stream()
+                .map(row -> new DigestNode(row.getKey(), row.getDigest(), row.getChildren(), row.getEntries()))
+                .toList();
+    }
+}
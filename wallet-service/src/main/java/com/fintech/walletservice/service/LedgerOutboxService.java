@@ -0,0 +1,211 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.client.dto.CreateLedgerEntryRequest;
+import com.fintech.walletservice.domain.LedgerEntry;
+import com.fintech.walletservice.domain.LedgerOutboxEntry;
+import com.fintech.walletservice.domain.Wallet;
+import com.fintech.walletservice.repository.LedgerOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Transactional outbox for Ledger Service replication.
+ *
+ * Money paths call {@link #enqueue} inside their own transaction, so the outbox
+ * row commits (or rolls back) together with the balance change. The relay job
+ * claims due rows in short transactions and sends them without holding a connection.
+ * Rows Ledger Service rejects, or that fail {@code max-attempts} times, are parked
+ * as FAILED; {@link #requeue} puts them back once the cause is fixed.
+ */
+@Service
+@Slf4j
+public class LedgerOutboxService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final LedgerOutboxRepository outboxRepository;
+    private final Duration claimLease;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final int maxAttempts;
+
+    public LedgerOutboxService(
+            LedgerOutboxRepository outboxRepository,
+            @Value("${wallet.outbox.claim-lease-seconds:30}") long claimLeaseSeconds,
+            @Value("${wallet.outbox.initial-backoff-seconds:1}") long initialBackoffSeconds,
+            @Value("${wallet.outbox.max-backoff-seconds:300}") long maxBackoffSeconds,
+            @Value("${wallet.outbox.max-attempts:50}") int maxAttempts
+    ) {
+        this.outboxRepository = outboxRepository;
+        this.claimLease = Duration.ofSeconds(claimLeaseSeconds);
+        this.initialBackoff = Duration.ofSeconds(initialBackoffSeconds);
+        this.maxBackoff = Duration.ofSeconds(maxBackoffSeconds);
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Queue a ledger entry for replication.
+     * Must run inside the transaction that created the entry.
+     */
+    @Transactional
+    public void enqueue(LedgerEntry entry, UUID userId, Wallet.Currency currency, UUID counterpartyWalletId) {
+        enqueue(entry, userId, currency, entry.getTransactionType(), counterpartyWalletId);
+    }
+
+    private void enqueue(LedgerEntry entry, UUID userId, Wallet.Currency currency,
+                         String transactionType, UUID counterpartyWalletId) {
+        LedgerOutboxEntry outboxEntry = LedgerOutboxEntry.builder()
+                .walletId(entry.getWalletId())
+                .userId(userId)
+                .entryType(entry.getEntryType().name())
+                .transactionType(transactionType)
+                .amountMinorUnits(entry.getAmountMinorUnits())
+                .currency(currency.name())
+                .balanceAfter(entry.getBalanceAfter())
+                .transactionId(entry.getTransactionId())
+                .counterpartyWalletId(counterpartyWalletId)
+                .idempotencyKey(entry.getIdempotencyKey())
+                .description(entry.getDescription())
+                .occurredAt(entry.getCreatedAt())
+                .nextAttemptAt(Instant.now())
+                .build();
+
+        outboxRepository.save(outboxEntry);
+    }
+
+    /**
+     * Send an entry again that Ledger Service turned out not to have.
+     * A published or parked outbox row is reset to pending; a purged one is recreated.
+     *
+     * @return false if the entry is still waiting in the outbox (in flight, not lost)
+     */
+    @Transactional
+    public boolean requeue(LedgerEntry entry, UUID userId, Wallet.Currency currency,
+                           String transactionType, UUID counterpartyWalletId) {
+        Optional<LedgerOutboxEntry> existing = outboxRepository.findByIdempotencyKey(entry.getIdempotencyKey());
+        if (existing.isEmpty()) {
+            enqueue(entry, userId, currency, transactionType, counterpartyWalletId);
+            return true;
+        }
+
+        LedgerOutboxEntry outboxEntry = existing.get();
+        if (outboxEntry.getStatus() == LedgerOutboxEntry.Status.PENDING) {
+            return false;
+        }
+        outboxEntry.setStatus(LedgerOutboxEntry.Status.PENDING);
+        // Rows written before occurred_at existed lack it; the replay backfills Ledger Service's copy
+        outboxEntry.setOccurredAt(entry.getCreatedAt());
+        outboxEntry.setAttempts(0);
+        outboxEntry.setNextAttemptAt(Instant.now());
+        outboxEntry.setPublishedAt(null);
+        outboxEntry.setLastError("Requeued: missing in Ledger Service");
+        return true;
+    }
+
+    /**
+     * Claim a batch of due rows.
+     * Claimed rows are pushed out by the lease so a crashed relay's rows become due again.
+     */
+    @Transactional
+    public List<LedgerOutboxEntry> claimBatch(int batchSize) {
+        Instant now = Instant.now();
+        List<LedgerOutboxEntry> batch = outboxRepository.findDueForUpdate(now, batchSize);
+
+        for (LedgerOutboxEntry entry : batch) {
+            entry.setAttempts(entry.getAttempts() + 1);
+            entry.setNextAttemptAt(now.plus(claimLease));
+        }
+        return batch;
+    }
+
+    @Transactional
+    public void markPublished(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        outboxRepository.markPublished(ids, LedgerOutboxEntry.Status.PUBLISHED, Instant.now());
+    }
+
+    /**
+     * Schedule a retry with exponential backoff, or park the row if Ledger Service
+     * rejected it ({@code retryable} false) or it is out of attempts.
+     */
+    @Transactional
+    public void markFailed(UUID id, String error, boolean retryable) {
+        outboxRepository.findById(id).ifPresent(entry -> {
+            if (!retryable || entry.getAttempts() >= maxAttempts) {
+                entry.setStatus(LedgerOutboxEntry.Status.FAILED);
+                entry.setLastError(truncate(error));
+                log.error("Ledger outbox entry {} failed {} times{}, giving up: {}",
+                        entry.getIdempotencyKey(), entry.getAttempts(),
+                        retryable ? "" : " (rejected)", error);
+                return;
+            }
+            Duration backoff = backoffFor(entry.getAttempts());
+            entry.setNextAttemptAt(Instant.now().plus(backoff));
+            entry.setLastError(truncate(error));
+            log.warn("Ledger outbox entry {} failed (attempt {}), retrying in {}s: {}",
+                    entry.getIdempotencyKey(), entry.getAttempts(), backoff.toSeconds(), error);
+        });
+    }
+
+    @Transactional
+    public int purgePublishedBefore(Instant before) {
+        return outboxRepository.deletePublishedBefore(LedgerOutboxEntry.Status.PUBLISHED, before);
+    }
+
+    @Transactional(readOnly = true)
+    public long countPending() {
+        return outboxRepository.countByStatus(LedgerOutboxEntry.Status.PENDING);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<LedgerOutboxEntry.Status, Long> countByStatus() {
+        Map<LedgerOutboxEntry.Status, Long> counts = new EnumMap<>(LedgerOutboxEntry.Status.class);
+        for (LedgerOutboxEntry.Status status : LedgerOutboxEntry.Status.values()) {
+            counts.put(status, outboxRepository.countByStatus(status));
+        }
+        return counts;
+    }
+
+    public static CreateLedgerEntryRequest toLedgerRequest(LedgerOutboxEntry entry) {
+        return CreateLedgerEntryRequest.builder()
+                .walletId(entry.getWalletId())
+                .userId(entry.getUserId())
+                .entryType(entry.getEntryType())
+                .transactionType(entry.getTransactionType())
+                .amountMinorUnits(entry.getAmountMinorUnits())
+                .currency(entry.getCurrency())
+                .balanceAfter(entry.getBalanceAfter())
+                .transactionId(entry.getTransactionId())
+                .counterpartyWalletId(entry.getCounterpartyWalletId())
+                .idempotencyKey(entry.getIdempotencyKey())
+                .description(entry.getDescription())
+                .occurredAt(entry.getOccurredAt())
+                .build();
+    }
+
+    Duration backoffFor(int attempts) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 20);
+        Duration backoff = initialBackoff.multipliedBy(1L << exponent);
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    private String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
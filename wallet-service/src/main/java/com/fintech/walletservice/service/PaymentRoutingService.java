@@ -5,16 +5,26 @@ import com.fintech.walletservice.adapter.click.ClickAdapter;
 import com.fintech.walletservice.adapter.dto.*;
 import com.fintech.walletservice.adapter.payme.PaymeAdapter;
 import com.fintech.walletservice.adapter.stripe.StripeAdapter;
+import com.fintech.walletservice.domain.Deposit;
+import com.fintech.walletservice.domain.Payout;
 import com.fintech.walletservice.domain.Wallet;
 import com.fintech.walletservice.domain.Wallet.Currency;
 import com.fintech.walletservice.exception.PaymentProviderException;
-import com.fintech.walletservice.exception.WalletNotFoundException;
-import com.fintech.walletservice.repository.WalletRepository;
+import com.fintech.walletservice.service.ProviderHealthTracker.CircuitState;
+import com.fintech.walletservice.service.ProviderHealthTracker.ProviderHealth;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * Routes payment requests to the appropriate payment provider adapter.
@@ -23,6 +33,35 @@ import java.util.*;
  * - UZS → Payme (primary) or Click (fallback)
  * - USD/EUR → Stripe
  *
+ * Each request tries the currency's providers in a weighted random order: the
+ * preferred provider has weight 1, the others {@code payment.routing.fallback-weight},
+ * each scaled by the provider's health (see ProviderHealthTracker). Traffic shifts away
+ * from a slow or failing provider before its circuit opens, and the alternatives keep
+ * seeing a trickle of requests so their health stays current. Providers with an open
+ * circuit are skipped without being called.
+ *
+ * A deposit moves on to the next provider only after a provider fault (timeout,
+ * exception, provider error); a decline is final. A faulted provider may still have
+ * charged, so once a later one succeeds the faulted attempt is cancelled by idempotency
+ * key. A withdrawal is sent to one provider only: a payout that timed out may have been
+ * paid, and sending it elsewhere could pay it twice.
+ *
+ * With {@code payment.routing.hedging.enabled}, a deposit that the first provider has
+ * not answered within its rolling p95, or that failed with a provider fault, is also
+ * sent to the next one; the first success is credited and the other attempt is
+ * cancelled by idempotency key if it succeeded or faulted. A decline is not hedged.
+ * Withdrawals are never hedged: a payout that cannot be recalled must not be sent twice.
+ *
+ * No database transaction is open while a provider is called. A payment is a saga:
+ * a short transaction records it (a Deposit row, or the withdrawal debit and its
+ * Payout row), the providers are called, and a second short transaction credits the
+ * wallet or refunds the reservation under that record's row lock. Payments whose node
+ * died between the two are finished by DepositRecoveryJob and PayoutStatusPoller, and
+ * so are payments whose provider timed out or failed: such a payment may have gone
+ * through, so a deposit is cancelled by idempotency key and a payout stays reserved
+ * and is resubmitted to the same provider. Only a definitive decline fails a deposit
+ * or refunds a payout right away.
+ *
  * Provides unified interface for deposits and withdrawals
  * while handling provider-specific routing logic.
  */
@@ -31,8 +70,21 @@ import java.util.*;
 public class PaymentRoutingService {
 
     private final Map<String, PaymentProviderAdapter> adapters;
-    private final WalletRepository walletRepository;
     private final WalletService walletService;
+    private final PayoutService payoutService;
+    private final DepositService depositService;
+    private final TransactionTemplate transactionTemplate;
+    private final WalletMetrics metrics;
+    private final ProviderHealthTracker healthTracker;
+    private final double fallbackWeight;
+
+    // Races a slow deposit against the next provider; null when hedging is off
+    private final RequestHedger hedger;
+    private final long hedgeMinDelayMillis;
+    private final long hedgeMaxDelayMillis;
+
+    // Answers that mean the provider itself is failing, as opposed to declining the request
+    private static final Set<String> PROVIDER_FAULTS = Set.of("PROVIDER_UNAVAILABLE", "PROVIDER_ERROR", "TIMEOUT");
 
     // Provider preferences by currency
     private static final Map<Currency, List<String>> PROVIDER_PREFERENCES = Map.of(
@@ -45,28 +97,58 @@ public class PaymentRoutingService {
             PaymeAdapter paymeAdapter,
             ClickAdapter clickAdapter,
             StripeAdapter stripeAdapter,
-            WalletRepository walletRepository,
-            WalletService walletService
+            WalletService walletService,
+            PayoutService payoutService,
+            DepositService depositService,
+            PlatformTransactionManager transactionManager,
+            WalletMetrics metrics,
+            ProviderHealthTracker healthTracker,
+            @Value("${payment.routing.fallback-weight:0.1}") double fallbackWeight,
+            @Value("${payment.routing.hedging.enabled:false}") boolean hedgingEnabled,
+            @Value("${payment.routing.hedging.threads:64}") int hedgingThreads,
+            @Value("${payment.routing.hedging.min-delay-ms:50}") long hedgeMinDelayMillis,
+            @Value("${payment.routing.hedging.max-delay-ms:3000}") long hedgeMaxDelayMillis
     ) {
+        if (fallbackWeight < 0 || fallbackWeight > 1) {
+            throw new IllegalArgumentException("payment.routing.fallback-weight must be between 0 and 1");
+        }
+        if (hedgingEnabled && (hedgeMinDelayMillis < 0 || hedgeMaxDelayMillis < hedgeMinDelayMillis)) {
+            throw new IllegalArgumentException("payment.routing.hedging delays must satisfy 0 <= min-delay-ms <= max-delay-ms");
+        }
         this.adapters = new HashMap<>();
         this.adapters.put("PAYME", paymeAdapter);
         this.adapters.put("CLICK", clickAdapter);
         this.adapters.put("STRIPE", stripeAdapter);
-        this.walletRepository = walletRepository;
         this.walletService = walletService;
+        this.payoutService = payoutService;
+        this.depositService = depositService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.metrics = metrics;
+        this.healthTracker = healthTracker;
+        this.fallbackWeight = fallbackWeight;
+        this.hedger = hedgingEnabled ? new RequestHedger(hedgingThreads) : null;
+        this.hedgeMinDelayMillis = hedgeMinDelayMillis;
+        this.hedgeMaxDelayMillis = hedgeMaxDelayMillis;
 
         log.info("PaymentRoutingService initialized with {} adapters", adapters.size());
     }
 
+    @PreDestroy
+    void shutdownHedger() {
+        if (hedger != null) {
+            hedger.shutdown();
+        }
+    }
+
     /**
-     * Select the appropriate payment provider for a currency.
-     * Returns primary provider, use getAlternativeProvider for fallback.
+     * Order in which the next request for a currency tries its providers.
+     * Providers with an open circuit come last; they are skipped when reached.
      *
      * @param currency The currency to process
-     * @return The primary payment provider adapter
+     * @return Provider adapters, first choice first
      * @throws PaymentProviderException if no provider supports the currency
      */
-    public PaymentProviderAdapter selectProvider(Currency currency) {
+    public List<PaymentProviderAdapter> route(Currency currency) {
         List<String> providers = PROVIDER_PREFERENCES.get(currency);
 
         if (providers == null || providers.isEmpty()) {
@@ -75,60 +157,45 @@ public class PaymentRoutingService {
             );
         }
 
-        String primaryProvider = providers.get(0);
-        PaymentProviderAdapter adapter = adapters.get(primaryProvider);
-
-        if (adapter == null) {
-            throw new PaymentProviderException(
-                    "Payment provider not found: " + primaryProvider
-            );
+        // Weighted shuffle: each position is filled with probability proportional to
+        // weight among the providers still left (key = u^(1/weight), largest first)
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Map<String, Double> keys = new HashMap<>();
+        for (String provider : providers) {
+            double weight = weight(providers, provider);
+            keys.put(provider, weight > 0 ? Math.pow(random.nextDouble(), 1 / weight) : -1);
         }
 
-        log.debug("Selected provider {} for currency {}", primaryProvider, currency);
-        return adapter;
-    }
-
-    /**
-     * Get alternative (fallback) provider for a currency.
-     *
-     * @param currency The currency
-     * @param excludeProvider Provider to exclude (failed primary)
-     * @return Optional fallback provider
-     */
-    public Optional<PaymentProviderAdapter> getAlternativeProvider(
-            Currency currency,
-            String excludeProvider
-    ) {
-        List<String> providers = PROVIDER_PREFERENCES.get(currency);
-
-        if (providers == null) {
-            return Optional.empty();
+        List<PaymentProviderAdapter> route = new ArrayList<>();
+        for (String provider : providers.stream()
+                .sorted(Comparator.comparingDouble((String p) -> keys.get(p)).reversed())
+                .toList()) {
+            PaymentProviderAdapter adapter = adapters.get(provider);
+            if (adapter == null) {
+                throw new PaymentProviderException("Payment provider not found: " + provider);
+            }
+            route.add(adapter);
         }
 
-        return providers.stream()
-                .filter(p -> !p.equals(excludeProvider))
-                .map(adapters::get)
-                .filter(Objects::nonNull)
-                .findFirst();
+        log.debug("Routing {} via {}", currency, route.stream().map(PaymentProviderAdapter::getProviderName).toList());
+        return route;
     }
 
     /**
      * Process a deposit through the appropriate payment provider.
      * Automatically routes to correct provider based on currency.
+     * A repeated idempotency key returns the first request's outcome without calling
+     * a provider again.
      *
      * @param request Deposit request
      * @return Payment result from provider
      */
-    @Transactional
     public PaymentResult processDeposit(DepositRequest request) {
         log.info("Processing deposit: walletId={}, amount={} {}",
                 request.getWalletId(), request.getAmount(), request.getCurrency());
 
-        // Validate wallet exists
-        Wallet wallet = walletRepository.findById(request.getWalletId())
-                .orElseThrow(() -> new WalletNotFoundException(
-                        "Wallet not found: " + request.getWalletId()
-                ));
+        // Validate wallet exists (served from the wallet cache when possible)
+        Wallet wallet = walletService.getWalletInternal(request.getWalletId());
 
         // Ensure currency matches
         if (wallet.getCurrency() != request.getCurrency()) {
@@ -140,64 +207,115 @@ public class PaymentRoutingService {
             );
         }
 
-        // Select provider
-        PaymentProviderAdapter adapter = selectProvider(request.getCurrency());
+        // Providers see the key too, so a hedged or retried deposit can be cancelled by it
+        if (request.getIdempotencyKey() == null) {
+            request.setIdempotencyKey(UUID.randomUUID().toString());
+        }
 
-        // Process with primary provider
-        PaymentResult result = adapter.processDeposit(request);
+        Optional<Deposit> started = depositService.begin(request);
+        if (started.isEmpty()) {
+            return replayDeposit(request.getIdempotencyKey());
+        }
+        UUID depositId = started.get().getId();
 
-        // Try fallback if primary fails
-        if (!result.isSuccess()) {
-            Optional<PaymentProviderAdapter> fallback = getAlternativeProvider(
-                    request.getCurrency(),
-                    adapter.getProviderName()
-            );
+        // Try providers in routing order until one accepts
+        List<PaymentProviderAdapter> route = route(request.getCurrency());
+        PaymentResult result = hedger != null && route.size() > 1
+                ? hedgedDeposit(route, request)
+                : depositInOrder(route, request);
 
-            if (fallback.isPresent()) {
-                log.warn("Primary provider {} failed, trying fallback {}",
-                        adapter.getProviderName(), fallback.get().getProviderName());
-                result = fallback.get().processDeposit(request);
+        if (!result.isSuccess()) {
+            if (isUncertain(result.getErrorCode(), result.getProviderName())) {
+                // The provider may have charged; recovery cancels by idempotency key
+                log.warn("Deposit outcome unknown, cancelling it with the providers: idempotencyKey={}, provider={}: {}",
+                        request.getIdempotencyKey(), result.getProviderName(), result.getErrorMessage());
+                depositService.markCancelling(depositId, result.getErrorMessage());
+            } else {
+                depositService.markFailed(depositId, result.getErrorMessage());
             }
+            return result;
+        }
+        if (!"COMPLETED".equals(result.getStatus())) {
+            depositService.recordUnconfirmedCharge(depositId, result);
+            return result;
         }
 
-        // If successful, credit the wallet
-        if (result.isSuccess() && "COMPLETED".equals(result.getStatus())) {
-            String idempotencyKey = request.getIdempotencyKey() != null
-                    ? request.getIdempotencyKey()
-                    : UUID.randomUUID().toString();
-
+        // Credit the wallet; exactly one provider result gets here
+        Boolean credited = transactionTemplate.execute(status -> {
+            if (!depositService.lockPending(depositId)) {
+                return false;
+            }
             walletService.deposit(
                     request.getWalletId(),
                     request.getAmount(),
-                    idempotencyKey,
+                    request.getIdempotencyKey(),
                     "Deposit via " + result.getProviderName() +
                     " - Ref: " + result.getTransactionId()
             );
-
-            log.info("Deposit completed: walletId={}, amount={}, provider={}",
-                    request.getWalletId(), request.getAmount(), result.getProviderName());
+            depositService.markCompleted(depositId, result);
+            return true;
+        });
+
+        if (!Boolean.TRUE.equals(credited)) {
+            // Recovery gave up on the deposit and is cancelling it with the providers
+            log.warn("Deposit answered after its deadline, not crediting: idempotencyKey={}, provider={}, transactionId={}",
+                    request.getIdempotencyKey(), result.getProviderName(), result.getTransactionId());
+            return PaymentResult.failure(
+                    "DEPOSIT_CANCELLED",
+                    "Deposit was not confirmed in time and is being cancelled",
+                    result.getProviderName()
+            );
         }
 
+        log.info("Deposit completed: walletId={}, amount={}, provider={}",
+                request.getWalletId(), request.getAmount(), result.getProviderName());
         return result;
     }
 
+    /**
+     * Cancel an abandoned deposit with every provider for its currency. Providers find
+     * the charge by idempotency key; only the one recorded on the deposit gets its
+     * transaction ID.
+     *
+     * @return true if every provider confirmed nothing is left charged
+     */
+    public boolean cancelAbandonedDeposit(Deposit deposit) {
+        DepositRequest request = DepositRequest.builder()
+                .walletId(deposit.getWalletId())
+                .amount(deposit.getAmountMinorUnits())
+                .currency(deposit.getCurrency())
+                .idempotencyKey(deposit.getIdempotencyKey())
+                .build();
+
+        boolean cancelled = true;
+        for (String provider : getProvidersForCurrency(deposit.getCurrency())) {
+            String transactionId = provider.equals(deposit.getProvider()) ? deposit.getProviderTransactionId() : null;
+            try {
+                cancelled &= adapters.get(provider).cancelDeposit(request, transactionId);
+            } catch (RuntimeException e) {
+                log.warn("Cancelling abandoned deposit failed: provider={}, idempotencyKey={}: {}",
+                        provider, deposit.getIdempotencyKey(), e.getMessage());
+                cancelled = false;
+            }
+        }
+        return cancelled;
+    }
+
     /**
      * Process a withdrawal through the appropriate payment provider.
      * Automatically routes to correct provider based on currency.
+     * A repeated withdrawal ID returns the payout's current state without calling a
+     * provider again.
      *
      * @param request Withdrawal request
      * @return Payout result from provider
      */
-    @Transactional
     public PayoutResult processWithdrawal(WithdrawalRequest request) {
         log.info("Processing withdrawal: walletId={}, amount={} {}",
                 request.getWalletId(), request.getAmount(), request.getCurrency());
 
-        // Validate wallet exists
-        Wallet wallet = walletRepository.findById(request.getWalletId())
-                .orElseThrow(() -> new WalletNotFoundException(
-                        "Wallet not found: " + request.getWalletId()
-                ));
+        // Validate wallet exists (served from the wallet cache when possible)
+        Wallet wallet = walletService.getWalletInternal(request.getWalletId());
 
         // Ensure currency matches
         if (wallet.getCurrency() != request.getCurrency()) {
@@ -210,15 +328,27 @@ public class PaymentRoutingService {
         }
 
         // Check sufficient balance
-        if (wallet.getBalanceMinorUnits() < request.getAmount()) {
+        long available = wallet.getTotalBalanceMinorUnits();
+        if (available < request.getAmount()) {
             return PayoutResult.failure(
                     "INSUFFICIENT_FUNDS",
-                    "Insufficient balance. Available: " + wallet.getBalanceMinorUnits() +
+                    "Insufficient balance. Available: " + available +
                     ", Requested: " + request.getAmount(),
                     "ROUTER"
             );
         }
 
+        // Don't reserve funds when every provider's circuit is open
+        List<PaymentProviderAdapter> route = route(request.getCurrency());
+        if (route.stream().allMatch(adapter ->
+                healthTracker.circuitState(adapter.getProviderName()) == CircuitState.OPEN)) {
+            return PayoutResult.failure(
+                    "PROVIDER_UNAVAILABLE",
+                    "All payment providers for " + request.getCurrency() + " are unavailable",
+                    "ROUTER"
+            );
+        }
+
         // Generate withdrawal ID if not provided
         UUID withdrawalId = request.getWithdrawalId() != null
                 ? request.getWithdrawalId()
@@ -226,53 +356,101 @@ public class PaymentRoutingService {
         request.setWithdrawalId(withdrawalId);
 
         // Reserve funds (debit from wallet) before calling provider
-        String idempotencyKey = request.getIdempotencyKey() != null
-                ? request.getIdempotencyKey()
-                : withdrawalId.toString() + "-withdrawal";
-
-        walletService.withdraw(
-                request.getWalletId(),
-                request.getAmount(),
-                idempotencyKey,
-                "Withdrawal pending - " + request.getDescription()
-        );
-
-        // Select provider and process
-        PaymentProviderAdapter adapter = selectProvider(request.getCurrency());
-        PayoutResult result = adapter.processWithdrawal(request);
-
-        // Try fallback if primary fails
-        if (!result.isSuccess()) {
-            Optional<PaymentProviderAdapter> fallback = getAlternativeProvider(
-                    request.getCurrency(),
-                    adapter.getProviderName()
-            );
-
-            if (fallback.isPresent()) {
-                log.warn("Primary provider {} failed, trying fallback {}",
-                        adapter.getProviderName(), fallback.get().getProviderName());
-                result = fallback.get().processWithdrawal(request);
-            }
+        if (request.getIdempotencyKey() == null) {
+            request.setIdempotencyKey(withdrawalId.toString() + "-withdrawal");
         }
 
-        // If provider rejected immediately, refund
-        if (!result.isSuccess()) {
-            log.warn("Withdrawal failed, refunding: {}", result.getErrorMessage());
-            walletService.deposit(
+        PayoutService.Reservation reservation = transactionTemplate.execute(status -> {
+            walletService.withdraw(
                     request.getWalletId(),
                     request.getAmount(),
-                    withdrawalId.toString() + "-refund",
-                    "Refund: Withdrawal failed - " + result.getErrorMessage()
+                    request.getIdempotencyKey(),
+                    "Withdrawal pending - " + request.getDescription()
             );
-        } else {
+            return payoutService.reserve(request);
+        });
+        if (!reservation.created()) {
+            return replayWithdrawal(reservation.payout());
+        }
+
+        // Send to the first provider whose circuit allows it; it is recorded before it is
+        // called, so recovery knows where to resubmit. No failover once a provider was called.
+        PayoutResult result = callInOrder(
+                route,
+                adapter -> {
+                    payoutService.recordAttempt(withdrawalId, adapter.getProviderName());
+                    return processWithdrawal(adapter, request);
+                },
+                PayoutResult::isSuccess,
+                answer -> false,
+                () -> PayoutResult.failure(
+                        "PROVIDER_UNAVAILABLE",
+                        "All payment providers for " + request.getCurrency() + " are unavailable",
+                        "ROUTER"
+                )
+        );
+
+        if (result.isSuccess()) {
+            payoutService.markSubmitted(withdrawalId, result);
             log.info("Withdrawal initiated: walletId={}, amount={}, provider={}, payoutId={}",
                     request.getWalletId(), request.getAmount(),
                     result.getProviderName(), result.getPayoutId());
+        } else if (isUncertain(result.getErrorCode(), result.getProviderName())) {
+            // The provider may have paid; PayoutStatusPoller resubmits to it under the same key
+            log.warn("Withdrawal outcome unknown, keeping funds reserved: withdrawalId={}, provider={}: {}",
+                    withdrawalId, result.getProviderName(), result.getErrorMessage());
+        } else {
+            // Declined, or no provider was called
+            log.warn("Withdrawal failed, refunding: {}", result.getErrorMessage());
+            refundReserved(withdrawalId, result.getErrorMessage());
         }
 
         return result;
     }
 
+    /**
+     * Finish a payout whose reservation outlived its deadline, e.g. because its node
+     * died mid-call. With no provider recorded, none was called and the reservation is
+     * refunded. Otherwise the payout is resubmitted to that provider under the same
+     * idempotency key, which the provider dedupes; while the provider is unreachable
+     * the payout stays RESERVED and is tried again on its next check.
+     */
+    public void resumeWithdrawal(Payout payout) {
+        if (payout.getProvider() == null) {
+            log.warn("Payout {} was reserved but never sent, refunding", payout.getId());
+            refundReserved(payout.getId(), "Not sent to a provider before its deadline");
+            return;
+        }
+
+        PaymentProviderAdapter adapter = adapters.get(payout.getProvider());
+        if (adapter == null || !healthTracker.tryAcquire(payout.getProvider())) {
+            log.warn("Cannot resume payout {} with {} now, retrying later", payout.getId(), payout.getProvider());
+            return;
+        }
+
+        WithdrawalRequest request = WithdrawalRequest.builder()
+                .withdrawalId(payout.getId())
+                .walletId(payout.getWalletId())
+                .amount(payout.getAmountMinorUnits())
+                .currency(payout.getCurrency())
+                .destinationToken(payout.getDestinationToken())
+                .idempotencyKey(payout.getIdempotencyKey())
+                .build();
+        PayoutResult result = processWithdrawal(adapter, request);
+
+        if (result.isSuccess()) {
+            payoutService.markSubmitted(payout.getId(), result);
+            log.info("Resumed payout {} with {}: payoutId={}", payout.getId(), payout.getProvider(), result.getPayoutId());
+        } else if (isUncertain(result.getErrorCode(), result.getProviderName())) {
+            log.warn("Resuming payout {} with {} failed, retrying later: {}",
+                    payout.getId(), payout.getProvider(), result.getErrorMessage());
+        } else {
+            log.warn("Resumed payout {} rejected by {}, refunding: {}",
+                    payout.getId(), payout.getProvider(), result.getErrorMessage());
+            refundReserved(payout.getId(), result.getErrorMessage());
+        }
+    }
+
     /**
      * Get all available payment providers.
      *
@@ -302,4 +480,272 @@ public class PaymentRoutingService {
         return PROVIDER_PREFERENCES.containsKey(currency) &&
                !PROVIDER_PREFERENCES.get(currency).isEmpty();
     }
+
+    /**
+     * Current routing weights per currency and provider health.
+     */
+    public RoutingReport routingReport() {
+        Map<Currency, List<RouteWeight>> routes = new EnumMap<>(Currency.class);
+        PROVIDER_PREFERENCES.forEach((currency, providers) -> {
+            double total = providers.stream().mapToDouble(p -> weight(providers, p)).sum();
+            routes.put(currency, providers.stream()
+                    .map(p -> {
+                        double weight = weight(providers, p);
+                        return new RouteWeight(p, healthTracker.circuitState(p), weight,
+                                total > 0 ? weight / total : 0);
+                    })
+                    .toList());
+        });
+
+        List<ProviderHealth> health = adapters.keySet().stream()
+                .sorted()
+                .map(healthTracker::snapshot)
+                .toList();
+        return new RoutingReport(routes, health);
+    }
+
+    /**
+     * @param firstChoiceShare probability that a request tries this provider first
+     */
+    public record RouteWeight(String provider, CircuitState state, double weight, double firstChoiceShare) {}
+
+    public record RoutingReport(Map<Currency, List<RouteWeight>> routes, List<ProviderHealth> providers) {}
+
+    // ==================== Saga Steps ====================
+
+    // Give reserved funds back, unless the payout left RESERVED in the meantime
+    private void refundReserved(UUID withdrawalId, String reason) {
+        transactionTemplate.executeWithoutResult(status ->
+                payoutService.lockReserved(withdrawalId).ifPresent(payout -> {
+                    walletService.deposit(
+                            payout.getWalletId(),
+                            payout.getAmountMinorUnits(),
+                            withdrawalId.toString() + "-refund",
+                            "Refund: Withdrawal failed - " + reason
+                    );
+                    payoutService.markRefunded(withdrawalId, reason);
+                }));
+    }
+
+    private PaymentResult replayDeposit(String idempotencyKey) {
+        Deposit deposit = depositService.findByIdempotencyKey(idempotencyKey)
+                .orElseThrow(() -> new IllegalStateException("Deposit " + idempotencyKey + " vanished"));
+        return switch (deposit.getStatus()) {
+            case COMPLETED -> PaymentResult.success(deposit.getProviderTransactionId(),
+                    deposit.getAmountMinorUnits(), deposit.getProvider());
+            case PENDING, CANCELLING -> PaymentResult.failure("DEPOSIT_IN_PROGRESS",
+                    "Deposit " + idempotencyKey + " is still being processed", "ROUTER");
+            case FAILED, CANCELLED -> PaymentResult.failure("DUPLICATE_REQUEST",
+                    "Deposit " + idempotencyKey + " already " + deposit.getStatus().name().toLowerCase(), "ROUTER");
+        };
+    }
+
+    private static PayoutResult replayWithdrawal(Payout payout) {
+        return switch (payout.getStatus()) {
+            case RESERVED -> PayoutResult.failure("WITHDRAWAL_IN_PROGRESS",
+                    "Withdrawal " + payout.getId() + " is still being sent", "ROUTER");
+            case SUBMITTED, PROCESSING -> PayoutResult.pending(payout.getProviderPayoutId(), payout.getProvider());
+            case SETTLED -> PayoutResult.success(payout.getProviderPayoutId(), null, payout.getProvider());
+            case FAILED, REFUNDED -> PayoutResult.failure("DUPLICATE_REQUEST",
+                    "Withdrawal " + payout.getId() + " already failed: " + payout.getFailureReason(), "ROUTER");
+        };
+    }
+
+    // ==================== Provider Calls ====================
+
+    private double weight(List<String> providers, String provider) {
+        double preference = providers.indexOf(provider) == 0 ? 1 : fallbackWeight;
+        return preference * healthTracker.health(provider);
+    }
+
+    /**
+     * Call providers in order, skipping those whose circuit refuses the call, until one
+     * succeeds or answers with something {@code failover} does not accept. Returns the last
+     * provider answer, or {@code unavailable} if none was called.
+     */
+    private <R> R callInOrder(List<PaymentProviderAdapter> route, Function<PaymentProviderAdapter, R> call,
+                              Predicate<R> succeeded, Predicate<R> failover, Supplier<R> unavailable) {
+        R result = null;
+        String previous = null;
+        for (PaymentProviderAdapter adapter : route) {
+            String provider = adapter.getProviderName();
+            if (!healthTracker.tryAcquire(provider)) {
+                log.debug("Skipping payment provider {}: circuit open", provider);
+                previous = provider;
+                continue;
+            }
+            if (previous != null) {
+                healthTracker.recordFallback(provider);
+                log.warn("Provider {} unavailable or failed, trying fallback {}", previous, provider);
+            }
+            result = call.apply(adapter);
+            if (succeeded.test(result) || !failover.test(result)) {
+                return result;
+            }
+            previous = provider;
+        }
+        return result != null ? result : unavailable.get();
+    }
+
+    /**
+     * Deposit through the providers in order, moving on only after a provider fault.
+     * If a later provider succeeds, the faulted attempts are cancelled; if none does,
+     * a faulted answer is returned in preference to a decline, since the customer may
+     * have been charged.
+     */
+    private PaymentResult depositInOrder(List<PaymentProviderAdapter> route, DepositRequest request) {
+        List<PaymentResult> faulted = new ArrayList<>();
+        PaymentResult result = callInOrder(
+                route,
+                adapter -> {
+                    PaymentResult answer = processDeposit(adapter, request);
+                    if (isUncertain(answer.getErrorCode(), answer.getProviderName())) {
+                        faulted.add(answer);
+                    }
+                    return answer;
+                },
+                PaymentResult::isSuccess,
+                answer -> isUncertain(answer.getErrorCode(), answer.getProviderName()),
+                () -> providersUnavailable(request)
+        );
+
+        if (result.isSuccess()) {
+            faulted.forEach(answer -> cancelDeposit(answer, request));
+            return result;
+        }
+        return faulted.isEmpty() ? result : faulted.get(faulted.size() - 1);
+    }
+
+    /**
+     * Deposit through the first provider whose circuit allows it and, if that has not
+     * answered after its p95 latency or faulted, through the next one as well. Whichever
+     * attempt loses to a success is cancelled with its provider if it succeeded or
+     * faulted; a faulted primary may have charged before timing out.
+     */
+    private PaymentResult hedgedDeposit(List<PaymentProviderAdapter> route, DepositRequest request) {
+        Deque<PaymentProviderAdapter> candidates = new ArrayDeque<>(route);
+        PaymentProviderAdapter primary = nextAvailable(candidates);
+        if (primary == null) {
+            return providersUnavailable(request);
+        }
+        if (primary != route.get(0)) {
+            healthTracker.recordFallback(primary.getProviderName());
+        }
+
+        AtomicReference<PaymentProviderAdapter> second = new AtomicReference<>();
+        RequestHedger.Result<PaymentResult> hedged = hedger.call(
+                () -> processDeposit(primary, request),
+                () -> processDeposit(second.get(), request),
+                () -> {
+                    PaymentProviderAdapter next = nextAvailable(candidates);
+                    if (next == null) {
+                        return false;
+                    }
+                    second.set(next);
+                    healthTracker.recordFallback(next.getProviderName());
+                    log.info("Deposit {} via {} is slow, hedging with {}",
+                            request.getIdempotencyKey(), primary.getProviderName(), next.getProviderName());
+                    return true;
+                },
+                hedgeDelayMillis(primary.getProviderName()),
+                PaymentResult::isSuccess,
+                answer -> isUncertain(answer.getErrorCode(), answer.getProviderName()),
+                loser -> metrics.recordHedge(cancelDeposit(loser, request) ? "cancelled" : "cancel_failed")
+        );
+
+        metrics.recordHedge(hedged.outcome().name().toLowerCase());
+        return hedged.value();
+    }
+
+    // Wait about as long as the provider's usual slow answer before hedging
+    private long hedgeDelayMillis(String provider) {
+        ProviderHealth health = healthTracker.snapshot(provider);
+        if (health.calls() == 0) {
+            return hedgeMaxDelayMillis;
+        }
+        return Math.max(hedgeMinDelayMillis, Math.min(hedgeMaxDelayMillis, Math.round(health.p95Millis())));
+    }
+
+    private PaymentProviderAdapter nextAvailable(Deque<PaymentProviderAdapter> candidates) {
+        while (!candidates.isEmpty()) {
+            PaymentProviderAdapter adapter = candidates.pollFirst();
+            if (healthTracker.tryAcquire(adapter.getProviderName())) {
+                return adapter;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Cancel a deposit attempt that lost to another provider's success. The provider
+     * finds it by idempotency key when there is no transaction ID (e.g. after a timeout).
+     *
+     * @return true if the provider confirmed nothing is left charged
+     */
+    private boolean cancelDeposit(PaymentResult loser, DepositRequest request) {
+        PaymentProviderAdapter adapter = adapters.get(loser.getProviderName());
+        boolean cancelled = false;
+        try {
+            cancelled = adapter.cancelDeposit(request, loser.getTransactionId());
+        } catch (RuntimeException e) {
+            log.error("Cancelling losing deposit attempt failed: provider={}, transactionId={}: {}",
+                    loser.getProviderName(), loser.getTransactionId(), e.getMessage());
+        }
+        if (cancelled) {
+            log.info("Cancelled losing deposit attempt: provider={}, transactionId={}, idempotencyKey={}",
+                    loser.getProviderName(), loser.getTransactionId(), request.getIdempotencyKey());
+        } else {
+            // The customer may have been charged twice; the wallet was credited once
+            log.error("Losing deposit attempt was not cancelled, refund it manually: provider={}, transactionId={}, idempotencyKey={}, amount={}",
+                    loser.getProviderName(), loser.getTransactionId(), request.getIdempotencyKey(), request.getAmount());
+        }
+        return cancelled;
+    }
+
+    /**
+     * A provider fault from a provider that was actually called: the request may or may
+     * not have taken effect. Router answers mean no provider was called.
+     */
+    private static boolean isUncertain(String errorCode, String provider) {
+        return errorCode != null && PROVIDER_FAULTS.contains(errorCode) && !"ROUTER".equals(provider);
+    }
+
+    private static PaymentResult providersUnavailable(DepositRequest request) {
+        return PaymentResult.failure(
+                "PROVIDER_UNAVAILABLE",
+                "All payment providers for " + request.getCurrency() + " are unavailable",
+                "ROUTER"
+        );
+    }
+
+    // Provider calls, timed per adapter (wallet.provider.requests) and fed to the health tracker
+    private PaymentResult processDeposit(PaymentProviderAdapter adapter, DepositRequest request) {
+        return callProvider(adapter, "deposit", () -> adapter.processDeposit(request),
+                PaymentResult::isSuccess, PaymentResult::getErrorCode,
+                e -> PaymentResult.failure("PROVIDER_UNAVAILABLE", e.getMessage(), adapter.getProviderName()));
+    }
+
+    private PayoutResult processWithdrawal(PaymentProviderAdapter adapter, WithdrawalRequest request) {
+        return callProvider(adapter, "withdrawal", () -> adapter.processWithdrawal(request),
+                PayoutResult::isSuccess, PayoutResult::getErrorCode,
+                e -> PayoutResult.failure("PROVIDER_UNAVAILABLE", e.getMessage(), adapter.getProviderName()));
+    }
+
+    private <R> R callProvider(PaymentProviderAdapter adapter, String operation, Supplier<R> call,
+                               Predicate<R> succeeded, Function<R, String> errorCode,
+                               Function<RuntimeException, R> onException) {
+        String provider = adapter.getProviderName();
+        long started = System.nanoTime();
+        R result;
+        try {
+            result = metrics.recordProviderCall(provider, operation, call, succeeded);
+        } catch (RuntimeException e) {
+            log.warn("Payment provider {} {} call failed: {}", provider, operation, e.getMessage());
+            result = onException.apply(e);
+        }
+        String code = errorCode.apply(result);
+        boolean healthy = succeeded.test(result) || code == null || !PROVIDER_FAULTS.contains(code);
+        healthTracker.record(provider, System.nanoTime() - started, healthy);
+        return result;
+    }
 }
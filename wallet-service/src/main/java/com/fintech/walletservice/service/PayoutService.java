@@ -0,0 +1,211 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.adapter.dto.PayoutResult;
+import com.fintech.walletservice.adapter.dto.WithdrawalRequest;
+import com.fintech.walletservice.domain.Payout;
+import com.fintech.walletservice.repository.PayoutRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Tracks withdrawals through the payout state machine (see {@link Payout}).
+ *
+ * Every method joins the caller's transaction, so a state change commits together
+ * with the balance change that caused it; called without one, each is its own short
+ * transaction. Transitions the state machine does not allow
+ * (e.g. a late "processing" webhook for a settled payout) are logged and ignored:
+ * providers deliver out of order, and the first final answer wins.
+ *
+ * In-flight payouts are checked with the provider {@code first-check-minutes} after
+ * submission and then with doubling intervals up to {@code max-check-interval-minutes},
+ * unless a webhook settles them first. A payout still RESERVED
+ * {@code reservation-timeout-minutes} after its funds were reserved is resumed by
+ * PayoutStatusPoller through PaymentRoutingService.
+ */
+@Service
+@Slf4j
+public class PayoutService {
+
+    private final PayoutRepository payoutRepository;
+    private final Duration reservationTimeout;
+    private final Duration firstCheckDelay;
+    private final Duration maxCheckInterval;
+
+    public PayoutService(
+            PayoutRepository payoutRepository,
+            @Value("${wallet.payouts.reservation-timeout-minutes:10}") long reservationTimeoutMinutes,
+            @Value("${wallet.payouts.first-check-minutes:30}") long firstCheckMinutes,
+            @Value("${wallet.payouts.max-check-interval-minutes:360}") long maxCheckIntervalMinutes
+    ) {
+        this.payoutRepository = payoutRepository;
+        this.reservationTimeout = Duration.ofMinutes(reservationTimeoutMinutes);
+        this.firstCheckDelay = Duration.ofMinutes(firstCheckMinutes);
+        this.maxCheckInterval = Duration.ofMinutes(maxCheckIntervalMinutes);
+    }
+
+    /**
+     * Record funds reserved for a withdrawal, in the transaction that debited them.
+     * Idempotent per withdrawal id.
+     *
+     * @param request withdrawal with its withdrawal id and idempotency key assigned
+     */
+    @Transactional
+    public Reservation reserve(WithdrawalRequest request) {
+        Optional<Payout> existing = payoutRepository.findById(request.getWithdrawalId());
+        if (existing.isPresent()) {
+            return new Reservation(existing.get(), false);
+        }
+        Payout payout = payoutRepository.save(Payout.builder()
+                .id(request.getWithdrawalId())
+                .walletId(request.getWalletId())
+                .amountMinorUnits(request.getAmount())
+                .currency(request.getCurrency())
+                .destinationToken(request.getDestinationToken())
+                .idempotencyKey(request.getIdempotencyKey())
+                .nextCheckAt(Instant.now().plus(reservationTimeout))
+                .build());
+        return new Reservation(payout, true);
+    }
+
+    /**
+     * @param created false if the withdrawal id was reserved before (a replay)
+     */
+    public record Reservation(Payout payout, boolean created) {}
+
+    /**
+     * Note the provider about to be called, before calling it. A payout keeps the first
+     * provider recorded.
+     */
+    @Transactional
+    public void recordAttempt(UUID withdrawalId, String provider) {
+        payoutRepository.recordAttempt(withdrawalId, provider);
+    }
+
+    /**
+     * Lock a payout for settlement or refund. Must run in the transaction that changes
+     * the balance.
+     *
+     * @return the payout if it is still RESERVED
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<Payout> lockReserved(UUID withdrawalId) {
+        return payoutRepository.findByIdForUpdate(withdrawalId)
+                .filter(payout -> payout.getStatus() == Payout.Status.RESERVED);
+    }
+
+    /**
+     * A provider accepted the payout; its outcome arrives by webhook or status check.
+     */
+    @Transactional
+    public Optional<Payout> markSubmitted(UUID withdrawalId, PayoutResult result) {
+        return transition(withdrawalId, Payout.Status.SUBMITTED, payout -> {
+            payout.setProvider(result.getProviderName());
+            payout.setProviderPayoutId(result.getPayoutId());
+            payout.setNextCheckAt(Instant.now().plus(firstCheckDelay));
+        });
+    }
+
+    /**
+     * The provider reported the payout in progress; the next check is at least
+     * {@code first-check-minutes} away.
+     */
+    @Transactional
+    public Optional<Payout> markProcessing(UUID withdrawalId) {
+        Optional<Payout> found = transition(withdrawalId, Payout.Status.PROCESSING, payout -> { });
+        found.filter(payout -> payout.getStatus() == Payout.Status.PROCESSING).ifPresent(payout -> {
+            Instant earliest = Instant.now().plus(firstCheckDelay);
+            if (payout.getNextCheckAt() == null || payout.getNextCheckAt().isBefore(earliest)) {
+                payout.setNextCheckAt(earliest);
+            }
+        });
+        return found;
+    }
+
+    @Transactional
+    public Optional<Payout> markSettled(UUID withdrawalId) {
+        return transition(withdrawalId, Payout.Status.SETTLED, payout -> { });
+    }
+
+    /**
+     * The payout failed and its funds were credited back in the caller's transaction.
+     */
+    @Transactional
+    public Optional<Payout> markRefunded(UUID withdrawalId, String reason) {
+        Optional<Payout> found = payoutRepository.findById(withdrawalId);
+        if (found.isPresent() && found.get().getStatus().canMoveTo(Payout.Status.FAILED)) {
+            transition(withdrawalId, Payout.Status.FAILED, payout -> payout.setFailureReason(reason));
+        }
+        return transition(withdrawalId, Payout.Status.REFUNDED, payout -> { });
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Payout> findPayout(UUID withdrawalId) {
+        return payoutRepository.findById(withdrawalId);
+    }
+
+    /**
+     * Claim payouts whose status check or provider answer is due and schedule their next check,
+     * so a payout the provider still reports as in progress, or one whose check is lost
+     * with its node, comes back later without further bookkeeping.
+     */
+    @Transactional
+    public List<Payout> claimDueForCheck(int batchSize) {
+        Instant now = Instant.now();
+        List<Payout> due = payoutRepository.findDueForCheck(now, batchSize);
+
+        for (Payout payout : due) {
+            payout.setStatusChecks(payout.getStatusChecks() + 1);
+            payout.setNextCheckAt(now.plus(checkIntervalAfter(payout.getStatusChecks())));
+        }
+        return due;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Payout.Status, Long> countByStatus() {
+        Map<Payout.Status, Long> counts = new EnumMap<>(Payout.Status.class);
+        for (Payout.Status status : Payout.Status.values()) {
+            counts.put(status, payoutRepository.countByStatus(status));
+        }
+        return counts;
+    }
+
+    Duration checkIntervalAfter(int checks) {
+        int exponent = Math.min(Math.max(checks, 0), 20);
+        Duration interval = firstCheckDelay.multipliedBy(1L << exponent);
+        return interval.compareTo(maxCheckInterval) > 0 ? maxCheckInterval : interval;
+    }
+
+    private Optional<Payout> transition(UUID withdrawalId, Payout.Status target,
+                                        Consumer<Payout> update) {
+        Optional<Payout> found = payoutRepository.findById(withdrawalId);
+        if (found.isEmpty()) {
+            // Withdrawals initiated before payouts were tracked
+            log.debug("No payout record for withdrawal {}", withdrawalId);
+            return found;
+        }
+
+        Payout payout = found.get();
+        if (payout.getStatus() == target) {
+            return found;
+        }
+        if (!payout.getStatus().canMoveTo(target)) {
+            log.warn("Ignoring payout {} transition {} -> {}", withdrawalId, payout.getStatus(), target);
+            return found;
+        }
+        payout.transitionTo(target);
+        update.accept(payout);
+        return found;
+    }
+}
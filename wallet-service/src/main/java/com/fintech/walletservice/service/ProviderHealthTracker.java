@@ -0,0 +1,306 @@
+package com.fintech.walletservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Rolling health and circuit breaker per payment provider.
+ *
+ * Each provider keeps its last {@code window-size} calls that are younger than
+ * {@code window-seconds}. From them come the error rate, latency percentiles and a
+ * health score in [0, 1] that PaymentRoutingService uses as a routing weight:
+ * success rate times a latency factor that starts below 1 once p95 exceeds
+ * {@code latency-target-ms}.
+ *
+ * Circuit states:
+ * - CLOSED: calls flow; opens once the window has {@code minimum-calls} calls and
+ *   the error rate reaches {@code failure-rate-threshold}
+ * - OPEN: calls are rejected without touching the provider for {@code open-seconds}
+ * - HALF_OPEN: up to {@code half-open-probes} calls are let through on a fresh window;
+ *   all of them succeeding closes the circuit, any failure opens it again
+ *
+ * Only provider faults (exceptions, timeouts, provider errors) count as failures;
+ * declines such as an invalid card token are healthy answers.
+ */
+@Component
+@Slf4j
+public class ProviderHealthTracker {
+
+    public enum CircuitState { CLOSED, OPEN, HALF_OPEN }
+
+    private final int windowSize;
+    private final long windowNanos;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long latencyTargetNanos;
+    private final long openNanos;
+    private final int halfOpenProbes;
+    private final LongSupplier nanoClock;
+
+    private final Map<String, ProviderState> providers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ProviderHealthTracker(
+            @Value("${payment.routing.window-size:100}") int windowSize,
+            @Value("${payment.routing.window-seconds:60}") long windowSeconds,
+            @Value("${payment.routing.minimum-calls:20}") int minimumCalls,
+            @Value("${payment.routing.failure-rate-threshold:0.5}") double failureRateThreshold,
+            @Value("${payment.routing.latency-target-ms:2000}") long latencyTargetMillis,
+            @Value("${payment.routing.open-seconds:30}") long openSeconds,
+            @Value("${payment.routing.half-open-probes:3}") int halfOpenProbes
+    ) {
+        this(windowSize, windowSeconds, minimumCalls, failureRateThreshold, latencyTargetMillis,
+                openSeconds, halfOpenProbes, System::nanoTime);
+    }
+
+    ProviderHealthTracker(int windowSize, long windowSeconds, int minimumCalls, double failureRateThreshold,
+                          long latencyTargetMillis, long openSeconds, int halfOpenProbes, LongSupplier nanoClock) {
+        if (windowSize <= 0 || windowSeconds <= 0 || minimumCalls <= 0 || minimumCalls > windowSize
+                || failureRateThreshold <= 0 || failureRateThreshold > 1
+                || latencyTargetMillis <= 0 || openSeconds <= 0 || halfOpenProbes <= 0) {
+            throw new IllegalArgumentException("Invalid payment routing settings");
+        }
+        this.windowSize = windowSize;
+        this.windowNanos = TimeUnit.SECONDS.toNanos(windowSeconds);
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.latencyTargetNanos = TimeUnit.MILLISECONDS.toNanos(latencyTargetMillis);
+        this.openNanos = TimeUnit.SECONDS.toNanos(openSeconds);
+        this.halfOpenProbes = halfOpenProbes;
+        this.nanoClock = nanoClock;
+    }
+
+    // ==================== Calls ====================
+
+    /**
+     * Ask to call a provider. Every granted call must be followed by {@link #record}.
+     *
+     * @return false while the circuit is open or all half-open probes are taken
+     */
+    public boolean tryAcquire(String provider) {
+        return state(provider).tryAcquire(nanoClock.getAsLong());
+    }
+
+    /**
+     * Record the result of a granted call.
+     *
+     * @param healthy false for provider faults only
+     */
+    public void record(String provider, long latencyNanos, boolean healthy) {
+        state(provider).record(nanoClock.getAsLong(), latencyNanos, healthy);
+    }
+
+    /**
+     * Count a call that was made as a fallback after the first routed provider failed or
+     * was skipped.
+     */
+    public void recordFallback(String provider) {
+        state(provider).recordFallback();
+    }
+
+    // ==================== Health ====================
+
+    /**
+     * Routing weight in [0, 1]; 0 while the circuit is open. Providers without
+     * {@code minimum-calls} calls in the window count as healthy.
+     */
+    public double health(String provider) {
+        return state(provider).snapshot(nanoClock.getAsLong()).health();
+    }
+
+    public CircuitState circuitState(String provider) {
+        return state(provider).snapshot(nanoClock.getAsLong()).state();
+    }
+
+    public ProviderHealth snapshot(String provider) {
+        return state(provider).snapshot(nanoClock.getAsLong());
+    }
+
+    /**
+     * @param calls        calls in the current window
+     * @param routed       granted calls since startup
+     * @param fallbacks    granted calls that were a fallback
+     * @param rejected     calls refused by the circuit since startup
+     * @param stateSince   when the circuit last changed state
+     */
+    public record ProviderHealth(
+            String provider,
+            CircuitState state,
+            Instant stateSince,
+            int calls,
+            int failures,
+            double errorRate,
+            double p50Millis,
+            double p95Millis,
+            double p99Millis,
+            double health,
+            long routed,
+            long fallbacks,
+            long rejected
+    ) {}
+
+    // ==================== Helpers ====================
+
+    private ProviderState state(String provider) {
+        return providers.computeIfAbsent(provider, ProviderState::new);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.max(0, (int) Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * One provider's window and circuit. Provider calls take milliseconds, so a
+     * monitor per provider is cheap enough.
+     */
+    private final class ProviderState {
+
+        private final String provider;
+
+        // Ring buffer of the last windowSize calls
+        private final long[] finishedAt = new long[windowSize];
+        private final long[] latencies = new long[windowSize];
+        private final boolean[] failed = new boolean[windowSize];
+        private int next;
+        private int size;
+
+        private CircuitState state = CircuitState.CLOSED;
+        private Instant stateSince = Instant.now();
+        private long openedAt;
+        private int probesGranted;
+        private int probesSucceeded;
+
+        private long routed;
+        private long fallbacks;
+        private long rejected;
+
+        ProviderState(String provider) {
+            this.provider = provider;
+        }
+
+        synchronized boolean tryAcquire(long now) {
+            advance(now);
+            boolean granted = switch (state) {
+                case CLOSED -> true;
+                case OPEN -> false;
+                case HALF_OPEN -> probesGranted < halfOpenProbes;
+            };
+            if (granted) {
+                if (state == CircuitState.HALF_OPEN) {
+                    probesGranted++;
+                }
+                routed++;
+            } else {
+                rejected++;
+            }
+            return granted;
+        }
+
+        synchronized void record(long now, long latencyNanos, boolean healthy) {
+            advance(now);
+            finishedAt[next] = now;
+            latencies[next] = latencyNanos;
+            failed[next] = !healthy;
+            next = (next + 1) % windowSize;
+            size = Math.min(size + 1, windowSize);
+
+            switch (state) {
+                case CLOSED -> {
+                    int calls = 0;
+                    int failures = 0;
+                    for (int i = 0; i < size; i++) {
+                        if (now - finishedAt[i] <= windowNanos) {
+                            calls++;
+                            failures += failed[i] ? 1 : 0;
+                        }
+                    }
+                    if (calls >= minimumCalls && (double) failures / calls >= failureRateThreshold) {
+                        open(now, String.format("error rate %d/%d", failures, calls));
+                    }
+                }
+                case HALF_OPEN -> {
+                    if (!healthy) {
+                        open(now, "half-open probe failed");
+                    } else if (++probesSucceeded >= halfOpenProbes) {
+                        transition(CircuitState.CLOSED, "half-open probes succeeded");
+                    }
+                }
+                // A call granted before the circuit opened; it is already in the window
+                case OPEN -> { }
+            }
+        }
+
+        synchronized void recordFallback() {
+            fallbacks++;
+        }
+
+        synchronized ProviderHealth snapshot(long now) {
+            advance(now);
+            long[] recent = new long[size];
+            int calls = 0;
+            int failures = 0;
+            for (int i = 0; i < size; i++) {
+                if (now - finishedAt[i] <= windowNanos) {
+                    recent[calls++] = latencies[i];
+                    failures += failed[i] ? 1 : 0;
+                }
+            }
+            long[] sorted = Arrays.copyOf(recent, calls);
+            Arrays.sort(sorted);
+
+            double errorRate = calls == 0 ? 0 : (double) failures / calls;
+            double health = 0;
+            if (state != CircuitState.OPEN) {
+                double successRate = calls >= minimumCalls ? 1 - errorRate : 1;
+                long p95 = percentile(sorted, 0.95);
+                double latencyFactor = p95 <= latencyTargetNanos ? 1 : (double) latencyTargetNanos / p95;
+                health = successRate * latencyFactor;
+            }
+
+            return new ProviderHealth(provider, state, stateSince, calls, failures, errorRate,
+                    millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.95)), millis(percentile(sorted, 0.99)),
+                    health, routed, fallbacks, rejected);
+        }
+
+        // OPEN turns HALF_OPEN lazily, on the first look after open-seconds
+        private void advance(long now) {
+            if (state == CircuitState.OPEN && now - openedAt >= openNanos) {
+                transition(CircuitState.HALF_OPEN, "open interval elapsed");
+            }
+        }
+
+        private void open(long now, String reason) {
+            openedAt = now;
+            transition(CircuitState.OPEN, reason);
+        }
+
+        private void transition(CircuitState target, String reason) {
+            log.warn("Payment provider {} circuit {} -> {} ({})", provider, state, target, reason);
+            state = target;
+            stateSince = Instant.now();
+            probesGranted = 0;
+            probesSucceeded = 0;
+            if (target != CircuitState.OPEN) {
+                // Probes and the closed circuit judge the provider on calls made after it recovered
+                size = 0;
+                next = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.fintech.walletservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Hedged calls: start the primary call, and if it has not answered within a delay,
+ * start a second one and take whichever succeeds first.
+ *
+ * Exactly one successful answer is returned to the caller. Every other successful
+ * answer, and every uncertain one (a failure that may still have taken effect, such as
+ * a timeout), is handed to {@code discard} on the thread that produced it, including
+ * one that arrives after the caller has returned or given up, so the caller can void it
+ * with the provider. If no call succeeds, an uncertain answer is returned in preference
+ * to a definitive one and nothing is discarded: the caller has to resolve it anyway.
+ *
+ * If the primary fails with an uncertain answer before the delay, the hedge runs right
+ * away as a fallback; a definitive failure, such as a decline, is returned without one.
+ *
+ * Calls run on a bounded pool; when it is exhausted the primary runs on the caller's
+ * thread without a hedge.
+ */
+@Slf4j
+class RequestHedger {
+
+    enum Outcome {
+        /** The primary answered before the delay */
+        NOT_HEDGED,
+        /** A hedge was started and the primary still won */
+        PRIMARY_WON,
+        HEDGE_WON,
+        /** Neither call succeeded */
+        FAILED,
+        /** The pool was exhausted */
+        REJECTED
+    }
+
+    record Result<R>(R value, Outcome outcome) {}
+
+    private final ExecutorService executor;
+
+    RequestHedger(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Hedging threads must be positive");
+        }
+        this.executor = new ThreadPoolExecutor(0, threads, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), namedThreads());
+    }
+
+    /**
+     * @param primary   the first call; must report failures as values, not exceptions
+     * @param hedge     the second call
+     * @param canHedge  asked once, right before the hedge would start; false skips it
+     * @param succeeded whether an answer is a success
+     * @param uncertain whether a failed answer may still have taken effect
+     * @param discard   receives successful and uncertain answers that lost to a success
+     */
+    <R> Result<R> call(Supplier<R> primary, Supplier<R> hedge, BooleanSupplier canHedge, long delayMillis,
+                       Predicate<R> succeeded, Predicate<R> uncertain, Consumer<R> discard) {
+        Race<R> race = new Race<>(succeeded, uncertain, discard);
+        try {
+            race.start(primary, executor);
+        } catch (RejectedExecutionException e) {
+            log.debug("Hedging pool exhausted, calling primary on the caller thread");
+            return new Result<>(primary.get(), Outcome.REJECTED);
+        }
+
+        boolean hedged = false;
+        try {
+            race.await(TimeUnit.MILLISECONDS.toNanos(delayMillis));
+            if (!race.decided() && !race.declined() && canHedge.getAsBoolean()) {
+                try {
+                    race.start(hedge, executor);
+                    hedged = true;
+                } catch (RejectedExecutionException e) {
+                    log.debug("Hedging pool exhausted, waiting for primary only");
+                }
+            }
+            race.await(Long.MAX_VALUE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            race.abandon();
+            throw new IllegalStateException("Interrupted while waiting for a hedged call", e);
+        }
+
+        R value = race.close();
+        Outcome outcome;
+        if (!succeeded.test(value)) {
+            outcome = Outcome.FAILED;
+        } else if (!hedged) {
+            outcome = Outcome.NOT_HEDGED;
+        } else {
+            outcome = race.winnerIndex() == 0 ? Outcome.PRIMARY_WON : Outcome.HEDGE_WON;
+        }
+        return new Result<>(value, outcome);
+    }
+
+    /**
+     * Stop accepting calls and let running ones finish, so their answers still reach discard.
+     */
+    void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Hedged calls did not finish within 30s");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * The legs of one hedged call. The first success becomes the winner while the caller
+     * is still waiting; every later success, or any success once the caller has left, is
+     * discarded, and so is every uncertain answer once there is a winner.
+     */
+    private static final class Race<R> {
+
+        private final Predicate<R> succeeded;
+        private final Predicate<R> uncertain;
+        private final Consumer<R> discard;
+
+        private int started;
+        private int running;
+        private R winner;
+        private int winnerIndex = -1;
+        // Uncertain answers waiting for the outcome: discarded once a leg wins
+        private final List<R> uncertainAnswers = new ArrayList<>();
+        private R lastAnswer;
+        private RuntimeException lastError;
+        private boolean closed;
+
+        Race(Predicate<R> succeeded, Predicate<R> uncertain, Consumer<R> discard) {
+            this.succeeded = succeeded;
+            this.uncertain = uncertain;
+            this.discard = discard;
+        }
+
+        synchronized void start(Supplier<R> leg, ExecutorService executor) {
+            int index = started;
+            executor.execute(() -> run(index, leg));
+            started++;
+            running++;
+        }
+
+        /**
+         * Wait until there is a winner, no leg is running, or the timeout passes.
+         */
+        synchronized void await(long timeoutNanos) throws InterruptedException {
+            long deadline = timeoutNanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + timeoutNanos;
+            while (winner == null && running > 0) {
+                if (deadline == Long.MAX_VALUE) {
+                    wait();
+                } else {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                }
+            }
+        }
+
+        synchronized boolean decided() {
+            return winner != null;
+        }
+
+        // Every leg so far ended in a definitive failure
+        synchronized boolean declined() {
+            return winner == null && running == 0 && uncertainAnswers.isEmpty() && lastAnswer != null;
+        }
+
+        synchronized int winnerIndex() {
+            return winnerIndex;
+        }
+
+        /**
+         * Return the winner, or the last uncertain or failed answer; later answers are discarded.
+         */
+        synchronized R close() {
+            closed = true;
+            if (winner != null) {
+                return winner;
+            }
+            if (!uncertainAnswers.isEmpty()) {
+                return uncertainAnswers.get(uncertainAnswers.size() - 1);
+            }
+            if (lastAnswer != null) {
+                return lastAnswer;
+            }
+            throw lastError != null ? lastError : new IllegalStateException("Hedged call produced no answer");
+        }
+
+        // The caller gave up: whatever succeeded, or may have, must be voided
+        void abandon() {
+            List<R> abandoned;
+            synchronized (this) {
+                closed = true;
+                abandoned = new ArrayList<>(uncertainAnswers);
+                uncertainAnswers.clear();
+                if (winner != null) {
+                    abandoned.add(winner);
+                    winner = null;
+                }
+            }
+            abandoned.forEach(this::discardQuietly);
+        }
+
+        private void run(int index, Supplier<R> leg) {
+            R answer = null;
+            RuntimeException error = null;
+            try {
+                answer = leg.get();
+            } catch (RuntimeException e) {
+                error = e;
+            }
+
+            boolean success = answer != null && succeeded.test(answer);
+            boolean unsure = answer != null && !success && uncertain.test(answer);
+            List<R> losers = new ArrayList<>();
+            synchronized (this) {
+                running--;
+                if (success && winner == null && !closed) {
+                    winner = answer;
+                    winnerIndex = index;
+                    losers.addAll(uncertainAnswers);
+                    uncertainAnswers.clear();
+                } else if (success) {
+                    losers.add(answer);
+                } else if (unsure) {
+                    if (winner != null || closed) {
+                        losers.add(answer);
+                    } else {
+                        uncertainAnswers.add(answer);
+                    }
+                } else if (answer != null) {
+                    lastAnswer = answer;
+                } else {
+                    lastError = error;
+                }
+                notifyAll();
+            }
+            losers.forEach(this::discardQuietly);
+        }
+
+        private void discardQuietly(R answer) {
+            try {
+                discard.accept(answer);
+            } catch (RuntimeException e) {
+                log.error("Discarding a hedged answer failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private static ThreadFactory namedThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "payment-hedge-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,17 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.domain.LedgerEntry;
+
+import java.util.List;
+
+/**
+ * One page of transaction history, newest first.
+ *
+ * @param nextCursor position to continue from, or null on the last page
+ */
+public record TransactionHistoryPage(List<LedgerEntry> entries, HistoryCursor nextCursor) {
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,203 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.client.AuthClient;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Email -> user id directory in front of Auth Service, used to resolve transfer recipients.
+ *
+ * - Known emails are kept for {@code ttl}; UserDirectoryRefreshJob re-resolves them in
+ *   bulk once they are older than {@code refresh-after}, but only if they were read since
+ *   they were last resolved. Busy recipients never expire; idle ones do after {@code ttl}.
+ * - Unknown emails are remembered for {@code negative-ttl}, which is how long a newly
+ *   registered user can stay unfindable.
+ * - Concurrent lookups of the same email share one Auth Service call.
+ * - Failed lookups are not cached.
+ */
+@Component
+@Slf4j
+public class UserDirectory {
+
+    private final AuthClient authClient;
+    private final AsyncCache<String, DirectoryEntry> entries;
+    private final Duration refreshAfter;
+    private final int batchSize;
+
+    public UserDirectory(
+            AuthClient authClient,
+            @Value("${wallet.user-directory.max-size:100000}") long maxSize,
+            @Value("${wallet.user-directory.ttl-seconds:3600}") long ttlSeconds,
+            @Value("${wallet.user-directory.negative-ttl-seconds:60}") long negativeTtlSeconds,
+            @Value("${wallet.user-directory.refresh-after-seconds:600}") long refreshAfterSeconds,
+            @Value("${wallet.user-directory.batch-size:500}") int batchSize
+    ) {
+        this.authClient = authClient;
+        this.refreshAfter = Duration.ofSeconds(refreshAfterSeconds);
+        this.batchSize = batchSize;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new EntryExpiry(Duration.ofSeconds(ttlSeconds), Duration.ofSeconds(negativeTtlSeconds)))
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * User id for an email; empty if there is no such user or Auth Service could not answer.
+     */
+    public Optional<UUID> findUserId(String email) {
+        // asMap().get does not count towards hit/miss stats
+        CompletableFuture<DirectoryEntry> cached = entries.asMap().get(email);
+        DirectoryEntry entry = entries.get(email, (key, executor) -> resolve(key)).join();
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (cached != null) {
+            entry.markRead();
+        }
+        return Optional.ofNullable(entry.userId());
+    }
+
+    // Completes with null on failure, which Caffeine does not keep
+    private CompletableFuture<DirectoryEntry> resolve(String email) {
+        return authClient.lookupUserId(email)
+                .map(DirectoryEntry::known)
+                .defaultIfEmpty(DirectoryEntry.unknown())
+                .onErrorResume(e -> {
+                    log.error("Failed to lookup user by email: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .toFuture();
+    }
+
+    /**
+     * Re-resolve known emails older than {@code refresh-after} that were read since they
+     * were resolved, one bulk call per batch. Refreshing resets the entry's TTL, so entries
+     * nobody reads are left alone to expire. Users that no longer exist turn into negative entries.
+     *
+     * @return number of emails re-resolved
+     */
+    public int refreshStale() {
+        Instant staleBefore = Instant.now().minus(refreshAfter);
+        List<String> stale = entries.synchronous().asMap().entrySet().stream()
+                .filter(e -> e.getValue().userId() != null
+                        && e.getValue().readSinceResolved()
+                        && e.getValue().resolvedAt().isBefore(staleBefore))
+                .map(Map.Entry::getKey)
+                .toList();
+
+        for (int from = 0; from < stale.size(); from += batchSize) {
+            refresh(stale.subList(from, Math.min(from + batchSize, stale.size())));
+        }
+        return stale.size();
+    }
+
+    private void refresh(List<String> emails) {
+        Map<String, UUID> found = authClient.lookupUsers(emails).stream()
+                .collect(Collectors.toMap(AuthClient.UserLookupResponse::email,
+                        AuthClient.UserLookupResponse::userId, (a, b) -> a));
+
+        for (String email : emails) {
+            UUID userId = found.get(email);
+            entries.put(email, CompletableFuture.completedFuture(
+                    userId != null ? DirectoryEntry.known(userId) : DirectoryEntry.unknown()));
+        }
+    }
+
+    public DirectoryStats stats() {
+        CacheStats stats = entries.synchronous().stats();
+        return new DirectoryStats(
+                entries.synchronous().estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount(),
+                stats.loadFailureCount()
+        );
+    }
+
+    /**
+     * Counters since startup; {@code failedLookups} are Auth Service calls that did not answer.
+     */
+    public record DirectoryStats(
+            long size,
+            long hits,
+            long misses,
+            double hitRate,
+            long evictions,
+            long failedLookups
+    ) {}
+
+    /**
+     * userId is null for emails Auth Service does not know.
+     * {@code read} is set by lookups served from the cache after the entry was resolved.
+     */
+    private static final class DirectoryEntry {
+
+        private final UUID userId;
+        private final Instant resolvedAt;
+        private volatile boolean read;
+
+        private DirectoryEntry(UUID userId, Instant resolvedAt) {
+            this.userId = userId;
+            this.resolvedAt = resolvedAt;
+        }
+
+        static DirectoryEntry known(UUID userId) {
+            return new DirectoryEntry(userId, Instant.now());
+        }
+
+        static DirectoryEntry unknown() {
+            return new DirectoryEntry(null, Instant.now());
+        }
+
+        UUID userId() {
+            return userId;
+        }
+
+        Instant resolvedAt() {
+            return resolvedAt;
+        }
+
+        boolean readSinceResolved() {
+            return read;
+        }
+
+        void markRead() {
+            read = true;
+        }
+    }
+
+    private record EntryExpiry(Duration ttl, Duration negativeTtl) implements Expiry<String, DirectoryEntry> {
+
+        @Override
+        public long expireAfterCreate(String email, DirectoryEntry entry, long currentTime) {
+            return (entry.userId() != null ? ttl : negativeTtl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String email, DirectoryEntry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(email, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String email, DirectoryEntry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.domain.Wallet;
+import com.fintech.walletservice.domain.WalletBalance;
+import com.fintech.walletservice.exception.InsufficientFundsException;
+import com.fintech.walletservice.exception.WalletNotFoundException;
+import com.fintech.walletservice.repository.WalletRepository;
+import jakarta.persistence.LockModeType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Atomic credit/debit of a wallet balance.
+ *
+ * Regular wallets: one conditional UPDATE ... RETURNING, so the wallet row is
+ * locked for a single round trip. When the UPDATE matches nothing, the wallet is
+ * locked and read to raise the same exception Wallet.credit/debit would have,
+ * or to fall through to the sharded protocol below. A credit whose wallet was
+ * resharded down to 0 shards in between retries the UPDATE under that lock.
+ *
+ * Sharded (hot) wallets:
+ * - Credit: wallet row FOR KEY SHARE (credits don't block each other), then add to a
+ *   random shard slot. Credits only contend when they pick the same slot.
+ * - Debit: wallet row FOR UPDATE (waits for in-flight credits, blocks new ones),
+ *   drain all slots into the main balance, then the regular conditional debit.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WalletBalanceUpdater {
+
+    private final WalletRepository walletRepository;
+    private final WalletCache walletCache;
+    private final WalletMetrics metrics;
+
+    /**
+     * Credit an ACTIVE wallet. Must run inside the caller's money-path transaction.
+     */
+    @Transactional
+    public WalletBalance credit(UUID walletId, Long amount) {
+        if (amount == null || amount <= 0) {
+            throw new IllegalArgumentException("Credit amount must be positive");
+        }
+        walletCache.evictAfterCommit(walletId);
+
+        Optional<WalletBalance> updated = metrics.recordLockWait("balance_update",
+                () -> walletRepository.applyBalanceDelta(walletId, amount));
+        if (updated.isPresent()) {
+            return updated.get();
+        }
+
+        Wallet wallet = metrics.recordLockWait("shard_credit",
+                        () -> walletRepository.lockWalletForCredit(walletId))
+                .orElseThrow(() -> new WalletNotFoundException("Wallet not found: " + walletId));
+        wallet.validateActive();
+
+        if (wallet.isSharded()) {
+            return creditShard(wallet, amount);
+        }
+        // Resharded down to 0 after the UPDATE missed; the lock keeps it unsharded now
+        return walletRepository.applyBalanceDelta(walletId, amount)
+                .orElseThrow(() -> new IllegalStateException(
+                        "Credit of unsharded wallet " + walletId + " matched no row under its lock"));
+    }
+
+    /**
+     * Debit an ACTIVE wallet if it holds enough funds. Must run inside the caller's
+     * money-path transaction.
+     */
+    @Transactional
+    public WalletBalance debit(UUID walletId, Long amount) {
+        if (amount == null || amount <= 0) {
+            throw new IllegalArgumentException("Debit amount must be positive");
+        }
+        walletCache.evictAfterCommit(walletId);
+
+        Optional<WalletBalance> updated = metrics.recordLockWait("balance_update",
+                () -> walletRepository.applyBalanceDelta(walletId, -amount));
+        if (updated.isPresent()) {
+            return updated.get();
+        }
+
+        Wallet wallet = metrics.recordLockWait("shard_debit",
+                        () -> walletRepository.lockWallet(walletId, LockModeType.PESSIMISTIC_WRITE))
+                .orElseThrow(() -> new WalletNotFoundException("Wallet not found: " + walletId));
+        wallet.validateActive();
+
+        if (wallet.isSharded()) {
+            long drained = walletRepository.drainShards(walletId);
+            if (drained > 0) {
+                log.debug("Consolidated {} from shards into wallet {}", drained, walletId);
+            }
+        }
+
+        // Shards are empty now, so the main balance is the whole balance
+        return walletRepository.applyMainBalanceDelta(walletId, -amount)
+                .orElseThrow(() -> insufficientFunds(walletId, amount));
+    }
+
+    private WalletBalance creditShard(Wallet wallet, long amount) {
+        int slot = ThreadLocalRandom.current().nextInt(wallet.getShardCount());
+
+        long shardTotal = walletRepository.creditShard(wallet.getId(), slot, amount)
+                .orElseThrow(() -> new IllegalStateException(
+                        "Balance shard " + slot + " missing for wallet " + wallet.getId()));
+
+        // Main balance cannot change while we hold the key share lock: only FOR UPDATE
+        // holders touch a sharded wallet's main balance
+        return new WalletBalance(
+                wallet.getId(),
+                wallet.getUserId(),
+                wallet.getCurrency(),
+                wallet.getBalanceMinorUnits() + shardTotal,
+                wallet.getVersion()
+        );
+    }
+
+    private InsufficientFundsException insufficientFunds(UUID walletId, Long amount) {
+        long available = walletRepository.findTotalBalance(walletId).orElse(0L);
+        return new InsufficientFundsException(
+                "Insufficient balance. Required: " + amount + ", Available: " + available
+        );
+    }
+}
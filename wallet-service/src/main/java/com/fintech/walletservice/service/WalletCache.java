@@ -0,0 +1,373 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.domain.Wallet;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of wallets on this node.
+ *
+ * Wallets are cached by id, with two indexes on top: (user, currency) -> wallet id,
+ * which never changes, and user -> wallet ids, which only changes when a wallet is
+ * created. Every write to a wallet row (credit, debit, freeze, unfreeze, reshard)
+ * evicts it after its transaction commits, so once a write has returned, no read on
+ * this node gets the row it replaced. Writes on other nodes are only bounded by the TTL.
+ *
+ * A read that started before an eviction may still come back with the old row.
+ * Evictions leave a timestamped tombstone and such a fill is dropped; when two
+ * fills race, the higher Wallet.version wins.
+ *
+ * Not cached:
+ * - Sharded wallets: part of their balance lives in shard rows that change on every credit.
+ * - Loads inside read-write transactions: the persistence context may hold rows read
+ *   long before. Hits are still served there, except for wallets the transaction
+ *   has changed itself.
+ */
+@Component
+@Slf4j
+public class WalletCache {
+
+    // Tombstones outlive any fill that is still allowed to land
+    private static final Duration TOMBSTONE_TTL = Duration.ofSeconds(60);
+    private static final long MAX_LOAD_NANOS = TOMBSTONE_TTL.toNanos() / 2;
+
+    private final boolean enabled;
+
+    private final Cache<UUID, Wallet> walletsById;
+    private final Cache<OwnerKey, UUID> walletIdsByOwner;
+    private final Cache<UUID, List<UUID>> walletIdsByUser;
+
+    // Key -> System.nanoTime() of its last eviction
+    private final Cache<UUID, Long> walletTombstones;
+    private final Cache<UUID, Long> userTombstones;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder rejectedFills = new LongAdder();
+
+    public WalletCache(
+            @Value("${wallet.cache.enabled:true}") boolean enabled,
+            @Value("${wallet.cache.max-size:100000}") long maxSize,
+            @Value("${wallet.cache.ttl-seconds:300}") long ttlSeconds
+    ) {
+        this.enabled = enabled;
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+
+        this.walletsById = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.walletIdsByOwner = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(ttl)
+                .build();
+        this.walletIdsByUser = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+
+        // Time-bounded only: a size bound could drop a tombstone while its read is in flight
+        this.walletTombstones = Caffeine.newBuilder().expireAfterWrite(TOMBSTONE_TTL).build();
+        this.userTombstones = Caffeine.newBuilder().expireAfterWrite(TOMBSTONE_TTL).build();
+    }
+
+    // ==================== Reads ====================
+
+    /**
+     * Wallet by id; {@code loader} runs on a miss.
+     */
+    public Optional<Wallet> getWallet(UUID walletId, Supplier<Optional<Wallet>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        Wallet cached = lookup(walletId);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(copyOf(cached));
+        }
+
+        misses.increment();
+        long startedAt = System.nanoTime();
+        Optional<Wallet> loaded = loader.get();
+        loaded.ifPresent(wallet -> fill(wallet, startedAt));
+        return loaded;
+    }
+
+    /**
+     * Wallet by owner and currency; {@code loader} runs on a miss.
+     */
+    public Optional<Wallet> getWallet(UUID userId, Wallet.Currency currency, Supplier<Optional<Wallet>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        UUID walletId = walletIdsByOwner.getIfPresent(new OwnerKey(userId, currency));
+        Wallet cached = walletId != null ? lookup(walletId) : null;
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(copyOf(cached));
+        }
+
+        misses.increment();
+        long startedAt = System.nanoTime();
+        Optional<Wallet> loaded = loader.get();
+        loaded.ifPresent(wallet -> fill(wallet, startedAt));
+        return loaded;
+    }
+
+    /**
+     * All wallets of a user; a hit needs the id list and every wallet in it to be cached.
+     */
+    public List<Wallet> getWalletsByUser(UUID userId, Supplier<List<Wallet>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        List<Wallet> cached = lookupUser(userId);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        long startedAt = System.nanoTime();
+        List<Wallet> loaded = loader.get();
+        if (canFill() && !changedInTransaction(userId, PendingEvictions::users)) {
+            loaded.forEach(wallet -> fill(wallet, startedAt));
+            fillUser(userId, loaded.stream().map(Wallet::getId).toList(), startedAt);
+        }
+        return loaded;
+    }
+
+    private Wallet lookup(UUID walletId) {
+        if (changedInTransaction(walletId, PendingEvictions::wallets)) {
+            return null;
+        }
+        return walletsById.getIfPresent(walletId);
+    }
+
+    private List<Wallet> lookupUser(UUID userId) {
+        if (changedInTransaction(userId, PendingEvictions::users)) {
+            return null;
+        }
+        List<UUID> walletIds = walletIdsByUser.getIfPresent(userId);
+        if (walletIds == null) {
+            return null;
+        }
+
+        List<Wallet> wallets = new ArrayList<>(walletIds.size());
+        for (UUID walletId : walletIds) {
+            Wallet cached = lookup(walletId);
+            if (cached == null) {
+                return null;
+            }
+            wallets.add(copyOf(cached));
+        }
+        return wallets;
+    }
+
+    // ==================== Fills ====================
+
+    private void fill(Wallet wallet, long startedAt) {
+        if (wallet.isSharded() || !canFill()
+                || changedInTransaction(wallet.getId(), PendingEvictions::wallets)) {
+            return;
+        }
+
+        walletIdsByOwner.put(new OwnerKey(wallet.getUserId(), wallet.getCurrency()), wallet.getId());
+
+        Wallet snapshot = copyOf(wallet);
+        // compute() serializes with the invalidate() that follows a tombstone
+        walletsById.asMap().compute(wallet.getId(), (id, current) -> {
+            if (evictedSince(walletTombstones, id, startedAt)) {
+                rejectedFills.increment();
+                return current;
+            }
+            if (current != null && current.getVersion() > snapshot.getVersion()) {
+                return current;
+            }
+            return snapshot;
+        });
+    }
+
+    private void fillUser(UUID userId, List<UUID> walletIds, long startedAt) {
+        walletIdsByUser.asMap().compute(userId, (id, current) -> {
+            if (evictedSince(userTombstones, id, startedAt)) {
+                rejectedFills.increment();
+                return current;
+            }
+            return List.copyOf(walletIds);
+        });
+    }
+
+    private static boolean evictedSince(Cache<UUID, Long> tombstones, UUID key, long startedAt) {
+        // Too slow to trust: its tombstone may already have expired
+        if (System.nanoTime() - startedAt > MAX_LOAD_NANOS) {
+            return true;
+        }
+        Long evictedAt = tombstones.getIfPresent(key);
+        return evictedAt != null && evictedAt - startedAt >= 0;
+    }
+
+    // Outside transactions and in read-only ones the loader reads committed rows only
+    private static boolean canFill() {
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    // ==================== Invalidation ====================
+
+    /**
+     * Evict a wallet once the current transaction commits (right away without one).
+     * Call before changing the row: until then the transaction bypasses the cache
+     * for this wallet, so it keeps reading its own writes.
+     */
+    public void evictAfterCommit(UUID walletId) {
+        PendingEvictions pending = pendingEvictions();
+        if (pending == null) {
+            evictWallet(walletId);
+        } else {
+            pending.wallets().add(walletId);
+        }
+    }
+
+    /**
+     * Evict a user's wallet list once the current transaction commits, e.g. after
+     * creating a wallet for them.
+     */
+    public void evictUserAfterCommit(UUID userId) {
+        PendingEvictions pending = pendingEvictions();
+        if (pending == null) {
+            evictUser(userId);
+        } else {
+            pending.users().add(userId);
+        }
+    }
+
+    private void evictWallet(UUID walletId) {
+        // Tombstone first: a fill either sees it or lands before the invalidate below
+        walletTombstones.put(walletId, System.nanoTime());
+        walletsById.invalidate(walletId);
+        invalidations.increment();
+    }
+
+    private void evictUser(UUID userId) {
+        userTombstones.put(userId, System.nanoTime());
+        walletIdsByUser.invalidate(userId);
+        invalidations.increment();
+    }
+
+    private PendingEvictions pendingEvictions() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+
+        PendingEvictions pending = (PendingEvictions) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingEvictions(new HashSet<>(), new HashSet<>());
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending.synchronization(this));
+        }
+        return pending;
+    }
+
+    private boolean changedInTransaction(UUID key, Function<PendingEvictions, Set<UUID>> keys) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        PendingEvictions pending = (PendingEvictions) TransactionSynchronizationManager.getResource(this);
+        return pending != null && keys.apply(pending).contains(key);
+    }
+
+    /**
+     * Wallets and users changed by the current transaction.
+     */
+    private record PendingEvictions(Set<UUID> wallets, Set<UUID> users) {
+
+        TransactionSynchronization synchronization(WalletCache cache) {
+            return new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wallets.forEach(cache::evictWallet);
+                    users.forEach(cache::evictUser);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(cache);
+                }
+            };
+        }
+    }
+
+    // ==================== Metrics ====================
+
+    public WalletCacheStats stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        return new WalletCacheStats(
+                enabled,
+                walletsById.estimatedSize(),
+                hitCount,
+                missCount,
+                requests == 0 ? 0.0 : (double) hitCount / requests,
+                walletsById.stats().evictionCount(),
+                invalidations.sum(),
+                rejectedFills.sum()
+        );
+    }
+
+    /**
+     * Counters since startup. {@code evictions} are size/TTL evictions;
+     * {@code invalidations} are evictions after committed writes.
+     */
+    public record WalletCacheStats(
+            boolean enabled,
+            long size,
+            long hits,
+            long misses,
+            double hitRate,
+            long evictions,
+            long invalidations,
+            long rejectedFills
+    ) {}
+
+    // ==================== Helpers ====================
+
+    // Callers get their own detached instance; the cached one is never handed out
+    private static Wallet copyOf(Wallet wallet) {
+        return Wallet.builder()
+                .id(wallet.getId())
+                .userId(wallet.getUserId())
+                .currency(wallet.getCurrency())
+                .balanceMinorUnits(wallet.getBalanceMinorUnits())
+                .status(wallet.getStatus())
+                .shardCount(wallet.getShardCount())
+                .version(wallet.getVersion())
+                .createdAt(wallet.getCreatedAt())
+                .updatedAt(wallet.getUpdatedAt())
+                .build();
+    }
+
+    private record OwnerKey(UUID userId, Wallet.Currency currency) {}
+}
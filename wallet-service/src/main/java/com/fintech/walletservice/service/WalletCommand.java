@@ -0,0 +1,38 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.domain.LedgerEntry;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A deposit or withdrawal waiting in its wallet's command lane.
+ * The submitting thread waits on {@code result} until the batch holding it commits.
+ *
+ * @param userEmail captured on the request thread; UserContext is not visible to the worker
+ */
+record WalletCommand(
+        Type type,
+        UUID walletId,
+        Long amount,
+        String idempotencyKey,
+        String description,
+        String userEmail,
+        CompletableFuture<LedgerEntry> result
+) {
+
+    enum Type {
+        DEPOSIT,
+        WITHDRAWAL
+    }
+
+    static WalletCommand of(Type type, UUID walletId, Long amount, String idempotencyKey,
+                            String description, String userEmail) {
+        return new WalletCommand(type, walletId, amount, idempotencyKey, description,
+                userEmail, new CompletableFuture<>());
+    }
+
+    boolean isCredit() {
+        return type == Type.DEPOSIT;
+    }
+}
@@ -0,0 +1,128 @@
+package com.fintech.walletservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process command lanes, one per wallet, for group commit.
+ *
+ * Commands for a wallet are handed to the batch handler in submission order, at most
+ * {@code maxBatchSize} at a time, and never two batches of the same wallet at once.
+ * While a batch is being applied, new commands for that wallet pile up and form the
+ * next batch. Lanes of different wallets drain in parallel on the worker pool.
+ *
+ * A lane exists in the map exactly while a drain task is scheduled or running for it;
+ * every lane transition happens inside {@link ConcurrentHashMap#compute}.
+ */
+@Slf4j
+class WalletCommandQueue {
+
+    /**
+     * Applies one batch and completes each command's future.
+     */
+    @FunctionalInterface
+    interface BatchHandler {
+        void apply(UUID walletId, List<WalletCommand> batch);
+    }
+
+    private final Map<UUID, ArrayDeque<WalletCommand>> lanes = new ConcurrentHashMap<>();
+    private final ExecutorService workers;
+    private final int maxBatchSize;
+    private final BatchHandler handler;
+
+    WalletCommandQueue(int threads, int maxBatchSize, BatchHandler handler) {
+        if (threads <= 0 || maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Group commit threads and batch size must be positive");
+        }
+        this.workers = Executors.newFixedThreadPool(threads, namedThreads());
+        this.maxBatchSize = maxBatchSize;
+        this.handler = handler;
+    }
+
+    /**
+     * Append a command to its wallet's lane. The result is delivered through the
+     * command's future.
+     */
+    void submit(WalletCommand command) {
+        lanes.compute(command.walletId(), (walletId, lane) -> {
+            if (lane != null) {
+                lane.addLast(command);
+                return lane;
+            }
+            ArrayDeque<WalletCommand> newLane = new ArrayDeque<>();
+            newLane.addLast(command);
+            return schedule(walletId, newLane);
+        });
+    }
+
+    /**
+     * Stop accepting work and let queued batches finish.
+     */
+    void shutdown() {
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Wallet command workers did not finish within 30s");
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            workers.shutdownNow();
+        }
+    }
+
+    private void drain(UUID walletId) {
+        List<WalletCommand> batch = new ArrayList<>(maxBatchSize);
+        lanes.computeIfPresent(walletId, (id, lane) -> {
+            while (batch.size() < maxBatchSize && !lane.isEmpty()) {
+                batch.add(lane.pollFirst());
+            }
+            return lane;
+        });
+
+        try {
+            handler.apply(walletId, batch);
+        } catch (Throwable t) {
+            log.error("Command batch for wallet {} failed: {}", walletId, t.getMessage(), t);
+        } finally {
+            // No-op for commands the handler already completed
+            batch.forEach(command -> command.result().completeExceptionally(
+                    new IllegalStateException("Wallet command was not applied")));
+
+            lanes.computeIfPresent(walletId, (id, lane) -> lane.isEmpty() ? null : schedule(id, lane));
+        }
+    }
+
+    // Called inside compute; returns the lane to keep, or null to drop it
+    private ArrayDeque<WalletCommand> schedule(UUID walletId, ArrayDeque<WalletCommand> lane) {
+        try {
+            workers.execute(() -> drain(walletId));
+            return lane;
+        } catch (RejectedExecutionException e) {
+            lane.forEach(command -> command.result().completeExceptionally(
+                    new IllegalStateException("Wallet command queue is shut down")));
+            return null;
+        }
+    }
+
+    private static ThreadFactory namedThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "wallet-cmd-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,120 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.domain.LedgerEntry;
+import com.fintech.walletservice.exception.InsufficientFundsException;
+import com.fintech.walletservice.exception.WalletNotActiveException;
+import com.fintech.walletservice.exception.WalletNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Money-path meters. Percentile histograms are switched on per meter in
+ * {@code management.metrics.distribution} so they stay a deployment decision.
+ *
+ * - wallet.operation{operation, outcome}: deposit/withdraw/transfer latency, including
+ *   the group-commit lane wait and the commit
+ * - wallet.lock.wait{lock}: statements that take wallet row locks; their time is almost
+ *   all lock wait under contention
+ * - wallet.provider.requests{provider, operation, outcome}: payment provider calls
+ * - wallet.provider.hedges{outcome}: hedged deposits and cancellations of their losers
+ */
+@Component
+public class WalletMetrics {
+
+    public static final String OPERATION = "wallet.operation";
+    public static final String LOCK_WAIT = "wallet.lock.wait";
+    public static final String PROVIDER_REQUESTS = "wallet.provider.requests";
+    public static final String PROVIDER_HEDGES = "wallet.provider.hedges";
+
+    private final MeterRegistry registry;
+
+    public WalletMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Time a money operation and tag it with its outcome. Idempotent replays return
+     * an entry created before the call started and are tagged {@code duplicate}.
+     */
+    public LedgerEntry recordOperation(String operation, Supplier<LedgerEntry> call) {
+        Instant started = Instant.now();
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "error";
+        try {
+            LedgerEntry entry = call.get();
+            outcome = entry.getCreatedAt().isBefore(started) ? "duplicate" : "success";
+            return entry;
+        } catch (RuntimeException e) {
+            outcome = outcome(e);
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(OPERATION)
+                    .description("Deposit, withdrawal and transfer latency by outcome")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(registry));
+        }
+    }
+
+    /**
+     * Time a statement that acquires wallet row locks.
+     */
+    public <T> T recordLockWait(String lock, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(registry);
+        try {
+            return call.get();
+        } finally {
+            sample.stop(Timer.builder(LOCK_WAIT)
+                    .description("Time spent in statements that take wallet row locks")
+                    .tag("lock", lock)
+                    .register(registry));
+        }
+    }
+
+    /**
+     * Time a payment provider call; {@code succeeded} maps the provider's answer to
+     * success or declined, exceptions count as error.
+     */
+    public <T> T recordProviderCall(String provider, String operation, Supplier<T> call,
+                                    Predicate<T> succeeded) {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "error";
+        try {
+            T result = call.get();
+            outcome = succeeded.test(result) ? "success" : "declined";
+            return result;
+        } finally {
+            sample.stop(Timer.builder(PROVIDER_REQUESTS)
+                    .description("Payment provider call latency by outcome")
+                    .tag("provider", provider)
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(registry));
+        }
+    }
+
+    public void recordHedge(String outcome) {
+        registry.counter(PROVIDER_HEDGES, "outcome", outcome).increment();
+    }
+
+    static String outcome(Throwable e) {
+        if (e instanceof InsufficientFundsException) {
+            return "insufficient_funds";
+        }
+        if (e instanceof WalletNotActiveException) {
+            return "not_active";
+        }
+        if (e instanceof WalletNotFoundException) {
+            return "not_found";
+        }
+        if (e instanceof IllegalArgumentException) {
+            return "invalid";
+        }
+        return "error";
+    }
+}
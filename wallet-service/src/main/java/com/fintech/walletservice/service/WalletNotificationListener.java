@@ -0,0 +1,132 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.client.NotificationClient;
+import com.fintech.walletservice.config.AsyncConfig;
+import com.fintech.walletservice.event.FundsDeposited;
+import com.fintech.walletservice.event.FundsWithdrawn;
+import com.fintech.walletservice.event.TransferCompleted;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Turns committed money movements into user notifications.
+ *
+ * Handlers run after the publishing transaction commits (never for rolled-back ones)
+ * and on the wallet event executor, so no notification work happens while wallet
+ * rows are locked or on the request thread.
+ */
+@Component
+@Slf4j
+public class WalletNotificationListener {
+
+    private final NotificationClient notificationClient;
+
+    // Threshold for large transaction alerts (in minor units)
+    private final long largeTransactionThreshold;
+
+    public WalletNotificationListener(
+            NotificationClient notificationClient,
+            @Value("${wallet.large-transaction-threshold:100000}") long largeTransactionThreshold
+    ) {
+        this.notificationClient = notificationClient;
+        this.largeTransactionThreshold = largeTransactionThreshold;
+    }
+
+    @Async(AsyncConfig.WALLET_EVENT_EXECUTOR)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onFundsDeposited(FundsDeposited event) {
+        try {
+            String amount = AmountFormatter.format(event.amountMinorUnits(), event.currency());
+
+            notificationClient.notifyDeposit(
+                    event.userId(),
+                    event.userEmail(),
+                    amount,
+                    event.currency().name(),
+                    event.walletId(),
+                    event.transactionId(),
+                    AmountFormatter.format(event.balanceAfterMinorUnits(), event.currency())
+            );
+
+            if (event.amountMinorUnits() >= largeTransactionThreshold) {
+                notificationClient.notifyLargeTransaction(
+                        event.userId(), event.userEmail(), amount,
+                        event.currency().name(), "DEPOSIT", event.transactionId()
+                );
+            }
+        } catch (Exception e) {
+            log.warn("Failed to send deposit notification: {}", e.getMessage());
+        }
+    }
+
+    @Async(AsyncConfig.WALLET_EVENT_EXECUTOR)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onFundsWithdrawn(FundsWithdrawn event) {
+        try {
+            String amount = AmountFormatter.format(event.amountMinorUnits(), event.currency());
+
+            notificationClient.notifyWithdrawal(
+                    event.userId(),
+                    event.userEmail(),
+                    amount,
+                    event.currency().name(),
+                    event.walletId(),
+                    event.transactionId(),
+                    AmountFormatter.format(event.balanceAfterMinorUnits(), event.currency())
+            );
+
+            if (event.amountMinorUnits() >= largeTransactionThreshold) {
+                notificationClient.notifyLargeTransaction(
+                        event.userId(), event.userEmail(), amount,
+                        event.currency().name(), "WITHDRAWAL", event.transactionId()
+                );
+            }
+        } catch (Exception e) {
+            log.warn("Failed to send withdrawal notification: {}", e.getMessage());
+        }
+    }
+
+    @Async(AsyncConfig.WALLET_EVENT_EXECUTOR)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTransferCompleted(TransferCompleted event) {
+        try {
+            String amount = AmountFormatter.format(event.amountMinorUnits(), event.currency());
+            String currency = event.currency().name();
+
+            notificationClient.notifyTransferSent(
+                    event.fromUserId(),
+                    event.senderEmail(),
+                    amount,
+                    currency,
+                    event.toWalletId(),
+                    event.transactionId(),
+                    AmountFormatter.format(event.fromBalanceAfterMinorUnits(), event.currency())
+            );
+
+            // We don't have the receiver's email, use placeholder
+            notificationClient.notifyTransferReceived(
+                    event.toUserId(),
+                    "user@example.com", // In production, fetch from Customer Service
+                    amount,
+                    currency,
+                    event.fromWalletId(),
+                    event.transactionId(),
+                    AmountFormatter.format(event.toBalanceAfterMinorUnits(), event.currency())
+            );
+
+            // Check for large transaction (alert sender)
+            if (event.amountMinorUnits() >= largeTransactionThreshold) {
+                notificationClient.notifyLargeTransaction(
+                        event.fromUserId(), event.senderEmail(), amount,
+                        currency, "TRANSFER", event.transactionId()
+                );
+            }
+        } catch (Exception e) {
+            log.warn("Failed to send transfer notifications: {}", e.getMessage());
+        }
+    }
+}
@@ -1,48 +1,104 @@
 package com.fintech.walletservice.service;
 
-import com.fintech.walletservice.client.LedgerClient;
-import com.fintech.walletservice.client.NotificationClient;
-import com.fintech.walletservice.client.dto.CreateLedgerEntryRequest;
 import com.fintech.walletservice.domain.LedgerEntry;
 import com.fintech.walletservice.domain.Wallet;
+import com.fintech.walletservice.domain.WalletBalance;
+import com.fintech.walletservice.domain.WalletBalanceShard;
+import com.fintech.walletservice.event.FundsDeposited;
+import com.fintech.walletservice.event.FundsWithdrawn;
+import com.fintech.walletservice.event.TransferCompleted;
 import com.fintech.walletservice.exception.CurrencyMismatchException;
 import com.fintech.walletservice.exception.DuplicateWalletException;
+import com.fintech.walletservice.exception.InsufficientFundsException;
 import com.fintech.walletservice.exception.UnauthorizedAccessException;
+import com.fintech.walletservice.exception.WalletNotActiveException;
 import com.fintech.walletservice.exception.WalletNotFoundException;
 import com.fintech.walletservice.repository.LedgerEntryRepository;
+import com.fintech.walletservice.repository.WalletBalanceShardRepository;
 import com.fintech.walletservice.repository.WalletRepository;
 import com.fintech.walletservice.security.UserContext;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.LockModeType;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 @Slf4j
 public class WalletService {
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
     private final WalletRepository walletRepository;
+    private final WalletBalanceUpdater balanceUpdater;
+    private final WalletBalanceShardRepository shardRepository;
     private final LedgerEntryRepository ledgerRepository;
-    private final LedgerClient ledgerClient;
-    private final NotificationClient notificationClient;
+    private final BalanceCheckpointService checkpointService;
+    private final LedgerOutboxService ledgerOutbox;
+    private final WalletCache walletCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Upper bound for hot-wallet shard slots
+    private final int maxShardCount;
+
+    private final WalletMetrics metrics;
 
-    // Threshold for large transaction alerts (in minor units)
-    private final long largeTransactionThreshold;
+    private final TransactionTemplate transactionTemplate;
+
+    // Per-wallet lanes for deposits/withdrawals; null when group commit is off
+    private final WalletCommandQueue commandQueue;
 
     public WalletService(
             WalletRepository walletRepository,
+            WalletBalanceUpdater balanceUpdater,
+            WalletBalanceShardRepository shardRepository,
             LedgerEntryRepository ledgerRepository,
-            LedgerClient ledgerClient,
-            NotificationClient notificationClient,
-            @Value("${wallet.large-transaction-threshold:100000}") long largeTransactionThreshold
+            BalanceCheckpointService checkpointService,
+            LedgerOutboxService ledgerOutbox,
+            WalletCache walletCache,
+            ApplicationEventPublisher eventPublisher,
+            WalletMetrics metrics,
+            @Value("${wallet.sharding.max-shard-count:64}") int maxShardCount,
+            PlatformTransactionManager transactionManager,
+            @Value("${wallet.group-commit.enabled:false}") boolean groupCommitEnabled,
+            @Value("${wallet.group-commit.max-batch-size:50}") int groupCommitBatchSize,
+            @Value("${wallet.group-commit.threads:8}") int groupCommitThreads
     ) {
         this.walletRepository = walletRepository;
+        this.balanceUpdater = balanceUpdater;
+        this.shardRepository = shardRepository;
         this.ledgerRepository = ledgerRepository;
-        this.ledgerClient = ledgerClient;
-        this.notificationClient = notificationClient;
-        this.largeTransactionThreshold = largeTransactionThreshold;
+        this.checkpointService = checkpointService;
+        this.ledgerOutbox = ledgerOutbox;
+        this.walletCache = walletCache;
+        this.eventPublisher = eventPublisher;
+        this.metrics = metrics;
+        this.maxShardCount = maxShardCount;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.commandQueue = groupCommitEnabled
+                ? new WalletCommandQueue(groupCommitThreads, groupCommitBatchSize, this::applyBatch)
+                : null;
+    }
+
+    @PreDestroy
+    void shutdownCommandQueue() {
+        if (commandQueue != null) {
+            commandQueue.shutdown();
+        }
     }
 
     /**
@@ -64,6 +120,7 @@ public class WalletService {
                 .status(Wallet.WalletStatus.ACTIVE)
                 .build();
 
+        walletCache.evictUserAfterCommit(userId);
         Wallet saved = walletRepository.save(wallet);
         log.info("Created wallet {} for user {} in {}", saved.getId(), userId, currency);
         return saved;
@@ -73,15 +130,61 @@ public class WalletService {
      * Find wallet by user ID and currency.
      */
     public java.util.Optional<Wallet> findByUserIdAndCurrency(UUID userId, Wallet.Currency currency) {
-        return walletRepository.findByUserIdAndCurrency(userId, currency);
+        return walletCache.getWallet(userId, currency,
+                        () -> walletRepository.findByUserIdAndCurrency(userId, currency))
+                .map(this::withShardBalance);
     }
 
     /**
      * Deposit funds into wallet.
      * IDEMPOTENT: Same idempotency key = same result.
      */
-    @Transactional
     public LedgerEntry deposit(UUID walletId, Long amount, String idempotencyKey, String description) {
+        return metrics.recordOperation("deposit", () -> execute(WalletCommand.of(
+                WalletCommand.Type.DEPOSIT, walletId, amount, idempotencyKey, description, getUserEmail())));
+    }
+
+    /**
+     * Withdraw funds from wallet.
+     * IDEMPOTENT with idempotency key.
+     */
+    public LedgerEntry withdraw(UUID walletId, Long amount, String idempotencyKey, String description) {
+        return metrics.recordOperation("withdraw", () -> execute(WalletCommand.of(
+                WalletCommand.Type.WITHDRAWAL, walletId, amount, idempotencyKey, description, getUserEmail())));
+    }
+
+    /**
+     * Run a deposit/withdrawal: through the wallet's command lane when group commit is on,
+     * otherwise in its own transaction. Callers that already hold a transaction always take
+     * the direct path so the money movement stays part of their unit of work.
+     */
+    private LedgerEntry execute(WalletCommand command) {
+        if (commandQueue == null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return applyDirect(command);
+        }
+
+        commandQueue.submit(command);
+        try {
+            return command.result().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private LedgerEntry applyDirect(WalletCommand command) {
+        return transactionTemplate.execute(status -> command.isCredit()
+                ? applyDeposit(command)
+                : applyWithdrawal(command));
+    }
+
+    private LedgerEntry applyDeposit(WalletCommand command) {
+        UUID walletId = command.walletId();
+        Long amount = command.amount();
+        String idempotencyKey = command.idempotencyKey();
+
         // Check idempotency
         if (ledgerRepository.existsByIdempotencyKey(idempotencyKey)) {
             log.warn("Duplicate deposit request with key: {}", idempotencyKey);
@@ -89,74 +192,50 @@ public class WalletService {
                     .orElseThrow(() -> new IllegalStateException("Idempotency key exists but entry not found"));
         }
 
-        // Pessimistic lock prevents race conditions
-        Wallet wallet = walletRepository.findByIdForUpdate(walletId)
-                .orElseThrow(() -> new WalletNotFoundException("Wallet not found: " + walletId));
-
-        wallet.credit(amount);
-        walletRepository.save(wallet);
+        // Single conditional UPDATE: the row lock is held for one statement
+        WalletBalance wallet = balanceUpdater.credit(walletId, amount);
 
         // Immutable audit trail
-        LedgerEntry entry = LedgerEntry.builder()
-                .walletId(walletId)
-                .entryType(LedgerEntry.EntryType.CREDIT)
-                .amountMinorUnits(amount)
-                .balanceAfter(wallet.getBalanceMinorUnits())
-                .transactionId(UUID.randomUUID())
-                .idempotencyKey(idempotencyKey)
-                .description(description)
-                .build();
+        LedgerEntry entry = newEntry(command, wallet.balanceMinorUnits());
 
         LedgerEntry saved = ledgerRepository.save(entry);
         log.info("Deposited {} to wallet {}. New balance: {}",
-                amount, walletId, wallet.getBalanceMinorUnits());
+                amount, walletId, wallet.balanceMinorUnits());
 
-        // Record in centralized Ledger Service (async, non-blocking)
+        // Replicate to centralized Ledger Service via the outbox (same transaction)
         recordToLedgerService(wallet, saved, null);
 
-        // Send notification
-        sendDepositNotification(wallet, saved);
+        // Notification goes out after commit (WalletNotificationListener)
+        publishFundsMoved(wallet, saved, command.userEmail());
 
         return saved;
     }
 
-    /**
-     * Withdraw funds from wallet.
-     * IDEMPOTENT with idempotency key.
-     */
-    @Transactional
-    public LedgerEntry withdraw(UUID walletId, Long amount, String idempotencyKey, String description) {
+    private LedgerEntry applyWithdrawal(WalletCommand command) {
+        UUID walletId = command.walletId();
+        Long amount = command.amount();
+        String idempotencyKey = command.idempotencyKey();
+
         if (ledgerRepository.existsByIdempotencyKey(idempotencyKey)) {
             log.warn("Duplicate withdrawal request with key: {}", idempotencyKey);
             return ledgerRepository.findByIdempotencyKey(idempotencyKey)
                     .orElseThrow(() -> new IllegalStateException("Idempotency key exists but entry not found"));
         }
 
-        Wallet wallet = walletRepository.findByIdForUpdate(walletId)
-                .orElseThrow(() -> new WalletNotFoundException("Wallet not found: " + walletId));
+        // Balance check and debit happen in the same UPDATE
+        WalletBalance wallet = balanceUpdater.debit(walletId, amount);
 
-        wallet.debit(amount);
-        walletRepository.save(wallet);
-
-        LedgerEntry entry = LedgerEntry.builder()
-                .walletId(walletId)
-                .entryType(LedgerEntry.EntryType.DEBIT)
-                .amountMinorUnits(amount)
-                .balanceAfter(wallet.getBalanceMinorUnits())
-                .transactionId(UUID.randomUUID())
-                .idempotencyKey(idempotencyKey)
-                .description(description)
-                .build();
+        LedgerEntry entry = newEntry(command, wallet.balanceMinorUnits());
 
         LedgerEntry saved = ledgerRepository.save(entry);
         log.info("Withdrew {} from wallet {}. New balance: {}",
-                amount, walletId, wallet.getBalanceMinorUnits());
+                amount, walletId, wallet.balanceMinorUnits());
 
-        // Record in centralized Ledger Service
+        // Replicate to centralized Ledger Service via the outbox (same transaction)
         recordToLedgerService(wallet, saved, null);
 
-        // Send notification
-        sendWithdrawalNotification(wallet, saved);
+        // Notification goes out after commit (WalletNotificationListener)
+        publishFundsMoved(wallet, saved, command.userEmail());
 
         return saved;
     }
@@ -166,11 +245,12 @@ public class WalletService {
      * Wallet balance must match ledger entries.
      */
     public boolean reconcileBalance(UUID walletId) {
-        Wallet wallet = walletRepository.findById(walletId)
+        // Main balance + shard slots in one statement
+        Long walletBalance = walletRepository.findTotalBalance(walletId)
                 .orElseThrow(() -> new WalletNotFoundException("Wallet not found: " + walletId));
 
-        Long ledgerBalance = ledgerRepository.calculateBalanceFromLedger(walletId);
-        Long walletBalance = wallet.getBalanceMinorUnits();
+        // Checkpoint + entries since, not the whole history
+        Long ledgerBalance = checkpointService.ledgerBalance(walletId);
 
         if (!walletBalance.equals(ledgerBalance)) {
             log.error("BALANCE MISMATCH! Wallet {}: wallet={}, ledger={}",
@@ -193,13 +273,28 @@ public class WalletService {
      * @param description Transfer description
      * @return Transaction ID that groups both ledger entries
      */
-    @Transactional
     public UUID transfer(
             UUID fromWalletId,
             UUID toWalletId,
             Long amount,
             String idempotencyKey,
             String description
+    ) {
+        // Transaction inside the timer, so the recorded latency includes the commit
+        return metrics.recordOperation("transfer", () -> transactionTemplate.execute(status ->
+                        applyTransfer(fromWalletId, toWalletId, amount, idempotencyKey, description)))
+                .getTransactionId();
+    }
+
+    /**
+     * @return the debit entry, new or (for a replayed key) the existing one
+     */
+    private LedgerEntry applyTransfer(
+            UUID fromWalletId,
+            UUID toWalletId,
+            Long amount,
+            String idempotencyKey,
+            String description
     ) {
         // Validate input
         if (fromWalletId.equals(toWalletId)) {
@@ -216,66 +311,66 @@ public class WalletService {
 
         if (ledgerRepository.existsByIdempotencyKey(debitIdempotencyKey)) {
             log.warn("Duplicate transfer request with key: {}", idempotencyKey);
-            // Return existing transaction ID
-            LedgerEntry existingEntry = ledgerRepository.findByIdempotencyKey(debitIdempotencyKey)
+            // Existing entry carries the original transaction ID
+            return ledgerRepository.findByIdempotencyKey(debitIdempotencyKey)
                     .orElseThrow(() -> new IllegalStateException("Idempotency key exists but entry not found"));
-            return existingEntry.getTransactionId();
         }
 
-        // Lock both wallets in consistent order to prevent deadlocks
-        // Always lock smaller UUID first
-        UUID firstLock = fromWalletId.compareTo(toWalletId) < 0 ? fromWalletId : toWalletId;
-        UUID secondLock = fromWalletId.compareTo(toWalletId) < 0 ? toWalletId : fromWalletId;
-
-        Wallet firstWallet = walletRepository.findByIdForUpdate(firstLock)
-                .orElseThrow(() -> new WalletNotFoundException("Wallet not found: " + firstLock));
+        // Read both wallets (no lock) to validate them and pick the lock modes
+        Map<UUID, Wallet> wallets = walletRepository.findAllById(List.of(fromWalletId, toWalletId))
+                .stream()
+                .collect(Collectors.toMap(Wallet::getId, Function.identity()));
 
-        Wallet secondWallet = walletRepository.findByIdForUpdate(secondLock)
-                .orElseThrow(() -> new WalletNotFoundException("Wallet not found: " + secondLock));
-
-        // Get actual from/to wallets after locking
-        Wallet fromWallet = fromWalletId.equals(firstLock) ? firstWallet : secondWallet;
-        Wallet toWallet = toWalletId.equals(firstLock) ? firstWallet : secondWallet;
+        Wallet source = wallets.get(fromWalletId);
+        if (source == null) {
+            throw new WalletNotFoundException("Wallet not found: " + fromWalletId);
+        }
+        Wallet destination = wallets.get(toWalletId);
+        if (destination == null) {
+            throw new WalletNotFoundException("Wallet not found: " + toWalletId);
+        }
 
         // Validate currencies match
-        if (fromWallet.getCurrency() != toWallet.getCurrency()) {
+        if (source.getCurrency() != destination.getCurrency()) {
             throw new CurrencyMismatchException(
                     "Cannot transfer between different currencies: " +
-                    fromWallet.getCurrency() + " -> " + toWallet.getCurrency()
+                    source.getCurrency() + " -> " + destination.getCurrency()
             );
         }
 
+        lockForTransfer(fromWalletId, destination);
+
         // Generate single transaction ID for both entries
         UUID transactionId = UUID.randomUUID();
 
-        // Debit from source wallet
-        fromWallet.debit(amount);
-        walletRepository.save(fromWallet);
+        // Debit from source wallet (rows are already locked, the UPDATEs do not wait)
+        WalletBalance fromWallet = balanceUpdater.debit(fromWalletId, amount);
 
         LedgerEntry debitEntry = LedgerEntry.builder()
                 .walletId(fromWalletId)
                 .entryType(LedgerEntry.EntryType.DEBIT)
                 .amountMinorUnits(amount)
-                .balanceAfter(fromWallet.getBalanceMinorUnits())
+                .balanceAfter(fromWallet.balanceMinorUnits())
                 .transactionId(transactionId)
                 .idempotencyKey(debitIdempotencyKey)
                 .description("Transfer to wallet " + toWalletId + ": " + description)
+                .transactionType("TRANSFER_OUT")
                 .build();
 
         ledgerRepository.save(debitEntry);
 
         // Credit to destination wallet
-        toWallet.credit(amount);
-        walletRepository.save(toWallet);
+        WalletBalance toWallet = balanceUpdater.credit(toWalletId, amount);
 
         LedgerEntry creditEntry = LedgerEntry.builder()
                 .walletId(toWalletId)
                 .entryType(LedgerEntry.EntryType.CREDIT)
                 .amountMinorUnits(amount)
-                .balanceAfter(toWallet.getBalanceMinorUnits())
+                .balanceAfter(toWallet.balanceMinorUnits())
                 .transactionId(transactionId)
                 .idempotencyKey(creditIdempotencyKey)
                 .description("Transfer from wallet " + fromWalletId + ": " + description)
+                .transactionType("TRANSFER_IN")
                 .build();
 
         ledgerRepository.save(creditEntry);
@@ -284,13 +379,17 @@ public class WalletService {
                 amount, fromWalletId, toWalletId, transactionId);
 
         // Record both sides of transfer in Ledger Service
-        recordTransferToLedgerService(fromWallet, debitEntry, toWalletId);
-        recordTransferToLedgerService(toWallet, creditEntry, fromWalletId);
+        recordToLedgerService(fromWallet, debitEntry, toWalletId);
+        recordToLedgerService(toWallet, creditEntry, fromWalletId);
 
-        // Send notifications to both parties
-        sendTransferNotifications(fromWallet, toWallet, debitEntry, creditEntry, amount, transactionId);
+        // Notifications to both parties go out after commit (WalletNotificationListener)
+        eventPublisher.publishEvent(new TransferCompleted(
+                transactionId,
+                fromWalletId, fromWallet.userId(), fromWallet.balanceMinorUnits(),
+                toWalletId, toWallet.userId(), toWallet.balanceMinorUnits(),
+                fromWallet.currency(), amount, getUserEmail()));
 
-        return transactionId;
+        return debitEntry;
     }
 
     /**
@@ -299,11 +398,11 @@ public class WalletService {
      */
     @Transactional(readOnly = true)
     public Wallet getWallet(UUID walletId) {
-        Wallet wallet = walletRepository.findById(walletId)
+        Wallet wallet = walletCache.getWallet(walletId, () -> walletRepository.findById(walletId))
                 .orElseThrow(() -> new WalletNotFoundException("Wallet not found: " + walletId));
 
         verifyWalletAccess(wallet);
-        return wallet;
+        return withShardBalance(wallet);
     }
 
     /**
@@ -311,7 +410,8 @@ public class WalletService {
      */
     @Transactional(readOnly = true)
     public Wallet getWalletInternal(UUID walletId) {
-        return walletRepository.findById(walletId)
+        return walletCache.getWallet(walletId, () -> walletRepository.findById(walletId))
+                .map(this::withShardBalance)
                 .orElseThrow(() -> new WalletNotFoundException("Wallet not found: " + walletId));
     }
 
@@ -322,21 +422,39 @@ public class WalletService {
     @Transactional(readOnly = true)
     public java.util.List<Wallet> getWalletsByUser(UUID userId) {
         verifyUserAccess(userId);
-        return walletRepository.findByUserId(userId);
+        return walletCache.getWalletsByUser(userId, () -> walletRepository.findByUserId(userId)).stream()
+                .map(this::withShardBalance)
+                .toList();
     }
 
     /**
-     * Get transaction history for a wallet with pagination.
+     * Get one page of transaction history for a wallet, most recent first.
+     * Keyset pagination on (created_at, id): no COUNT and no OFFSET, so every page
+     * is one range scan of idx_ledger_wallet_created_id however deep it is.
+     *
+     * @param cursor where the previous page ended, or null for the first page
      */
     @Transactional(readOnly = true)
-    public org.springframework.data.domain.Page<LedgerEntry> getTransactionHistory(
-            UUID walletId,
-            org.springframework.data.domain.Pageable pageable) {
-        // Verify wallet exists
-        if (!walletRepository.existsById(walletId)) {
+    public TransactionHistoryPage getTransactionHistory(UUID walletId, HistoryCursor cursor, int size) {
+        if (size <= 0 || size > MAX_HISTORY_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_HISTORY_PAGE_SIZE);
+        }
+
+        // One extra row tells whether another page follows
+        List<LedgerEntry> entries = cursor == null
+                ? ledgerRepository.findHistoryPage(walletId, size + 1)
+                : ledgerRepository.findHistoryPageAfter(walletId, cursor.createdAt(), cursor.id(), size + 1);
+
+        // Only an empty page needs to tell "no entries" from "no wallet"
+        if (entries.isEmpty() && !walletRepository.existsById(walletId)) {
             throw new WalletNotFoundException("Wallet not found: " + walletId);
         }
-        return ledgerRepository.findByWalletIdOrderByCreatedAtDesc(walletId, pageable);
+
+        if (entries.size() <= size) {
+            return new TransactionHistoryPage(entries, null);
+        }
+        List<LedgerEntry> page = entries.subList(0, size);
+        return new TransactionHistoryPage(page, HistoryCursor.after(page.get(size - 1)));
     }
 
     /**
@@ -345,13 +463,14 @@ public class WalletService {
      */
     @Transactional
     public Wallet freezeWallet(UUID walletId) {
-        Wallet wallet = walletRepository.findByIdForUpdate(walletId)
+        Wallet wallet = metrics.recordLockWait("freeze", () -> walletRepository.findByIdForUpdate(walletId))
                 .orElseThrow(() -> new WalletNotFoundException("Wallet not found: " + walletId));
 
+        walletCache.evictAfterCommit(walletId);
         wallet.setStatus(Wallet.WalletStatus.FROZEN);
         Wallet saved = walletRepository.save(wallet);
         log.warn("Wallet {} has been FROZEN", walletId);
-        return saved;
+        return withShardBalance(saved);
     }
 
     /**
@@ -359,12 +478,49 @@ public class WalletService {
      */
     @Transactional
     public Wallet unfreezeWallet(UUID walletId) {
-        Wallet wallet = walletRepository.findByIdForUpdate(walletId)
+        Wallet wallet = metrics.recordLockWait("unfreeze", () -> walletRepository.findByIdForUpdate(walletId))
                 .orElseThrow(() -> new WalletNotFoundException("Wallet not found: " + walletId));
 
+        walletCache.evictAfterCommit(walletId);
         wallet.setStatus(Wallet.WalletStatus.ACTIVE);
         Wallet saved = walletRepository.save(wallet);
         log.info("Wallet {} has been UNFROZEN", walletId);
+        return withShardBalance(saved);
+    }
+
+    /**
+     * Set how many shard slots a hot wallet spreads its credits over (admin operation).
+     * 0 turns sharding off. Shard balances are consolidated into the main balance
+     * first, so the total balance does not change.
+     */
+    @Transactional
+    public Wallet reshardWallet(UUID walletId, int shardCount) {
+        if (shardCount < 0 || shardCount > maxShardCount) {
+            throw new IllegalArgumentException("Shard count must be between 0 and " + maxShardCount);
+        }
+
+        // FOR UPDATE waits for in-flight shard credits and blocks new ones
+        metrics.recordLockWait("reshard", () -> walletRepository.lockWallet(walletId, LockModeType.PESSIMISTIC_WRITE))
+                .orElseThrow(() -> new WalletNotFoundException("Wallet not found: " + walletId));
+
+        walletCache.evictAfterCommit(walletId);
+        walletRepository.drainShards(walletId);
+        shardRepository.deleteByWalletId(walletId);
+
+        shardRepository.saveAll(IntStream.range(0, shardCount)
+                .mapToObj(slot -> WalletBalanceShard.builder()
+                        .walletId(walletId)
+                        .slot(slot)
+                        .build())
+                .toList());
+
+        // Re-read: draining may have detached the locked instance
+        Wallet wallet = walletRepository.findById(walletId)
+                .orElseThrow(() -> new WalletNotFoundException("Wallet not found: " + walletId));
+        wallet.setShardCount(shardCount);
+        Wallet saved = walletRepository.save(wallet);
+
+        log.info("Wallet {} now uses {} balance shards", walletId, shardCount);
         return saved;
     }
 
@@ -413,174 +569,231 @@ public class WalletService {
         }
     }
 
-    // ==================== Ledger Service Integration ====================
+    // ==================== Locking & Sharding Helpers ====================
 
     /**
-     * Record a transaction to the centralized Ledger Service.
-     * This is done asynchronously - failure does not block the main transaction.
+     * Lock both transfer wallets in one global order (uuid byte order, as ORDER BY id).
+     * A sharded destination only takes a share lock, so concurrent payments into a
+     * hot wallet don't serialize on its row.
      */
-    private void recordToLedgerService(Wallet wallet, LedgerEntry entry, UUID counterpartyWalletId) {
-        try {
-            String transactionType = entry.getEntryType() == LedgerEntry.EntryType.CREDIT
-                    ? "DEPOSIT" : "WITHDRAWAL";
-
-            CreateLedgerEntryRequest request = CreateLedgerEntryRequest.builder()
-                    .walletId(wallet.getId())
-                    .userId(wallet.getUserId())
-                    .entryType(entry.getEntryType().name())
-                    .transactionType(transactionType)
-                    .amountMinorUnits(entry.getAmountMinorUnits())
-                    .currency(wallet.getCurrency().name())
-                    .balanceAfter(entry.getBalanceAfter())
-                    .transactionId(entry.getTransactionId())
-                    .counterpartyWalletId(counterpartyWalletId)
-                    .idempotencyKey(entry.getIdempotencyKey())
-                    .description(entry.getDescription())
-                    .build();
-
-            ledgerClient.recordTransaction(request);
-        } catch (Exception e) {
-            // Log but don't fail the transaction
-            log.error("Failed to record to Ledger Service: {}", e.getMessage());
+    private void lockForTransfer(UUID fromWalletId, Wallet destination) {
+        if (!destination.isSharded()) {
+            metrics.recordLockWait("transfer", () ->
+                    walletRepository.findAllByIdForUpdate(List.of(fromWalletId, destination.getId())));
+            return;
         }
+
+        metrics.recordLockWait("transfer_sharded", () -> {
+            for (UUID walletId : inLockOrder(fromWalletId, destination.getId())) {
+                LockModeType lockMode = walletId.equals(fromWalletId)
+                        ? LockModeType.PESSIMISTIC_WRITE
+                        : LockModeType.PESSIMISTIC_READ;
+                walletRepository.lockWallet(walletId, lockMode);
+            }
+            return null;
+        });
     }
 
+    // Postgres compares uuids as unsigned bytes; UUID.compareTo compares signed longs
+    private static List<UUID> inLockOrder(UUID a, UUID b) {
+        int cmp = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        if (cmp == 0) {
+            cmp = Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+        }
+        return cmp < 0 ? List.of(a, b) : List.of(b, a);
+    }
+
+    // Sharded wallets keep part of their balance in shard slots
+    private Wallet withShardBalance(Wallet wallet) {
+        if (wallet.isSharded()) {
+            wallet.setShardBalanceMinorUnits(walletRepository.sumShardBalances(wallet.getId()));
+        }
+        return wallet;
+    }
+
+    // ==================== Group Commit ====================
+
     /**
-     * Record a transfer entry to the Ledger Service.
+     * Apply one lane batch: one row lock, one balance UPDATE, batched ledger and outbox
+     * inserts, one commit. Each command still gets its own idempotency and
+     * insufficient-funds outcome, in submission order.
+     * Sharded wallets and batches that fail as a whole fall back to one transaction
+     * per command.
      */
-    private void recordTransferToLedgerService(Wallet wallet, LedgerEntry entry, UUID counterpartyWalletId) {
+    private void applyBatch(UUID walletId, List<WalletCommand> batch) {
+        List<CommandOutcome> outcomes;
         try {
-            String transactionType = entry.getEntryType() == LedgerEntry.EntryType.CREDIT
-                    ? "TRANSFER_IN" : "TRANSFER_OUT";
+            outcomes = transactionTemplate.execute(status -> applyBatchInTransaction(walletId, batch));
+        } catch (RuntimeException e) {
+            log.warn("Group commit of {} commands for wallet {} failed, applying them one by one: {}",
+                    batch.size(), walletId, e.getMessage());
+            outcomes = null;
+        }
 
-            CreateLedgerEntryRequest request = CreateLedgerEntryRequest.builder()
-                    .walletId(wallet.getId())
-                    .userId(wallet.getUserId())
-                    .entryType(entry.getEntryType().name())
-                    .transactionType(transactionType)
-                    .amountMinorUnits(entry.getAmountMinorUnits())
-                    .currency(wallet.getCurrency().name())
-                    .balanceAfter(entry.getBalanceAfter())
-                    .transactionId(entry.getTransactionId())
-                    .counterpartyWalletId(counterpartyWalletId)
-                    .idempotencyKey(entry.getIdempotencyKey())
-                    .description(entry.getDescription())
-                    .build();
+        if (outcomes == null) {
+            batch.forEach(this::applyIndividually);
+            return;
+        }
 
-            ledgerClient.recordTransaction(request);
-        } catch (Exception e) {
-            log.error("Failed to record transfer to Ledger Service: {}", e.getMessage());
+        log.debug("Group commit applied {} commands to wallet {}", batch.size(), walletId);
+
+        // Committed: release the waiting callers
+        for (CommandOutcome outcome : outcomes) {
+            WalletCommand command = outcome.command();
+            if (outcome.error() != null) {
+                command.result().completeExceptionally(outcome.error());
+                continue;
+            }
+            command.result().complete(outcome.entry());
         }
     }
 
-    // ==================== Notification Helper Methods ====================
-
     /**
-     * Send deposit notification to user.
+     * @return per-command outcomes, or null if the wallet is sharded
      */
-    private void sendDepositNotification(Wallet wallet, LedgerEntry entry) {
-        try {
-            String email = getUserEmail();
-            String amount = formatAmount(entry.getAmountMinorUnits(), wallet.getCurrency());
-            String newBalance = formatAmount(wallet.getBalanceMinorUnits(), wallet.getCurrency());
-
-            notificationClient.notifyDeposit(
-                    wallet.getUserId(),
-                    email,
-                    amount,
-                    wallet.getCurrency().name(),
-                    wallet.getId(),
-                    entry.getTransactionId(),
-                    newBalance
-            );
+    private List<CommandOutcome> applyBatchInTransaction(UUID walletId, List<WalletCommand> batch) {
+        Wallet wallet = metrics.recordLockWait("group_commit",
+                () -> walletRepository.lockWallet(walletId, LockModeType.PESSIMISTIC_WRITE)).orElse(null);
+        if (wallet != null && wallet.isSharded()) {
+            // Sharded credits are already cheap; keep the shard protocol in one place
+            return null;
+        }
 
-            // Check for large transaction
-            if (entry.getAmountMinorUnits() >= largeTransactionThreshold) {
-                notificationClient.notifyLargeTransaction(
-                        wallet.getUserId(), email, amount,
-                        wallet.getCurrency().name(), "DEPOSIT", entry.getTransactionId()
-                );
+        // One idempotency lookup for the whole batch
+        Map<String, LedgerEntry> entriesByKey = ledgerRepository.findByIdempotencyKeyIn(
+                        batch.stream().map(WalletCommand::idempotencyKey).toList())
+                .stream()
+                .collect(Collectors.toMap(LedgerEntry::getIdempotencyKey, Function.identity()));
+
+        // Replays are answered even when the wallet can no longer take new commands
+        if (wallet == null || wallet.getStatus() != Wallet.WalletStatus.ACTIVE) {
+            return batch.stream()
+                    .map(command -> entriesByKey.containsKey(command.idempotencyKey())
+                            ? CommandOutcome.of(command, entriesByKey.get(command.idempotencyKey()))
+                            : CommandOutcome.failed(command, wallet == null
+                                    ? new WalletNotFoundException("Wallet not found: " + walletId)
+                                    : new WalletNotActiveException("Wallet " + walletId + " is " + wallet.getStatus())))
+                    .toList();
+        }
+
+        long startingBalance = wallet.getBalanceMinorUnits();
+        long balance = startingBalance;
+        List<CommandOutcome> outcomes = new ArrayList<>(batch.size());
+        List<LedgerEntry> created = new ArrayList<>();
+
+        for (WalletCommand command : batch) {
+            LedgerEntry existing = entriesByKey.get(command.idempotencyKey());
+            if (existing != null) {
+                log.warn("Duplicate {} request with key: {}",
+                        command.isCredit() ? "deposit" : "withdrawal", command.idempotencyKey());
+                outcomes.add(CommandOutcome.of(command, existing));
+                continue;
+            }
+
+            Long amount = command.amount();
+            if (amount == null || amount <= 0) {
+                outcomes.add(CommandOutcome.failed(command, new IllegalArgumentException(
+                        (command.isCredit() ? "Credit" : "Debit") + " amount must be positive")));
+                continue;
+            }
+            if (!command.isCredit() && balance < amount) {
+                outcomes.add(CommandOutcome.failed(command, new InsufficientFundsException(
+                        "Insufficient balance. Required: " + amount + ", Available: " + balance)));
+                continue;
             }
-        } catch (Exception e) {
-            log.warn("Failed to send deposit notification: {}", e.getMessage());
+
+            balance += command.isCredit() ? amount : -amount;
+            LedgerEntry entry = newEntry(command, balance);
+            entriesByKey.put(command.idempotencyKey(), entry);
+            created.add(entry);
+            outcomes.add(CommandOutcome.of(command, entry));
+            // Delivered only if the batch commits
+            publishFundsMoved(new WalletBalance(walletId, wallet.getUserId(), wallet.getCurrency(),
+                    balance, wallet.getVersion()), entry, command.userEmail());
+        }
+
+        if (balance != startingBalance) {
+            long expected = balance;
+            walletCache.evictAfterCommit(walletId);
+            WalletBalance updated = walletRepository.applyMainBalanceDelta(walletId, balance - startingBalance)
+                    .filter(result -> result.balanceMinorUnits() == expected)
+                    .orElseThrow(() -> new IllegalStateException(
+                            "Wallet " + walletId + " changed while locked for group commit"));
+            log.info("Group commit: {} entries for wallet {}. New balance: {}",
+                    created.size(), walletId, updated.balanceMinorUnits());
+        }
+
+        ledgerRepository.saveAll(created);
+        for (LedgerEntry entry : created) {
+            ledgerOutbox.enqueue(entry, wallet.getUserId(), wallet.getCurrency(), null);
         }
+
+        return outcomes;
+    }
+
+    private void applyIndividually(WalletCommand command) {
+        try {
+            command.result().complete(applyDirect(command));
+        } catch (RuntimeException e) {
+            command.result().completeExceptionally(e);
+        }
+    }
+
+    private static LedgerEntry newEntry(WalletCommand command, long balanceAfter) {
+        return LedgerEntry.builder()
+                .walletId(command.walletId())
+                .entryType(command.isCredit() ? LedgerEntry.EntryType.CREDIT : LedgerEntry.EntryType.DEBIT)
+                .amountMinorUnits(command.amount())
+                .balanceAfter(balanceAfter)
+                .transactionId(UUID.randomUUID())
+                .idempotencyKey(command.idempotencyKey())
+                .description(command.description())
+                .transactionType(command.isCredit() ? "DEPOSIT" : "WITHDRAWAL")
+                .build();
     }
 
     /**
-     * Send withdrawal notification to user.
+     * Result of one command in a batch: its ledger entry (new or replayed) or the error.
      */
-    private void sendWithdrawalNotification(Wallet wallet, LedgerEntry entry) {
-        try {
-            String email = getUserEmail();
-            String amount = formatAmount(entry.getAmountMinorUnits(), wallet.getCurrency());
-            String newBalance = formatAmount(wallet.getBalanceMinorUnits(), wallet.getCurrency());
-
-            notificationClient.notifyWithdrawal(
-                    wallet.getUserId(),
-                    email,
-                    amount,
-                    wallet.getCurrency().name(),
-                    wallet.getId(),
-                    entry.getTransactionId(),
-                    newBalance
-            );
+    private record CommandOutcome(WalletCommand command, LedgerEntry entry, RuntimeException error) {
 
-            // Check for large transaction
-            if (entry.getAmountMinorUnits() >= largeTransactionThreshold) {
-                notificationClient.notifyLargeTransaction(
-                        wallet.getUserId(), email, amount,
-                        wallet.getCurrency().name(), "WITHDRAWAL", entry.getTransactionId()
-                );
-            }
-        } catch (Exception e) {
-            log.warn("Failed to send withdrawal notification: {}", e.getMessage());
+        static CommandOutcome of(WalletCommand command, LedgerEntry entry) {
+            return new CommandOutcome(command, entry, null);
+        }
+
+        static CommandOutcome failed(WalletCommand command, RuntimeException error) {
+            return new CommandOutcome(command, null, error);
         }
     }
 
+    // ==================== Ledger Service Integration ====================
+
     /**
-     * Send transfer notifications to both sender and receiver.
+     * Queue a ledger entry for the centralized Ledger Service.
+     * The outbox row commits with the balance change; LedgerOutboxRelay delivers it later,
+     * so no HTTP call happens while the wallet row is locked.
      */
-    private void sendTransferNotifications(Wallet fromWallet, Wallet toWallet,
-                                            LedgerEntry debitEntry, LedgerEntry creditEntry,
-                                            Long amount, UUID transactionId) {
-        try {
-            String amountFormatted = formatAmount(amount, fromWallet.getCurrency());
-            String currency = fromWallet.getCurrency().name();
-
-            // Notify sender
-            String senderEmail = getUserEmail(); // Current user is the sender
-            String senderNewBalance = formatAmount(fromWallet.getBalanceMinorUnits(), fromWallet.getCurrency());
-            notificationClient.notifyTransferSent(
-                    fromWallet.getUserId(),
-                    senderEmail,
-                    amountFormatted,
-                    currency,
-                    toWallet.getId(),
-                    transactionId,
-                    senderNewBalance
-            );
+    private void recordToLedgerService(WalletBalance wallet, LedgerEntry entry, UUID counterpartyWalletId) {
+        ledgerOutbox.enqueue(entry, wallet.userId(), wallet.currency(), counterpartyWalletId);
+    }
 
-            // Notify receiver (we don't have their email, use placeholder)
-            String receiverNewBalance = formatAmount(toWallet.getBalanceMinorUnits(), toWallet.getCurrency());
-            notificationClient.notifyTransferReceived(
-                    toWallet.getUserId(),
-                    "user@example.com", // In production, fetch from Customer Service
-                    amountFormatted,
-                    currency,
-                    fromWallet.getId(),
-                    transactionId,
-                    receiverNewBalance
-            );
+    // ==================== Domain Events ====================
 
-            // Check for large transaction (alert sender)
-            if (amount >= largeTransactionThreshold) {
-                notificationClient.notifyLargeTransaction(
-                        fromWallet.getUserId(), senderEmail, amountFormatted,
-                        currency, "TRANSFER", transactionId
-                );
-            }
-        } catch (Exception e) {
-            log.warn("Failed to send transfer notifications: {}", e.getMessage());
+    /**
+     * Publish FundsDeposited/FundsWithdrawn for a new ledger entry. Listeners run
+     * after the current transaction commits.
+     */
+    private void publishFundsMoved(WalletBalance wallet, LedgerEntry entry, String userEmail) {
+        if (entry.getEntryType() == LedgerEntry.EntryType.CREDIT) {
+            eventPublisher.publishEvent(new FundsDeposited(
+                    wallet.walletId(), wallet.userId(), wallet.currency(),
+                    entry.getAmountMinorUnits(), wallet.balanceMinorUnits(),
+                    entry.getTransactionId(), userEmail));
+        } else {
+            eventPublisher.publishEvent(new FundsWithdrawn(
+                    wallet.walletId(), wallet.userId(), wallet.currency(),
+                    entry.getAmountMinorUnits(), wallet.balanceMinorUnits(),
+                    entry.getTransactionId(), userEmail));
         }
     }
 
@@ -591,17 +804,4 @@ public class WalletService {
         String email = UserContext.getCurrentUserEmail();
         return email != null ? email : "user@example.com";
     }
-
-    /**
-     * Format amount from minor units to display string.
-     */
-    private String formatAmount(Long minorUnits, Wallet.Currency currency) {
-        double amount = minorUnits / 100.0;
-        String symbol = switch (currency) {
-            case USD -> "$";
-            case EUR -> "€";
-            case UZS -> "UZS ";
-        };
-        return String.format("%s%.2f", symbol, amount);
-    }
 }
@@ -0,0 +1,134 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.repository.ProcessedWebhookRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers which provider webhooks have been applied, across restarts and replicas.
+ *
+ * Two tiers:
+ * - memory: size- and TTL-bounded set of keys known to be committed on this node;
+ *   a hit answers "duplicate" without touching the database
+ * - processed_webhooks: one row per key, claimed with INSERT ... ON CONFLICT DO NOTHING
+ *   in the caller's transaction, so the claim commits or rolls back together with the
+ *   webhook's effects. A concurrent claim of the same key on another replica waits for
+ *   the first one and then sees the conflict.
+ *
+ * Keys enter the memory tier only after commit; a rolled-back webhook can be retried.
+ * Rows are kept for {@code retention-days}, longer than providers keep retrying.
+ */
+@Component
+@Slf4j
+public class WebhookIdempotencyStore {
+
+    private final ProcessedWebhookRepository repository;
+    private final Cache<String, Boolean> recentlyProcessed;
+    private final Duration retention;
+    private final int purgeBatchSize;
+
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder databaseDuplicates = new LongAdder();
+    private final LongAdder claims = new LongAdder();
+
+    public WebhookIdempotencyStore(
+            ProcessedWebhookRepository repository,
+            @Value("${wallet.webhooks.idempotency.memory-max-size:100000}") long memoryMaxSize,
+            @Value("${wallet.webhooks.idempotency.memory-ttl-minutes:60}") long memoryTtlMinutes,
+            @Value("${wallet.webhooks.idempotency.retention-days:30}") long retentionDays,
+            @Value("${wallet.webhooks.idempotency.purge-batch-size:1000}") int purgeBatchSize
+    ) {
+        this.repository = repository;
+        this.recentlyProcessed = Caffeine.newBuilder()
+                .maximumSize(memoryMaxSize)
+                .expireAfterWrite(Duration.ofMinutes(memoryTtlMinutes))
+                .build();
+        this.retention = Duration.ofDays(retentionDays);
+        this.purgeBatchSize = purgeBatchSize;
+    }
+
+    /**
+     * Claim a webhook for processing in the current transaction.
+     *
+     * @return true if the caller should apply the webhook, false if it already was
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean claim(String webhookKey) {
+        if (recentlyProcessed.getIfPresent(webhookKey) != null) {
+            memoryHits.increment();
+            return false;
+        }
+
+        if (repository.insertIfAbsent(webhookKey, Instant.now()) == 0) {
+            // Committed by an earlier delivery, possibly on another node
+            databaseDuplicates.increment();
+            recentlyProcessed.put(webhookKey, Boolean.TRUE);
+            return false;
+        }
+
+        claims.increment();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentlyProcessed.put(webhookKey, Boolean.TRUE);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Delete rows older than the retention window, one short transaction per batch.
+     *
+     * @return rows deleted
+     */
+    public int purgeExpired() {
+        Instant before = Instant.now().minus(retention);
+        int total = 0;
+        int deleted;
+        do {
+            deleted = repository.deleteProcessedBefore(before, purgeBatchSize);
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+        return total;
+    }
+
+    // Forget the memory tier; the database still answers
+    void clearMemoryTier() {
+        recentlyProcessed.invalidateAll();
+    }
+
+    public WebhookIdempotencyStats stats() {
+        return new WebhookIdempotencyStats(
+                recentlyProcessed.estimatedSize(),
+                memoryHits.sum(),
+                databaseDuplicates.sum(),
+                claims.sum()
+        );
+    }
+
+    /**
+     * Counters since startup.
+     *
+     * @param memorySize         keys in the memory tier
+     * @param memoryHits         duplicates answered from memory
+     * @param databaseDuplicates duplicates answered by the unique key
+     * @param claims             webhooks claimed for processing
+     */
+    public record WebhookIdempotencyStats(
+            long memorySize,
+            long memoryHits,
+            long databaseDuplicates,
+            long claims
+    ) {}
+}
@@ -0,0 +1,165 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.domain.WebhookInboxEntry;
+import com.fintech.walletservice.repository.WebhookInboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Durable inbox for provider webhooks.
+ *
+ * The webhook endpoint calls {@link #append} and acknowledges; WebhookInboxWorker
+ * claims due rows in short transactions, applies them, and marks them processed in the
+ * transaction that applied them. Failed rows are retried with exponential backoff and
+ * parked as FAILED after {@code max-attempts}.
+ */
+@Service
+@Slf4j
+public class WebhookInboxService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final WebhookInboxRepository inboxRepository;
+    private final Duration claimLease;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final int maxAttempts;
+
+    public WebhookInboxService(
+            WebhookInboxRepository inboxRepository,
+            @Value("${wallet.webhooks.inbox.claim-lease-seconds:60}") long claimLeaseSeconds,
+            @Value("${wallet.webhooks.inbox.initial-backoff-seconds:1}") long initialBackoffSeconds,
+            @Value("${wallet.webhooks.inbox.max-backoff-seconds:300}") long maxBackoffSeconds,
+            @Value("${wallet.webhooks.inbox.max-attempts:10}") int maxAttempts
+    ) {
+        this.inboxRepository = inboxRepository;
+        this.claimLease = Duration.ofSeconds(claimLeaseSeconds);
+        this.initialBackoff = Duration.ofSeconds(initialBackoffSeconds);
+        this.maxBackoff = Duration.ofSeconds(maxBackoffSeconds);
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Store a verified webhook for asynchronous processing.
+     *
+     * @return inbox entry id
+     */
+    @Transactional
+    public Long append(String provider, String payload) {
+        WebhookInboxEntry entry = WebhookInboxEntry.builder()
+                .provider(provider)
+                .payload(payload)
+                .nextAttemptAt(Instant.now())
+                .build();
+        return inboxRepository.save(entry).getId();
+    }
+
+    /**
+     * Claim a batch of due rows, oldest first.
+     * Claimed rows are pushed out by the lease so a crashed worker's rows become due again.
+     */
+    @Transactional
+    public List<WebhookInboxEntry> claimBatch(int batchSize) {
+        Instant now = Instant.now();
+        List<WebhookInboxEntry> batch = inboxRepository.findDueForUpdate(now, batchSize);
+
+        for (WebhookInboxEntry entry : batch) {
+            entry.setAttempts(entry.getAttempts() + 1);
+            entry.setNextAttemptAt(now.plus(claimLease));
+        }
+        return batch;
+    }
+
+    /**
+     * Earliest pending row per ordering key among rows that are not in the current batch.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Long> findEarliestPending(Collection<String> orderingKeys, Collection<Long> batchIds) {
+        Map<String, Long> earliest = new HashMap<>();
+        if (orderingKeys.isEmpty()) {
+            return earliest;
+        }
+        for (Object[] row : inboxRepository.findEarliestPendingByOrderingKey(orderingKeys, batchIds)) {
+            earliest.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        return earliest;
+    }
+
+    /**
+     * Mark rows applied. Called inside the transaction that applied them.
+     */
+    @Transactional
+    public void markProcessed(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        inboxRepository.markProcessed(ids, WebhookInboxEntry.Status.PROCESSED, Instant.now());
+    }
+
+    /**
+     * Schedule a retry with exponential backoff, or park the row after max attempts.
+     */
+    @Transactional
+    public void markFailed(Long id, String orderingKey, String error) {
+        inboxRepository.findById(id).ifPresent(entry -> {
+            entry.setOrderingKey(orderingKey);
+            entry.setLastError(truncate(error));
+            if (entry.getAttempts() >= maxAttempts) {
+                entry.setStatus(WebhookInboxEntry.Status.FAILED);
+                log.error("Webhook inbox entry {} ({}) failed {} times, giving up: {}",
+                        id, entry.getProvider(), entry.getAttempts(), error);
+                return;
+            }
+            Duration backoff = backoffFor(entry.getAttempts());
+            entry.setNextAttemptAt(Instant.now().plus(backoff));
+            log.warn("Webhook inbox entry {} ({}) failed (attempt {}), retrying in {}s: {}",
+                    id, entry.getProvider(), entry.getAttempts(), backoff.toSeconds(), error);
+        });
+    }
+
+    /**
+     * Put a row back without spending an attempt because an earlier event
+     * of the same withdrawal has not been applied yet.
+     */
+    @Transactional
+    public void holdBack(Long id, String orderingKey, Long waitingFor) {
+        inboxRepository.findById(id).ifPresent(entry -> {
+            entry.setOrderingKey(orderingKey);
+            entry.setAttempts(entry.getAttempts() - 1);
+            entry.setNextAttemptAt(Instant.now().plus(initialBackoff));
+            entry.setLastError("Waiting for inbox entry " + waitingFor);
+        });
+    }
+
+    @Transactional
+    public int purgeProcessedBefore(Instant before) {
+        return inboxRepository.deleteProcessedBefore(WebhookInboxEntry.Status.PROCESSED, before);
+    }
+
+    @Transactional(readOnly = true)
+    public long countPending() {
+        return inboxRepository.countByStatus(WebhookInboxEntry.Status.PENDING);
+    }
+
+    Duration backoffFor(int attempts) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 20);
+        Duration backoff = initialBackoff.multipliedBy(1L << exponent);
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    private String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -1,10 +1,9 @@
 package com.fintech.walletservice.service;
 
 import com.fintech.walletservice.domain.LedgerEntry;
-import com.fintech.walletservice.domain.Wallet;
-import com.fintech.walletservice.exception.WalletNotFoundException;
+import com.fintech.walletservice.domain.Payout;
+import com.fintech.walletservice.domain.WalletBalance;
 import com.fintech.walletservice.repository.LedgerEntryRepository;
-import com.fintech.walletservice.repository.WalletRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -12,7 +11,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Handles withdrawal webhook callbacks from payment providers.
@@ -23,18 +21,22 @@ import java.util.concurrent.ConcurrentHashMap;
  * 3. Provider processes and sends webhook
  * 4. This handler updates status and commits/releases reservation
  *
- * Idempotent: Same webhook can be processed multiple times safely.
+ * Payout state lives in the payouts table (see PayoutService). Withdrawals made
+ * before it existed have no payout row and are found through their ledger entry.
+ *
+ * Idempotent: Same webhook can be processed multiple times safely, on any replica
+ * and across restarts (see WebhookIdempotencyStore).
  */
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class WithdrawalWebhookHandler {
 
-    private final WalletRepository walletRepository;
+    private final WalletBalanceUpdater balanceUpdater;
     private final LedgerEntryRepository ledgerRepository;
-
-    // Simple in-memory idempotency store (use Redis in production)
-    private final ConcurrentHashMap<String, Boolean> processedWebhooks = new ConcurrentHashMap<>();
+    private final LedgerOutboxService ledgerOutbox;
+    private final WebhookIdempotencyStore idempotencyStore;
+    private final PayoutService payoutService;
 
     /**
      * Handle successful payout from payment provider.
@@ -47,7 +49,7 @@ public class WithdrawalWebhookHandler {
         String idempotencyKey = "payout_success_" + withdrawalId;
 
         // Idempotency check
-        if (processedWebhooks.putIfAbsent(idempotencyKey, true) != null) {
+        if (!idempotencyStore.claim(idempotencyKey)) {
             log.info("Duplicate payout success webhook for withdrawal: {}", withdrawalId);
             return;
         }
@@ -55,28 +57,21 @@ public class WithdrawalWebhookHandler {
         log.info("Processing payout success: withdrawalId={}, externalId={}",
                 withdrawalId, externalId);
 
-        // Find the ledger entry for this withdrawal
-        Optional<LedgerEntry> entryOpt = ledgerRepository.findByIdempotencyKey(
-                withdrawalId.toString() + "-withdrawal"
-        );
-
-        if (entryOpt.isEmpty()) {
-            // Try without suffix
-            entryOpt = ledgerRepository.findByIdempotencyKey(withdrawalId.toString());
+        Optional<Payout> payout = payoutService.markSettled(withdrawalId);
+        if (payout.isPresent()) {
+            log.info("Payout completed: withdrawalId={}, amount={}, walletId={}, status={}",
+                    withdrawalId, payout.get().getAmountMinorUnits(), payout.get().getWalletId(),
+                    payout.get().getStatus());
+            return;
         }
 
+        // Find the ledger entry for this withdrawal
+        Optional<LedgerEntry> entryOpt = findWithdrawalEntry(withdrawalId);
+
         if (entryOpt.isPresent()) {
             LedgerEntry entry = entryOpt.get();
-
-            // Update entry status (if you have a status field)
-            // entry.setStatus(LedgerEntry.Status.COMPLETED);
-            // entry.setExternalReference(externalId);
-
-            // For now, just log the completion
             log.info("Payout completed: withdrawalId={}, amount={}, walletId={}",
                     withdrawalId, entry.getAmountMinorUnits(), entry.getWalletId());
-
-            // ledgerRepository.save(entry);
         } else {
             log.warn("Ledger entry not found for withdrawal: {}", withdrawalId);
         }
@@ -94,7 +89,7 @@ public class WithdrawalWebhookHandler {
         String idempotencyKey = "payout_failure_" + withdrawalId;
 
         // Idempotency check
-        if (processedWebhooks.putIfAbsent(idempotencyKey, true) != null) {
+        if (!idempotencyStore.claim(idempotencyKey)) {
             log.info("Duplicate payout failure webhook for withdrawal: {}", withdrawalId);
             return;
         }
@@ -102,47 +97,51 @@ public class WithdrawalWebhookHandler {
         log.warn("Processing payout failure: withdrawalId={}, reason={}",
                 withdrawalId, reason);
 
-        // Find the original withdrawal entry
-        Optional<LedgerEntry> entryOpt = ledgerRepository.findByIdempotencyKey(
-                withdrawalId.toString() + "-withdrawal"
-        );
-
-        if (entryOpt.isEmpty()) {
-            entryOpt = ledgerRepository.findByIdempotencyKey(withdrawalId.toString());
+        Optional<Payout> payout = payoutService.findPayout(withdrawalId);
+        if (payout.isPresent() && payout.get().getStatus() == Payout.Status.SETTLED) {
+            // Funds already left; crediting them back would create money
+            log.error("Payout failure reported for settled withdrawal, needs manual review: withdrawalId={}, reason={}",
+                    withdrawalId, reason);
+            return;
         }
 
-        if (entryOpt.isPresent()) {
-            LedgerEntry originalEntry = entryOpt.get();
+        // The reserved funds: from the payout, or from the original withdrawal entry
+        Optional<ReservedFunds> reserved = payout
+                .map(p -> new ReservedFunds(p.getWalletId(), p.getAmountMinorUnits()))
+                .or(() -> findWithdrawalEntry(withdrawalId)
+                        .map(e -> new ReservedFunds(e.getWalletId(), e.getAmountMinorUnits())));
+
+        // Create refund ledger entry, unless the withdrawal was already refunded
+        // (e.g. by PaymentRoutingService when the provider rejected it up front)
+        String refundIdempotencyKey = withdrawalId.toString() + "-refund";
+
+        if (reserved.isPresent() && ledgerRepository.existsByIdempotencyKey(refundIdempotencyKey)) {
+            log.info("Withdrawal already refunded: {}", withdrawalId);
+            payoutService.markRefunded(withdrawalId, reason);
+        } else if (reserved.isPresent()) {
+            ReservedFunds funds = reserved.get();
 
             // Refund: Credit the amount back to wallet
-            Wallet wallet = walletRepository.findByIdForUpdate(originalEntry.getWalletId())
-                    .orElseThrow(() -> new WalletNotFoundException(
-                            "Wallet not found: " + originalEntry.getWalletId()
-                    ));
-
-            wallet.credit(originalEntry.getAmountMinorUnits());
-            walletRepository.save(wallet);
-
-            // Create refund ledger entry
-            String refundIdempotencyKey = withdrawalId.toString() + "-refund";
-
-            if (!ledgerRepository.existsByIdempotencyKey(refundIdempotencyKey)) {
-                LedgerEntry refundEntry = LedgerEntry.builder()
-                        .walletId(wallet.getId())
-                        .entryType(LedgerEntry.EntryType.CREDIT)
-                        .amountMinorUnits(originalEntry.getAmountMinorUnits())
-                        .balanceAfter(wallet.getBalanceMinorUnits())
-                        .transactionId(UUID.randomUUID())
-                        .idempotencyKey(refundIdempotencyKey)
-                        .description("Refund: Payout failed - " + reason)
-                        .build();
-
-                ledgerRepository.save(refundEntry);
-
-                log.info("Payout refunded: withdrawalId={}, amount={}, newBalance={}",
-                        withdrawalId, originalEntry.getAmountMinorUnits(),
-                        wallet.getBalanceMinorUnits());
-            }
+            WalletBalance wallet = balanceUpdater.credit(funds.walletId(), funds.amountMinorUnits());
+
+            LedgerEntry refundEntry = LedgerEntry.builder()
+                    .walletId(wallet.walletId())
+                    .entryType(LedgerEntry.EntryType.CREDIT)
+                    .amountMinorUnits(funds.amountMinorUnits())
+                    .balanceAfter(wallet.balanceMinorUnits())
+                    .transactionId(UUID.randomUUID())
+                    .idempotencyKey(refundIdempotencyKey)
+                    .description("Refund: Payout failed - " + reason)
+                    .transactionType("REFUND")
+                    .build();
+
+            ledgerRepository.save(refundEntry);
+            ledgerOutbox.enqueue(refundEntry, wallet.userId(), wallet.currency(), null);
+            payoutService.markRefunded(withdrawalId, reason);
+
+            log.info("Payout refunded: withdrawalId={}, amount={}, newBalance={}",
+                    withdrawalId, funds.amountMinorUnits(),
+                    wallet.balanceMinorUnits());
         } else {
             log.error("Cannot refund - ledger entry not found for withdrawal: {}", withdrawalId);
         }
@@ -155,12 +154,13 @@ public class WithdrawalWebhookHandler {
      * @param withdrawalId Internal withdrawal ID
      * @param externalId Provider's transaction ID
      */
+    @Transactional
     public void handlePayoutProcessing(UUID withdrawalId, String externalId) {
         log.info("Payout still processing: withdrawalId={}, externalId={}",
                 withdrawalId, externalId);
 
-        // Update status to PROCESSING if you track payout status
-        // This is informational - no action needed
+        // Not deduplicated: a repeat only pushes the next status check out again
+        payoutService.markProcessing(withdrawalId);
     }
 
     /**
@@ -177,12 +177,30 @@ public class WithdrawalWebhookHandler {
     }
 
     /**
-     * Clear processed webhooks cache.
-     * Should be called periodically or use TTL-based cache in production.
+     * Wallet a withdrawal debited, used to batch its webhooks per wallet.
+     *
+     * @param withdrawalId Internal withdrawal ID
+     * @return Wallet ID, or empty if the withdrawal is unknown
      */
-    public void clearProcessedCache() {
-        int size = processedWebhooks.size();
-        processedWebhooks.clear();
-        log.info("Cleared {} entries from processed webhooks cache", size);
+    @Transactional(readOnly = true)
+    public Optional<UUID> findWalletId(UUID withdrawalId) {
+        return payoutService.findPayout(withdrawalId)
+                .map(Payout::getWalletId)
+                .or(() -> findWithdrawalEntry(withdrawalId).map(LedgerEntry::getWalletId));
+    }
+
+    // Ledger search by idempotency key, for withdrawals without a payout row
+    private Optional<LedgerEntry> findWithdrawalEntry(UUID withdrawalId) {
+        Optional<LedgerEntry> entryOpt = ledgerRepository.findByIdempotencyKey(
+                withdrawalId.toString() + "-withdrawal"
+        );
+
+        if (entryOpt.isEmpty()) {
+            // Try without suffix
+            entryOpt = ledgerRepository.findByIdempotencyKey(withdrawalId.toString());
+        }
+        return entryOpt;
     }
+
+    private record ReservedFunds(UUID walletId, Long amountMinorUnits) {}
 }
@@ -0,0 +1,107 @@
+package com.fintech.walletservice.client;
+
+import com.fintech.walletservice.client.dto.SendNotificationRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class NotificationBatcherTest {
+
+    private final BlockingQueue<List<SendNotificationRequest>> sent = new LinkedBlockingQueue<>();
+    private NotificationBatcher batcher;
+
+    @AfterEach
+    void tearDown() {
+        if (batcher != null) {
+            batcher.shutdown();
+        }
+    }
+
+    @Test
+    void shouldCoalesceBurstIntoOneBatch() throws Exception {
+        batcher = new NotificationBatcher(100, 50, 200, 1, batch -> {
+            sent.add(batch);
+            return Mono.empty();
+        });
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(batcher.offer(notification())).isTrue();
+        }
+
+        assertThat(sent.poll(2, TimeUnit.SECONDS)).hasSize(10);
+        assertThat(sent.poll(300, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void shouldSplitAtMaxBatchSize() throws Exception {
+        batcher = new NotificationBatcher(100, 4, 200, 4, batch -> {
+            sent.add(batch);
+            return Mono.empty();
+        });
+
+        for (int i = 0; i < 10; i++) {
+            batcher.offer(notification());
+        }
+
+        int total = 0;
+        while (total < 10) {
+            List<SendNotificationRequest> batch = sent.poll(2, TimeUnit.SECONDS);
+            assertThat(batch).isNotNull();
+            assertThat(batch.size()).isLessThanOrEqualTo(4);
+            total += batch.size();
+        }
+    }
+
+    @Test
+    void shouldDropWhenQueueIsFullAndSenderIsStuck() throws Exception {
+        Sinks.Empty<Void> stuck = Sinks.empty();
+        batcher = new NotificationBatcher(2, 1, 0, 1, batch -> {
+            sent.add(batch);
+            return stuck.asMono();
+        });
+
+        // First batch occupies the only in-flight slot, the worker then waits holding the second
+        batcher.offer(notification());
+        assertThat(sent.poll(2, TimeUnit.SECONDS)).hasSize(1);
+        batcher.offer(notification());
+        Thread.sleep(100);
+
+        assertThat(batcher.offer(notification())).isTrue();
+        assertThat(batcher.offer(notification())).isTrue();
+        assertThat(batcher.offer(notification())).isFalse();
+        assertThat(batcher.droppedCount()).isEqualTo(1);
+
+        // Completing the call frees the slot and the backlog drains
+        stuck.tryEmitEmpty();
+        assertThat(sent.poll(2, TimeUnit.SECONDS)).hasSize(1);
+    }
+
+    @Test
+    void shouldSendQueuedNotificationsOnShutdown() throws Exception {
+        batcher = new NotificationBatcher(100, 100, 1_000, 1, batch -> {
+            sent.add(batch);
+            return Mono.empty();
+        });
+        batcher.offer(notification());
+        batcher.offer(notification());
+
+        batcher.shutdown();
+
+        assertThat(sent.poll(2, TimeUnit.SECONDS)).hasSize(2);
+        assertThat(batcher.offer(notification())).isFalse();
+    }
+
+    private static SendNotificationRequest notification() {
+        return new SendNotificationRequest(UUID.randomUUID(), "DEPOSIT_RECEIVED", List.of("EMAIL"), "john@example.com",
+                "Deposit Received - Digital Wallet", null, "deposit-received", null, UUID.randomUUID(), "TRANSACTION");
+    }
+}
@@ -1,5 +1,6 @@
 package com.fintech.walletservice.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fintech.walletservice.config.TestcontainersConfiguration;
 import com.fintech.walletservice.domain.Wallet;
@@ -14,8 +15,11 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -78,4 +82,54 @@ class WalletControllerIntegrationTest {
                 .andExpect(jsonPath("$.amount").value(50000))
                 .andExpect(jsonPath("$.balanceAfter").value(50000));
     }
+
+    @Test
+    void shouldPageThroughHistoryWithCursor() throws Exception {
+        var createRequest = new CreateWalletRequest(UUID.randomUUID(), Wallet.Currency.USD);
+        String walletResponse = mockMvc.perform(post("/api/v1/wallets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createRequest)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        UUID walletId = UUID.fromString(objectMapper.readTree(walletResponse).get("id").asText());
+
+        for (long amount = 100; amount <= 500; amount += 100) {
+            var depositRequest = new TransactionRequest(amount, "history-api-" + UUID.randomUUID(), "Test");
+            mockMvc.perform(post("/api/v1/wallets/{walletId}/deposit", walletId)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(depositRequest)))
+                    .andExpect(status().isOk());
+        }
+
+        List<Long> amounts = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var request = get("/api/v1/wallets/{walletId}/transactions", walletId).param("size", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            JsonNode page = objectMapper.readTree(mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+
+            page.get("content").forEach(entry -> amounts.add(entry.get("amount").asLong()));
+            cursor = page.get("hasMore").asBoolean() ? page.get("nextCursor").asText() : null;
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(amounts).containsExactly(500L, 400L, 300L, 200L, 100L);
+    }
+
+    @Test
+    void shouldRejectInvalidHistoryCursor() throws Exception {
+        mockMvc.perform(get("/api/v1/wallets/{walletId}/transactions", UUID.randomUUID())
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("INVALID_REQUEST"));
+
+        mockMvc.perform(get("/api/v1/wallets/{walletId}/transactions", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
 }
@@ -0,0 +1,40 @@
+package com.fintech.walletservice.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PayoutTest {
+
+    @Test
+    void shouldClearNextCheckWhenPayoutLeavesProvider() {
+        Payout payout = Payout.builder()
+                .id(UUID.randomUUID())
+                .status(Payout.Status.SUBMITTED)
+                .nextCheckAt(Instant.now())
+                .build();
+
+        payout.transitionTo(Payout.Status.FAILED);
+        payout.transitionTo(Payout.Status.REFUNDED);
+
+        assertThat(payout.getStatus()).isEqualTo(Payout.Status.REFUNDED);
+        assertThat(payout.getNextCheckAt()).isNull();
+        assertThat(payout.getStatus().isFinal()).isTrue();
+    }
+
+    @Test
+    void shouldRejectRefundOfSettledPayout() {
+        Payout payout = Payout.builder()
+                .id(UUID.randomUUID())
+                .status(Payout.Status.SETTLED)
+                .build();
+
+        assertThatThrownBy(() -> payout.transitionTo(Payout.Status.FAILED))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("SETTLED");
+    }
+}
@@ -0,0 +1,113 @@
+package com.fintech.walletservice.job;
+
+import com.fintech.walletservice.client.LedgerClient;
+import com.fintech.walletservice.client.dto.CreateLedgerEntryRequest;
+import com.fintech.walletservice.domain.LedgerOutboxEntry;
+import com.fintech.walletservice.service.LedgerOutboxService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LedgerOutboxRelayTest {
+
+    private final LedgerOutboxService outboxService = mock(LedgerOutboxService.class);
+    private final LedgerClient ledgerClient = mock(LedgerClient.class);
+    private final LedgerOutboxRelay relay = new LedgerOutboxRelay(
+            outboxService, ledgerClient, new SimpleMeterRegistry(), 10, 1, 7, 10_000);
+
+    @BeforeEach
+    void setUp() {
+        when(ledgerClient.isEnabled()).thenReturn(true);
+    }
+
+    @Test
+    void shouldPublishWholeBatchInOneCall() {
+        List<LedgerOutboxEntry> batch = List.of(entry("a"), entry("b"));
+        when(outboxService.claimBatch(10)).thenReturn(batch);
+
+        relay.relayPendingEntries();
+
+        verify(ledgerClient).recordTransactions(anyList());
+        verify(ledgerClient, never()).recordTransaction(any());
+        verify(outboxService).markPublished(List.of(batch.get(0).getId(), batch.get(1).getId()));
+    }
+
+    @Test
+    void shouldSendOneByOneWhenBatchFails() {
+        LedgerOutboxEntry good = entry("good");
+        LedgerOutboxEntry bad = entry("bad");
+        when(outboxService.claimBatch(10)).thenReturn(List.of(good, bad));
+        when(ledgerClient.recordTransactions(anyList())).thenThrow(new IllegalStateException("400 Bad Request"));
+        when(ledgerClient.recordTransaction(argThat(request -> request != null && "bad".equals(request.idempotencyKey()))))
+                .thenThrow(new IllegalStateException("400 Bad Request"));
+
+        relay.relayPendingEntries();
+
+        verify(ledgerClient, times(2)).recordTransaction(any(CreateLedgerEntryRequest.class));
+        verify(outboxService).markPublished(List.of(good.getId()));
+        verify(outboxService).markFailed(eq(bad.getId()), anyString(), eq(true));
+        verify(outboxService, never()).markFailed(eq(good.getId()), anyString(), anyBoolean());
+    }
+
+    @Test
+    void shouldParkEntriesLedgerServiceRejects() {
+        LedgerOutboxEntry entry = entry("rejected");
+        when(outboxService.claimBatch(10)).thenReturn(List.of(entry));
+        when(ledgerClient.recordTransaction(any()))
+                .thenThrow(WebClientResponseException.create(400, "Bad Request", null, null, null));
+
+        relay.relayPendingEntries();
+
+        verify(outboxService).markFailed(eq(entry.getId()), anyString(), eq(false));
+    }
+
+    @Test
+    void shouldTreatConflictAsAlreadyRecorded() {
+        LedgerOutboxEntry archived = entry("archived");
+        LedgerOutboxEntry fresh = entry("fresh");
+        when(outboxService.claimBatch(10)).thenReturn(List.of(archived, fresh));
+        WebClientResponseException conflict = WebClientResponseException.create(409, "Conflict", null, null, null);
+        when(ledgerClient.recordTransactions(anyList())).thenThrow(conflict);
+        when(ledgerClient.recordTransaction(argThat(request -> request != null && "archived".equals(request.idempotencyKey()))))
+                .thenThrow(conflict);
+
+        relay.relayPendingEntries();
+
+        verify(outboxService).markPublished(List.of(archived.getId(), fresh.getId()));
+        verify(outboxService, never()).markFailed(any(), anyString(), anyBoolean());
+    }
+
+    @Test
+    void shouldRetryTimeoutsAndServerErrors() {
+        assertThat(LedgerOutboxRelay.isRetryable(WebClientResponseException.create(429, "Too Many Requests", null, null, null))).isTrue();
+        assertThat(LedgerOutboxRelay.isRetryable(WebClientResponseException.create(503, "Service Unavailable", null, null, null))).isTrue();
+        assertThat(LedgerOutboxRelay.isRetryable(new IllegalStateException("Timeout"))).isTrue();
+        assertThat(LedgerOutboxRelay.isRetryable(WebClientResponseException.create(409, "Conflict", null, null, null))).isTrue();
+        assertThat(LedgerOutboxRelay.isRetryable(WebClientResponseException.create(422, "Unprocessable Entity", null, null, null))).isFalse();
+    }
+
+    private static LedgerOutboxEntry entry(String idempotencyKey) {
+        return LedgerOutboxEntry.builder()
+                .id(UUID.randomUUID())
+                .walletId(UUID.randomUUID())
+                .userId(UUID.randomUUID())
+                .entryType("CREDIT")
+                .transactionType("DEPOSIT")
+                .amountMinorUnits(100L)
+                .currency("USD")
+                .balanceAfter(100L)
+                .transactionId(UUID.randomUUID())
+                .idempotencyKey(idempotencyKey)
+                .nextAttemptAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,62 @@
+package com.fintech.walletservice.job;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+class WalletIdRangeTest {
+
+    @Test
+    void shouldCoverWholeIdSpaceWithContiguousRanges() {
+        List<WalletIdRange> ranges = WalletIdRange.split(16);
+
+        assertThat(ranges).hasSize(16);
+        assertThat(ranges.get(0).from()).isEqualTo(WalletIdRange.MIN);
+        assertThat(ranges.get(15).to()).isEqualTo(WalletIdRange.MAX);
+        for (int i = 1; i < ranges.size(); i++) {
+            assertThat(WalletIdRange.successor(ranges.get(i - 1).to())).isEqualTo(ranges.get(i).from());
+        }
+        assertThat(ranges.get(8).from()).isEqualTo(UUID.fromString("80000000-0000-0000-0000-000000000000"));
+    }
+
+    @Test
+    void shouldCarryIntoHighBitsOnSuccessor() {
+        assertThat(WalletIdRange.successor(UUID.fromString("00000000-0000-0001-ffff-ffffffffffff")))
+                .isEqualTo(UUID.fromString("00000000-0000-0002-0000-000000000000"));
+        assertThat(WalletIdRange.successor(UUID.fromString("7fffffff-ffff-ffff-ffff-fffffffffffe")))
+                .isEqualTo(UUID.fromString("7fffffff-ffff-ffff-ffff-ffffffffffff"));
+        assertThatThrownBy(() -> WalletIdRange.successor(WalletIdRange.MAX))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldSubdivideRangeIntoContiguousSubranges() {
+        WalletIdRange range = WalletIdRange.split(16).get(3);
+
+        List<WalletIdRange> subranges = range.subdivide(16);
+
+        assertThat(subranges).hasSize(16);
+        assertThat(subranges.get(0).from()).isEqualTo(range.from());
+        assertThat(subranges.get(15).to()).isEqualTo(range.to());
+        for (int i = 1; i < subranges.size(); i++) {
+            assertThat(WalletIdRange.successor(subranges.get(i - 1).to())).isEqualTo(subranges.get(i).from());
+        }
+    }
+
+    @Test
+    void shouldNotSubdivideBeyondSingleIds() {
+        UUID id = UUID.fromString("ffffffff-ffff-ffff-ffff-fffffffffffd");
+
+        assertThat(new WalletIdRange(id, WalletIdRange.MAX).subdivide(16))
+                .extracting(WalletIdRange::from)
+                .containsExactly(id, WalletIdRange.successor(id), WalletIdRange.MAX);
+    }
+
+    @Test
+    void shouldRejectNonPositivePartitionCount() {
+        assertThatThrownBy(() -> WalletIdRange.split(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
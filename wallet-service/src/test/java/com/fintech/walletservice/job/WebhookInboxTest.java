@@ -0,0 +1,143 @@
+package com.fintech.walletservice.job;
+
+import com.fintech.walletservice.adapter.dto.WebhookEvent;
+import com.fintech.walletservice.adapter.payme.PaymeAdapter;
+import com.fintech.walletservice.config.TestcontainersConfiguration;
+import com.fintech.walletservice.domain.Wallet;
+import com.fintech.walletservice.domain.WebhookInboxEntry;
+import com.fintech.walletservice.repository.LedgerEntryRepository;
+import com.fintech.walletservice.repository.WalletRepository;
+import com.fintech.walletservice.repository.WebhookInboxRepository;
+import com.fintech.walletservice.service.WalletService;
+import com.fintech.walletservice.service.WebhookInboxService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Rows are applied by the worker in its own transactions, so this test is not @Transactional.
+ * Payloads are "EVENT_TYPE:withdrawalId:message"; a message of "boom" fails when applied.
+ * The long backoff keeps failed rows from becoming due again within a test.
+ */
+@SpringBootTest(properties = "wallet.webhooks.inbox.initial-backoff-seconds=30")
+@Import(TestcontainersConfiguration.class)
+@ActiveProfiles("test")
+class WebhookInboxTest {
+
+    @MockitoSpyBean
+    private PaymeAdapter paymeAdapter;
+
+    @Autowired
+    private WebhookInboxWorker worker;
+
+    @Autowired
+    private WebhookInboxService inbox;
+
+    @Autowired
+    private WebhookInboxRepository inboxRepository;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerRepository;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            String[] parts = invocation.<String>getArgument(0).split(":", 3);
+            return WebhookEvent.builder()
+                    .eventType(WebhookEvent.EventType.valueOf(parts[0]))
+                    .internalId(UUID.fromString(parts[1]))
+                    .externalId("payme_" + parts[1])
+                    .errorMessage(parts[2])
+                    .timestamp(Instant.now())
+                    .providerName("PAYME")
+                    .build();
+        }).when(paymeAdapter).parseWebhook(anyString());
+
+        doAnswer(invocation -> {
+            WebhookEvent event = invocation.getArgument(0);
+            if ("boom".equals(event.getErrorMessage())) {
+                throw new IllegalStateException("boom");
+            }
+            return invocation.callRealMethod();
+        }).when(paymeAdapter).handleWebhook(any());
+    }
+
+    @Test
+    void shouldApplyStoredWebhooksOnceInOrder() {
+        Wallet wallet = walletWithPendingWithdrawal();
+        UUID withdrawalId = pendingWithdrawal(wallet, 4_000L);
+
+        Long processing = inbox.append("PAYME", "PAYOUT_PROCESSING:" + withdrawalId + ":");
+        Long failed = inbox.append("PAYME", "PAYOUT_FAILED:" + withdrawalId + ":Card closed");
+        Long redelivered = inbox.append("PAYME", "PAYOUT_FAILED:" + withdrawalId + ":Card closed");
+
+        worker.drainOnce();
+
+        assertThat(List.of(processing, failed, redelivered))
+                .extracting(id -> inboxRepository.findById(id).orElseThrow().getStatus())
+                .containsOnly(WebhookInboxEntry.Status.PROCESSED);
+        assertThat(ledgerRepository.existsByIdempotencyKey(withdrawalId + "-refund")).isTrue();
+        assertThat(balance(wallet)).isEqualTo(10_000L);
+    }
+
+    @Test
+    void shouldHoldLaterEventsBehindFailingOne() {
+        Wallet wallet = walletWithPendingWithdrawal();
+        UUID withdrawalId = pendingWithdrawal(wallet, 4_000L);
+
+        Long failing = inbox.append("PAYME", "PAYOUT_FAILED:" + withdrawalId + ":boom");
+        Long sameBatch = inbox.append("PAYME", "PAYOUT_FAILED:" + withdrawalId + ":Card closed");
+
+        worker.drainOnce();
+        assertThat(inboxRepository.findById(sameBatch).orElseThrow().getLastError())
+                .contains("Earlier event of the same withdrawal failed");
+
+        // The failing row is backing off; a later delivery must wait for it
+        Long later = inbox.append("PAYME", "PAYOUT_FAILED:" + withdrawalId + ":Card closed");
+        worker.drainOnce();
+
+        WebhookInboxEntry held = inboxRepository.findById(later).orElseThrow();
+        assertThat(held.getStatus()).isEqualTo(WebhookInboxEntry.Status.PENDING);
+        assertThat(held.getLastError()).contains("Waiting for inbox entry");
+        assertThat(held.getAttempts()).isZero();
+        assertThat(inboxRepository.findById(failing).orElseThrow().getStatus())
+                .isEqualTo(WebhookInboxEntry.Status.PENDING);
+        assertThat(ledgerRepository.existsByIdempotencyKey(withdrawalId + "-refund")).isFalse();
+        assertThat(balance(wallet)).isEqualTo(6_000L);
+    }
+
+    private Wallet walletWithPendingWithdrawal() {
+        Wallet wallet = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        walletService.deposit(wallet.getId(), 10_000L, "deposit-" + UUID.randomUUID(), "Deposit");
+        return wallet;
+    }
+
+    private UUID pendingWithdrawal(Wallet wallet, long amount) {
+        UUID withdrawalId = UUID.randomUUID();
+        walletService.withdraw(wallet.getId(), amount, withdrawalId + "-withdrawal", "Withdrawal pending");
+        return withdrawalId;
+    }
+
+    private long balance(Wallet wallet) {
+        return walletRepository.findById(wallet.getId()).orElseThrow().getTotalBalanceMinorUnits();
+    }
+}
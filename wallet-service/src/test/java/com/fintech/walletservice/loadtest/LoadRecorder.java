@@ -0,0 +1,150 @@
+package com.fintech.walletservice.loadtest;
+
+import com.fintech.walletservice.exception.InsufficientFundsException;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-operation latency histograms and outcome counters for one workload run.
+ *
+ * Latencies are recorded in microseconds for every attempt, failed ones included.
+ * Workers are closed-loop (next request after the previous one returns), so under
+ * saturation these percentiles understate what an open-loop client would see.
+ */
+final class LoadRecorder {
+
+    enum Outcome {
+        OK,
+        INSUFFICIENT_FUNDS,
+        DEADLOCK,
+        LOCK_TIMEOUT,
+        OPTIMISTIC_CONFLICT,
+        ERROR
+    }
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Map<String, Histogram> latencies = new ConcurrentHashMap<>();
+    private final Map<Outcome, LongAdder> outcomes = new EnumMap<>(Outcome.class);
+    private final Map<String, LongAdder> errorTypes = new ConcurrentHashMap<>();
+    private volatile boolean recording;
+
+    LoadRecorder() {
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, new LongAdder());
+        }
+    }
+
+    /**
+     * Warmup attempts run the same code but are not recorded.
+     */
+    void startRecording() {
+        recording = true;
+    }
+
+    void record(String operation, long startNanos, Outcome outcome) {
+        if (!recording) {
+            return;
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        latencies.computeIfAbsent(operation, op -> new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3))
+                .recordValue(Math.min(Math.max(micros, 1), HIGHEST_TRACKABLE_MICROS));
+        outcomes.get(outcome).increment();
+    }
+
+    Outcome failed(Throwable error) {
+        Outcome outcome = classify(error);
+        if (recording && outcome == Outcome.ERROR) {
+            errorTypes.computeIfAbsent(rootCause(error).getClass().getSimpleName(), type -> new LongAdder())
+                    .increment();
+        }
+        return outcome;
+    }
+
+    long count(Outcome outcome) {
+        return outcomes.get(outcome).sum();
+    }
+
+    /**
+     * PostgreSQL SQL states win over Spring's translation, which can report a
+     * deadlock as a generic lock failure.
+     */
+    static Outcome classify(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause()) {
+            if (e instanceof InsufficientFundsException) {
+                return Outcome.INSUFFICIENT_FUNDS;
+            }
+            if (e instanceof SQLException sql && sql.getSQLState() != null) {
+                switch (sql.getSQLState()) {
+                    case "40P01": return Outcome.DEADLOCK;
+                    case "55P03", "57014": return Outcome.LOCK_TIMEOUT; // lock_not_available, query_canceled
+                    default: break;
+                }
+            }
+        }
+        if (hasCause(error, OptimisticLockingFailureException.class)) {
+            return Outcome.OPTIMISTIC_CONFLICT;
+        }
+        if (hasCause(error, PessimisticLockingFailureException.class)) {
+            return Outcome.LOCK_TIMEOUT;
+        }
+        return Outcome.ERROR;
+    }
+
+    String report(Workload workload, long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%n==================== %s (%.1fs) ====================%n", workload, seconds));
+        out.append(String.format("%-14s %9s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        latencies.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(e -> {
+                    Histogram h = e.getValue();
+                    out.append(String.format("%-14s %9d %9.0f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                            e.getKey(), h.getTotalCount(), h.getTotalCount() / seconds,
+                            millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(90)),
+                            millis(h.getValueAtPercentile(99)), millis(h.getValueAtPercentile(99.9)),
+                            millis(h.getMaxValue())));
+                });
+        out.append("outcomes:");
+        outcomes.forEach((outcome, count) -> out.append(' ').append(outcome).append('=').append(count.sum()));
+        out.append(System.lineSeparator());
+        if (!errorTypes.isEmpty()) {
+            out.append("errors:");
+            errorTypes.forEach((type, count) -> out.append(' ').append(type).append('=').append(count.sum()));
+            out.append(System.lineSeparator());
+        }
+        return out.toString();
+    }
+
+    private static double millis(long micros) {
+        return micros / 1_000.0;
+    }
+
+    private static boolean hasCause(Throwable error, Class<? extends Throwable> type) {
+        for (Throwable e = error; e != null; e = e.getCause()) {
+            if (type.isInstance(e)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Throwable rootCause(Throwable error) {
+        Throwable e = error;
+        while (e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+}
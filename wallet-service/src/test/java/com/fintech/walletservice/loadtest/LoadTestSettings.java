@@ -0,0 +1,48 @@
+package com.fintech.walletservice.loadtest;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Load-test knobs, read from system properties so runs can be resized from the command line:
+ * <pre>
+ * mvn test -Ploadtest -Dloadtest.workloads=ZIPF_TRANSFERS -Dloadtest.threads=64 -Dloadtest.duration-seconds=120
+ * </pre>
+ */
+record LoadTestSettings(
+        Set<Workload> workloads,
+        int wallets,
+        int threads,
+        Duration duration,
+        Duration warmup,
+        long initialBalance,
+        long maxAmount,
+        double zipfExponent,
+        double readRatio,
+        int merchantShards
+) {
+
+    static LoadTestSettings fromSystemProperties() {
+        String workloads = System.getProperty("loadtest.workloads", "");
+        return new LoadTestSettings(
+                workloads.isBlank()
+                        ? EnumSet.allOf(Workload.class)
+                        : Arrays.stream(workloads.split(","))
+                                .map(String::trim)
+                                .map(Workload::valueOf)
+                                .collect(Collectors.toCollection(() -> EnumSet.noneOf(Workload.class))),
+                Integer.getInteger("loadtest.wallets", 200),
+                Integer.getInteger("loadtest.threads", 32),
+                Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 30)),
+                Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 5)),
+                Long.getLong("loadtest.initial-balance", 1_000_000L),
+                Long.getLong("loadtest.max-amount", 10_000L),
+                Double.parseDouble(System.getProperty("loadtest.zipf-exponent", "1.1")),
+                Double.parseDouble(System.getProperty("loadtest.read-ratio", "0.8")),
+                Integer.getInteger("loadtest.merchant-shards", 0)
+        );
+    }
+}
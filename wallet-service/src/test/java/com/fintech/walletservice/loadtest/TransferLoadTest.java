@@ -0,0 +1,232 @@
+package com.fintech.walletservice.loadtest;
+
+import com.fintech.walletservice.config.TestcontainersConfiguration;
+import com.fintech.walletservice.domain.Wallet;
+import com.fintech.walletservice.loadtest.LoadRecorder.Outcome;
+import com.fintech.walletservice.repository.WalletRepository;
+import com.fintech.walletservice.service.WalletService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Contention load test: drives a workload against WalletService on a real Postgres and
+ * prints latency percentiles (HdrHistogram), throughput and deadlock/lock-timeout counts.
+ *
+ * Excluded from the default build; run with {@code mvn test -Ploadtest}, sized through
+ * {@link LoadTestSettings}. Like the benchmark profile it only asserts correctness:
+ * no deadlocks, no unexpected errors, money is conserved and every wallet still
+ * matches its ledger. The numbers are for comparing runs on one machine.
+ */
+@Tag("loadtest")
+@SpringBootTest(properties = {
+        "spring.datasource.hikari.maximum-pool-size=40",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.com.fintech.walletservice=ERROR",
+        "logging.level.com.fintech.walletservice.loadtest=INFO",  // the report
+        // Only wallet-service is under test; the outbox still writes and drains its rows
+        "services.ledger.enabled=false",
+        "services.notification.enabled=false"
+})
+@Import(TestcontainersConfiguration.class)
+@ActiveProfiles("test")
+@Slf4j
+class TransferLoadTest {
+
+    private static final LoadTestSettings SETTINGS = LoadTestSettings.fromSystemProperties();
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @ParameterizedTest(name = "{0}")
+    @EnumSource(Workload.class)
+    void runWorkload(Workload workload) throws Exception {
+        assumeTrue(SETTINGS.workloads().contains(workload), "not selected in loadtest.workloads");
+
+        List<UUID> wallets = fundWallets(workload == Workload.DEPOSIT_STORM ? 1 : SETTINGS.wallets());
+        if (workload == Workload.DEPOSIT_STORM && SETTINGS.merchantShards() > 0) {
+            walletService.reshardWallet(wallets.get(0), SETTINGS.merchantShards());
+        }
+        long initialTotal = totalBalance(wallets);
+
+        LoadRecorder recorder = new LoadRecorder();
+        LongAdder netDeposited = new LongAdder();
+        Driver driver = new Driver(workload, wallets, recorder, netDeposited);
+
+        ExecutorService executor = Executors.newFixedThreadPool(SETTINGS.threads());
+        long warmupEnd = System.nanoTime() + SETTINGS.warmup().toNanos();
+        long end = warmupEnd + SETTINGS.duration().toNanos();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < SETTINGS.threads(); t++) {
+            workers.add(executor.submit(() -> {
+                while (System.nanoTime() < end) {
+                    driver.next();
+                }
+            }));
+        }
+
+        TimeUnit.NANOSECONDS.sleep(Math.max(0, warmupEnd - System.nanoTime()));
+        long measureStart = System.nanoTime();
+        recorder.startRecording();
+        for (Future<?> worker : workers) {
+            worker.get(SETTINGS.duration().toSeconds() + 120, TimeUnit.SECONDS);
+        }
+        long elapsed = System.nanoTime() - measureStart;
+        executor.shutdown();
+
+        log.info("wallets={} threads={} zipf={} readRatio={} merchantShards={}\n{}",
+                wallets.size(), SETTINGS.threads(), String.format("%.2f", SETTINGS.zipfExponent()),
+                String.format("%.2f", SETTINGS.readRatio()), SETTINGS.merchantShards(),
+                recorder.report(workload, elapsed));
+
+        assertThat(recorder.count(Outcome.DEADLOCK)).as("deadlocks").isZero();
+        assertThat(recorder.count(Outcome.ERROR)).as("unexpected errors").isZero();
+        assertThat(totalBalance(wallets)).as("money conservation")
+                .isEqualTo(initialTotal + netDeposited.sum());
+        for (UUID walletId : wallets) {
+            assertThat(walletService.reconcileBalance(walletId)).as("ledger matches wallet %s", walletId).isTrue();
+        }
+    }
+
+    private List<UUID> fundWallets(int count) {
+        List<UUID> wallets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UUID walletId = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD).getId();
+            walletService.deposit(walletId, SETTINGS.initialBalance(), "lt-fund-" + walletId, "Load test funding");
+            wallets.add(walletId);
+        }
+        return wallets;
+    }
+
+    private long totalBalance(List<UUID> wallets) {
+        return wallets.stream()
+                .mapToLong(id -> walletRepository.findTotalBalance(id).orElseThrow())
+                .sum();
+    }
+
+    /**
+     * Picks and runs one operation of the workload per call; called concurrently by all workers.
+     */
+    private class Driver {
+
+        private final Workload workload;
+        private final List<UUID> wallets;
+        private final LoadRecorder recorder;
+        private final LongAdder netDeposited;
+        private final ZipfSampler zipf;
+
+        Driver(Workload workload, List<UUID> wallets, LoadRecorder recorder, LongAdder netDeposited) {
+            this.workload = workload;
+            this.wallets = wallets;
+            this.recorder = recorder;
+            this.netDeposited = netDeposited;
+            this.zipf = new ZipfSampler(wallets.size(), SETTINGS.zipfExponent());
+        }
+
+        void next() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            switch (workload) {
+                case UNIFORM_TRANSFERS -> transfer(uniformWallet(), uniformWallet());
+                case ZIPF_TRANSFERS -> transfer(wallets.get(zipf.next()), wallets.get(zipf.next()));
+                case DEPOSIT_STORM -> deposit(wallets.get(0));
+                case MIXED -> {
+                    double roll = random.nextDouble();
+                    double writeShare = (1 - SETTINGS.readRatio()) / 3;
+                    if (roll < SETTINGS.readRatio() / 2) {
+                        read("getWallet", () -> walletService.getWallet(uniformWallet()));
+                    } else if (roll < SETTINGS.readRatio()) {
+                        read("history", () -> walletService.getTransactionHistory(uniformWallet(), null, 20));
+                    } else if (roll < SETTINGS.readRatio() + writeShare) {
+                        transfer(uniformWallet(), uniformWallet());
+                    } else if (roll < SETTINGS.readRatio() + 2 * writeShare) {
+                        deposit(uniformWallet());
+                    } else {
+                        withdraw(uniformWallet());
+                    }
+                }
+            }
+        }
+
+        private void transfer(UUID from, UUID to) {
+            if (from.equals(to)) {
+                return;
+            }
+            long amount = amount();
+            long start = System.nanoTime();
+            try {
+                walletService.transfer(from, to, amount, key(), "Load test transfer");
+                recorder.record("transfer", start, Outcome.OK);
+            } catch (Exception e) {
+                recorder.record("transfer", start, recorder.failed(e));
+            }
+        }
+
+        private void deposit(UUID walletId) {
+            long amount = amount();
+            long start = System.nanoTime();
+            try {
+                walletService.deposit(walletId, amount, key(), "Load test deposit");
+                netDeposited.add(amount);
+                recorder.record("deposit", start, Outcome.OK);
+            } catch (Exception e) {
+                recorder.record("deposit", start, recorder.failed(e));
+            }
+        }
+
+        private void withdraw(UUID walletId) {
+            long amount = amount();
+            long start = System.nanoTime();
+            try {
+                walletService.withdraw(walletId, amount, key(), "Load test withdrawal");
+                netDeposited.add(-amount);
+                recorder.record("withdraw", start, Outcome.OK);
+            } catch (Exception e) {
+                recorder.record("withdraw", start, recorder.failed(e));
+            }
+        }
+
+        private void read(String operation, Runnable read) {
+            long start = System.nanoTime();
+            try {
+                read.run();
+                recorder.record(operation, start, Outcome.OK);
+            } catch (Exception e) {
+                recorder.record(operation, start, recorder.failed(e));
+            }
+        }
+
+        private UUID uniformWallet() {
+            return wallets.get(ThreadLocalRandom.current().nextInt(wallets.size()));
+        }
+
+        private long amount() {
+            return ThreadLocalRandom.current().nextLong(1, SETTINGS.maxAmount() + 1);
+        }
+
+        private String key() {
+            return "lt-" + UUID.randomUUID();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.fintech.walletservice.loadtest;
+
+/**
+ * Load shapes driven by TransferLoadTest.
+ */
+enum Workload {
+
+    /** Transfers between uniformly random wallet pairs: low contention baseline. */
+    UNIFORM_TRANSFERS,
+
+    /** Transfers whose wallets follow a Zipf distribution: a few hot wallets take most of the traffic. */
+    ZIPF_TRANSFERS,
+
+    /** Every worker deposits into one merchant wallet (optionally sharded). */
+    DEPOSIT_STORM,
+
+    /** Reads (wallet, history page) mixed with transfers, deposits and withdrawals. */
+    MIXED
+}
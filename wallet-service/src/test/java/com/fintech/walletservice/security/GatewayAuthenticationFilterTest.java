@@ -0,0 +1,51 @@
+package com.fintech.walletservice.security;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+
+class GatewayAuthenticationFilterTest {
+
+    private final GatewayAuthenticationFilter filter = new GatewayAuthenticationFilter();
+
+    @AfterEach
+    void tearDown() {
+        UserContext.clear();
+    }
+
+    @Test
+    void shouldBindGatewayUserForTheRequestOnly() throws Exception {
+        String userId = UUID.randomUUID().toString();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(GatewayAuthenticationFilter.USER_ID_HEADER, userId);
+        request.addHeader(GatewayAuthenticationFilter.USER_EMAIL_HEADER, "john@example.com");
+        request.addHeader(GatewayAuthenticationFilter.USER_ROLES_HEADER, "USER");
+        AtomicReference<String> seen = new AtomicReference<>();
+
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (FilterChain) (req, res) -> seen.set(UserContext.getCurrentUserEmail()));
+
+        assertThat(seen.get()).isEqualTo("john@example.com");
+        assertThat(UserContext.isAuthenticated()).isFalse();
+    }
+
+    @Test
+    void shouldNotLetStaleUserSurviveRequest() throws Exception {
+        // Left on a pooled thread by code that bypassed the filter
+        UserContext.setCurrentUser(UUID.randomUUID().toString(), "stale@example.com", "ADMIN");
+        AtomicReference<Boolean> authenticatedDuringRequest = new AtomicReference<>();
+
+        filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(),
+                (FilterChain) (req, res) -> authenticatedDuringRequest.set(UserContext.isAuthenticated()));
+
+        assertThat(authenticatedDuringRequest.get()).isFalse();
+        assertThat(UserContext.getCurrentUser()).isNull();
+    }
+}
@@ -0,0 +1,55 @@
+package com.fintech.walletservice.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+class UserContextTest {
+
+    @AfterEach
+    void tearDown() {
+        UserContext.clear();
+    }
+
+    @Test
+    void shouldRestorePreviousUserWhenScopeCloses() {
+        String outer = UUID.randomUUID().toString();
+        String inner = UUID.randomUUID().toString();
+
+        try (UserContext.Scope ignored = UserContext.open(UserContext.UserInfo.of(outer, "outer@example.com", "USER"))) {
+            try (UserContext.Scope nested = UserContext.open(UserContext.UserInfo.of(inner, "inner@example.com", "ADMIN"))) {
+                assertThat(UserContext.getCurrentUserId()).isEqualTo(UUID.fromString(inner));
+                assertThat(UserContext.isAdmin()).isTrue();
+            }
+            assertThat(UserContext.getCurrentUserId()).isEqualTo(UUID.fromString(outer));
+            assertThat(UserContext.isAdmin()).isFalse();
+        }
+        assertThat(UserContext.isAuthenticated()).isFalse();
+    }
+
+    @Test
+    void shouldHideLeftoverUserFromAnonymousScope() {
+        UserContext.setCurrentUser(UUID.randomUUID().toString(), "stale@example.com", "USER");
+
+        try (UserContext.Scope ignored = UserContext.open(null)) {
+            assertThat(UserContext.isAuthenticated()).isFalse();
+            assertThat(UserContext.getCurrentUserEmail()).isNull();
+        }
+    }
+
+    @Test
+    void shouldNotLeakUserToOtherThreads() throws Exception {
+        try (UserContext.Scope ignored = UserContext.open(
+                UserContext.UserInfo.of(UUID.randomUUID().toString(), "john@example.com", "USER"))) {
+            boolean[] seen = new boolean[1];
+            Thread other = new Thread(() -> seen[0] = UserContext.isAuthenticated());
+            other.start();
+            other.join();
+
+            assertThat(seen[0]).isFalse();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.config.TestcontainersConfiguration;
+import com.fintech.walletservice.domain.BalanceCheckpoint;
+import com.fintech.walletservice.domain.Wallet;
+import com.fintech.walletservice.repository.BalanceCheckpointRepository;
+import com.fintech.walletservice.repository.LedgerEntryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+@ActiveProfiles("test")
+@Transactional
+class BalanceCheckpointServiceTest {
+
+    @Autowired
+    private BalanceCheckpointService checkpointService;
+
+    @Autowired
+    private BalanceCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerRepository;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Test
+    void shouldCombineCheckpointWithEntriesAfterIt() {
+        Wallet wallet = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        walletService.deposit(wallet.getId(), 10_000L, "cp-dep-1-" + wallet.getId(), "Test");
+        walletService.withdraw(wallet.getId(), 2_500L, "cp-wd-1-" + wallet.getId(), "Test");
+
+        assertThat(ledgerRepository.findWalletIdsWithEntriesBetween(Instant.EPOCH, horizon()))
+                .contains(wallet.getId());
+        assertThat(checkpointService.advance(wallet.getId(), horizon())).isTrue();
+
+        BalanceCheckpoint checkpoint = checkpointRepository.findById(wallet.getId()).orElseThrow();
+        assertThat(checkpoint.getBalanceMinorUnits()).isEqualTo(7_500L);
+        assertThat(checkpoint.getEntryCount()).isEqualTo(2L);
+
+        walletService.deposit(wallet.getId(), 1_000L, "cp-dep-2-" + wallet.getId(), "Test");
+
+        assertThat(checkpointService.ledgerBalance(wallet.getId()))
+                .isEqualTo(8_500L)
+                .isEqualTo(ledgerRepository.calculateBalanceFromLedger(wallet.getId()));
+        assertThat(walletService.reconcileBalance(wallet.getId())).isTrue();
+    }
+
+    @Test
+    void shouldAdvanceIncrementally() {
+        Wallet wallet = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        walletService.deposit(wallet.getId(), 5_000L, "cp-inc-1-" + wallet.getId(), "Test");
+        checkpointService.advance(wallet.getId(), horizon());
+
+        walletService.withdraw(wallet.getId(), 1_500L, "cp-inc-2-" + wallet.getId(), "Test");
+        walletService.deposit(wallet.getId(), 300L, "cp-inc-3-" + wallet.getId(), "Test");
+
+        assertThat(checkpointService.advance(wallet.getId(), horizon())).isTrue();
+        assertThat(checkpointService.advance(wallet.getId(), horizon())).isFalse();
+
+        BalanceCheckpoint checkpoint = checkpointRepository.findById(wallet.getId()).orElseThrow();
+        assertThat(checkpoint.getBalanceMinorUnits()).isEqualTo(3_800L);
+        assertThat(checkpoint.getEntryCount()).isEqualTo(3L);
+        assertThat(checkpointService.verify(wallet.getId())).isTrue();
+    }
+
+    @Test
+    void shouldResumeScanFromNewestCheckpoint() {
+        Wallet wallet = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        walletService.deposit(wallet.getId(), 5_000L, "cp-wm-1-" + wallet.getId(), "Test");
+        checkpointService.advance(wallet.getId(), horizon());
+
+        BalanceCheckpoint checkpoint = checkpointRepository.findById(wallet.getId()).orElseThrow();
+        // Postgres keeps microseconds
+        assertThat(checkpointRepository.findNewestWatermark()).get()
+                .satisfies(watermark -> assertThat(watermark)
+                        .isCloseTo(checkpoint.getLastEntryCreatedAt(), within(1, ChronoUnit.MICROS)));
+    }
+
+    @Test
+    void shouldNotCheckpointEntriesNewerThanHorizon() {
+        Wallet wallet = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        Instant beforeAnyEntry = Instant.now().minusSeconds(60);
+        walletService.deposit(wallet.getId(), 5_000L, "cp-new-" + wallet.getId(), "Test");
+
+        assertThat(checkpointService.advance(wallet.getId(), beforeAnyEntry)).isFalse();
+        assertThat(checkpointRepository.findById(wallet.getId())).isEmpty();
+        assertThat(checkpointService.ledgerBalance(wallet.getId())).isEqualTo(5_000L);
+    }
+
+    @Test
+    void shouldRepairDriftedCheckpointOnVerify() {
+        Wallet wallet = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        walletService.deposit(wallet.getId(), 5_000L, "cp-drift-" + wallet.getId(), "Test");
+        checkpointService.advance(wallet.getId(), horizon());
+
+        // Simulate an entry that committed behind the watermark
+        BalanceCheckpoint checkpoint = checkpointRepository.findById(wallet.getId()).orElseThrow();
+        checkpoint.setBalanceMinorUnits(4_000L);
+        checkpoint.setEntryCount(0L);
+        checkpointRepository.saveAndFlush(checkpoint);
+        assertThat(walletService.reconcileBalance(wallet.getId())).isFalse();
+
+        assertThat(checkpointService.verify(wallet.getId())).isFalse();
+        assertThat(checkpointService.verify(wallet.getId())).isTrue();
+        assertThat(walletService.reconcileBalance(wallet.getId())).isTrue();
+    }
+
+    @Test
+    void shouldReconcileShardedWalletAgainstCheckpoint() {
+        Wallet merchant = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        walletService.reshardWallet(merchant.getId(), 4);
+        for (int i = 0; i < 5; i++) {
+            walletService.deposit(merchant.getId(), 1_000L, "cp-shard-" + i + "-" + merchant.getId(), "Sale");
+        }
+        checkpointService.advance(merchant.getId(), horizon());
+        walletService.deposit(merchant.getId(), 1_000L, "cp-shard-late-" + merchant.getId(), "Sale");
+
+        assertThat(checkpointService.ledgerBalance(merchant.getId())).isEqualTo(6_000L);
+        assertThat(walletService.reconcileBalance(merchant.getId())).isTrue();
+    }
+
+    private static Instant horizon() {
+        return Instant.now().plusSeconds(1);
+    }
+}
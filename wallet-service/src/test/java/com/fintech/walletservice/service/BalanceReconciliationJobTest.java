@@ -2,18 +2,33 @@ package com.fintech.walletservice.service;
 
 import com.fintech.walletservice.config.TestcontainersConfiguration;
 import com.fintech.walletservice.domain.Wallet;
+import com.fintech.walletservice.domain.ReconciliationPartition;
+import com.fintech.walletservice.domain.ReconciliationRun;
 import com.fintech.walletservice.job.BalanceReconciliationJob;
+import com.fintech.walletservice.job.WalletIdRange;
+import com.fintech.walletservice.repository.ReconciliationAuditRepository;
+import com.fintech.walletservice.repository.ReconciliationPartitionRepository;
+import com.fintech.walletservice.repository.ReconciliationRunRepository;
+import com.fintech.walletservice.repository.WalletRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.*;
 
-@SpringBootTest
+// Small chunks and partitions so a run spans several keyset pages per partition
+@SpringBootTest(properties = {
+        "wallet.reconciliation.partitions=4",
+        "wallet.reconciliation.threads=2",
+        "wallet.reconciliation.chunk-size=3"
+})
 @Import(TestcontainersConfiguration.class)
 @ActiveProfiles("test")
 class BalanceReconciliationJobTest {
@@ -24,6 +39,24 @@ class BalanceReconciliationJobTest {
     @Autowired
     private WalletService walletService;
 
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private ReconciliationAuditRepository auditRepository;
+
+    @Autowired
+    private ReconciliationRunRepository runRepository;
+
+    @Autowired
+    private ReconciliationPartitionRepository partitionRepository;
+
+    @Autowired
+    private BalanceCheckpointService checkpointService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     void shouldReconcileAllWalletsSuccessfully() {
         // Create test wallets with transactions
@@ -60,4 +93,118 @@ class BalanceReconciliationJobTest {
         assertThat(report.totalWallets()).isGreaterThanOrEqualTo(0);
         assertThat(report.durationMs()).isGreaterThan(0);
     }
+
+    @Test
+    void shouldVisitEveryWalletAcrossPartitionsAndChunks() {
+        for (int i = 0; i < 20; i++) {
+            Wallet wallet = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+            walletService.deposit(wallet.getId(), 100L + i, "recon-chunk-" + wallet.getId(), "Test");
+        }
+
+        BalanceReconciliationJob.ReconciliationReport report =
+                reconciliationJob.reconcileAllWalletsManually();
+
+        assertThat(report.totalWallets()).isEqualTo(walletRepository.count());
+        assertThat(report.allReconciled()).isTrue();
+    }
+
+    @Test
+    void shouldRecordMismatchInAuditTable() {
+        Wallet wallet = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        walletService.deposit(wallet.getId(), 5_000L, "recon-mismatch-" + wallet.getId(), "Test");
+
+        // Corrupt the balance behind the ledger's back
+        jdbcTemplate.update("UPDATE wallets SET balance_minor_units = balance_minor_units + 1 WHERE id = ?",
+                wallet.getId());
+        try {
+            BalanceReconciliationJob.ReconciliationReport report =
+                    reconciliationJob.reconcileAllWalletsManually();
+
+            assertThat(report.allReconciled()).isFalse();
+            assertThat(report.failureCount()).isGreaterThanOrEqualTo(1);
+            assertThat(auditRepository.findAll())
+                    .anySatisfy(audit -> {
+                        assertThat(audit.getWalletId()).isEqualTo(wallet.getId());
+                        assertThat(audit.getDifference()).isEqualTo(1L);
+                    });
+        } finally {
+            jdbcTemplate.update("UPDATE wallets SET balance_minor_units = balance_minor_units - 1 WHERE id = ?",
+                    wallet.getId());
+        }
+    }
+
+    @Test
+    void shouldAgreeBetweenSetBasedAndPerWalletModes() {
+        Wallet merchant = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        walletService.reshardWallet(merchant.getId(), 4);
+        for (int i = 0; i < 5; i++) {
+            walletService.deposit(merchant.getId(), 1_000L, "recon-mode-shard-" + i + "-" + merchant.getId(), "Sale");
+        }
+
+        Wallet checkpointed = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        walletService.deposit(checkpointed.getId(), 2_000L, "recon-mode-cp-1-" + checkpointed.getId(), "Test");
+        checkpointService.advance(checkpointed.getId(), Instant.now().plusSeconds(1));
+        walletService.withdraw(checkpointed.getId(), 500L, "recon-mode-cp-2-" + checkpointed.getId(), "Test");
+
+        Wallet corrupted = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        walletService.deposit(corrupted.getId(), 3_000L, "recon-mode-bad-" + corrupted.getId(), "Test");
+        jdbcTemplate.update("UPDATE wallets SET balance_minor_units = balance_minor_units - 7 WHERE id = ?",
+                corrupted.getId());
+        try {
+            BalanceReconciliationJob.ReconciliationReport setBased =
+                    reconciliationJob.reconcileAllWalletsManually(BalanceReconciliationJob.Mode.SET_BASED);
+            BalanceReconciliationJob.ReconciliationReport perWallet =
+                    reconciliationJob.reconcileAllWalletsManually(BalanceReconciliationJob.Mode.PER_WALLET);
+
+            assertThat(setBased.totalWallets()).isEqualTo(perWallet.totalWallets());
+            assertThat(setBased.failureCount()).isEqualTo(perWallet.failureCount());
+            assertThat(auditRepository.findAll())
+                    .filteredOn(audit -> audit.getWalletId().equals(corrupted.getId()))
+                    .hasSize(2)
+                    .allSatisfy(audit -> assertThat(audit.getDifference()).isEqualTo(-7L));
+            assertThat(auditRepository.findAll())
+                    .noneSatisfy(audit -> assertThat(audit.getWalletId())
+                            .isIn(merchant.getId(), checkpointed.getId()));
+        } finally {
+            jdbcTemplate.update("UPDATE wallets SET balance_minor_units = balance_minor_units + 7 WHERE id = ?",
+                    corrupted.getId());
+        }
+    }
+
+    @Test
+    void shouldResumeInterruptedRunFromItsPartitions() {
+        walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+
+        // A run that crashed after finishing its first partition
+        ReconciliationRun crashed = runRepository.save(ReconciliationRun.builder()
+                .status(ReconciliationRun.RunStatus.RUNNING)
+                .partitionCount(2)
+                .build());
+        List<WalletIdRange> ranges = WalletIdRange.split(2);
+        partitionRepository.save(ReconciliationPartition.builder()
+                .runId(crashed.getId())
+                .partitionIndex(0)
+                .rangeFrom(ranges.get(0).from())
+                .rangeTo(ranges.get(0).to())
+                .status(ReconciliationPartition.PartitionStatus.COMPLETED)
+                .walletsChecked(1_000L)
+                .build());
+        partitionRepository.save(ReconciliationPartition.builder()
+                .runId(crashed.getId())
+                .partitionIndex(1)
+                .rangeFrom(ranges.get(1).from())
+                .rangeTo(ranges.get(1).to())
+                .build());
+
+        BalanceReconciliationJob.ReconciliationReport report =
+                reconciliationJob.reconcileAllWalletsManually();
+
+        // First partition is not scanned again, its count carries over
+        assertThat(report.totalWallets()).isGreaterThanOrEqualTo(1_000);
+        assertThat(runRepository.findById(crashed.getId()).orElseThrow().getStatus())
+                .isEqualTo(ReconciliationRun.RunStatus.COMPLETED);
+        assertThat(partitionRepository.findByRunIdOrderByPartitionIndex(crashed.getId()))
+                .allSatisfy(partition -> assertThat(partition.getStatus())
+                        .isEqualTo(ReconciliationPartition.PartitionStatus.COMPLETED));
+    }
 }
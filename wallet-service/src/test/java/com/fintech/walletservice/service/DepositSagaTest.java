@@ -0,0 +1,112 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.adapter.dto.DepositRequest;
+import com.fintech.walletservice.adapter.dto.PaymentResult;
+import com.fintech.walletservice.config.TestcontainersConfiguration;
+import com.fintech.walletservice.domain.Deposit;
+import com.fintech.walletservice.domain.Wallet;
+import com.fintech.walletservice.job.DepositRecoveryJob;
+import com.fintech.walletservice.repository.DepositRepository;
+import com.fintech.walletservice.repository.WalletRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Deposit saga steps commit in their own transactions, so this test is not @Transactional.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+@ActiveProfiles("test")
+class DepositSagaTest {
+
+    @Autowired
+    private PaymentRoutingService paymentRoutingService;
+
+    @Autowired
+    private DepositService depositService;
+
+    @Autowired
+    private DepositRecoveryJob recoveryJob;
+
+    @Autowired
+    private DepositRepository depositRepository;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void shouldCreditOnceAndReplayDuplicateRequest() {
+        Wallet wallet = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        DepositRequest request = deposit(wallet);
+
+        PaymentResult first = paymentRoutingService.processDeposit(request);
+        PaymentResult replay = paymentRoutingService.processDeposit(deposit(wallet, request.getIdempotencyKey()));
+
+        assertThat(first.isSuccess()).isTrue();
+        assertThat(replay.isSuccess()).isTrue();
+        assertThat(replay.getTransactionId()).isEqualTo(first.getTransactionId());
+        assertThat(balance(wallet)).isEqualTo(5_000L);
+
+        Deposit saga = depositRepository.findByIdempotencyKey(request.getIdempotencyKey()).orElseThrow();
+        assertThat(saga.getStatus()).isEqualTo(Deposit.Status.COMPLETED);
+        assertThat(saga.getProvider()).isEqualTo("STRIPE");
+        assertThat(saga.getNextCheckAt()).isNull();
+    }
+
+    @Test
+    void shouldCancelAbandonedDepositAndRefuseLateCredit() {
+        Wallet wallet = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        DepositRequest request = deposit(wallet);
+
+        // A node that started the deposit and died while the provider was charging
+        Deposit started = depositService.begin(request).orElseThrow();
+        started.setNextCheckAt(Instant.now().minusSeconds(1));
+        depositRepository.save(started);
+
+        recoveryJob.cancelAbandonedDeposits();
+
+        assertThat(depositRepository.findById(started.getId()).orElseThrow().getStatus())
+                .isEqualTo(Deposit.Status.CANCELLED);
+        Boolean lockedPending = new TransactionTemplate(transactionManager)
+                .execute(status -> depositService.lockPending(started.getId()));
+        assertThat(lockedPending).isFalse();
+
+        PaymentResult replay = paymentRoutingService.processDeposit(deposit(wallet, request.getIdempotencyKey()));
+        assertThat(replay.getErrorCode()).isEqualTo("DUPLICATE_REQUEST");
+        assertThat(balance(wallet)).isZero();
+    }
+
+    private DepositRequest deposit(Wallet wallet) {
+        return deposit(wallet, "deposit-" + UUID.randomUUID());
+    }
+
+    private DepositRequest deposit(Wallet wallet, String idempotencyKey) {
+        return DepositRequest.builder()
+                .walletId(wallet.getId())
+                .amount(5_000L)
+                .currency(Wallet.Currency.USD)
+                .paymentMethodToken("pm_card_visa")
+                .idempotencyKey(idempotencyKey)
+                .build();
+    }
+
+    private long balance(Wallet wallet) {
+        return walletRepository.findById(wallet.getId()).orElseThrow().getTotalBalanceMinorUnits();
+    }
+}
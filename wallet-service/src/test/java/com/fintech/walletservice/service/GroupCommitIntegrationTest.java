@@ -0,0 +1,148 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.config.TestcontainersConfiguration;
+import com.fintech.walletservice.domain.LedgerEntry;
+import com.fintech.walletservice.domain.Wallet;
+import com.fintech.walletservice.exception.InsufficientFundsException;
+import com.fintech.walletservice.exception.WalletNotActiveException;
+import com.fintech.walletservice.repository.LedgerEntryRepository;
+import com.fintech.walletservice.repository.LedgerOutboxRepository;
+import com.fintech.walletservice.repository.WalletRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Deposits/withdrawals through the per-wallet command lanes.
+ * Not @Transactional: callers inside a transaction bypass the lanes by design.
+ */
+@SpringBootTest(properties = "wallet.group-commit.enabled=true")
+@Import(TestcontainersConfiguration.class)
+@ActiveProfiles("test")
+class GroupCommitIntegrationTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerRepository;
+
+    @Autowired
+    private LedgerOutboxRepository outboxRepository;
+
+    @Test
+    void shouldApplyConcurrentDepositsExactlyOnce() throws Exception {
+        Wallet wallet = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+
+        List<Callable<LedgerEntry>> deposits = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String key = "gc-deposit-" + UUID.randomUUID();
+            deposits.add(() -> walletService.deposit(wallet.getId(), 100L, key, "Group deposit"));
+        }
+        List<LedgerEntry> entries = runConcurrently(deposits);
+
+        assertThat(walletRepository.findById(wallet.getId()).orElseThrow().getBalanceMinorUnits())
+                .isEqualTo(20_000L);
+        assertThat(walletService.reconcileBalance(wallet.getId())).isTrue();
+
+        // Each entry records the running balance it produced
+        assertThat(entries.stream().map(LedgerEntry::getBalanceAfter).collect(Collectors.toSet()))
+                .hasSize(200)
+                .contains(20_000L);
+        assertThat(entries).allSatisfy(entry ->
+                assertThat(outboxRepository.findByIdempotencyKey(entry.getIdempotencyKey())).isPresent());
+    }
+
+    @Test
+    void shouldRejectWithdrawalsBeyondBalancePerCommand() throws Exception {
+        Wallet wallet = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        walletService.deposit(wallet.getId(), 1_000L, "gc-seed-" + UUID.randomUUID(), "Seed");
+
+        AtomicInteger rejected = new AtomicInteger();
+        List<Callable<LedgerEntry>> withdrawals = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            String key = "gc-withdraw-" + UUID.randomUUID();
+            withdrawals.add(() -> {
+                try {
+                    return walletService.withdraw(wallet.getId(), 100L, key, "Group withdrawal");
+                } catch (InsufficientFundsException e) {
+                    rejected.incrementAndGet();
+                    return null;
+                }
+            });
+        }
+        List<LedgerEntry> entries = runConcurrently(withdrawals);
+
+        assertThat(entries.stream().filter(entry -> entry != null).count()).isEqualTo(10);
+        assertThat(rejected.get()).isEqualTo(40);
+        assertThat(walletRepository.findById(wallet.getId()).orElseThrow().getBalanceMinorUnits()).isZero();
+        assertThat(walletService.reconcileBalance(wallet.getId())).isTrue();
+    }
+
+    @Test
+    void shouldReturnSameEntryForConcurrentDuplicateKeys() throws Exception {
+        Wallet wallet = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        String key = "gc-dup-" + UUID.randomUUID();
+
+        List<Callable<LedgerEntry>> deposits = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            deposits.add(() -> walletService.deposit(wallet.getId(), 500L, key, "Duplicate"));
+        }
+        List<LedgerEntry> entries = runConcurrently(deposits);
+
+        Set<UUID> transactionIds = entries.stream()
+                .map(LedgerEntry::getTransactionId)
+                .collect(Collectors.toSet());
+        assertThat(transactionIds).hasSize(1);
+        assertThat(ledgerRepository.findByWalletIdOrderByCreatedAtDesc(wallet.getId(), Pageable.unpaged())
+                .getTotalElements()).isEqualTo(1);
+        assertThat(walletRepository.findById(wallet.getId()).orElseThrow().getBalanceMinorUnits())
+                .isEqualTo(500L);
+    }
+
+    @Test
+    void shouldRejectCommandsForFrozenWallet() {
+        Wallet wallet = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        walletService.freezeWallet(wallet.getId());
+
+        assertThatThrownBy(() -> walletService.deposit(
+                wallet.getId(), 100L, "gc-frozen-" + UUID.randomUUID(), "Frozen"))
+                .isInstanceOf(WalletNotActiveException.class);
+    }
+
+    private static List<LedgerEntry> runConcurrently(List<Callable<LedgerEntry>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<LedgerEntry>> futures = executor.invokeAll(tasks, 60, TimeUnit.SECONDS);
+            List<LedgerEntry> results = new ArrayList<>();
+            for (Future<LedgerEntry> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
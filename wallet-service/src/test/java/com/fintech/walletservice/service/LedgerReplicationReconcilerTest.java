@@ -0,0 +1,175 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.client.LedgerClient;
+import com.fintech.walletservice.config.TestcontainersConfiguration;
+import com.fintech.walletservice.domain.LedgerEntry;
+import com.fintech.walletservice.domain.LedgerOutboxEntry;
+import com.fintech.walletservice.domain.Wallet;
+import com.fintech.walletservice.job.LedgerReplicationReconciler;
+import com.fintech.walletservice.repository.LedgerEntryRepository;
+import com.fintech.walletservice.repository.LedgerOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ledger Service is simulated by serving this service's own digests as of a cutoff,
+ * so everything recorded after the cutoff looks lost in replication.
+ */
+@SpringBootTest(properties = {
+        "wallet.ledger-reconciliation.lag-seconds=0",
+        "wallet.ledger-reconciliation.wallet-page-size=2",
+        "wallet.ledger-reconciliation.fanout=4",
+        "wallet.outbox.poll-interval-ms=3600000",
+        "wallet.outbox.backlog-check-interval-ms=3600000"
+})
+@Import(TestcontainersConfiguration.class)
+@ActiveProfiles("test")
+class LedgerReplicationReconcilerTest {
+
+    @Autowired
+    private LedgerReplicationReconciler reconciler;
+
+    @Autowired
+    private LedgerDigestService localDigests;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private LedgerOutboxService outboxService;
+
+    @Autowired
+    private LedgerOutboxRepository outboxRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerRepository;
+
+    @MockitoBean
+    private LedgerClient ledgerClient;
+
+    // Replica contents end here; null = fully replicated
+    private volatile Instant replicatedUpTo;
+
+    @BeforeEach
+    void simulateLedgerService() {
+        replicatedUpTo = null;
+        when(ledgerClient.isEnabled()).thenReturn(true);
+        when(ledgerClient.digestRange(any(), any(), any(), any(), anyLong())).thenAnswer(inv -> localDigests.digestRange(
+                inv.getArgument(0), inv.getArgument(1), inv.getArgument(2), replicaUpTo(inv.getArgument(3)), inv.getArgument(4)));
+        when(ledgerClient.digestWallets(any(), any(), any(), any(), anyLong())).thenAnswer(inv -> localDigests.digestWallets(
+                inv.getArgument(0), inv.getArgument(1), inv.getArgument(2), replicaUpTo(inv.getArgument(3)), inv.getArgument(4)));
+        when(ledgerClient.digestBuckets(any(), any(), any(), anyLong())).thenAnswer(inv -> localDigests.digestBuckets(
+                inv.getArgument(0), inv.getArgument(1), replicaUpTo(inv.getArgument(2)), inv.getArgument(3)));
+        when(ledgerClient.digestEntries(any(), anyLong(), any(), any(), anyLong())).thenAnswer(inv -> localDigests.digestEntries(
+                inv.getArgument(0), inv.getArgument(1), inv.getArgument(2), replicaUpTo(inv.getArgument(3)), inv.getArgument(4)));
+    }
+
+    @Test
+    void shouldCompareOnlyRangeRootsWhenInSync() {
+        for (int i = 0; i < 5; i++) {
+            Wallet wallet = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+            walletService.deposit(wallet.getId(), 1_000L + i, "merkle-sync-" + wallet.getId(), "Test");
+        }
+
+        LedgerReplicationReconciler.LedgerReplicationReport report = reconciler.reconcileManually(false);
+
+        assertThat(report.inSync()).isTrue();
+        assertThat(report.rangesDiffering()).isZero();
+        assertThat(report.nodesFetched()).isEqualTo(report.rangesCompared());
+    }
+
+    @Test
+    void shouldRequeueEntryMissingFromLedgerService() throws InterruptedException {
+        Wallet source = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        Wallet target = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        walletService.deposit(source.getId(), 10_000L, "merkle-dep-" + source.getId(), "Test");
+
+        Thread.sleep(5);
+        replicatedUpTo = Instant.now();
+        Thread.sleep(5);
+        walletService.transfer(source.getId(), target.getId(), 2_500L, "merkle-tr-" + source.getId(), "Rent");
+
+        // Both transfer legs were delivered once and then lost by Ledger Service
+        List<LedgerOutboxEntry> legs = outboxRepository.findAll().stream()
+                .filter(row -> row.getIdempotencyKey().startsWith("merkle-tr-" + source.getId()))
+                .toList();
+        assertThat(legs).hasSize(2);
+        outboxService.markPublished(legs.stream().map(LedgerOutboxEntry::getId).toList());
+
+        LedgerReplicationReconciler.LedgerReplicationReport report = reconciler.reconcileManually(true);
+
+        assertThat(report.inSync()).isFalse();
+        assertThat(report.walletsDiffering()).isEqualTo(2);
+        assertThat(report.missingEntries()).isEqualTo(2);
+        assertThat(report.requeuedEntries()).isEqualTo(2);
+        assertThat(report.divergentEntries()).isZero();
+        assertThat(report.unexpectedEntries()).isZero();
+
+        for (LedgerOutboxEntry leg : legs) {
+            LedgerOutboxEntry requeued = outboxRepository.findById(leg.getId()).orElseThrow();
+            LedgerEntry entry = ledgerRepository.findByIdempotencyKey(leg.getIdempotencyKey()).orElseThrow();
+            assertThat(requeued.getStatus()).isEqualTo(LedgerOutboxEntry.Status.PENDING);
+            assertThat(requeued.getOccurredAt()).isEqualTo(entry.getCreatedAt());
+        }
+    }
+
+    @Test
+    void shouldRequeueRefundAsRefund() throws InterruptedException {
+        Wallet wallet = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        String key = "merkle-refund-" + wallet.getId();
+
+        Thread.sleep(5);
+        replicatedUpTo = Instant.now();
+        Thread.sleep(5);
+        // A refund whose outbox row has been purged since it was delivered
+        ledgerRepository.save(LedgerEntry.builder()
+                .walletId(wallet.getId())
+                .entryType(LedgerEntry.EntryType.CREDIT)
+                .amountMinorUnits(500L)
+                .balanceAfter(500L)
+                .transactionId(UUID.randomUUID())
+                .idempotencyKey(key)
+                .description("Refund: Payout failed")
+                .transactionType("REFUND")
+                .build());
+
+        LedgerReplicationReconciler.LedgerReplicationReport report = reconciler.reconcileManually(true);
+
+        assertThat(report.requeuedEntries()).isEqualTo(1);
+        assertThat(outboxRepository.findByIdempotencyKey(key).orElseThrow().getTransactionType())
+                .isEqualTo("REFUND");
+    }
+
+    @Test
+    void shouldRejectHistoryBeyondLedgerRetention() {
+        assertThatThrownBy(() -> reconcilerWithHistory(0, 24))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("history-days");
+        assertThatThrownBy(() -> reconcilerWithHistory(672, 24))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatCode(() -> reconcilerWithHistory(671, 24)).doesNotThrowAnyException();
+    }
+
+    private static LedgerReplicationReconciler reconcilerWithHistory(long historyDays, int ledgerRetentionMonths) {
+        return new LedgerReplicationReconciler(null, null, null, null, null,
+                16, 16, 256, 86400, 900, historyDays, ledgerRetentionMonths, true);
+    }
+
+    private Instant replicaUpTo(Instant upTo) {
+        Instant cutoff = replicatedUpTo;
+        return cutoff != null && cutoff.isBefore(upTo) ? cutoff : upTo;
+    }
+}
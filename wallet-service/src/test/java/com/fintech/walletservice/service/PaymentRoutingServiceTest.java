@@ -0,0 +1,233 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.adapter.click.ClickAdapter;
+import com.fintech.walletservice.adapter.dto.DepositRequest;
+import com.fintech.walletservice.adapter.dto.PaymentResult;
+import com.fintech.walletservice.adapter.dto.PayoutResult;
+import com.fintech.walletservice.adapter.dto.WithdrawalRequest;
+import com.fintech.walletservice.adapter.payme.PaymeAdapter;
+import com.fintech.walletservice.adapter.stripe.StripeAdapter;
+import com.fintech.walletservice.domain.Deposit;
+import com.fintech.walletservice.domain.Payout;
+import com.fintech.walletservice.domain.Wallet;
+import com.fintech.walletservice.service.ProviderHealthTracker.CircuitState;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PaymentRoutingServiceTest {
+
+    private final PaymeAdapter payme = mock(PaymeAdapter.class);
+    private final ClickAdapter click = mock(ClickAdapter.class);
+    private final StripeAdapter stripe = mock(StripeAdapter.class);
+    private final WalletService walletService = mock(WalletService.class);
+    private final DepositService depositService = mock(DepositService.class);
+    private final PayoutService payoutService = mock(PayoutService.class);
+    private final ProviderHealthTracker tracker = new ProviderHealthTracker(10, 60, 2, 0.5, 2_000, 30, 1, System::nanoTime);
+
+    private PaymentRoutingService routing;
+    private final UUID walletId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        when(payme.getProviderName()).thenReturn("PAYME");
+        when(click.getProviderName()).thenReturn("CLICK");
+        when(stripe.getProviderName()).thenReturn("STRIPE");
+        when(walletService.getWalletInternal(walletId)).thenReturn(Wallet.builder().id(walletId)
+                .currency(Wallet.Currency.UZS).status(Wallet.WalletStatus.ACTIVE).balanceMinorUnits(1_000_000L).build());
+        when(depositService.begin(any())).thenAnswer(invocation ->
+                Optional.of(Deposit.builder().id(UUID.randomUUID()).build()));
+        when(depositService.lockPending(any())).thenReturn(true);
+
+        routing = routing(false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        routing.shutdownHedger();
+    }
+
+    @Test
+    void shouldFallBackWhenProviderThrowsAndCountItAsFault() {
+        when(payme.processDeposit(any())).thenThrow(new IllegalStateException("connect timed out"));
+        when(click.processDeposit(any())).thenReturn(PaymentResult.success("click-1", 10_000L, "CLICK"));
+
+        DepositRequest request = deposit();
+
+        PaymentResult result = routing.processDeposit(request);
+
+        assertThat(result.getProviderName()).isEqualTo("CLICK");
+        assertThat(tracker.snapshot("PAYME").failures()).isEqualTo(1);
+        assertThat(tracker.snapshot("CLICK").fallbacks()).isEqualTo(1);
+        verify(walletService).deposit(eq(walletId), eq(10_000L), anyString(), contains("CLICK"));
+        // Payme may have charged before timing out
+        verify(payme).cancelDeposit(request, null);
+    }
+
+    @Test
+    void shouldCancelDepositWhoseOutcomeIsUnknownInsteadOfFailingIt() {
+        when(payme.processDeposit(any())).thenThrow(new IllegalStateException("read timed out"));
+        when(click.processDeposit(any())).thenReturn(
+                PaymentResult.failure("INVALID_TOKEN", "Payment method token is required", "CLICK"));
+
+        PaymentResult result = routing.processDeposit(deposit());
+
+        assertThat(result.getProviderName()).isEqualTo("PAYME");
+        verify(depositService).markCancelling(any(), any());
+        verify(depositService, never()).markFailed(any(), any());
+    }
+
+    @Test
+    void shouldSkipProviderWithOpenCircuit() {
+        when(payme.processDeposit(any())).thenReturn(
+                PaymentResult.failure("PROVIDER_UNAVAILABLE", "Payme is down", "PAYME"));
+        when(click.processDeposit(any())).thenReturn(PaymentResult.success("click-1", 10_000L, "CLICK"));
+
+        routing.processDeposit(deposit());
+        routing.processDeposit(deposit());
+        assertThat(tracker.circuitState("PAYME")).isEqualTo(CircuitState.OPEN);
+
+        PaymentResult result = routing.processDeposit(deposit());
+
+        assertThat(result.getProviderName()).isEqualTo("CLICK");
+        verify(payme, times(2)).processDeposit(any());
+        assertThat(routing.routingReport().routes().get(Wallet.Currency.UZS))
+                .extracting(PaymentRoutingService.RouteWeight::firstChoiceShare)
+                .containsExactly(0.0, 0.0);
+    }
+
+    @Test
+    void shouldNotOpenCircuitForDeclines() {
+        when(payme.processDeposit(any())).thenReturn(
+                PaymentResult.failure("INVALID_TOKEN", "Payment method token is required", "PAYME"));
+        when(click.processDeposit(any())).thenReturn(
+                PaymentResult.failure("INVALID_TOKEN", "Payment method token is required", "CLICK"));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(routing.processDeposit(deposit()).isSuccess()).isFalse();
+        }
+
+        assertThat(tracker.circuitState("PAYME")).isEqualTo(CircuitState.CLOSED);
+        assertThat(tracker.health("PAYME")).isEqualTo(1.0);
+        verify(click, never()).processDeposit(any());
+        verify(walletService, never()).deposit(any(), anyLong(), any(), any());
+    }
+
+    @Test
+    void shouldNotSendWithdrawalToAnotherProviderAfterFault() {
+        when(payoutService.reserve(any())).thenAnswer(invocation ->
+                new PayoutService.Reservation(Payout.builder().build(), true));
+        when(payme.processWithdrawal(any())).thenThrow(new IllegalStateException("read timed out"));
+
+        PayoutResult result = routing.processWithdrawal(WithdrawalRequest.builder()
+                .walletId(walletId)
+                .amount(200_000L)
+                .currency(Wallet.Currency.UZS)
+                .destinationToken("card")
+                .build());
+
+        assertThat(result.isSuccess()).isFalse();
+        verify(payoutService).recordAttempt(any(), eq("PAYME"));
+        verify(click, never()).processWithdrawal(any());
+        // Payme may have paid: the funds stay reserved for PayoutStatusPoller to resubmit
+        verify(payoutService, never()).lockReserved(any());
+    }
+
+    @Test
+    void shouldRefundDeclinedWithdrawal() {
+        when(payoutService.reserve(any())).thenAnswer(invocation ->
+                new PayoutService.Reservation(Payout.builder().build(), true));
+        when(payme.processWithdrawal(any())).thenReturn(
+                PayoutResult.failure("INVALID_DESTINATION", "Destination card token is required", "PAYME"));
+
+        PayoutResult result = routing.processWithdrawal(WithdrawalRequest.builder()
+                .walletId(walletId)
+                .amount(200_000L)
+                .currency(Wallet.Currency.UZS)
+                .build());
+
+        assertThat(result.getErrorCode()).isEqualTo("INVALID_DESTINATION");
+        verify(payoutService).lockReserved(any());
+    }
+
+    @Test
+    void shouldCreditFasterProviderOnceAndCancelSlowerWhenHedging() {
+        routing = routing(true);
+        CountDownLatch paymeAnswers = new CountDownLatch(1);
+        when(payme.processDeposit(any())).thenAnswer(invocation -> {
+            paymeAnswers.await(2, TimeUnit.SECONDS);
+            return PaymentResult.success("payme-1", 10_000L, "PAYME");
+        });
+        when(click.processDeposit(any())).thenReturn(PaymentResult.success("click-1", 10_000L, "CLICK"));
+        when(payme.cancelDeposit(any(), any())).thenReturn(true);
+        DepositRequest request = deposit();
+
+        PaymentResult result = routing.processDeposit(request);
+        paymeAnswers.countDown();
+
+        assertThat(result.getProviderName()).isEqualTo("CLICK");
+        verify(walletService, times(1)).deposit(eq(walletId), eq(10_000L), eq(request.getIdempotencyKey()), contains("click-1"));
+        verify(payme, timeout(2_000)).cancelDeposit(request, "payme-1");
+        verify(click, never()).cancelDeposit(any(), any());
+    }
+
+    @Test
+    void shouldCancelPrimaryThatTimesOutAfterHedgeWins() {
+        routing = routing(true);
+        CountDownLatch paymeAnswers = new CountDownLatch(1);
+        when(payme.processDeposit(any())).thenAnswer(invocation -> {
+            paymeAnswers.await(2, TimeUnit.SECONDS);
+            throw new IllegalStateException("read timed out");
+        });
+        when(click.processDeposit(any())).thenReturn(PaymentResult.success("click-1", 10_000L, "CLICK"));
+        when(payme.cancelDeposit(any(), any())).thenReturn(true);
+        DepositRequest request = deposit();
+
+        PaymentResult result = routing.processDeposit(request);
+        paymeAnswers.countDown();
+
+        assertThat(result.getProviderName()).isEqualTo("CLICK");
+        verify(payme, timeout(2_000)).cancelDeposit(request, null);
+    }
+
+    @Test
+    void shouldNotHedgeDeclinedDeposit() {
+        routing = routing(true);
+        when(payme.processDeposit(any())).thenReturn(
+                PaymentResult.failure("CARD_DECLINED", "Card declined", "PAYME"));
+
+        PaymentResult result = routing.processDeposit(deposit());
+
+        assertThat(result.getErrorCode()).isEqualTo("CARD_DECLINED");
+        verify(click, never()).processDeposit(any());
+        verify(depositService).markFailed(any(), any());
+    }
+
+    // Without a fallback weight the preferred provider always goes first while healthy
+    private PaymentRoutingService routing(boolean hedging) {
+        return new PaymentRoutingService(payme, click, stripe, walletService, payoutService,
+                depositService, mock(PlatformTransactionManager.class),
+                new WalletMetrics(new SimpleMeterRegistry()), tracker, 0, hedging, 4, 50, 50);
+    }
+
+    private DepositRequest deposit() {
+        return DepositRequest.builder()
+                .walletId(walletId)
+                .amount(10_000L)
+                .currency(Wallet.Currency.UZS)
+                .paymentMethodToken("token")
+                .idempotencyKey(UUID.randomUUID().toString())
+                .build();
+    }
+}
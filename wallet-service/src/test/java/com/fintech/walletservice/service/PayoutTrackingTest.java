@@ -0,0 +1,211 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.adapter.dto.PayoutResult;
+import com.fintech.walletservice.adapter.dto.WithdrawalRequest;
+import com.fintech.walletservice.config.TestcontainersConfiguration;
+import com.fintech.walletservice.domain.Payout;
+import com.fintech.walletservice.domain.Wallet;
+import com.fintech.walletservice.job.PayoutStatusPoller;
+import com.fintech.walletservice.repository.PayoutRepository;
+import com.fintech.walletservice.repository.WalletRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Payout state changes commit with the balance changes that cause them,
+ * so this test is not @Transactional.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+@ActiveProfiles("test")
+class PayoutTrackingTest {
+
+    @Autowired
+    private PaymentRoutingService paymentRoutingService;
+
+    @Autowired
+    private WithdrawalWebhookHandler webhookHandler;
+
+    @Autowired
+    private PayoutStatusPoller statusPoller;
+
+    @Autowired
+    private PayoutRepository payoutRepository;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private PayoutService payoutService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void shouldRefundFailedPayoutOnce() {
+        Wallet wallet = fundedWallet();
+        UUID withdrawalId = submitWithdrawal(wallet, 4_000L);
+
+        Payout submitted = payoutRepository.findById(withdrawalId).orElseThrow();
+        assertThat(submitted.getStatus()).isEqualTo(Payout.Status.SUBMITTED);
+        assertThat(submitted.getProvider()).isEqualTo("STRIPE");
+        assertThat(submitted.getProviderPayoutId()).startsWith("po_");
+        assertThat(submitted.getNextCheckAt()).isAfter(Instant.now());
+        assertThat(balance(wallet)).isEqualTo(6_000L);
+
+        webhookHandler.handlePayoutProcessing(withdrawalId, submitted.getProviderPayoutId());
+        webhookHandler.handlePayoutFailure(withdrawalId, "Account closed");
+        webhookHandler.handlePayoutFailure(withdrawalId, "Account closed");
+
+        Payout refunded = payoutRepository.findById(withdrawalId).orElseThrow();
+        assertThat(refunded.getStatus()).isEqualTo(Payout.Status.REFUNDED);
+        assertThat(refunded.getFailureReason()).isEqualTo("Account closed");
+        assertThat(refunded.getNextCheckAt()).isNull();
+        assertThat(balance(wallet)).isEqualTo(10_000L);
+    }
+
+    @Test
+    void shouldSettleOverduePayoutByStatusCheck() {
+        Wallet wallet = fundedWallet();
+        UUID withdrawalId = submitWithdrawal(wallet, 4_000L);
+
+        Payout payout = payoutRepository.findById(withdrawalId).orElseThrow();
+        payout.setNextCheckAt(Instant.now().minusSeconds(1));
+        payoutRepository.save(payout);
+
+        statusPoller.checkOverduePayouts();
+
+        Payout settled = payoutRepository.findById(withdrawalId).orElseThrow();
+        assertThat(settled.getStatus()).isEqualTo(Payout.Status.SETTLED);
+        assertThat(settled.getStatusChecks()).isEqualTo(1);
+
+        // A failure reported after settlement must not credit the funds back
+        webhookHandler.handlePayoutFailure(withdrawalId, "Late failure");
+        assertThat(payoutRepository.findById(withdrawalId).orElseThrow().getStatus())
+                .isEqualTo(Payout.Status.SETTLED);
+        assertThat(balance(wallet)).isEqualTo(6_000L);
+    }
+
+    @Test
+    void shouldRecordRejectedPayoutAsRefunded() {
+        Wallet wallet = fundedWallet();
+        WithdrawalRequest request = withdrawal(wallet, 4_000L);
+        request.setDestinationToken("invalid");
+
+        PayoutResult result = paymentRoutingService.processWithdrawal(request);
+
+        assertThat(result.isSuccess()).isFalse();
+        Payout payout = payoutRepository.findById(request.getWithdrawalId()).orElseThrow();
+        assertThat(payout.getStatus()).isEqualTo(Payout.Status.REFUNDED);
+        assertThat(payout.getProvider()).isEqualTo("STRIPE");
+        assertThat(balance(wallet)).isEqualTo(10_000L);
+    }
+
+    @Test
+    void shouldRefundReservationThatWasNeverSent() {
+        Wallet wallet = fundedWallet();
+        WithdrawalRequest request = reserveOverdue(wallet, 4_000L, null);
+        assertThat(balance(wallet)).isEqualTo(6_000L);
+
+        statusPoller.checkOverduePayouts();
+
+        Payout payout = payoutRepository.findById(request.getWithdrawalId()).orElseThrow();
+        assertThat(payout.getStatus()).isEqualTo(Payout.Status.REFUNDED);
+        assertThat(balance(wallet)).isEqualTo(10_000L);
+
+        // Replaying the request must not debit or send it again
+        PayoutResult replay = paymentRoutingService.processWithdrawal(request);
+        assertThat(replay.getErrorCode()).isEqualTo("DUPLICATE_REQUEST");
+        assertThat(balance(wallet)).isEqualTo(10_000L);
+    }
+
+    @Test
+    void shouldResubmitReservationInterruptedMidCall() {
+        Wallet wallet = fundedWallet();
+        WithdrawalRequest request = reserveOverdue(wallet, 4_000L, "STRIPE");
+
+        statusPoller.checkOverduePayouts();
+
+        Payout payout = payoutRepository.findById(request.getWithdrawalId()).orElseThrow();
+        assertThat(payout.getStatus()).isEqualTo(Payout.Status.SUBMITTED);
+        assertThat(payout.getProviderPayoutId()).startsWith("po_");
+        assertThat(balance(wallet)).isEqualTo(6_000L);
+    }
+
+    @Test
+    void shouldSettlePayoutWhoseWebhookArrivesBeforeSubmit() {
+        Wallet wallet = fundedWallet();
+        WithdrawalRequest request = reserveOverdue(wallet, 4_000L, "STRIPE");
+
+        webhookHandler.handlePayoutSuccess(request.getWithdrawalId(), "po_early");
+
+        Payout settled = payoutRepository.findById(request.getWithdrawalId()).orElseThrow();
+        assertThat(settled.getStatus()).isEqualTo(Payout.Status.SETTLED);
+        assertThat(settled.getNextCheckAt()).isNull();
+
+        // Neither the poller nor the late submission may resubmit or refund it
+        statusPoller.checkOverduePayouts();
+        payoutService.markSubmitted(request.getWithdrawalId(), PayoutResult.pending("po_early", "STRIPE"));
+        assertThat(payoutRepository.findById(request.getWithdrawalId()).orElseThrow().getStatus())
+                .isEqualTo(Payout.Status.SETTLED);
+        assertThat(balance(wallet)).isEqualTo(6_000L);
+    }
+
+    // What a node leaves behind if it dies after reserving funds
+    private WithdrawalRequest reserveOverdue(Wallet wallet, long amount, String calledProvider) {
+        WithdrawalRequest request = withdrawal(wallet, amount);
+        request.setWithdrawalId(UUID.randomUUID());
+        request.setIdempotencyKey(request.getWithdrawalId() + "-withdrawal");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            walletService.withdraw(wallet.getId(), amount, request.getIdempotencyKey(), "Withdrawal pending");
+            payoutService.reserve(request);
+        });
+        if (calledProvider != null) {
+            payoutService.recordAttempt(request.getWithdrawalId(), calledProvider);
+        }
+
+        Payout payout = payoutRepository.findById(request.getWithdrawalId()).orElseThrow();
+        payout.setNextCheckAt(Instant.now().minusSeconds(1));
+        payoutRepository.save(payout);
+        return request;
+    }
+
+    private Wallet fundedWallet() {
+        Wallet wallet = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        walletService.deposit(wallet.getId(), 10_000L, "deposit-" + UUID.randomUUID(), "Deposit");
+        return wallet;
+    }
+
+    private UUID submitWithdrawal(Wallet wallet, long amount) {
+        WithdrawalRequest request = withdrawal(wallet, amount);
+        assertThat(paymentRoutingService.processWithdrawal(request).isSuccess()).isTrue();
+        return request.getWithdrawalId();
+    }
+
+    private WithdrawalRequest withdrawal(Wallet wallet, long amount) {
+        return WithdrawalRequest.builder()
+                .walletId(wallet.getId())
+                .amount(amount)
+                .currency(Wallet.Currency.USD)
+                .destinationToken("ba_test")
+                .description("Payout")
+                .build();
+    }
+
+    private long balance(Wallet wallet) {
+        return walletRepository.findById(wallet.getId()).orElseThrow().getTotalBalanceMinorUnits();
+    }
+}
@@ -0,0 +1,103 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.service.ProviderHealthTracker.CircuitState;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ProviderHealthTrackerTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicLong now = new AtomicLong();
+
+    // window 10 calls / 60s, 4 calls minimum, opens at 50% errors, 100ms latency target,
+    // open 30s, 2 half-open probes
+    private final ProviderHealthTracker tracker = new ProviderHealthTracker(10, 60, 4, 0.5, 100, 30, 2, now::get);
+
+    @Test
+    void shouldOpenCircuitAtFailureRateAndRejectCalls() {
+        call("PAYME", 10 * MS, true);
+        call("PAYME", 10 * MS, false);
+        call("PAYME", 10 * MS, true);
+        assertThat(tracker.circuitState("PAYME")).isEqualTo(CircuitState.CLOSED);
+
+        call("PAYME", 10 * MS, false);
+
+        assertThat(tracker.circuitState("PAYME")).isEqualTo(CircuitState.OPEN);
+        assertThat(tracker.health("PAYME")).isZero();
+        assertThat(tracker.tryAcquire("PAYME")).isFalse();
+        assertThat(tracker.snapshot("PAYME").rejected()).isEqualTo(1);
+        assertThat(tracker.circuitState("CLICK")).isEqualTo(CircuitState.CLOSED);
+    }
+
+    @Test
+    void shouldCloseAfterHalfOpenProbesSucceed() {
+        open("PAYME");
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        assertThat(tracker.circuitState("PAYME")).isEqualTo(CircuitState.HALF_OPEN);
+        assertThat(tracker.tryAcquire("PAYME")).isTrue();
+        assertThat(tracker.tryAcquire("PAYME")).isTrue();
+        assertThat(tracker.tryAcquire("PAYME")).isFalse();
+
+        tracker.record("PAYME", 10 * MS, true);
+        tracker.record("PAYME", 10 * MS, true);
+
+        assertThat(tracker.circuitState("PAYME")).isEqualTo(CircuitState.CLOSED);
+        assertThat(tracker.health("PAYME")).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldReopenWhenHalfOpenProbeFails() {
+        open("PAYME");
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        call("PAYME", 10 * MS, false);
+
+        assertThat(tracker.circuitState("PAYME")).isEqualTo(CircuitState.OPEN);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(29));
+        assertThat(tracker.tryAcquire("PAYME")).isFalse();
+    }
+
+    @Test
+    void shouldLowerHealthForErrorsAndSlowCalls() {
+        for (int i = 0; i < 10; i++) {
+            call("PAYME", 10 * MS, i < 8);      // 20% errors
+            call("CLICK", 400 * MS, true);      // p95 four times the target
+        }
+
+        assertThat(tracker.health("PAYME")).isCloseTo(0.8, within(1e-9));
+        assertThat(tracker.health("CLICK")).isCloseTo(0.25, within(1e-9));
+        assertThat(tracker.snapshot("CLICK").p95Millis()).isEqualTo(400.0);
+    }
+
+    @Test
+    void shouldForgetCallsOlderThanWindow() {
+        for (int i = 0; i < 3; i++) {
+            call("PAYME", 10 * MS, false);
+        }
+        now.addAndGet(TimeUnit.SECONDS.toNanos(61));
+
+        call("PAYME", 10 * MS, false);
+
+        assertThat(tracker.snapshot("PAYME").calls()).isEqualTo(1);
+        assertThat(tracker.circuitState("PAYME")).isEqualTo(CircuitState.CLOSED);
+    }
+
+    private void open(String provider) {
+        for (int i = 0; i < 4; i++) {
+            call(provider, 10 * MS, false);
+        }
+        assertThat(tracker.circuitState(provider)).isEqualTo(CircuitState.OPEN);
+    }
+
+    private void call(String provider, long latencyNanos, boolean healthy) {
+        assertThat(tracker.tryAcquire(provider)).isTrue();
+        now.addAndGet(latencyNanos);
+        tracker.record(provider, latencyNanos, healthy);
+    }
+}
@@ -0,0 +1,141 @@
+package com.fintech.walletservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.*;
+
+class RequestHedgerTest {
+
+    private final RequestHedger hedger = new RequestHedger(4);
+    private final List<String> discarded = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        hedger.shutdown();
+    }
+
+    @Test
+    void shouldNotHedgeWhenPrimaryAnswersInTime() {
+        AtomicBoolean hedgeCalled = new AtomicBoolean();
+
+        RequestHedger.Result<String> result = hedger.call(
+                () -> "ok:primary",
+                () -> {
+                    hedgeCalled.set(true);
+                    return "ok:hedge";
+                },
+                () -> true, 1_000, this::succeeded, this::uncertain, discarded::add);
+
+        assertThat(result.value()).isEqualTo("ok:primary");
+        assertThat(result.outcome()).isEqualTo(RequestHedger.Outcome.NOT_HEDGED);
+        assertThat(hedgeCalled).isFalse();
+    }
+
+    @Test
+    void shouldReturnFasterHedgeAndDiscardLatePrimary() {
+        CountDownLatch primaryAnswers = new CountDownLatch(1);
+
+        RequestHedger.Result<String> result = hedger.call(
+                () -> {
+                    await(primaryAnswers);
+                    return "ok:primary";
+                },
+                () -> "ok:hedge",
+                () -> true, 20, this::succeeded, this::uncertain, discarded::add);
+
+        assertThat(result.value()).isEqualTo("ok:hedge");
+        assertThat(result.outcome()).isEqualTo(RequestHedger.Outcome.HEDGE_WON);
+
+        primaryAnswers.countDown();
+        hedger.shutdown();
+        assertThat(discarded).containsExactly("ok:primary");
+    }
+
+    @Test
+    void shouldDiscardPrimaryThatTimesOutAfterHedgeWins() {
+        CountDownLatch primaryAnswers = new CountDownLatch(1);
+
+        RequestHedger.Result<String> result = hedger.call(
+                () -> {
+                    await(primaryAnswers);
+                    return "timeout:primary";
+                },
+                () -> "ok:hedge",
+                () -> true, 20, this::succeeded, this::uncertain, discarded::add);
+
+        assertThat(result.value()).isEqualTo("ok:hedge");
+
+        primaryAnswers.countDown();
+        hedger.shutdown();
+        assertThat(discarded).containsExactly("timeout:primary");
+    }
+
+    @Test
+    void shouldStartHedgeAsFallbackWhenPrimaryFaultsEarly() {
+        long started = System.nanoTime();
+
+        RequestHedger.Result<String> result = hedger.call(
+                () -> "timeout:primary",
+                () -> "ok:hedge",
+                () -> true, 5_000, this::succeeded, this::uncertain, discarded::add);
+
+        assertThat(result.value()).isEqualTo("ok:hedge");
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(2_000);
+
+        // The hedge's thread discards the primary after handing over the result
+        hedger.shutdown();
+        assertThat(discarded).containsExactly("timeout:primary");
+    }
+
+    @Test
+    void shouldNotHedgeWhenPrimaryDeclines() {
+        AtomicBoolean hedgeCalled = new AtomicBoolean();
+
+        RequestHedger.Result<String> result = hedger.call(
+                () -> "declined:primary",
+                () -> {
+                    hedgeCalled.set(true);
+                    return "ok:hedge";
+                },
+                () -> true, 5_000, this::succeeded, this::uncertain, discarded::add);
+
+        assertThat(result.value()).isEqualTo("declined:primary");
+        assertThat(result.outcome()).isEqualTo(RequestHedger.Outcome.FAILED);
+        assertThat(hedgeCalled).isFalse();
+    }
+
+    @Test
+    void shouldReturnUncertainAnswerWhenBothFail() {
+        RequestHedger.Result<String> result = hedger.call(
+                () -> "timeout:primary",
+                () -> "declined:hedge",
+                () -> true, 20, this::succeeded, this::uncertain, discarded::add);
+
+        assertThat(result.value()).isEqualTo("timeout:primary");
+        assertThat(result.outcome()).isEqualTo(RequestHedger.Outcome.FAILED);
+        assertThat(discarded).isEmpty();
+    }
+
+    private boolean succeeded(String answer) {
+        return answer.startsWith("ok:");
+    }
+
+    private boolean uncertain(String answer) {
+        return answer.startsWith("timeout:");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
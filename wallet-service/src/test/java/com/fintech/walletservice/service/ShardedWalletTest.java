@@ -0,0 +1,119 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.config.TestcontainersConfiguration;
+import com.fintech.walletservice.domain.LedgerEntry;
+import com.fintech.walletservice.domain.Wallet;
+import com.fintech.walletservice.exception.InsufficientFundsException;
+import com.fintech.walletservice.repository.WalletBalanceShardRepository;
+import com.fintech.walletservice.repository.WalletRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+@ActiveProfiles("test")
+@Transactional
+class ShardedWalletTest {
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private WalletBalanceShardRepository shardRepository;
+
+    @Test
+    void shouldCreditShardsAndReportTotalBalance() {
+        Wallet merchant = shardedWallet(4);
+
+        for (int i = 0; i < 10; i++) {
+            walletService.deposit(merchant.getId(), 1000L, "dep-" + i, "Sale");
+        }
+
+        // Credits land in the shards, the main balance stays untouched
+        assertThat(walletRepository.sumShardBalances(merchant.getId())).isEqualTo(10000L);
+        assertThat(shardRepository.findByWalletIdOrderBySlot(merchant.getId())).hasSize(4);
+
+        assertThat(walletService.getWallet(merchant.getId()).getTotalBalanceMinorUnits()).isEqualTo(10000L);
+        assertThat(walletRepository.findTotalBalance(merchant.getId())).contains(10000L);
+        assertThat(walletService.reconcileBalance(merchant.getId())).isTrue();
+    }
+
+    @Test
+    void shouldConsolidateShardsOnWithdrawal() {
+        Wallet merchant = shardedWallet(4);
+        walletService.deposit(merchant.getId(), 3000L, "dep-1", "Sale");
+        walletService.deposit(merchant.getId(), 4000L, "dep-2", "Sale");
+
+        LedgerEntry withdrawal = walletService.withdraw(merchant.getId(), 6000L, "with-1", "Payout");
+
+        assertThat(withdrawal.getBalanceAfter()).isEqualTo(1000L);
+        assertThat(walletRepository.sumShardBalances(merchant.getId())).isZero();
+        assertThat(walletRepository.findById(merchant.getId()).orElseThrow().getBalanceMinorUnits())
+                .isEqualTo(1000L);
+        assertThat(walletService.reconcileBalance(merchant.getId())).isTrue();
+    }
+
+    @Test
+    void shouldRejectWithdrawalAboveTotalBalance() {
+        Wallet merchant = shardedWallet(2);
+        walletService.deposit(merchant.getId(), 5000L, "dep-1", "Sale");
+
+        assertThatThrownBy(() ->
+                walletService.withdraw(merchant.getId(), 5001L, "with-1", "Too much")
+        ).isInstanceOf(InsufficientFundsException.class)
+                .hasMessageContaining("Available: 5000");
+    }
+
+    @Test
+    void shouldTransferIntoAndOutOfShardedWallet() {
+        Wallet customer = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        Wallet merchant = shardedWallet(8);
+        walletService.deposit(customer.getId(), 10000L, "dep-1", "Top up");
+
+        walletService.transfer(customer.getId(), merchant.getId(), 2500L, "pay-1", "Order 1");
+        walletService.transfer(customer.getId(), merchant.getId(), 1500L, "pay-2", "Order 2");
+        walletService.transfer(merchant.getId(), customer.getId(), 500L, "refund-1", "Refund");
+
+        assertThat(walletRepository.findTotalBalance(customer.getId())).contains(6500L);
+        assertThat(walletRepository.findTotalBalance(merchant.getId())).contains(3500L);
+        assertThat(walletService.reconcileBalance(customer.getId())).isTrue();
+        assertThat(walletService.reconcileBalance(merchant.getId())).isTrue();
+    }
+
+    @Test
+    void shouldKeepTotalBalanceWhenResharding() {
+        Wallet merchant = shardedWallet(4);
+        walletService.deposit(merchant.getId(), 7000L, "dep-1", "Sale");
+
+        Wallet unsharded = walletService.reshardWallet(merchant.getId(), 0);
+
+        assertThat(unsharded.isSharded()).isFalse();
+        assertThat(unsharded.getTotalBalanceMinorUnits()).isEqualTo(7000L);
+        assertThat(shardRepository.findByWalletIdOrderBySlot(merchant.getId())).isEmpty();
+        assertThat(walletService.reconcileBalance(merchant.getId())).isTrue();
+    }
+
+    @Test
+    void shouldRejectShardCountOutOfRange() {
+        Wallet wallet = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+
+        assertThatThrownBy(() -> walletService.reshardWallet(wallet.getId(), 1000))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Wallet shardedWallet(int shardCount) {
+        Wallet wallet = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        return walletService.reshardWallet(wallet.getId(), shardCount);
+    }
+}
@@ -0,0 +1,96 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.config.TestcontainersConfiguration;
+import com.fintech.walletservice.domain.Wallet;
+import com.fintech.walletservice.repository.WalletRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Credit throughput into a single hot wallet, by shard count.
+ *
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ * Logs credits/second per shard count and only asserts correctness, so the
+ * numbers are for comparison on one machine, not a pass/fail threshold.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.hikari.maximum-pool-size=40",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.com.fintech.walletservice=INFO"
+})
+@Import(TestcontainersConfiguration.class)
+@ActiveProfiles("test")
+@Slf4j
+class ShardedWalletThroughputTest {
+
+    private static final int THREADS = 32;
+    private static final int DEPOSITS_PER_THREAD = 50;
+    private static final long AMOUNT = 100L;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @ParameterizedTest(name = "shards={0}")
+    @ValueSource(ints = {0, 4, 16, 32})
+    void measureConcurrentCreditThroughput(int shardCount) throws InterruptedException {
+        Wallet wallet = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        walletService.reshardWallet(wallet.getId(), shardCount);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        AtomicInteger failures = new AtomicInteger();
+
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < DEPOSITS_PER_THREAD; i++) {
+                        walletService.deposit(wallet.getId(), AMOUNT,
+                                "bench-" + shardCount + "-" + thread + "-" + i, "Benchmark credit");
+                    }
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        assertThat(done.await(5, TimeUnit.MINUTES)).isTrue();
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+
+        int credits = THREADS * DEPOSITS_PER_THREAD;
+        double creditsPerSecond = credits / (elapsedNanos / 1_000_000_000.0);
+        log.info("shards={} threads={} credits={} elapsed={}ms throughput={} credits/s",
+                shardCount, THREADS, credits, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), Math.round(creditsPerSecond));
+
+        assertThat(failures.get()).isZero();
+        assertThat(walletRepository.findTotalBalance(wallet.getId())).contains(credits * AMOUNT);
+        assertThat(walletService.reconcileBalance(wallet.getId())).isTrue();
+    }
+}
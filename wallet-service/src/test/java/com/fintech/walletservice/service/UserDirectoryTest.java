@@ -0,0 +1,130 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.client.AuthClient;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class UserDirectoryTest {
+
+    private final AuthClient authClient = mock(AuthClient.class);
+
+    @Test
+    void shouldServeRepeatedLookupsLocally() {
+        UUID userId = UUID.randomUUID();
+        when(authClient.lookupUserId("john@example.com")).thenReturn(Mono.just(userId));
+        UserDirectory directory = directory(600);
+
+        assertThat(directory.findUserId("john@example.com")).contains(userId);
+        assertThat(directory.findUserId("john@example.com")).contains(userId);
+
+        verify(authClient, times(1)).lookupUserId("john@example.com");
+        assertThat(directory.stats().hits()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRememberUnknownEmails() {
+        when(authClient.lookupUserId("nobody@example.com")).thenReturn(Mono.empty());
+        UserDirectory directory = directory(600);
+
+        assertThat(directory.findUserId("nobody@example.com")).isEmpty();
+        assertThat(directory.findUserId("nobody@example.com")).isEmpty();
+
+        verify(authClient, times(1)).lookupUserId("nobody@example.com");
+    }
+
+    @Test
+    void shouldNotCacheFailedLookups() {
+        UUID userId = UUID.randomUUID();
+        when(authClient.lookupUserId("john@example.com"))
+                .thenReturn(Mono.error(new IllegalStateException("auth-service down")))
+                .thenReturn(Mono.just(userId));
+        UserDirectory directory = directory(600);
+
+        assertThat(directory.findUserId("john@example.com")).isEmpty();
+        assertThat(directory.findUserId("john@example.com")).contains(userId);
+    }
+
+    @Test
+    void shouldShareOneCallBetweenConcurrentLookups() throws Exception {
+        UUID userId = UUID.randomUUID();
+        Sinks.One<UUID> response = Sinks.one();
+        when(authClient.lookupUserId("john@example.com")).thenReturn(response.asMono());
+        UserDirectory directory = directory(600);
+
+        List<CompletableFuture<Optional<UUID>>> lookups = List.of(
+                CompletableFuture.supplyAsync(() -> directory.findUserId("john@example.com")),
+                CompletableFuture.supplyAsync(() -> directory.findUserId("john@example.com")),
+                CompletableFuture.supplyAsync(() -> directory.findUserId("john@example.com")));
+
+        verify(authClient, timeout(1_000).times(1)).lookupUserId("john@example.com");
+        response.tryEmitValue(userId);
+
+        for (CompletableFuture<Optional<UUID>> lookup : lookups) {
+            assertThat(lookup.get(5, TimeUnit.SECONDS)).contains(userId);
+        }
+        verify(authClient, times(1)).lookupUserId("john@example.com");
+    }
+
+    @Test
+    void shouldRefreshKnownEmailsInBulk() {
+        UUID john = UUID.randomUUID();
+        UUID jane = UUID.randomUUID();
+        when(authClient.lookupUserId("john@example.com")).thenReturn(Mono.just(john));
+        when(authClient.lookupUserId("jane@example.com")).thenReturn(Mono.just(jane));
+        when(authClient.lookupUserId("nobody@example.com")).thenReturn(Mono.empty());
+        when(authClient.lookupUsers(anyCollection()))
+                .thenReturn(List.of(new AuthClient.UserLookupResponse(john, "john@example.com")));
+        UserDirectory directory = directory(0);
+
+        for (String email : List.of("john@example.com", "jane@example.com", "nobody@example.com")) {
+            directory.findUserId(email);
+            directory.findUserId(email);
+        }
+
+        // Negative entries just expire; jane has since been deleted
+        assertThat(directory.refreshStale()).isEqualTo(2);
+        assertThat(directory.findUserId("john@example.com")).contains(john);
+        assertThat(directory.findUserId("jane@example.com")).isEmpty();
+
+        verify(authClient, times(1)).lookupUsers(anyCollection());
+        verify(authClient, times(1)).lookupUserId("jane@example.com");
+    }
+
+    @Test
+    void shouldLetIdleEntriesExpire() {
+        UUID john = UUID.randomUUID();
+        UUID jane = UUID.randomUUID();
+        when(authClient.lookupUserId("john@example.com")).thenReturn(Mono.just(john));
+        when(authClient.lookupUserId("jane@example.com")).thenReturn(Mono.just(jane));
+        when(authClient.lookupUsers(anyCollection()))
+                .thenReturn(List.of(new AuthClient.UserLookupResponse(john, "john@example.com")));
+        UserDirectory directory = directory(0);
+
+        // jane is resolved once and never read again
+        directory.findUserId("john@example.com");
+        directory.findUserId("john@example.com");
+        directory.findUserId("jane@example.com");
+
+        assertThat(directory.refreshStale()).isEqualTo(1);
+        verify(authClient).lookupUsers(List.of("john@example.com"));
+
+        // john was not read since the refresh, so the next run leaves him to expire too
+        assertThat(directory.refreshStale()).isZero();
+        verify(authClient, times(1)).lookupUsers(anyCollection());
+    }
+
+    private UserDirectory directory(long refreshAfterSeconds) {
+        return new UserDirectory(authClient, 1_000, 3_600, 60, refreshAfterSeconds, 500);
+    }
+}
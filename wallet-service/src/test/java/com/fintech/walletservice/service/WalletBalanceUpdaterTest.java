@@ -0,0 +1,46 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.domain.Wallet;
+import com.fintech.walletservice.domain.WalletBalance;
+import com.fintech.walletservice.repository.WalletRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class WalletBalanceUpdaterTest {
+
+    private final WalletRepository walletRepository = mock(WalletRepository.class);
+    private final WalletBalanceUpdater updater = new WalletBalanceUpdater(
+            walletRepository, mock(WalletCache.class), new WalletMetrics(new SimpleMeterRegistry()));
+
+    @Test
+    void shouldRetryCreditWhenWalletWasUnshardedBeforeItsLock() {
+        UUID walletId = UUID.randomUUID();
+        WalletBalance credited = new WalletBalance(walletId, UUID.randomUUID(), Wallet.Currency.USD, 1_500L, 3L);
+        // The UPDATE still saw shards; a reshard to 0 committed before the lock was granted
+        when(walletRepository.applyBalanceDelta(walletId, 500L)).thenReturn(Optional.empty(), Optional.of(credited));
+        when(walletRepository.lockWalletForCredit(walletId)).thenReturn(Optional.of(
+                Wallet.builder().id(walletId).currency(Wallet.Currency.USD).shardCount(0).build()));
+
+        assertThat(updater.credit(walletId, 500L)).isEqualTo(credited);
+        verify(walletRepository, never()).creditShard(any(), anyInt(), anyLong());
+    }
+
+    @Test
+    void shouldCreditShardWhenWalletIsSharded() {
+        UUID walletId = UUID.randomUUID();
+        when(walletRepository.applyBalanceDelta(walletId, 500L)).thenReturn(Optional.empty());
+        when(walletRepository.lockWalletForCredit(walletId)).thenReturn(Optional.of(
+                Wallet.builder().id(walletId).currency(Wallet.Currency.USD).balanceMinorUnits(1_000L).shardCount(4).build()));
+        when(walletRepository.creditShard(eq(walletId), anyInt(), eq(500L))).thenReturn(Optional.of(700L));
+
+        assertThat(updater.credit(walletId, 500L).balanceMinorUnits()).isEqualTo(1_700L);
+        verify(walletRepository, times(1)).applyBalanceDelta(walletId, 500L);
+    }
+}
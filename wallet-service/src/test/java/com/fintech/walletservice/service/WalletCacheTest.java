@@ -0,0 +1,131 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.config.TestcontainersConfiguration;
+import com.fintech.walletservice.domain.Wallet;
+import com.fintech.walletservice.repository.WalletRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+// Not @Transactional: eviction happens after commit
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+@ActiveProfiles("test")
+class WalletCacheTest {
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletCache walletCache;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void shouldServeRepeatedReadsFromCache() {
+        Wallet wallet = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        walletService.getWallet(wallet.getId());
+
+        long hits = walletCache.stats().hits();
+        Wallet first = walletService.getWalletInternal(wallet.getId());
+        Wallet second = walletService.getWalletInternal(wallet.getId());
+
+        assertThat(walletCache.stats().hits()).isEqualTo(hits + 2);
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getVersion()).isEqualTo(first.getVersion());
+    }
+
+    @Test
+    void shouldSeeEveryCommittedWrite() {
+        UUID userId = UUID.randomUUID();
+        Wallet wallet = walletService.createWallet(userId, Wallet.Currency.USD);
+        assertThat(walletService.getWallet(wallet.getId()).getBalanceMinorUnits()).isZero();
+
+        walletService.deposit(wallet.getId(), 5_000L, "cache-dep-" + wallet.getId(), "Test");
+        assertThat(walletService.getWallet(wallet.getId()).getBalanceMinorUnits()).isEqualTo(5_000L);
+        assertThat(walletService.findByUserIdAndCurrency(userId, Wallet.Currency.USD))
+                .map(Wallet::getBalanceMinorUnits)
+                .contains(5_000L);
+
+        walletService.withdraw(wallet.getId(), 1_500L, "cache-wd-" + wallet.getId(), "Test");
+        assertThat(walletService.getWalletsByUser(userId))
+                .singleElement()
+                .extracting(Wallet::getBalanceMinorUnits)
+                .isEqualTo(3_500L);
+
+        walletService.freezeWallet(wallet.getId());
+        assertThat(walletService.getWallet(wallet.getId()).getStatus()).isEqualTo(Wallet.WalletStatus.FROZEN);
+
+        walletService.unfreezeWallet(wallet.getId());
+        assertThat(walletService.getWallet(wallet.getId()).getStatus()).isEqualTo(Wallet.WalletStatus.ACTIVE);
+    }
+
+    @Test
+    void shouldListWalletCreatedAfterUserWasCached() {
+        UUID userId = UUID.randomUUID();
+        walletService.createWallet(userId, Wallet.Currency.USD);
+        assertThat(walletService.getWalletsByUser(userId)).hasSize(1);
+
+        walletService.createWallet(userId, Wallet.Currency.EUR);
+
+        assertThat(walletService.getWalletsByUser(userId))
+                .extracting(Wallet::getCurrency)
+                .containsExactlyInAnyOrder(Wallet.Currency.USD, Wallet.Currency.EUR);
+    }
+
+    @Test
+    void shouldDropFillThatRacedWithWrite() {
+        Wallet wallet = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        long rejected = walletCache.stats().rejectedFills();
+
+        // The loader reads the row, then a deposit commits before the fill lands
+        Optional<Wallet> stale = walletCache.getWallet(wallet.getId(), () -> {
+            Optional<Wallet> row = walletRepository.findById(wallet.getId());
+            walletService.deposit(wallet.getId(), 700L, "cache-race-" + wallet.getId(), "Test");
+            return row;
+        });
+
+        assertThat(stale).map(Wallet::getBalanceMinorUnits).contains(0L);
+        assertThat(walletCache.stats().rejectedFills()).isEqualTo(rejected + 1);
+        assertThat(walletService.getWallet(wallet.getId()).getBalanceMinorUnits()).isEqualTo(700L);
+    }
+
+    @Test
+    void shouldReadOwnWritesInsideTransaction() {
+        Wallet wallet = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        walletService.getWallet(wallet.getId());
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            walletService.deposit(wallet.getId(), 900L, "cache-own-" + wallet.getId(), "Test");
+            assertThat(walletService.getWalletInternal(wallet.getId()).getBalanceMinorUnits()).isEqualTo(900L);
+            status.setRollbackOnly();
+        });
+
+        assertThat(walletService.getWalletInternal(wallet.getId()).getBalanceMinorUnits()).isZero();
+    }
+
+    @Test
+    void shouldNotCacheShardedWallets() {
+        Wallet merchant = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        walletService.reshardWallet(merchant.getId(), 4);
+        walletService.getWallet(merchant.getId());
+
+        walletService.deposit(merchant.getId(), 1_000L, "cache-shard-" + merchant.getId(), "Sale");
+
+        assertThat(walletService.getWallet(merchant.getId()).getTotalBalanceMinorUnits()).isEqualTo(1_000L);
+    }
+}
@@ -0,0 +1,160 @@
+package com.fintech.walletservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class WalletCommandQueueTest {
+
+    private WalletCommandQueue queue;
+
+    @AfterEach
+    void tearDown() {
+        if (queue != null) {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    void shouldApplyCommandsOfOneWalletInSubmissionOrderAndInBatches() throws Exception {
+        UUID walletId = UUID.randomUUID();
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+        List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+
+        queue = new WalletCommandQueue(4, 10, (id, batch) -> {
+            batches.add(batch.stream().map(WalletCommand::idempotencyKey).toList());
+            firstBatchStarted.countDown();
+            await(releaseFirstBatch);
+            batch.forEach(command -> command.result().complete(null));
+        });
+
+        WalletCommand first = command(walletId, "k-0");
+        queue.submit(first);
+        assertThat(firstBatchStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // These arrive while the first batch is in flight and must form the next batches
+        List<WalletCommand> queued = new ArrayList<>();
+        for (int i = 1; i <= 15; i++) {
+            WalletCommand command = command(walletId, "k-" + i);
+            queued.add(command);
+            queue.submit(command);
+        }
+        releaseFirstBatch.countDown();
+
+        for (WalletCommand command : queued) {
+            command.result().get(5, TimeUnit.SECONDS);
+        }
+
+        assertThat(batches).hasSize(3);
+        assertThat(batches.get(0)).containsExactly("k-0");
+        assertThat(batches.get(1)).hasSize(10);
+        assertThat(batches.stream().flatMap(List::stream).toList())
+                .containsExactlyElementsOf(IntStream.rangeClosed(0, 15)
+                        .mapToObj(i -> "k-" + i).toList());
+    }
+
+    @Test
+    void shouldNeverRunTwoBatchesOfTheSameWalletConcurrently() throws Exception {
+        int wallets = 4;
+        int commandsPerWallet = 200;
+        ConcurrentHashMap<UUID, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+        AtomicInteger overlaps = new AtomicInteger();
+
+        queue = new WalletCommandQueue(8, 5, (id, batch) -> {
+            AtomicInteger counter = inFlight.computeIfAbsent(id, k -> new AtomicInteger());
+            if (counter.incrementAndGet() > 1) {
+                overlaps.incrementAndGet();
+            }
+            Thread.yield();
+            counter.decrementAndGet();
+            batch.forEach(command -> command.result().complete(null));
+        });
+
+        List<WalletCommand> submitted = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> producers = new ArrayList<>();
+        for (int w = 0; w < wallets; w++) {
+            UUID walletId = UUID.randomUUID();
+            for (int p = 0; p < 2; p++) {
+                int producer = p;
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; i < commandsPerWallet / 2; i++) {
+                        WalletCommand command = command(walletId, producer + "-" + i);
+                        submitted.add(command);
+                        queue.submit(command);
+                    }
+                });
+                thread.start();
+                producers.add(thread);
+            }
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        for (WalletCommand command : submitted) {
+            command.result().get(5, TimeUnit.SECONDS);
+        }
+        assertThat(submitted).hasSize(wallets * commandsPerWallet);
+        assertThat(overlaps.get()).isZero();
+    }
+
+    @Test
+    void shouldFailUncompletedCommandsWhenHandlerThrowsAndKeepDraining() throws Exception {
+        UUID walletId = UUID.randomUUID();
+        AtomicInteger calls = new AtomicInteger();
+
+        queue = new WalletCommandQueue(1, 1, (id, batch) -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("boom");
+            }
+            batch.forEach(command -> command.result().complete(null));
+        });
+
+        WalletCommand failing = command(walletId, "k-1");
+        WalletCommand next = command(walletId, "k-2");
+        queue.submit(failing);
+        queue.submit(next);
+
+        assertThatThrownBy(() -> failing.result().join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(next.result().get(5, TimeUnit.SECONDS)).isNull();
+    }
+
+    @Test
+    void shouldRejectCommandsAfterShutdown() {
+        queue = new WalletCommandQueue(1, 1, (id, batch) ->
+                batch.forEach(command -> command.result().complete(null)));
+        queue.shutdown();
+
+        WalletCommand command = command(UUID.randomUUID(), "late");
+        queue.submit(command);
+
+        assertThat(command.result()).isCompletedExceptionally();
+    }
+
+    private static WalletCommand command(UUID walletId, String key) {
+        return WalletCommand.of(WalletCommand.Type.DEPOSIT, walletId, 100L, key, "test", "user@example.com");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.client.NotificationClient;
+import com.fintech.walletservice.config.TestcontainersConfiguration;
+import com.fintech.walletservice.domain.Wallet;
+import com.fintech.walletservice.exception.InsufficientFundsException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Notifications are driven by after-commit domain events, so this test is
+ * deliberately not @Transactional.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+@ActiveProfiles("test")
+class WalletEventsTest {
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockitoBean
+    private NotificationClient notificationClient;
+
+    @Test
+    void shouldNotifyAfterDepositCommits() {
+        Wallet wallet = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+
+        walletService.deposit(wallet.getId(), 5_000L, "deposit-" + UUID.randomUUID(), "Deposit");
+
+        verify(notificationClient, timeout(2_000)).notifyDeposit(
+                eq(wallet.getUserId()), any(), eq("$50.00"), eq("USD"), eq(wallet.getId()), any(), eq("$50.00"));
+    }
+
+    @Test
+    void shouldNotNotifyWhenDepositRollsBack() throws Exception {
+        Wallet wallet = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            walletService.deposit(wallet.getId(), 5_000L, "deposit-" + UUID.randomUUID(), "Deposit");
+            status.setRollbackOnly();
+        });
+
+        Thread.sleep(300);
+        verify(notificationClient, never()).notifyDeposit(
+                eq(wallet.getUserId()), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldNotNotifyFailedTransfer() throws Exception {
+        Wallet from = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        Wallet to = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        walletService.deposit(from.getId(), 1_000L, "deposit-" + UUID.randomUUID(), "Deposit");
+
+        assertThatThrownBy(() -> walletService.transfer(from.getId(), to.getId(), 5_000L,
+                "transfer-" + UUID.randomUUID(), "Too much"))
+                .isInstanceOf(InsufficientFundsException.class);
+
+        Thread.sleep(300);
+        verify(notificationClient, never()).notifyTransferSent(any(), any(), any(), any(), any(), any(), any());
+        verify(notificationClient, never()).notifyTransferReceived(any(), any(), any(), any(), any(), any(), any());
+    }
+}
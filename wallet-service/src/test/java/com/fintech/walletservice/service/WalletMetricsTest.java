@@ -0,0 +1,72 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.domain.LedgerEntry;
+import com.fintech.walletservice.exception.InsufficientFundsException;
+import com.fintech.walletservice.exception.WalletNotActiveException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+class WalletMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final WalletMetrics metrics = new WalletMetrics(registry);
+
+    @Test
+    void shouldTagNewEntriesAsSuccessAndReplaysAsDuplicate() {
+        metrics.recordOperation("deposit", WalletMetricsTest::newEntry);
+        metrics.recordOperation("deposit", () -> entryCreatedAt(Instant.now().minusSeconds(60)));
+
+        assertThat(count("deposit", "success")).isEqualTo(1);
+        assertThat(count("deposit", "duplicate")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldTagFailuresByCause() {
+        assertThatThrownBy(() -> metrics.recordOperation("withdraw", () -> {
+            throw new InsufficientFundsException("Insufficient balance");
+        })).isInstanceOf(InsufficientFundsException.class);
+        assertThatThrownBy(() -> metrics.recordOperation("transfer", () -> {
+            throw new WalletNotActiveException("Wallet is FROZEN");
+        })).isInstanceOf(WalletNotActiveException.class);
+
+        assertThat(count("withdraw", "insufficient_funds")).isEqualTo(1);
+        assertThat(count("transfer", "not_active")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldTagDeclinedProviderCalls() {
+        metrics.recordProviderCall("PAYME", "deposit", () -> false, declined -> declined);
+
+        assertThat(registry.get(WalletMetrics.PROVIDER_REQUESTS)
+                .tags("provider", "PAYME", "operation", "deposit", "outcome", "declined")
+                .timer().count()).isEqualTo(1);
+    }
+
+    private long count(String operation, String outcome) {
+        return registry.get(WalletMetrics.OPERATION)
+                .tags("operation", operation, "outcome", outcome)
+                .timer().count();
+    }
+
+    private static LedgerEntry newEntry() {
+        return LedgerEntry.builder()
+                .walletId(UUID.randomUUID())
+                .entryType(LedgerEntry.EntryType.CREDIT)
+                .amountMinorUnits(100L)
+                .build();
+    }
+
+    private static LedgerEntry entryCreatedAt(Instant createdAt) {
+        return LedgerEntry.builder()
+                .walletId(UUID.randomUUID())
+                .entryType(LedgerEntry.EntryType.CREDIT)
+                .amountMinorUnits(100L)
+                .createdAt(createdAt)
+                .build();
+    }
+}
@@ -2,10 +2,13 @@ package com.fintech.walletservice.service;
 
 import com.fintech.walletservice.config.TestcontainersConfiguration;
 import com.fintech.walletservice.domain.LedgerEntry;
+import com.fintech.walletservice.domain.LedgerOutboxEntry;
 import com.fintech.walletservice.domain.Wallet;
 import com.fintech.walletservice.exception.DuplicateWalletException;
 import com.fintech.walletservice.exception.InsufficientFundsException;
+import com.fintech.walletservice.exception.WalletNotActiveException;
 import com.fintech.walletservice.repository.LedgerEntryRepository;
+import com.fintech.walletservice.repository.LedgerOutboxRepository;
 import com.fintech.walletservice.repository.WalletRepository;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -39,6 +42,9 @@ class WalletServiceIntegrationTest {
     @Autowired
     private LedgerEntryRepository ledgerRepository;
 
+    @Autowired
+    private LedgerOutboxRepository outboxRepository;
+
     @Test
     void shouldCreateWalletSuccessfully() {
         UUID userId = UUID.randomUUID();
@@ -82,6 +88,22 @@ class WalletServiceIntegrationTest {
         assertThat(updated.getBalanceMinorUnits()).isEqualTo(50000L);
     }
 
+    @Test
+    void shouldQueueLedgerReplicationInOutbox() {
+        UUID userId = UUID.randomUUID();
+        Wallet wallet = walletService.createWallet(userId, Wallet.Currency.USD);
+        String idempotencyKey = "deposit-outbox-" + UUID.randomUUID();
+
+        LedgerEntry entry = walletService.deposit(wallet.getId(), 25000L, idempotencyKey, "Outbox test");
+
+        LedgerOutboxEntry outboxEntry = outboxRepository.findByIdempotencyKey(idempotencyKey).orElseThrow();
+        assertThat(outboxEntry.getStatus()).isEqualTo(LedgerOutboxEntry.Status.PENDING);
+        assertThat(outboxEntry.getTransactionType()).isEqualTo("DEPOSIT");
+        assertThat(outboxEntry.getUserId()).isEqualTo(userId);
+        assertThat(outboxEntry.getTransactionId()).isEqualTo(entry.getTransactionId());
+        assertThat(outboxEntry.getBalanceAfter()).isEqualTo(25000L);
+    }
+
     @Test
     void shouldEnforceIdempotencyOnDeposit() {
         UUID userId = UUID.randomUUID();
@@ -136,6 +158,21 @@ class WalletServiceIntegrationTest {
         ).isInstanceOf(InsufficientFundsException.class);
     }
 
+    @Test
+    void shouldRejectDepositToFrozenWalletWithoutChangingBalance() {
+        UUID userId = UUID.randomUUID();
+        Wallet wallet = walletService.createWallet(userId, Wallet.Currency.USD);
+        walletService.deposit(wallet.getId(), 5000L, "dep-1", "Initial");
+        walletService.freezeWallet(wallet.getId());
+
+        assertThatThrownBy(() ->
+                walletService.deposit(wallet.getId(), 1000L, "dep-2", "Frozen")
+        ).isInstanceOf(WalletNotActiveException.class);
+
+        Wallet updated = walletRepository.findById(wallet.getId()).orElseThrow();
+        assertThat(updated.getBalanceMinorUnits()).isEqualTo(5000L);
+    }
+
     @Test
     void shouldReconcileBalanceCorrectly() {
         UUID userId = UUID.randomUUID();
@@ -0,0 +1,104 @@
+package com.fintech.walletservice.service;
+
+import com.fintech.walletservice.config.TestcontainersConfiguration;
+import com.fintech.walletservice.domain.Wallet;
+import com.fintech.walletservice.repository.LedgerEntryRepository;
+import com.fintech.walletservice.repository.ProcessedWebhookRepository;
+import com.fintech.walletservice.repository.WalletRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Dedupe has to hold across commits, so this test is deliberately not @Transactional.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+@ActiveProfiles("test")
+class WebhookIdempotencyTest {
+
+    @Autowired
+    private WithdrawalWebhookHandler webhookHandler;
+
+    @Autowired
+    private WebhookIdempotencyStore idempotencyStore;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerRepository;
+
+    @Autowired
+    private ProcessedWebhookRepository processedWebhookRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void shouldRefundFailedPayoutOnceAcrossRetries() {
+        Wallet wallet = walletService.createWallet(UUID.randomUUID(), Wallet.Currency.USD);
+        walletService.deposit(wallet.getId(), 10_000L, "deposit-" + UUID.randomUUID(), "Deposit");
+        UUID withdrawalId = UUID.randomUUID();
+        walletService.withdraw(wallet.getId(), 4_000L, withdrawalId + "-withdrawal", "Withdrawal pending");
+
+        webhookHandler.handlePayoutFailure(withdrawalId, "Card closed");
+        webhookHandler.handlePayoutFailure(withdrawalId, "Card closed");
+
+        // A restarted node or another replica only has the database tier
+        idempotencyStore.clearMemoryTier();
+        webhookHandler.handlePayoutFailure(withdrawalId, "Card closed");
+
+        assertThat(balance(wallet)).isEqualTo(10_000L);
+        assertThat(ledgerRepository.existsByIdempotencyKey(withdrawalId + "-refund")).isTrue();
+        assertThat(processedWebhookRepository.existsById("payout_failure_" + withdrawalId)).isTrue();
+        assertThat(idempotencyStore.stats().memoryHits()).isGreaterThanOrEqualTo(1);
+        assertThat(idempotencyStore.stats().databaseDuplicates()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void shouldReleaseClaimWhenWebhookRollsBack() {
+        String key = "payout_success_" + UUID.randomUUID();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(idempotencyStore.claim(key)).isTrue();
+            status.setRollbackOnly();
+        });
+
+        Boolean retried = transactionTemplate.execute(status -> idempotencyStore.claim(key));
+        Boolean duplicate = transactionTemplate.execute(status -> idempotencyStore.claim(key));
+        assertThat(retried).isTrue();
+        assertThat(duplicate).isFalse();
+    }
+
+    @Test
+    void shouldPurgeOnlyExpiredKeys() {
+        String expired = "payout_success_" + UUID.randomUUID();
+        String recent = "payout_success_" + UUID.randomUUID();
+        transactionTemplate.executeWithoutResult(status -> {
+            processedWebhookRepository.insertIfAbsent(expired, Instant.now().minus(Duration.ofDays(31)));
+            processedWebhookRepository.insertIfAbsent(recent, Instant.now());
+        });
+
+        assertThat(idempotencyStore.purgeExpired()).isGreaterThanOrEqualTo(1);
+
+        assertThat(processedWebhookRepository.existsById(expired)).isFalse();
+        assertThat(processedWebhookRepository.existsById(recent)).isTrue();
+    }
+
+    private long balance(Wallet wallet) {
+        return walletRepository.findById(wallet.getId()).orElseThrow().getTotalBalanceMinorUnits();
+    }
+}